@@ -1,5 +1,7 @@
 package de.leuphana.escience.dspacepurebridge;
 
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import io.micrometer.core.instrument.Timer;
 import org.dspace.core.Context;
 import org.dspace.eperson.EPerson;
 import org.dspace.eperson.factory.EPersonServiceFactory;
@@ -32,12 +34,15 @@ public class CLIScriptContextUtils {
 
     public static void closeContext(Context context) {
         if (context != null && context.isValid()) {
+            Timer.Sample sample = Timer.start();
             try {
                 context.dispatchEvents();
                 context.complete();
             } catch (Exception e) {
                 context.abort();
                 throw new RuntimeException(e);
+            } finally {
+                sample.stop(BridgeMetrics.timer("context.commit"));
             }
         }
     }
@@ -0,0 +1,49 @@
+package de.leuphana.escience.dspacepurebridge;
+
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.services.ConfigurationService;
+
+import java.nio.file.Path;
+
+public class ConfigurationUtils {
+    static final String STATE_DIR = "dspace-pure-bridge.state.dir";
+    public static final String IMPORT_WORKERS = "dspace-pure-bridge.import.workers";
+    public static final String DATABASE_CONNECTIONS = "dspace-pure-bridge.database.connections";
+    public static final String PURE_WS_PAGESIZE = "dspace-pure-bridge.pure.ws.pagesize";
+    public static final String PURE_WS_PREFETCH = "dspace-pure-bridge.pure.ws.prefetch";
+
+    private ConfigurationUtils() {
+    }
+
+    public static int getIntProperty(ConfigurationService configurationService, String key, int defaultValue) {
+        if (configurationService.hasProperty(key)) {
+            return configurationService.getIntProperty(key);
+        }
+        return defaultValue;
+    }
+
+    public static String getProperty(ConfigurationService configurationService, String key, String defaultValue) {
+        if (configurationService.hasProperty(key)) {
+            return configurationService.getProperty(key);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Directory in which the bridge keeps state between runs (e.g. import watermarks).
+     *
+     * @return the configured state directory, {@code [dspace.dir]/var/dspace-pure-bridge} if none is configured,
+     * or {@code null} if neither property is set
+     */
+    public static Path getStateDirectory(ConfigurationService configurationService) {
+        String stateDirectory = configurationService.getProperty(STATE_DIR);
+        if (StringUtils.isNotBlank(stateDirectory)) {
+            return Path.of(stateDirectory);
+        }
+        String dspaceDirectory = configurationService.getProperty("dspace.dir");
+        if (StringUtils.isNotBlank(dspaceDirectory)) {
+            return Path.of(dspaceDirectory, "var", "dspace-pure-bridge");
+        }
+        return null;
+    }
+}
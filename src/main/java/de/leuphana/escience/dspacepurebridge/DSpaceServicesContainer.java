@@ -5,6 +5,7 @@ import org.dspace.authorize.service.ResourcePolicyService;
 import org.dspace.content.service.*;
 import org.dspace.discovery.IndexingService;
 import org.dspace.discovery.SearchService;
+import org.dspace.discovery.SolrSearchCore;
 import org.dspace.handle.service.HandleService;
 import org.dspace.services.ConfigurationService;
 
@@ -17,6 +18,7 @@ public class DSpaceServicesContainer {
     private final HandleService handleService;
     private final IndexingService indexingService;
     private final SearchService searchService;
+    private final SolrSearchCore solrSearchCore;
     private final CollectionService collectionService;
     private final WorkspaceItemService workspaceItemService;
     private final InstallItemService installItemService;
@@ -32,6 +34,7 @@ public class DSpaceServicesContainer {
         this.handleService = builder.handleService;
         this.indexingService = builder.indexingService;
         this.searchService = builder.searchService;
+        this.solrSearchCore = builder.solrSearchCore;
         this.collectionService = builder.collectionService;
         this.workspaceItemService = builder.workspaceItemService;
         this.installItemService = builder.installItemService;
@@ -67,6 +70,10 @@ public class DSpaceServicesContainer {
         return searchService;
     }
 
+    public SolrSearchCore getSolrSearchCore() {
+        return solrSearchCore;
+    }
+
     public CollectionService getCollectionService() {
         return collectionService;
     }
@@ -101,6 +108,7 @@ public class DSpaceServicesContainer {
         private HandleService handleService;
         private IndexingService indexingService;
         private SearchService searchService;
+        private SolrSearchCore solrSearchCore;
         private CollectionService collectionService;
         private WorkspaceItemService workspaceItemService;
         private InstallItemService installItemService;
@@ -147,6 +155,11 @@ public class DSpaceServicesContainer {
             return this;
         }
 
+        public Builder solrSearchCore(SolrSearchCore solrSearchCore) {
+            this.solrSearchCore = solrSearchCore;
+            return this;
+        }
+
         public Builder collectionService(CollectionService collectionService) {
             this.collectionService = collectionService;
             return this;
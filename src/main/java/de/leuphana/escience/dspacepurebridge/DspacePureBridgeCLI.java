@@ -1,5 +1,7 @@
 package de.leuphana.escience.dspacepurebridge;
 
+import de.leuphana.escience.dspacepurebridge.metrics.MetricsReporter;
+import de.leuphana.escience.dspacepurebridge.pure.PureHttpTransport;
 import de.leuphana.escience.dspacepurebridge.pure.export.DSpaceToPure;
 import de.leuphana.escience.dspacepurebridge.pure.imports.DSpacePureEntity;
 import de.leuphana.escience.dspacepurebridge.pure.imports.PureToDSpace;
@@ -22,7 +24,11 @@ import org.dspace.services.factory.DSpaceServicesFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -31,6 +37,7 @@ public class DspacePureBridgeCLI {
     private static final Logger log = LoggerFactory.getLogger(DspacePureBridgeCLI.class);
     static final String PURE_BRIDGE_PURE_WS_ENDPOINT_BASE = "dspace-pure-bridge.pure.ws.endpoint.base";
     static final String PURE_BRIDGE_PURE_WS_APIKEY = "dspace-pure-bridge.pure.ws.apikey";
+    static final String PURE_BRIDGE_SEARCH_PAGESIZE = "dspace-pure-bridge.search.pagesize";
 
     private final HandleService handleService = HandleServiceFactory.getInstance().getHandleService();
     private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
@@ -58,10 +65,11 @@ public class DspacePureBridgeCLI {
     private String pureWsApiKey;
     private boolean help;
     private boolean importData;
+    private boolean fullImport;
     private boolean exportData;
     private int exportLimit;
     private boolean checkOnly;
-    private String exportHandle;
+    private List<String> exportTargets;
 
     @SuppressWarnings("unchecked")
     public static void main(String[] args) {
@@ -78,11 +86,12 @@ public class DspacePureBridgeCLI {
 
     void setup(CommandLine commandLine) {
         this.importData = commandLine.hasOption('i');
+        this.fullImport = this.importData && commandLine.hasOption('f');
         this.exportData = commandLine.hasOption('e');
         this.help = commandLine.hasOption('h') || (!this.importData && !this.exportData);
         this.exportLimit = commandLine.hasOption('l') ? Integer.parseInt(commandLine.getOptionValue('l')) : 0;
         this.checkOnly = commandLine.hasOption('c');
-        this.exportHandle = commandLine.getOptionValue('x');
+        this.exportTargets = readExportTargets(commandLine);
 
         pureWsEndpointBase = configurationService.getProperty(PURE_BRIDGE_PURE_WS_ENDPOINT_BASE);
         if (StringUtils.isEmpty(pureWsEndpointBase)) {
@@ -101,21 +110,40 @@ public class DspacePureBridgeCLI {
         }
     }
 
+    private static List<String> readExportTargets(CommandLine commandLine) {
+        List<String> targets = new ArrayList<>();
+        String[] handles = commandLine.getOptionValues('x');
+        if (handles != null) {
+            targets.addAll(Arrays.asList(handles));
+        }
+        String exportFile = commandLine.getOptionValue('X');
+        if (StringUtils.isNotEmpty(exportFile)) {
+            try {
+                targets.addAll(Files.readAllLines(Path.of(exportFile)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read export file " + exportFile, e);
+            }
+        }
+        return targets;
+    }
+
     void run() throws Exception {
         if (help) {
             HelpFormatter formatter = new HelpFormatter();
             formatter.printHelp("/dspace/bin/dspace dsrun de.leuphana.escience.dspacepurebridge.PureSyncCLI", PureSyncCLIConfiguration.getOptions());
             return;
         }
-        if (importData) {
-            if (log.isInfoEnabled()) {
-                log.info("Importing Data ({}) from Pure", Arrays.toString(DSpacePureEntity.values()));
+        try (MetricsReporter metricsReporter = MetricsReporter.fromConfiguration(configurationService)) {
+            if (importData) {
+                if (log.isInfoEnabled()) {
+                    log.info("Importing Data ({}) from Pure", Arrays.toString(DSpacePureEntity.values()));
+                }
+                syncPureToDSpace();
+            }
+            if (exportData) {
+                log.info("Exporting Data to Pure");
+                syncDSpaceToPure(exportTargets, exportLimit, checkOnly);
             }
-            syncPureToDSpace();
-        }
-        if (exportData) {
-            log.info("Exporting Data to Pure");
-            syncDSpaceToPure(exportHandle, exportLimit, checkOnly);
         }
     }
 
@@ -133,7 +161,13 @@ public class DspacePureBridgeCLI {
         return validConfig;
     }
 
+    private void configureItemFinder() {
+        itemFinder.setPageSize(ConfigurationUtils.getIntProperty(configurationService, PURE_BRIDGE_SEARCH_PAGESIZE,
+                ItemFinder.DEFAULT_PAGE_SIZE));
+    }
+
     void syncPureToDSpace() throws SQLException, SearchServiceException {
+        configureItemFinder();
 
         DSpaceServicesContainer.Builder builder = new DSpaceServicesContainer.Builder();
         builder.itemService(itemService)
@@ -144,16 +178,24 @@ public class DspacePureBridgeCLI {
                 .relationshipTypeService(relationshipTypeService)
                 .relationshipService(relationshipService)
                 .handleService(handleService)
-                .searchService(searchService);
+                .searchService(searchService)
+                .solrSearchCore(DSpaceServicesFactory.getInstance().getServiceManager()
+                        .getServiceByName(SolrSearchCore.class.getName(), SolrSearchCore.class));
 
         DSpaceServicesContainer
                 dSpaceServicesContainer = new DSpaceServicesContainer(builder);
 
         PureToDSpace pureToDSpace = new PureToDSpace(pureWsEndpointBase, pureWsApiKey, dSpaceServicesContainer, itemFinder);
-        pureToDSpace.syncObjects();
+        pureToDSpace.setFullImport(fullImport);
+        try (PureHttpTransport httpTransport = PureHttpTransport.fromConfiguration(configurationService,
+                PureToDSpace.getConcurrentRequests(configurationService))) {
+            pureToDSpace.setHttpTransport(httpTransport);
+            pureToDSpace.syncObjects();
+        }
     }
 
-    void syncDSpaceToPure(String exportDataHandle, int exportLimit, boolean checkOnly) {
+    void syncDSpaceToPure(List<String> exportTargets, int exportLimit, boolean checkOnly) {
+        configureItemFinder();
         String dspaceBaseUrl = configurationService.getProperty("dspace.ui.url");
 
         DSpaceServicesContainer.Builder builder = new DSpaceServicesContainer.Builder();
@@ -169,9 +211,12 @@ public class DspacePureBridgeCLI {
         DSpaceServicesContainer
                 dSpaceServicesContainer = new DSpaceServicesContainer(builder);
 
-        DSpaceToPure dSpaceToPure = new DSpaceToPure(pureWsEndpointBase, pureWsApiKey, dspaceBaseUrl,
-                exportDataHandle, exportLimit, checkOnly, dSpaceServicesContainer, itemFinder);
-        dSpaceToPure.syncItems();
+        try (PureHttpTransport httpTransport = PureHttpTransport.fromConfiguration(configurationService,
+                DSpaceToPure.getConcurrentRequests(configurationService))) {
+            DSpaceToPure dSpaceToPure = new DSpaceToPure(pureWsEndpointBase, pureWsApiKey, dspaceBaseUrl,
+                    exportTargets, exportLimit, checkOnly, dSpaceServicesContainer, itemFinder, httpTransport);
+            dSpaceToPure.syncItems();
+        }
     }
 
 
@@ -1,5 +1,6 @@
 package de.leuphana.escience.dspacepurebridge;
 
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
 public class PureSyncCLIConfiguration {
@@ -8,10 +9,16 @@ public class PureSyncCLIConfiguration {
         Options options = new Options();
         options.addOption("h", "help", false, "help");
         options.addOption("i", "import", false, "import data from pure");
+        options.addOption("f", "full", false,
+                "import all data from pure, ignoring the last import date; only a full import relates unchanged "
+                        + "pure entities to dspace entities created since their import, so run it periodically");
         options.addOption("e", "export", false, "export data to pure");
         options.addOption("l", "exportLimit", true, "stop export after specified number of successful exports");
         options.addOption("c", "checkOnly", false, "perform no export, only verify export validity of items");
-        options.addOption("x", "exportHandle", true, "item handle to be exported to pure");
+        options.addOption(Option.builder("x").longOpt("exportHandle").hasArgs().valueSeparator(',')
+                .desc("item handles, item UUIDs or collection handles to be exported to pure").build());
+        options.addOption("X", "exportFile", true,
+                "file of item handles, item UUIDs or collection handles to be exported to pure, one per line");
         return options;
     }
 }
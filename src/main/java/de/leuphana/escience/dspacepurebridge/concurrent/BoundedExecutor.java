@@ -0,0 +1,104 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed size worker pool with a bounded hand-off queue.
+ * <p>
+ * {@link #submit(Runnable)} blocks the producing thread as soon as all workers are busy and the queue is full.
+ * A fast producer (e.g. the loop paging through the Pure API) therefore cannot run ahead of the workers,
+ * and the number of pending tasks never exceeds {@code workers + queueCapacity}, regardless of how much data
+ * is produced overall.
+ */
+public class BoundedExecutor {
+    private static final Logger log = LoggerFactory.getLogger(BoundedExecutor.class);
+
+    private final String name;
+    private final int workers;
+    private final int queueCapacity;
+    private final Semaphore slots;
+    private final ExecutorService executorService;
+
+    public BoundedExecutor(String name, int workers, int queueCapacity) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be at least 1!");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative!");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.slots = new Semaphore(workers + queueCapacity);
+        this.executorService = BridgeMetrics.monitor(
+                Executors.newFixedThreadPool(workers, NamedExecutors.threadFactory(name, false)), name);
+        log.info("Started executor '{}' with {} workers and a queue capacity of {}", name, workers, queueCapacity);
+    }
+
+    /**
+     * Hands the task over to the workers, waiting for a free slot if the queue is full.
+     *
+     * @param task the task to be executed by one of the workers
+     * @throws InterruptedException if the producing thread is interrupted while waiting for a free slot
+     */
+    public void submit(Runnable task) throws InterruptedException {
+        slots.acquire();
+        try {
+            executorService.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of tasks that have been submitted but not yet finished (running and queued)
+     */
+    public int getPendingTasks() {
+        return workers + queueCapacity - slots.availablePermits();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Stops accepting new tasks and waits until all submitted tasks are finished.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void shutdownAndAwaitTermination() throws InterruptedException {
+        executorService.shutdown();
+        executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        log.info("Executor '{}' terminated", name);
+    }
+
+    /**
+     * Stops the workers without waiting for the submitted tasks: running tasks are interrupted and queued tasks
+     * are dropped. Does nothing if the executor has already terminated.
+     */
+    public void shutdownNow() {
+        if (!executorService.isTerminated()) {
+            int droppedTasks = executorService.shutdownNow().size();
+            log.info("Executor '{}' stopped, {} queued tasks dropped", name, droppedTasks);
+        }
+    }
+}
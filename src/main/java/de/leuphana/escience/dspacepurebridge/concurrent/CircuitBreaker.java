@@ -0,0 +1,157 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker pausing all callers of a remote service while it is down.
+ * <p>
+ * After {@code failureThreshold} consecutive failures, the breaker opens and {@link #awaitClosed()} blocks all
+ * callers for the pause. Then a single caller is let through as probe: if it succeeds, the breaker closes again
+ * and the waiting callers continue; if it fails, the breaker opens for twice the previous pause, up to
+ * {@code maxPause}.
+ */
+public class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration pause;
+    private final Duration maxPause;
+    private final LongSupplier nanoTime;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Duration currentPause;
+    private long openUntilNanos;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration pause, Duration maxPause) {
+        this(name, failureThreshold, pause, maxPause, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration pause, Duration maxPause, LongSupplier nanoTime) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1!");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.pause = pause;
+        this.maxPause = maxPause.compareTo(pause) < 0 ? pause : maxPause;
+        this.currentPause = pause;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Waits while the breaker is open or another caller probes the service.
+     *
+     * @return whether the caller probes the service. The probe has to record its outcome, or to
+     * {@link #releaseProbe() release} the probe if its outcome tells nothing about the availability of the service.
+     */
+    public synchronized boolean awaitClosed() throws InterruptedException {
+        awaitPassable();
+        return enter();
+    }
+
+    /**
+     * Waits while the breaker is open or another caller probes the service, without becoming the probe. Lets
+     * callers wait for the service before taking resources they would hold during the call.
+     */
+    public synchronized void awaitPassable() throws InterruptedException {
+        while (true) {
+            if (state == State.OPEN) {
+                long remainingNanos = openUntilNanos - nanoTime.getAsLong();
+                if (remainingNanos <= 0) {
+                    return;
+                }
+                wait(Math.max(1, remainingNanos / 1_000_000));
+            } else if (state == State.HALF_OPEN && probeInFlight) {
+                wait();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #awaitClosed()}, but fails instead of waiting.
+     *
+     * @return whether the caller probes the service
+     * @throws CircuitBreakerOpenException if the breaker is open or another caller probes the service
+     */
+    public synchronized boolean tryEnter() {
+        if (state == State.OPEN && openUntilNanos - nanoTime.getAsLong() > 0
+                || state == State.HALF_OPEN && probeInFlight) {
+            throw new CircuitBreakerOpenException(name);
+        }
+        return enter();
+    }
+
+    private boolean enter() {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        probeInFlight = true;
+        log.info("Probing whether {} is available again", name);
+        return true;
+    }
+
+    /**
+     * Lets another caller probe the service if the probe ended without recording its outcome. Does nothing once the
+     * outcome of the probe has been recorded.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN && probeInFlight) {
+            probeInFlight = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Records a call that reached the service, closing the breaker if it was probing.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            log.info("{} is available again, resuming", name);
+            state = State.CLOSED;
+            currentPause = pause;
+            probeInFlight = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Records a call that failed because the service was unavailable.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            currentPause = currentPause.multipliedBy(2).compareTo(maxPause) > 0 ? maxPause
+                    : currentPause.multipliedBy(2);
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = nanoTime.getAsLong() + currentPause.toNanos();
+        log.warn("{} failed {} times in a row, pausing for {} seconds", name, consecutiveFailures,
+                currentPause.toSeconds());
+        notifyAll();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
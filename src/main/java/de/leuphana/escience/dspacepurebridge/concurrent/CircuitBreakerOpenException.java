@@ -0,0 +1,11 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+/**
+ * Thrown instead of calling a service while its {@link CircuitBreaker} is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String name) {
+        super(name + " is unavailable, the circuit breaker is open");
+    }
+}
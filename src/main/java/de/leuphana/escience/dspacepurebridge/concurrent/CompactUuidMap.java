@@ -0,0 +1,482 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe map from fixed size binary keys to {@link UUID}s, used for the entity caches of the import.
+ * <p>
+ * Keys and values are stored as primitive longs in a single open addressing table (linear probing), so an entry
+ * takes {@code 8 * (key longs + 2)} bytes instead of a hash map node with a key string or UUID and a boxed value.
+ * Lookups do not allocate apart from the returned {@link UUID}: readers probe the table optimistically and only
+ * fall back to a read lock if a writer has modified the table in the meantime.
+ * <p>
+ * Iterating the map works on a copy of the table taken when the iterator is created.
+ *
+ * @param <K> the key type, converted to and from longs by a {@link KeyCodec}
+ */
+public class CompactUuidMap<K> extends AbstractMap<K, UUID> {
+    private static final int MIN_CAPACITY = 16;
+    private static final int COMPUTE_LOCKS = 16;
+
+    /**
+     * Converts keys to a fixed number of longs and back.
+     */
+    public interface KeyCodec<K> {
+        /**
+         * @return the number of longs a key consists of
+         */
+        int length();
+
+        /**
+         * @return {@code true} if the object is a key this codec can encode
+         */
+        boolean accepts(Object key);
+
+        long part(K key, int index);
+
+        K decode(long[] parts);
+    }
+
+    /**
+     * Keys are UUIDs (e.g. Pure UUIDs).
+     */
+    public static final KeyCodec<UUID> UUID_KEYS = new KeyCodec<>() {
+        @Override
+        public int length() {
+            return 2;
+        }
+
+        @Override
+        public boolean accepts(Object key) {
+            return key instanceof UUID;
+        }
+
+        @Override
+        public long part(UUID key, int index) {
+            return index == 0 ? key.getMostSignificantBits() : key.getLeastSignificantBits();
+        }
+
+        @Override
+        public UUID decode(long[] parts) {
+            return new UUID(parts[0], parts[1]);
+        }
+    };
+
+    /**
+     * Keys are SHA-256 digests in lower case hex representation, as created by
+     * {@link org.apache.commons.codec.digest.DigestUtils#sha256Hex(String)}.
+     */
+    public static final KeyCodec<String> SHA256_HEX_KEYS = new KeyCodec<>() {
+        private static final int HEX_LENGTH = 64;
+
+        @Override
+        public int length() {
+            return 4;
+        }
+
+        @Override
+        public boolean accepts(Object key) {
+            if (!(key instanceof String string) || string.length() != HEX_LENGTH) {
+                return false;
+            }
+            for (int i = 0; i < HEX_LENGTH; i++) {
+                char c = string.charAt(i);
+                if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public long part(String key, int index) {
+            return Long.parseUnsignedLong(key, index * 16, index * 16 + 16, 16);
+        }
+
+        @Override
+        public String decode(long[] parts) {
+            char[] hex = new char[HEX_LENGTH];
+            for (int i = 0; i < HEX_LENGTH; i++) {
+                hex[i] = Character.forDigit((int) (parts[i / 16] >>> (60 - (i % 16) * 4)) & 0xf, 16);
+            }
+            return new String(hex);
+        }
+    };
+
+    private final KeyCodec<K> codec;
+    private final int keyLength;
+    private final int slotLength;
+    private final StampedLock lock = new StampedLock();
+    private final Object[] computeLocks = new Object[COMPUTE_LOCKS];
+    private Table table;
+    private volatile int size;
+
+    /**
+     * Slots and occupancy bitmap, replaced as a whole when the table grows so that an optimistic reader always sees
+     * arrays of matching capacity.
+     */
+    private record Table(long[] slots, long[] used, int mask) {
+        static Table withCapacity(int capacity, int slotLength) {
+            return new Table(new long[capacity * slotLength], new long[Math.max(1, capacity / 64)], capacity - 1);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        boolean isUsed(int index) {
+            return (used[index >>> 6] & (1L << index)) != 0L;
+        }
+
+        void setUsed(int index, boolean isUsed) {
+            if (isUsed) {
+                used[index >>> 6] |= 1L << index;
+            } else {
+                used[index >>> 6] &= ~(1L << index);
+            }
+        }
+    }
+
+    public CompactUuidMap(KeyCodec<K> codec, int expectedSize) {
+        this.codec = codec;
+        this.keyLength = codec.length();
+        this.slotLength = keyLength + 2;
+        this.table = Table.withCapacity(capacityFor(expectedSize), slotLength);
+        for (int i = 0; i < COMPUTE_LOCKS; i++) {
+            computeLocks[i] = new Object();
+        }
+    }
+
+    public static CompactUuidMap<UUID> withUuidKeys() {
+        return new CompactUuidMap<>(UUID_KEYS, 0);
+    }
+
+    public static CompactUuidMap<String> withSha256HexKeys() {
+        return new CompactUuidMap<>(SHA256_HEX_KEYS, 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!codec.accepts(key)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked") K typedKey = (K) key;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            boolean found = indexOf(table, typedKey) >= 0;
+            if (lock.validate(stamp)) {
+                return found;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return indexOf(table, typedKey) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public UUID get(Object key) {
+        if (!codec.accepts(key)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked") K typedKey = (K) key;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            Table current = table;
+            int index = indexOf(current, typedKey);
+            long mostSignificantBits = index < 0 ? 0L : current.slots[index * slotLength + keyLength];
+            long leastSignificantBits = index < 0 ? 0L : current.slots[index * slotLength + keyLength + 1];
+            if (lock.validate(stamp)) {
+                return index < 0 ? null : new UUID(mostSignificantBits, leastSignificantBits);
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            int index = indexOf(table, typedKey);
+            return index < 0 ? null : valueAt(table, index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public UUID put(K key, UUID value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public UUID putIfAbsent(K key, UUID value) {
+        return put(key, value, true);
+    }
+
+    private UUID put(K key, UUID value, boolean onlyIfAbsent) {
+        if (!codec.accepts(key)) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(table, key);
+            if (index >= 0) {
+                UUID previousValue = valueAt(table, index);
+                if (!onlyIfAbsent) {
+                    setValue(table, index, value);
+                }
+                return previousValue;
+            }
+            if ((size + 1) * 4L > table.capacity() * 3L) {
+                table = rehash(table, table.capacity() * 2);
+            }
+            index = -indexOf(table, key) - 1;
+            int offset = index * slotLength;
+            for (int i = 0; i < keyLength; i++) {
+                table.slots[offset + i] = codec.part(key, i);
+            }
+            setValue(table, index, value);
+            table.setUsed(index, true);
+            size++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Computes the value of an absent key at most once, like {@link java.util.concurrent.ConcurrentHashMap}.
+     * The mapping function runs outside of the table lock, so that other keys can be read and written meanwhile;
+     * only computations for keys sharing the same lock stripe wait for each other.
+     */
+    @Override
+    public UUID computeIfAbsent(K key, Function<? super K, ? extends UUID> mappingFunction) {
+        UUID value = get(key);
+        if (value != null) {
+            return value;
+        }
+        if (!codec.accepts(key)) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        synchronized (computeLocks[hash(codec.part(key, 0), codec.part(key, 1)) & (COMPUTE_LOCKS - 1)]) {
+            value = get(key);
+            if (value != null) {
+                return value;
+            }
+            value = mappingFunction.apply(key);
+            if (value == null) {
+                return null;
+            }
+            UUID previousValue = putIfAbsent(key, value);
+            return previousValue != null ? previousValue : value;
+        }
+    }
+
+    @Override
+    public UUID remove(Object key) {
+        if (!codec.accepts(key)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked") K typedKey = (K) key;
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(table, typedKey);
+            if (index < 0) {
+                return null;
+            }
+            UUID previousValue = valueAt(table, index);
+            removeAt(table, index);
+            size--;
+            return previousValue;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = Table.withCapacity(MIN_CAPACITY, slotLength);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, UUID>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, UUID>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactUuidMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return the slot index of the key, or {@code -(insertion index) - 1} if the key is not contained
+     */
+    private int indexOf(Table current, K key) {
+        long[] slots = current.slots;
+        long firstPart = codec.part(key, 0);
+        long secondPart = codec.part(key, 1);
+        int index = hash(firstPart, secondPart) & current.mask;
+        // bounded, so that an optimistic reader cannot loop forever on a table modified concurrently
+        for (int probes = 0; probes <= current.mask; probes++) {
+            if (!current.isUsed(index)) {
+                return -index - 1;
+            }
+            int offset = index * slotLength;
+            if (slots[offset] == firstPart && slots[offset + 1] == secondPart && restOfKeyEquals(slots, offset, key)) {
+                return index;
+            }
+            index = (index + 1) & current.mask;
+        }
+        return -index - 1;
+    }
+
+    private boolean restOfKeyEquals(long[] slots, int offset, K key) {
+        for (int i = 2; i < keyLength; i++) {
+            if (slots[offset + i] != codec.part(key, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Backward shift deletion: moves the following entries of the probe sequence into the freed slot, so that no
+     * tombstones are needed.
+     */
+    private void removeAt(Table current, int index) {
+        int hole = index;
+        int next = index;
+        while (true) {
+            next = (next + 1) & current.mask;
+            if (!current.isUsed(next)) {
+                break;
+            }
+            int offset = next * slotLength;
+            int home = hash(current.slots[offset], current.slots[offset + 1]) & current.mask;
+            boolean canMove = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (canMove) {
+                System.arraycopy(current.slots, offset, current.slots, hole * slotLength, slotLength);
+                hole = next;
+            }
+        }
+        current.setUsed(hole, false);
+    }
+
+    private Table rehash(Table current, int capacity) {
+        Table rehashed = Table.withCapacity(capacity, slotLength);
+        for (int index = 0; index < current.capacity(); index++) {
+            if (current.isUsed(index)) {
+                int offset = index * slotLength;
+                int newIndex = hash(current.slots[offset], current.slots[offset + 1]) & rehashed.mask;
+                while (rehashed.isUsed(newIndex)) {
+                    newIndex = (newIndex + 1) & rehashed.mask;
+                }
+                System.arraycopy(current.slots, offset, rehashed.slots, newIndex * slotLength, slotLength);
+                rehashed.setUsed(newIndex, true);
+            }
+        }
+        return rehashed;
+    }
+
+    private UUID valueAt(Table current, int index) {
+        int offset = index * slotLength + keyLength;
+        return new UUID(current.slots[offset], current.slots[offset + 1]);
+    }
+
+    private void setValue(Table current, int index, UUID value) {
+        int offset = index * slotLength + keyLength;
+        current.slots[offset] = value.getMostSignificantBits();
+        current.slots[offset + 1] = value.getLeastSignificantBits();
+    }
+
+    private static int hash(long firstPart, long secondPart) {
+        long hash = (firstPart ^ Long.rotateLeft(secondPart, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<K, UUID>> {
+        private final Table snapshot;
+        private int index = -1;
+        private int nextIndex;
+        private K lastKey;
+
+        EntryIterator() {
+            long stamp = lock.readLock();
+            try {
+                snapshot = new Table(table.slots.clone(), table.used.clone(), table.mask);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            nextIndex = findNext(0);
+        }
+
+        private int findNext(int from) {
+            for (int i = from; i < snapshot.capacity(); i++) {
+                if (snapshot.isUsed(i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex >= 0;
+        }
+
+        @Override
+        public Map.Entry<K, UUID> next() {
+            if (nextIndex < 0) {
+                throw new NoSuchElementException();
+            }
+            index = nextIndex;
+            nextIndex = findNext(index + 1);
+            long[] parts = new long[keyLength];
+            System.arraycopy(snapshot.slots, index * slotLength, parts, 0, keyLength);
+            lastKey = codec.decode(parts);
+            return new AbstractMap.SimpleImmutableEntry<>(lastKey, valueAt(snapshot, index));
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            CompactUuidMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
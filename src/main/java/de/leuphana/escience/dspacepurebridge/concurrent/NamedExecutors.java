@@ -0,0 +1,40 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors whose threads are named after the executor and numbered, e.g. {@code pure-prefetch-1}, so
+ * that they can be told apart in thread dumps and logs.
+ */
+public final class NamedExecutors {
+
+    private NamedExecutors() {
+    }
+
+    /**
+     * Creates an executor with daemon threads, which end after being idle for a minute, so the executor does not
+     * need to be shut down.
+     */
+    public static ExecutorService newCachedDaemonExecutor(String name) {
+        return Executors.newCachedThreadPool(threadFactory(name, true));
+    }
+
+    /**
+     * Creates an executor with a fixed number of daemon threads. It has to be shut down.
+     */
+    public static ExecutorService newFixedDaemonExecutor(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, threadFactory(name, true));
+    }
+
+    public static ThreadFactory threadFactory(String name, boolean daemon) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Pages through an offset based list endpoint (e.g. of the Pure API) while keeping up to {@code prefetch} page
+ * requests in flight.
+ * <p>
+ * Pages are returned by {@link #nextPage()} in offset order, regardless of the order in which the requests
+ * complete. The first short page ends the paging; requests for pages behind it are cancelled. To avoid wasted
+ * requests for result lists fitting into a single page, further pages are only prefetched once the first page has
+ * turned out to be full. With a {@code prefetch} of 1, pages are fetched one after another in the calling thread.
+ * <p>
+ * A consumer stopping before the last page must {@link #close()} the prefetcher.
+ *
+ * @param <T> the type of the list items
+ */
+public class PagePrefetcher<T> implements AutoCloseable {
+    private static final Executor CALLER_RUNS = Runnable::run;
+
+    /**
+     * Fetches a single page.
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        /**
+         * @return the items of the page, {@code null} if there are none
+         */
+        List<T> fetch(int offset, int pageSize);
+    }
+
+    private final PageFetcher<T> pageFetcher;
+    private final int pageSize;
+    private final int prefetch;
+    private final Executor executor;
+    private final Deque<CompletableFuture<List<T>>> pendingPages = new ArrayDeque<>();
+    private int nextOffset;
+    private int inFlightLimit = 1;
+    private boolean lastPageRequested;
+
+    public PagePrefetcher(PageFetcher<T> pageFetcher, int pageSize, int prefetch, Executor executor) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1!");
+        }
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("Number of prefetched pages must be at least 1!");
+        }
+        this.pageFetcher = pageFetcher;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.executor = prefetch == 1 ? CALLER_RUNS : executor;
+    }
+
+    /**
+     * Waits for the next page in offset order.
+     *
+     * @return the items of the next page, or {@code null} if the previous page was the last one
+     */
+    public List<T> nextPage() {
+        while (!lastPageRequested && pendingPages.size() < inFlightLimit) {
+            int offset = nextOffset;
+            pendingPages.add(CompletableFuture.supplyAsync(() -> pageFetcher.fetch(offset, pageSize), executor));
+            nextOffset += pageSize;
+        }
+        CompletableFuture<List<T>> pendingPage = pendingPages.poll();
+        if (pendingPage == null) {
+            return null;
+        }
+        List<T> page;
+        try {
+            page = pendingPage.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        } catch (CancellationException e) {
+            close();
+            throw e;
+        }
+        if (page == null || page.size() < pageSize) {
+            close();
+        } else {
+            inFlightLimit = prefetch;
+        }
+        return page;
+    }
+
+    /**
+     * Stops paging and cancels the requests that are still in flight.
+     */
+    @Override
+    public void close() {
+        lastPageRequested = true;
+        for (CompletableFuture<List<T>> pendingPage : pendingPages) {
+            pendingPage.cancel(false);
+        }
+        pendingPages.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package de.leuphana.escience.dspacepurebridge.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters of the sync stages, registered in the global Micrometer registry.
+ * <p>
+ * As long as no {@link MetricsReporter} has added a registry to the global registry, the meters do not record
+ * anything, so they can be used unconditionally.
+ */
+public class BridgeMetrics {
+    static final String PREFIX = "dspace.pure.bridge";
+
+    private BridgeMetrics() {
+    }
+
+    /**
+     * @param name name of the timer, below the prefix of the bridge
+     * @param tags alternating tag keys and values
+     */
+    public static Timer timer(String name, String... tags) {
+        return Metrics.timer(PREFIX + "." + name, tags);
+    }
+
+    /**
+     * Registers a gauge reporting the value of the state object, which is only weakly referenced.
+     *
+     * @return the state object
+     */
+    public static <T> T gauge(String name, T stateObject, ToDoubleFunction<T> valueFunction, String... tags) {
+        return Metrics.gauge(PREFIX + "." + name, Tags.of(tags), stateObject, valueFunction);
+    }
+
+    /**
+     * Registers the pool and queue sizes and the task durations of the executor.
+     *
+     * @return the executor to use instead of the given one, timing the executed tasks
+     */
+    public static ExecutorService monitor(ExecutorService executorService, String name) {
+        return ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executorService, name, PREFIX);
+    }
+}
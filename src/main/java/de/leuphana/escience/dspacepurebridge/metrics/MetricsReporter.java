@@ -0,0 +1,104 @@
+package de.leuphana.escience.dspacepurebridge.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.services.ConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Records the {@link BridgeMetrics} of a run and reports them: via JMX while the run is in progress, and as
+ * Prometheus textfile once it is closed.
+ * <p>
+ * If neither is configured, nothing is recorded.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MetricsReporter.class);
+
+    static final String TEXTFILE = "dspace-pure-bridge.metrics.textfile";
+    static final String JMX = "dspace-pure-bridge.metrics.jmx";
+    static final String JMX_DOMAIN = "de.leuphana.escience.dspacepurebridge";
+
+    private final Path textFile;
+    private final PrometheusMeterRegistry prometheusRegistry;
+    private final JmxMeterRegistry jmxRegistry;
+
+    /**
+     * @param textFile file the metrics are written to when the reporter is closed, {@code null} for none
+     * @param jmx      whether the metrics are exposed as MBeans
+     */
+    MetricsReporter(Path textFile, boolean jmx) {
+        this.textFile = textFile;
+        prometheusRegistry = textFile != null ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT) : null;
+        jmxRegistry = jmx ? new JmxMeterRegistry(new JmxConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public String domain() {
+                return JMX_DOMAIN;
+            }
+        }, Clock.SYSTEM) : null;
+        addRegistry(prometheusRegistry);
+        addRegistry(jmxRegistry);
+    }
+
+    public static MetricsReporter fromConfiguration(ConfigurationService configurationService) {
+        String textFile = configurationService.getProperty(TEXTFILE);
+        return new MetricsReporter(StringUtils.isNotBlank(textFile) ? Path.of(textFile) : null,
+            configurationService.getBooleanProperty(JMX, false));
+    }
+
+    private static void addRegistry(MeterRegistry registry) {
+        if (registry != null) {
+            Metrics.addRegistry(registry);
+        }
+    }
+
+    /**
+     * Writes the current metrics to the textfile. The file is replaced atomically, so that the collector never
+     * reads a partially written file.
+     */
+    void writeTextFile() throws IOException {
+        Path directory = textFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporaryFile = textFile.resolveSibling(textFile.getFileName() + ".tmp");
+        Files.writeString(temporaryFile, prometheusRegistry.scrape(), StandardCharsets.UTF_8);
+        Files.move(temporaryFile, textFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        if (prometheusRegistry != null) {
+            try {
+                writeTextFile();
+                log.info("Metrics written to {}", textFile);
+            } catch (IOException e) {
+                log.error("Could not write metrics to {}", textFile, e);
+            }
+            Metrics.removeRegistry(prometheusRegistry);
+            prometheusRegistry.close();
+        }
+        if (jmxRegistry != null) {
+            // unregisters the MBeans
+            Metrics.removeRegistry(jmxRegistry);
+            jmxRegistry.close();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.dspace.services.ConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for all requests to the Pure API, applied to the {@code RestTemplate}s and the generated API
+ * client by {@link PureHttpTransport}.
+ * <p>
+ * Requests are divided into classes ({@link RequestClass}), each with its own concurrency limit. A limit starts
+ * at {@code initial.limit} requests and is adjusted AIMD-style: it grows by one request per round of successful
+ * requests that used it up, and is halved when Pure throttles (429, 503), fails (other 5xx, I/O errors) or the
+ * latency of the class rises above {@code latency.tolerance} times its baseline. The baseline is a low percentile
+ * of the latencies of the recent requests of the class, so that it follows a lasting change of the latency. A
+ * limit never exceeds the budget of the class; with {@code adaptive = false}, every limit is fixed at the budget.
+ * A {@code Retry-After} header of a throttled response pauses all requests for the given time.
+ */
+public class PureAdmissionController {
+    private static final Logger log = LoggerFactory.getLogger(PureAdmissionController.class);
+
+    static final String BUDGET_PREFIX = "dspace-pure-bridge.pure.http.budget.";
+    static final String LATENCY_TOLERANCE = "dspace-pure-bridge.pure.http.latency.tolerance";
+    static final String INITIAL_LIMIT = "dspace-pure-bridge.pure.http.initial.limit";
+    static final String ADAPTIVE = "dspace-pure-bridge.pure.http.adaptive";
+    static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(10);
+    private static final double LATENCY_DECREASE = 0.9;
+    private static final double ERROR_DECREASE = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int BASELINE_SAMPLES = 50;
+    private static final double BASELINE_PERCENTILE = 0.1;
+    private static final Pattern OBJECT_ID = Pattern.compile("\\d+|\\p{XDigit}{8}(-\\p{XDigit}{4}){3}-\\p{XDigit}{12}");
+
+    /**
+     * Classes of Pure requests with separate concurrency limits.
+     */
+    public enum RequestClass {
+        /**
+         * Paging through result lists.
+         */
+        LIST,
+        /**
+         * Reading a single object by its id, e.g. a research output to update.
+         */
+        READ,
+        /**
+         * Searches, e.g. the title search of the duplicate check.
+         */
+        SEARCH,
+        /**
+         * Creating, updating and deleting objects.
+         */
+        CREATE,
+        /**
+         * Reading the allowed classifications of a field.
+         */
+        CLASSIFICATION;
+
+        static RequestClass of(String method, String path) {
+            if ("GET".equals(method) || "HEAD".equals(method)) {
+                if (path.contains("/allowed")) {
+                    return CLASSIFICATION;
+                }
+                String trimmedPath = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+                String lastSegment = trimmedPath.substring(trimmedPath.lastIndexOf('/') + 1);
+                return OBJECT_ID.matcher(lastSegment).matches() ? READ : LIST;
+            }
+            if ("POST".equals(method) && (path.endsWith("/search") || path.endsWith("/search/"))) {
+                return SEARCH;
+            }
+            return CREATE;
+        }
+
+        String getPropertyName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<RequestClass, Limit> limits = new EnumMap<>(RequestClass.class);
+    private final double latencyTolerance;
+    private final LongSupplier nanoTime;
+    private long pausedUntilNanos;
+
+    /**
+     * @param budgets          the maximum number of concurrent requests of each class
+     * @param latencyTolerance the factor by which the latency of a class may exceed its baseline before its limit
+     *                         is lowered
+     */
+    public PureAdmissionController(Map<RequestClass, Integer> budgets, double latencyTolerance) {
+        this(budgets, 1, latencyTolerance, true, System::nanoTime);
+    }
+
+    /**
+     * @param budgets          the maximum number of concurrent requests of each class
+     * @param initialLimit     the limit every class starts with, at most its budget
+     * @param latencyTolerance the factor by which the latency of a class may exceed its baseline before its limit
+     *                         is lowered
+     * @param adaptive         whether the limits are adjusted to the responses of Pure; if not, every limit is
+     *                         fixed at the budget of its class
+     */
+    public PureAdmissionController(Map<RequestClass, Integer> budgets, int initialLimit, double latencyTolerance,
+                                   boolean adaptive) {
+        this(budgets, initialLimit, latencyTolerance, adaptive, System::nanoTime);
+    }
+
+    PureAdmissionController(Map<RequestClass, Integer> budgets, int initialLimit, double latencyTolerance,
+                            boolean adaptive, LongSupplier nanoTime) {
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("Latency tolerance must be greater than 1!");
+        }
+        if (initialLimit < 1) {
+            throw new IllegalArgumentException("Initial limit must be at least 1!");
+        }
+        for (RequestClass requestClass : RequestClass.values()) {
+            int budget = budgets.getOrDefault(requestClass, 1);
+            if (budget < 1) {
+                throw new IllegalArgumentException("Budget of " + requestClass + " requests must be at least 1!");
+            }
+            limits.put(requestClass, new Limit(requestClass, budget, adaptive ? Math.min(initialLimit, budget) : budget,
+                adaptive));
+        }
+        this.latencyTolerance = latencyTolerance;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates the admission controller from the configuration. The budgets default to the size of the connection
+     * pool, except for the classification requests, which are few and run mostly one after another.
+     */
+    static PureAdmissionController fromConfiguration(ConfigurationService configurationService, int maxConnections) {
+        Map<RequestClass, Integer> budgets = new EnumMap<>(RequestClass.class);
+        for (RequestClass requestClass : RequestClass.values()) {
+            int defaultBudget = requestClass == RequestClass.CLASSIFICATION ? Math.min(2, maxConnections)
+                : maxConnections;
+            budgets.put(requestClass, ConfigurationUtils.getIntProperty(configurationService,
+                BUDGET_PREFIX + requestClass.getPropertyName(), defaultBudget));
+        }
+        double latencyTolerance = Double.parseDouble(ConfigurationUtils.getProperty(configurationService,
+            LATENCY_TOLERANCE, "3"));
+        int initialLimit = ConfigurationUtils.getIntProperty(configurationService, INITIAL_LIMIT, 4);
+        boolean adaptive = Boolean.parseBoolean(ConfigurationUtils.getProperty(configurationService, ADAPTIVE,
+            "true"));
+        return new PureAdmissionController(budgets, initialLimit, latencyTolerance, adaptive);
+    }
+
+    /**
+     * Waits until a request of the class may be sent.
+     *
+     * @return the permit, to be {@link Permit#release released} with the outcome of the request
+     */
+    public Permit acquire(RequestClass requestClass) throws InterruptedException {
+        Limit limit = limits.get(requestClass);
+        limit.acquire();
+        return new Permit(limit, nanoTime.getAsLong());
+    }
+
+    /**
+     * @return the current concurrency limit of the class
+     */
+    public int getLimit(RequestClass requestClass) {
+        return limits.get(requestClass).getLimit();
+    }
+
+    public ClientHttpRequestInterceptor restTemplateInterceptor() {
+        return (request, body, execution) -> {
+            Permit permit = acquireInterruptibly(
+                RequestClass.of(request.getMethod().name(), request.getURI().getPath()));
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                permit.release(-1, null);
+                throw e;
+            }
+            permit.release(response.getStatusCode().value(), response.getHeaders().getFirst("Retry-After"));
+            return response;
+        };
+    }
+
+    public Interceptor okHttpInterceptor() {
+        return chain -> {
+            Permit permit = acquireInterruptibly(
+                RequestClass.of(chain.request().method(), chain.request().url().encodedPath()));
+            Response response;
+            try {
+                response = chain.proceed(chain.request());
+            } catch (IOException | RuntimeException e) {
+                permit.release(-1, null);
+                throw e;
+            }
+            permit.release(response.code(), response.header("Retry-After"));
+            return response;
+        };
+    }
+
+    private Permit acquireInterruptibly(RequestClass requestClass) throws InterruptedIOException {
+        try {
+            return acquire(requestClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for admission of a Pure request");
+        }
+    }
+
+    public void logStatistics() {
+        for (Limit limit : limits.values()) {
+            limit.logStatistics();
+        }
+    }
+
+    private void pause(Duration retryAfter) {
+        long until = nanoTime.getAsLong() + retryAfter.toNanos();
+        synchronized (this) {
+            if (until - pausedUntilNanos > 0) {
+                pausedUntilNanos = until;
+            }
+        }
+        log.warn("Pure asked to retry after {} seconds, pausing all requests", retryAfter.toSeconds());
+    }
+
+    private synchronized long getPauseNanos() {
+        return pausedUntilNanos - nanoTime.getAsLong();
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, given in seconds or as HTTP date.
+     *
+     * @return the time to wait, at most {@link #MAX_RETRY_AFTER}, or {@code null} if there is none
+     */
+    public static Duration parseRetryAfter(String retryAfter, Instant now) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        Duration duration;
+        try {
+            duration = Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                duration = Duration.between(now,
+                    ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            } catch (DateTimeParseException dateTimeParseException) {
+                return null;
+            }
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            return null;
+        }
+        return duration.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : duration;
+    }
+
+    /**
+     * Admission of a single request.
+     */
+    public final class Permit {
+        private final Limit limit;
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(Limit limit, long startNanos) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Releases the permit and adjusts the limit of the request class to the outcome of the request.
+         *
+         * @param statusCode the HTTP status code of the response, or a negative value if the request failed
+         *                   without response
+         * @param retryAfter the {@code Retry-After} header of the response, if any
+         */
+        public void release(int statusCode, String retryAfter) {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (statusCode == 429 || statusCode == 503) {
+                Duration pause = parseRetryAfter(retryAfter, Instant.now());
+                if (pause != null) {
+                    pause(pause);
+                }
+            }
+            limit.release(statusCode, nanoTime.getAsLong() - startNanos);
+        }
+    }
+
+    private class Limit {
+        private final RequestClass requestClass;
+        private final int budget;
+        private final boolean adaptive;
+        private double limit;
+        private int inFlight;
+        private boolean usedUp;
+        private final long[] latencyWindow = new long[BASELINE_SAMPLES];
+        private long baselineNanos = -1;
+        private double smoothedNanos = -1;
+        private long samples;
+        private long lastDecreaseNanos;
+        private boolean decreasedBefore;
+        private long requests;
+        private long throttled;
+        private long failed;
+        private int maxLimit;
+
+        Limit(RequestClass requestClass, int budget, int initialLimit, boolean adaptive) {
+            this.requestClass = requestClass;
+            this.budget = budget;
+            this.adaptive = adaptive;
+            limit = initialLimit;
+            maxLimit = initialLimit;
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        synchronized void acquire() throws InterruptedException {
+            while (true) {
+                long pauseNanos = getPauseNanos();
+                if (pauseNanos > 0) {
+                    wait(Math.max(1, pauseNanos / 1_000_000));
+                } else if (inFlight >= (int) limit) {
+                    wait();
+                } else {
+                    break;
+                }
+            }
+            inFlight++;
+            requests++;
+            if (inFlight >= (int) limit) {
+                usedUp = true;
+            }
+        }
+
+        synchronized void release(int statusCode, long latencyNanos) {
+            inFlight--;
+            long now = nanoTime.getAsLong();
+            if (statusCode == 429 || statusCode == 503) {
+                throttled++;
+                decrease(ERROR_DECREASE, now);
+            } else if (statusCode < 0 || statusCode >= 500) {
+                failed++;
+                decrease(ERROR_DECREASE, now);
+            } else if (updateLatency(latencyNanos)) {
+                decrease(LATENCY_DECREASE, now);
+            } else if (usedUp && limit < budget) {
+                limit = Math.min(budget, limit + 1 / limit);
+                maxLimit = Math.max(maxLimit, (int) limit);
+            }
+            if (inFlight == 0) {
+                // the limit only grows while there are enough requests to use it up
+                usedUp = false;
+            }
+            notifyAll();
+        }
+
+        /**
+         * Updates the baseline to a low percentile of the latencies of the last {@link #BASELINE_SAMPLES} requests,
+         * or to the fastest request so far until that many requests are complete.
+         *
+         * @return whether the smoothed latency exceeds the tolerated multiple of the baseline
+         */
+        private boolean updateLatency(long latencyNanos) {
+            smoothedNanos = smoothedNanos < 0 ? latencyNanos
+                : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+            latencyWindow[(int) (samples++ % BASELINE_SAMPLES)] = latencyNanos;
+            if (samples < BASELINE_SAMPLES) {
+                if (baselineNanos < 0 || latencyNanos < baselineNanos) {
+                    baselineNanos = latencyNanos;
+                }
+            } else {
+                long[] sortedLatencies = latencyWindow.clone();
+                Arrays.sort(sortedLatencies);
+                baselineNanos = sortedLatencies[(int) (BASELINE_PERCENTILE * BASELINE_SAMPLES)];
+            }
+            return smoothedNanos > latencyTolerance * Math.max(baselineNanos, 1_000_000);
+        }
+
+        /**
+         * Lowers the limit, at most once per round trip, so that the responses to the requests sent under the
+         * previous limit do not lower it again.
+         */
+        private void decrease(double factor, long now) {
+            if (!adaptive) {
+                // the limit stays at the budget
+                return;
+            }
+            if (decreasedBefore && now - lastDecreaseNanos < smoothedNanos) {
+                return;
+            }
+            decreasedBefore = true;
+            lastDecreaseNanos = now;
+            double decreased = Math.max(1, limit * factor);
+            if ((int) decreased < (int) limit) {
+                log.info("Lowering the limit of concurrent Pure {} requests to {}", requestClass, (int) decreased);
+            }
+            limit = decreased;
+        }
+
+        synchronized void logStatistics() {
+            if (requests > 0) {
+                log.info("Pure {} requests: {}, {} throttled, {} failed; concurrency limit {} (max. {}, budget {})",
+                    requestClass, requests, throttled, failed, (int) limit, maxLimit, budget);
+            }
+        }
+    }
+}
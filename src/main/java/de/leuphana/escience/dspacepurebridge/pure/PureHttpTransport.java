@@ -0,0 +1,206 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiClient;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.dspace.services.ConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP transport shared by all connections to the Pure API of a run: the {@code RestTemplate}s used for paging
+ * through result lists and the generated {@link ApiClient} used for the export.
+ * <p>
+ * Both clients keep their connections in a pool of {@code max.connections} connections, which are kept alive for
+ * {@code keepalive} seconds. The OkHttp client of the {@link ApiClient} negotiates HTTP/2 if Pure supports it and
+ * falls back to HTTP/1.1 otherwise. The classic Apache HttpClient behind the {@code RestTemplate}s only speaks
+ * HTTP/1.1, so its pool is sized to the number of concurrent requests.
+ * <p>
+ * Requests of the {@code RestTemplate}s that had to wait for a free pooled connection are counted and logged
+ * together with the pool statistics when the transport is closed.
+ * <p>
+ * If the transport has a {@link PureAdmissionController}, every request of both clients has to be admitted by it,
+ * so that the number of concurrent requests adapts to what Pure tolerates.
+ */
+public class PureHttpTransport implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PureHttpTransport.class);
+
+    static final String MAX_CONNECTIONS = "dspace-pure-bridge.pure.http.max.connections";
+    static final String KEEPALIVE = "dspace-pure-bridge.pure.http.keepalive";
+    static final Duration TIMEOUT = Duration.ofMillis(60000);
+
+    private final int maxConnections;
+    private final CountingConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ConnectionPool okHttpConnectionPool;
+    private final Dispatcher okHttpDispatcher;
+    private final PureAdmissionController admissionController;
+    private final PureRequestMetrics requestMetrics = new PureRequestMetrics();
+
+    public PureHttpTransport(int maxConnections, Duration keepAlive) {
+        this(maxConnections, keepAlive, null);
+    }
+
+    /**
+     * @param admissionController the admission controller of the requests, {@code null} to send them as soon as a
+     *                            connection is available
+     */
+    public PureHttpTransport(int maxConnections, Duration keepAlive, PureAdmissionController admissionController) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Number of connections must be at least 1!");
+        }
+        this.maxConnections = maxConnections;
+        this.admissionController = admissionController;
+
+        connectionManager = new CountingConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(TIMEOUT))
+                .setSocketTimeout(Timeout.of(TIMEOUT))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+
+        okHttpConnectionPool = new ConnectionPool(maxConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+        okHttpDispatcher = new Dispatcher();
+        okHttpDispatcher.setMaxRequests(maxConnections);
+        okHttpDispatcher.setMaxRequestsPerHost(maxConnections);
+    }
+
+    /**
+     * Creates the transport from the configuration. By default, the pool holds a connection for each of the
+     * {@code concurrentRequests} the running import or export sends to Pure at most.
+     */
+    public static PureHttpTransport fromConfiguration(ConfigurationService configurationService,
+                                                      int concurrentRequests) {
+        int maxConnections = ConfigurationUtils.getIntProperty(configurationService, MAX_CONNECTIONS,
+                Math.max(concurrentRequests, 1));
+        int keepAlive = ConfigurationUtils.getIntProperty(configurationService, KEEPALIVE, 60);
+        return new PureHttpTransport(maxConnections, Duration.ofSeconds(keepAlive),
+                PureAdmissionController.fromConfiguration(configurationService, maxConnections));
+    }
+
+    /**
+     * @return a builder for {@code RestTemplate}s sending their requests through the shared connection pool
+     */
+    public RestTemplateBuilder restTemplateBuilder(String apiKey) {
+        RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .defaultHeader("api-key", apiKey);
+        if (admissionController != null) {
+            restTemplateBuilder = restTemplateBuilder.additionalInterceptors(
+                    admissionController.restTemplateInterceptor());
+        }
+        // after the admission control, so that the time waiting for admission is not counted as latency of Pure
+        return restTemplateBuilder.additionalInterceptors(requestMetrics.restTemplateInterceptor());
+    }
+
+    /**
+     * Lets the given client send its requests through the shared connection pool. The interceptors and other
+     * settings of its current OkHttp client are kept.
+     *
+     * @return the given client
+     */
+    public ApiClient configure(ApiClient apiClient) {
+        OkHttpClient.Builder okHttpClientBuilder = apiClient.getHttpClient().newBuilder()
+                .connectionPool(okHttpConnectionPool)
+                .dispatcher(okHttpDispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(TIMEOUT)
+                .readTimeout(TIMEOUT)
+                .writeTimeout(TIMEOUT);
+        if (admissionController != null) {
+            okHttpClientBuilder.addInterceptor(admissionController.okHttpInterceptor());
+        }
+        okHttpClientBuilder.addInterceptor(requestMetrics.okHttpInterceptor());
+        return apiClient.setHttpClient(okHttpClientBuilder.build());
+    }
+
+    /**
+     * @return the admission controller of the requests, {@code null} if there is none
+     */
+    public PureAdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return the number of connection leases of the {@code RestTemplate}s so far
+     */
+    public long getLeaseCount() {
+        return connectionManager.leases.get();
+    }
+
+    /**
+     * @return the number of connection leases that found all connections of the pool in use
+     */
+    public long getSaturatedLeaseCount() {
+        return connectionManager.saturatedLeases.get();
+    }
+
+    public void logStatistics() {
+        PoolStats poolStats = connectionManager.getTotalStats();
+        log.info("Pure HTTP connections: {} requests, {} of them waited for a free connection (max. {} connections, "
+                        + "{} leased, {} available, {} pending); API client: {} connections, {} idle",
+                getLeaseCount(), getSaturatedLeaseCount(), maxConnections, poolStats.getLeased(),
+                poolStats.getAvailable(), poolStats.getPending(), okHttpConnectionPool.connectionCount(),
+                okHttpConnectionPool.idleConnectionCount());
+        if (getSaturatedLeaseCount() > 0) {
+            log.warn("The Pure HTTP connection pool was saturated, consider raising {}", MAX_CONNECTIONS);
+        }
+        if (admissionController != null) {
+            admissionController.logStatistics();
+        }
+    }
+
+    @Override
+    public void close() {
+        logStatistics();
+        httpClient.close(CloseMode.GRACEFUL);
+        okHttpConnectionPool.evictAll();
+    }
+
+    private static class CountingConnectionManager extends PoolingHttpClientConnectionManager {
+        private final AtomicLong leases = new AtomicLong();
+        private final AtomicLong saturatedLeases = new AtomicLong();
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            leases.incrementAndGet();
+            PoolStats poolStats = getTotalStats();
+            if (poolStats.getAvailable() == 0 && poolStats.getLeased() >= poolStats.getMax()) {
+                saturatedLeases.incrementAndGet();
+            }
+            return super.lease(id, route, requestTimeout, state);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.util.regex.Pattern;
+
+/**
+ * Times all requests to the Pure API by method, endpoint and status, applied to the {@code RestTemplate}s and the
+ * generated API client by {@link PureHttpTransport}. Requests failing without response are recorded with the
+ * status {@code IO_ERROR}.
+ */
+public class PureRequestMetrics {
+    static final String TIMER = "pure.requests";
+    private static final Pattern ID_SEGMENT =
+        Pattern.compile("/([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+)(?=/|$)");
+
+    public ClientHttpRequestInterceptor restTemplateInterceptor() {
+        return (request, body, execution) -> {
+            Timer.Sample sample = Timer.start();
+            String status = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                status = String.valueOf(response.getStatusCode().value());
+                return response;
+            } finally {
+                sample.stop(timer(request.getMethod().name(), request.getURI().getPath(), status));
+            }
+        };
+    }
+
+    public Interceptor okHttpInterceptor() {
+        return chain -> {
+            Timer.Sample sample = Timer.start();
+            String status = "IO_ERROR";
+            try {
+                Response response = chain.proceed(chain.request());
+                status = String.valueOf(response.code());
+                return response;
+            } finally {
+                sample.stop(timer(chain.request().method(), chain.request().url().encodedPath(), status));
+            }
+        };
+    }
+
+    private static Timer timer(String method, String path, String status) {
+        return BridgeMetrics.timer(TIMER, "method", method, "endpoint", endpoint(path), "status", status);
+    }
+
+    /**
+     * @return the path with UUIDs and numeric ids replaced by {@code {id}}, so that all requests to the same
+     * endpoint share a timer
+     */
+    static String endpoint(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
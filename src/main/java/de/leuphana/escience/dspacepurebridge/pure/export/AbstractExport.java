@@ -1,17 +1,24 @@
 package de.leuphana.escience.dspacepurebridge.pure.export;
 
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.NamedExecutors;
+import de.leuphana.escience.dspacepurebridge.concurrent.PagePrefetcher;
 import de.leuphana.escience.dspacepurebridge.identifiers.PrimaryIdentifier;
 import de.leuphana.escience.dspacepurebridge.identifiers.PrimaryIdentifierHelper;
+import de.leuphana.escience.dspacepurebridge.pure.PureHttpTransport;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResults;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiClient;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
-import de.leuphana.escience.dspacepurebridge.pure.generated.Configuration;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ServerConfiguration;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.*;
 import de.leuphana.escience.dspacepurebridge.pure.imports.DSpaceObjectMappings;
+import de.leuphana.escience.dspacepurebridge.pure.imports.ImportWatermarkStore;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataSchemaEnum;
@@ -26,8 +33,17 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
 
@@ -49,6 +65,22 @@ abstract class AbstractExport implements DSpaceExporter {
     static final String REFEREE_RELATION = "isRefereeOfPublication";
     private static final Logger log = LoggerFactory.getLogger(AbstractExport.class);
     private final RestTemplate duplicateCheckRestTemplate;
+    private final ExecutorService duplicateCheckExecutor =
+        NamedExecutors.newCachedDaemonExecutor("pure-duplicate-check");
+    private int duplicateCheckPrefetchPages = 1;
+    private PureHttpTransport httpTransport;
+    protected ClassificationCache classificationCache;
+    private PersonCache personCache = new PersonCache();
+    static final String DUPLICATE_INDEX = "dspace-pure-bridge.export.duplicate.index";
+    static final String DUPLICATE_INDEX_SEARCH = "search";
+    static final String DUPLICATE_INDEX_MEMORY = "memory";
+    static final String DUPLICATE_INDEX_PERSISTENT = "persistent";
+    private static final ObjectMapper DUPLICATE_INDEX_MAPPER =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private String duplicateIndexMode = DUPLICATE_INDEX_SEARCH;
+    private int duplicateIndexPageSize = 100;
+    private PureDuplicateIndex duplicateIndex;
+    private boolean duplicateIndexLoaded;
 
 
     protected AbstractExport(String leuphanaPureWsEndpointBase, String leuphanaPureWsApiKey,
@@ -63,56 +95,42 @@ abstract class AbstractExport implements DSpaceExporter {
         this.duplicateCheckRestTemplate = duplicateCheckRestTemplate;
     }
 
-    List<Item> getItemPersons(Context context, Item publicationItem, String personToItemRelation,
-                              boolean allowEmptyPersonList) throws SQLException {
-        List<Item> personsWithoutPureId = new ArrayList<>();
-        List<Item> itemPersons = new ArrayList<>();
-        List<MetadataValue> isPersonOfPublicationList =
-            dSpaceServicesContainer.getItemService().getMetadata(publicationItem,
-                MetadataSchemaEnum.RELATION.getName(),
-                personToItemRelation, null, Item.ANY);
-        for (MetadataValue personRelation : isPersonOfPublicationList) {
+    /**
+     * Resolves the persons related to the publication by the given relation via the {@link PersonCache}, so that
+     * persons related to several publications are only loaded once per run.
+     *
+     * @return the related persons with Pure UUID, {@code null} if the persons are not sufficient for the export
+     */
+    List<CachedPerson> getItemPersons(Context context, ItemMetadata publicationMetadata, String personToItemRelation,
+                                      boolean allowEmptyPersonList) throws SQLException {
+        List<String> personIds = new ArrayList<>();
+        for (MetadataValue personRelation :
+            publicationMetadata.get(MetadataSchemaEnum.RELATION.getName() + "." + personToItemRelation)) {
             if (personRelation != null && StringUtils.isNotEmpty(personRelation.getValue())) {
-                Item person = dSpaceServicesContainer.getItemService().findByIdOrLegacyId(context,
-                    personRelation.getValue());
-                if (person != null) {
-                    String personPureUUID =
-                        dSpaceServicesContainer
-                            .getItemService()
-                            .getMetadataFirstValue(person,
-                                Constants.SCHEME,
-                                Constants.ELEMENT,
-                                Constants.UUID_QUALIFIER,
-                                Item.ANY);
-                    if (personPureUUID != null) {
-                        itemPersons.add(person);
-                    } else {
-                        personsWithoutPureId.add(person);
-                    }
-                }
+                personIds.add(personRelation.getValue());
+            }
+        }
+        List<CachedPerson> personsWithoutPureId = new ArrayList<>();
+        List<CachedPerson> itemPersons = new ArrayList<>();
+        for (CachedPerson person : personCache.resolve(personIds, personId -> loadPerson(context, personId))) {
+            if (person.pureUuid() != null) {
+                itemPersons.add(person);
+            } else {
+                personsWithoutPureId.add(person);
             }
         }
         if (!allowEmptyPersonList && AUTHOR_RELATION.equals(personToItemRelation)) {
+            Item publicationItem = publicationMetadata.getItem();
             if (itemPersons.isEmpty()) {
                 log.error(exportStatus.error(publicationItem, "Could not find any Author with Pure UUID!"));
                 return null;
             } else if (!personsWithoutPureId.isEmpty()) {
-                for (Item person : personsWithoutPureId) {
-                    String personFirstName = dSpaceServicesContainer.getItemService().getMetadataFirstValue(person,
-                        "person",
-                        "givenName",
-                        null,
-                        Item.ANY);
-                    String personLastName = dSpaceServicesContainer.getItemService().getMetadataFirstValue(person,
-                        "person",
-                        "familyName",
-                        null,
-                        Item.ANY);
+                for (CachedPerson person : personsWithoutPureId) {
                     log.error(
                         exportStatus.error(publicationItem, String.format("Could not find Pure UUID for Author %s, " +
                                 "%s!",
-                            personFirstName,
-                            personLastName)));
+                            person.firstName(),
+                            person.lastName())));
                 }
                 return null;
             }
@@ -120,33 +138,51 @@ abstract class AbstractExport implements DSpaceExporter {
         return itemPersons;
     }
 
-    List<Item> getItemAuthors(Context context, Item publicationItem, boolean allowEmptyAuthorList) throws SQLException {
-        return getItemPersons(context, publicationItem, AUTHOR_RELATION, allowEmptyAuthorList);
+    private CachedPerson loadPerson(Context context, String personId) throws SQLException {
+        Item person = dSpaceServicesContainer.getItemService().findByIdOrLegacyId(context, personId);
+        if (person == null) {
+            return null;
+        }
+        ItemMetadata personMetadata = ItemMetadata.of(person, dSpaceServicesContainer.getItemService());
+        return new CachedPerson(person.getID(),
+            personMetadata.getFirstValue(Constants.SCHEME + "." + Constants.ELEMENT + "." + Constants.UUID_QUALIFIER),
+            personMetadata.getFirstValue("person.givenName"),
+            personMetadata.getFirstValue("person.familyName"));
+    }
+
+    List<CachedPerson> getItemAuthors(Context context, ItemMetadata publicationMetadata, boolean allowEmptyAuthorList)
+        throws SQLException {
+        return getItemPersons(context, publicationMetadata, AUTHOR_RELATION, allowEmptyAuthorList);
     }
 
-    List<Item> getItemAdvisors(Context context, org.dspace.content.Item publicationItem) throws SQLException {
-        return getItemPersons(context, publicationItem, ADVISOR_RELATION, false);
+    List<CachedPerson> getItemAdvisors(Context context, ItemMetadata publicationMetadata) throws SQLException {
+        return getItemPersons(context, publicationMetadata, ADVISOR_RELATION, false);
     }
 
-    List<Item> getItemReferees(Context context, org.dspace.content.Item publicationItem) throws SQLException {
-        return getItemPersons(context, publicationItem, REFEREE_RELATION, false);
+    List<CachedPerson> getItemReferees(Context context, ItemMetadata publicationMetadata) throws SQLException {
+        return getItemPersons(context, publicationMetadata, REFEREE_RELATION, false);
     }
 
-    @Nullable
-    static ClassificationRef getClassificationRefFromListForMetadataValue(
-        String metadataValue,
-        Map<String, String> mapping,
-        List<ClassificationRef> classificationRefList) {
-        if (!metadataValue.isEmpty()) {
-            if (mapping.containsKey(metadataValue)) {
-                for (ClassificationRef c : classificationRefList) {
-                    if (c.getUri().equals(mapping.get(metadataValue))) {
-                        return c;
-                    }
-                }
+    /**
+     * Resolves the mapped metadata values to the classifications with the mapped URIs, so that the classification
+     * of a metadata value can be looked up directly.
+     *
+     * @return the classification for each mapped metadata value whose URI is among the given classifications
+     */
+    static Map<String, ClassificationRef> indexClassificationRefs(Map<String, String> mapping,
+                                                                  List<ClassificationRef> classificationRefList) {
+        Map<String, ClassificationRef> classificationRefsByUri = new HashMap<>();
+        for (ClassificationRef c : classificationRefList) {
+            classificationRefsByUri.putIfAbsent(c.getUri(), c);
+        }
+        Map<String, ClassificationRef> classificationRefsByMetadataValue = new HashMap<>();
+        for (Map.Entry<String, String> mappingEntry : mapping.entrySet()) {
+            ClassificationRef c = classificationRefsByUri.get(mappingEntry.getValue());
+            if (c != null) {
+                classificationRefsByMetadataValue.put(mappingEntry.getKey(), c);
             }
         }
-        return null;
+        return classificationRefsByMetadataValue;
     }
 
     void validateExportObject(Object exportObject) {
@@ -158,25 +194,12 @@ abstract class AbstractExport implements DSpaceExporter {
         }
     }
 
-    Name getPersonNameFromDSpacePerson(Item person) {
-        String authorFirstName = dSpaceServicesContainer.getItemService()
-            .getMetadataFirstValue(person, "person", "givenName", null,
-                Item.ANY);
-        String authorLastName = dSpaceServicesContainer.getItemService()
-            .getMetadataFirstValue(person, "person", "familyName", null,
-                Item.ANY);
-        return new Name().firstName(authorFirstName).lastName(authorLastName);
+    Name getPersonNameFromDSpacePerson(CachedPerson person) {
+        return new Name().firstName(person.firstName()).lastName(person.lastName());
     }
 
-    Person getAPIPersonFromDSpacePerson(Item person) {
-        String authorUUID = dSpaceServicesContainer
-            .getItemService()
-            .getMetadataFirstValue(person,
-                Constants.SCHEME,
-                Constants.ELEMENT,
-                Constants.UUID_QUALIFIER,
-                Item.ANY);
-        return new Person(null, UUID.fromString(authorUUID), null, null, null
+    Person getAPIPersonFromDSpacePerson(CachedPerson person) {
+        return new Person(null, UUID.fromString(person.pureUuid()), null, null, null
             , null, null, null, null, "Person");
     }
 
@@ -244,7 +267,7 @@ abstract class AbstractExport implements DSpaceExporter {
         }
     }
 
-    void addContributors(Object exportObject, List<Item> authors, ClassificationRef authorRole) {
+    void addContributors(Object exportObject, List<CachedPerson> authors, ClassificationRef authorRole) {
         validateExportObject(exportObject);
         List<AbstractContributorAssociation> authorAssociations = new ArrayList<>();
         if (authors.isEmpty()) {
@@ -258,7 +281,7 @@ abstract class AbstractExport implements DSpaceExporter {
             contributorAssociation.setRole(authorRole);
             authorAssociations.add(contributorAssociation);
         } else {
-            for (Item author : authors) {
+            for (CachedPerson author : authors) {
                 InternalContributorAssociation contributorAssociation = new InternalContributorAssociation();
                 contributorAssociation.setPerson(getAPIPersonFromDSpacePerson(author));
                 contributorAssociation.setName(getPersonNameFromDSpacePerson(author));
@@ -283,27 +306,25 @@ abstract class AbstractExport implements DSpaceExporter {
     }
 
 
-    public ExportResult checkForDuplicate(Item item, ExportType exportType) {
-        int offset = 0;
+    public ExportResult checkForDuplicate(ItemMetadata itemMetadata, ExportType exportType) throws ApiException {
         int pageSize = 100;
-        boolean itemsLeft = true;
-
-        String title =
-            dSpaceServicesContainer.getItemService().getMetadataFirstValue(item, "dc", "title", null, Item.ANY);
 
-        List<MetadataValue> identifierMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item, "dc.identifier.uri");
-        PrimaryIdentifier primaryIdentifier =
-            PrimaryIdentifierHelper.getPrimaryIdentifier(item, identifierMetadataValues);
-        String doi = (primaryIdentifier != null && primaryIdentifier.isDoi() ? primaryIdentifier.getUrl() : null);
+        Item item = itemMetadata.getItem();
+        String title = itemMetadata.getFirstValue("dc.title");
+        String doi = getDuplicateCheckDoi(itemMetadata);
 
         if (exportType.getSearchResultClass() != null && title != null) {
+            PureDuplicateIndex index = getDuplicateIndex(exportType);
+            if (index != null) {
+                return findDuplicate(item, index.getCandidates(title, doi), doi, title);
+            }
+
             HttpEntity<Map<String, String>> searchEntity = createTitleSearchEntity(title);
 
-            do {
+            try (PagePrefetcher<? extends PureWSResultItem> pages = new PagePrefetcher<>((offset, size) -> {
                 String webServiceUrl =
                     leuphanaPureWsEndpointBase + exportType.getPureEndpoint() + "/search?offset=" + offset + "&size=" +
-                        pageSize;
+                        size;
                 log.info("WebService Call: {}", webServiceUrl);
 
                 ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity =
@@ -313,33 +334,243 @@ abstract class AbstractExport implements DSpaceExporter {
                 if (pureWSResults == null) {
                     throw new IllegalStateException("No response body received from Pure WS!");
                 }
-
-                if (pureWSResults.getItems() == null || pureWSResults.getItems().size() < pageSize) {
-                    itemsLeft = false;
-                } else {
-                    offset += pageSize;
+                return pureWSResults.getItems();
+            }, pageSize, duplicateCheckPrefetchPages, duplicateCheckExecutor)) {
+                List<? extends PureWSResultItem> pureWSResultItems;
+                while ((pureWSResultItems = pages.nextPage()) != null) {
+                    ExportResult exportResult = findDuplicate(item, pureWSResultItems, doi, title);
+                    if (exportResult != null) {
+                        return exportResult;
+                    }
                 }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the DOI of the item if it is its primary identifier, {@code null} otherwise
+     */
+    String getDuplicateCheckDoi(ItemMetadata itemMetadata) {
+        PrimaryIdentifier primaryIdentifier = PrimaryIdentifierHelper.getPrimaryIdentifier(itemMetadata.getItem(),
+            itemMetadata.get("dc.identifier.uri"));
+        return primaryIdentifier != null && primaryIdentifier.isDoi() ? primaryIdentifier.getUrl() : null;
+    }
+
+    /**
+     * Pages through a Pure list endpoint for the duplicate check, prefetching pages as configured.
+     */
+    <T> PagePrefetcher<T> pageDuplicateCheckCandidates(PagePrefetcher.PageFetcher<T> pageFetcher) {
+        return new PagePrefetcher<>(pageFetcher, duplicateIndexPageSize, duplicateCheckPrefetchPages,
+            duplicateCheckExecutor);
+    }
+
+    private ExportResult findDuplicate(Item item, List<? extends PureWSResultItem> pureWSResultItems, String doi,
+                                       String title) {
+        for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+            boolean doublet = false;
+            DuplicateCheckResult duplicateCheck = concreteDuplicateCheck(pureWSResultItem, doi, title);
+            if (DuplicateCheckResult.DOI_DUPLICATE.equals(duplicateCheck)) {
+                log.info("Doublet detected for item {} and doi {}", item.getHandle(), doi);
+                doublet = true;
+            } else if (DuplicateCheckResult.TITLE_DUPLICATE.equals(duplicateCheck)) {
+                log.info("Doublet detected for item {} and title {}", item.getHandle(), title);
+                doublet = true;
+            }
+            if (doublet) {
+                ExportResult exportResult = new ExportResult();
+                exportResult.setUuid(pureWSResultItem.getUuid());
+                exportResult.setPortalUrl(pureWSResultItem.getPortalUrl());
+                return exportResult;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the title of a Pure output as compared by {@link #concreteDuplicateCheck}, used to look up
+     * candidates in the duplicate index
+     */
+    String getDuplicateCheckTitle(PureWSResultItem pureWSResultItem) {
+        return null;
+    }
+
+    /**
+     * @return the links of a Pure output as compared by {@link #concreteDuplicateCheck}, used to look up
+     * candidates in the duplicate index
+     */
+    List<String> getDuplicateCheckLinks(PureWSResultItem pureWSResultItem) {
+        return List.of();
+    }
+
+    /**
+     * Adds an output created in Pure during this run to the duplicate index, if there is one.
+     */
+    void addToDuplicateIndex(PureWSResultItem pureWSResultItem) {
+        PureDuplicateIndex index;
+        synchronized (this) {
+            index = duplicateIndex;
+        }
+        if (index != null) {
+            index.add(pureWSResultItem);
+        }
+    }
+
+    /**
+     * Builds the duplicate index on first use. If it cannot be built, {@code null} is returned for the rest of
+     * the run, so that duplicates are searched in Pure instead.
+     */
+    synchronized PureDuplicateIndex getDuplicateIndex(ExportType exportType) {
+        if (!DUPLICATE_INDEX_SEARCH.equals(duplicateIndexMode) && !duplicateIndexLoaded) {
+            duplicateIndexLoaded = true;
+            try {
+                duplicateIndex = loadDuplicateIndex(exportType);
+            } catch (RuntimeException e) {
+                log.warn("Could not build the duplicate index of {}, searching Pure for duplicates instead", exportType,
+                    e);
+            }
+        }
+        return duplicateIndex;
+    }
+
+    private PureDuplicateIndex loadDuplicateIndex(ExportType exportType) {
+        PureDuplicateIndex index = new PureDuplicateIndex(this::getDuplicateCheckTitle, this::getDuplicateCheckLinks);
+        Path indexFile = null;
+        Instant modifiedSince = null;
+        if (DUPLICATE_INDEX_PERSISTENT.equals(duplicateIndexMode)) {
+            Path stateDirectory =
+                ConfigurationUtils.getStateDirectory(dSpaceServicesContainer.getConfigurationService());
+            if (stateDirectory != null) {
+                indexFile = stateDirectory.resolve("duplicate-index-" + exportType.getMappingSuffix() + ".json");
+                readDuplicateIndex(indexFile, exportType, index);
+                modifiedSince = index.getLastModified();
+            }
+        }
+
+        if (modifiedSince != null) {
+            log.info("Updating the duplicate index of {} with the outputs modified since {}", exportType,
+                modifiedSince);
+        } else {
+            log.info("Building the duplicate index of {}", exportType);
+        }
+        int count = fetchIntoDuplicateIndex(index, exportType, modifiedSince);
+        if (modifiedSince != null && count != index.size()) {
+            log.info("Pure holds {} outputs, but the duplicate index of {} holds {}, rebuilding it", count, exportType,
+                index.size());
+            index = new PureDuplicateIndex(this::getDuplicateCheckTitle, this::getDuplicateCheckLinks);
+            fetchIntoDuplicateIndex(index, exportType, null);
+        }
+        log.info("Duplicate index of {} holds {} outputs", exportType, index.size());
+
+        if (indexFile != null) {
+            writeDuplicateIndex(indexFile, index);
+        }
+        return index;
+    }
 
-                boolean doublet = false;
-                for (PureWSResultItem pureWSResultItem : pureWSResults.getItems()) {
-                    DuplicateCheckResult duplicateCheck = concreteDuplicateCheck(pureWSResultItem, doi, title);
-                    if (DuplicateCheckResult.DOI_DUPLICATE.equals(duplicateCheck)) {
-                        log.info("Doublet detected for item {} and doi {}", item.getHandle(), doi);
-                        doublet = true;
-                    } else if (DuplicateCheckResult.TITLE_DUPLICATE.equals(duplicateCheck)) {
-                        log.info("Doublet detected for item {} and title {}", item.getHandle(), title);
-                        doublet = true;
+    /**
+     * Pages through all outputs of the export type, or only those modified since the given date if Pure returns
+     * them ordered by modification date.
+     *
+     * @return the number of outputs of the export type in Pure
+     */
+    private int fetchIntoDuplicateIndex(PureDuplicateIndex index, ExportType exportType, Instant modifiedSince) {
+        String orderParameters = modifiedSince != null ? "&order=modified&orderBy=descending" : "";
+        AtomicInteger count = new AtomicInteger();
+        try (PagePrefetcher<? extends PureWSResultItem> pages = new PagePrefetcher<>((offset, size) -> {
+            String webServiceUrl =
+                leuphanaPureWsEndpointBase + exportType.getPureEndpoint() + "?offset=" + offset + "&size=" + size +
+                    orderParameters;
+            log.info("WebService Call: {}", webServiceUrl);
+            PureWSResults<? extends PureWSResultItem> pureWSResults =
+                duplicateCheckRestTemplate.getForEntity(webServiceUrl, exportType.getSearchResultClass()).getBody();
+            if (pureWSResults == null) {
+                throw new IllegalStateException("No response body received from Pure WS!");
+            }
+            count.set(pureWSResults.getCount());
+            return pureWSResults.getItems();
+        }, duplicateIndexPageSize, duplicateCheckPrefetchPages, duplicateCheckExecutor)) {
+            List<? extends PureWSResultItem> pureWSResultItems;
+            Instant previousModifiedDate = null;
+            boolean modifiedSinceReached = false;
+            while (!modifiedSinceReached && (pureWSResultItems = pages.nextPage()) != null) {
+                for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+                    Instant modifiedDate = ImportWatermarkStore.parseModifiedDate(pureWSResultItem.getModifiedDate());
+                    if (modifiedSince != null && modifiedDate != null && previousModifiedDate != null
+                        && modifiedDate.isAfter(previousModifiedDate)) {
+                        log.warn("Pure did not return {} outputs ordered by modification date, fetching all outputs",
+                            exportType);
+                        modifiedSince = null;
                     }
-                    if (doublet) {
-                        ExportResult exportResult = new ExportResult();
-                        exportResult.setUuid(pureWSResultItem.getUuid());
-                        exportResult.setPortalUrl(pureWSResultItem.getPortalUrl());
-                        return exportResult;
+                    if (modifiedSince != null && modifiedDate != null && modifiedDate.isBefore(modifiedSince)) {
+                        modifiedSinceReached = true;
+                        break;
+                    }
+                    if (modifiedDate != null) {
+                        previousModifiedDate = modifiedDate;
                     }
+                    index.add(pureWSResultItem);
                 }
-            } while (itemsLeft);
+            }
         }
-        return null;
+        return count.get();
+    }
+
+    private static void readDuplicateIndex(Path indexFile, ExportType exportType, PureDuplicateIndex index) {
+        if (!Files.isRegularFile(indexFile)) {
+            return;
+        }
+        try {
+            PureWSResults<? extends PureWSResultItem> pureWSResults =
+                DUPLICATE_INDEX_MAPPER.readValue(indexFile.toFile(), exportType.getSearchResultClass());
+            for (PureWSResultItem pureWSResultItem : pureWSResults.getItems()) {
+                index.add(pureWSResultItem);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring duplicate index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    private static void writeDuplicateIndex(Path indexFile, PureDuplicateIndex index) {
+        Collection<PureWSResultItem> items = index.getItems();
+        try {
+            Files.createDirectories(indexFile.toAbsolutePath().getParent());
+            Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            DUPLICATE_INDEX_MAPPER.writeValue(tempFile.toFile(), Map.of("count", items.size(), "items", items));
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write duplicate index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    /**
+     * @param httpTransport the transport shared by all requests to the Pure API, must be set before {@link #init()}
+     */
+    void setHttpTransport(PureHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * @param classificationCache the cache of the Pure classifications shared by the exporters, must be set before
+     *                            {@link #init()}
+     */
+    void setClassificationCache(ClassificationCache classificationCache) {
+        this.classificationCache = classificationCache;
+    }
+
+    /**
+     * @param personCache the cache of the related persons shared by the exporters
+     */
+    void setPersonCache(PersonCache personCache) {
+        this.personCache = personCache;
+    }
+
+    /**
+     * @param duplicateIndexMode how duplicates are found: {@code search}, {@code memory} or {@code persistent}, see
+     *                           {@link #DUPLICATE_INDEX}
+     */
+    void setDuplicateIndexMode(String duplicateIndexMode) {
+        this.duplicateIndexMode = duplicateIndexMode;
     }
 
     public void init() throws ApiException {
@@ -351,6 +582,16 @@ abstract class AbstractExport implements DSpaceExporter {
             "dspace-pure-bridge.export.defaultAuthorFirstName");
         defaultAuthorLastName = dSpaceServicesContainer.getConfigurationService().getProperty(
             "dspace-pure-bridge.export.defaultAuthorLastName");
+        duplicateCheckPrefetchPages = ConfigurationUtils.getIntProperty(dSpaceServicesContainer.getConfigurationService(),
+            ConfigurationUtils.PURE_WS_PREFETCH, 2);
+        duplicateIndexPageSize = ConfigurationUtils.getIntProperty(dSpaceServicesContainer.getConfigurationService(),
+            ConfigurationUtils.PURE_WS_PAGESIZE, 100);
+        duplicateIndexMode = ConfigurationUtils.getProperty(dSpaceServicesContainer.getConfigurationService(),
+            DUPLICATE_INDEX, DUPLICATE_INDEX_SEARCH);
+        if (!List.of(DUPLICATE_INDEX_SEARCH, DUPLICATE_INDEX_MEMORY, DUPLICATE_INDEX_PERSISTENT)
+            .contains(duplicateIndexMode)) {
+            throw new IllegalArgumentException("Unknown value of " + DUPLICATE_INDEX + ": " + duplicateIndexMode);
+        }
         for (DSpaceLanguage dSpaceLanguage : DSpaceLanguage.values()) {
             languageDSpaceMap.put(dSpaceLanguage.getIso2Letter(), dSpaceLanguage);
         }
@@ -359,7 +600,14 @@ abstract class AbstractExport implements DSpaceExporter {
             "No description provided",
             new HashMap<>());
 
-        apiClient = Configuration.getDefaultApiClient();
+        if (classificationCache == null) {
+            classificationCache = new ClassificationCache(null, Duration.ZERO, Clock.systemUTC());
+        }
+
+        apiClient = new ApiClient();
+        if (httpTransport != null) {
+            httpTransport.configure(apiClient);
+        }
         apiClient.setApiKey(leuphanaPureWsApiKey);
         apiClient.setServers(List.of(serverConfiguration));
     }
@@ -0,0 +1,33 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiCallback;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future completed by the callback of an asynchronous call of the generated Pure API, i.e. with the result of the
+ * call or exceptionally with its {@link ApiException}.
+ */
+class ApiCallbackFuture<T> extends CompletableFuture<T> implements ApiCallback<T> {
+
+    @Override
+    public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+        completeExceptionally(e);
+    }
+
+    @Override
+    public void onSuccess(T result, int statusCode, Map<String, List<String>> responseHeaders) {
+        complete(result);
+    }
+
+    @Override
+    public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {
+    }
+
+    @Override
+    public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
+    }
+}
@@ -0,0 +1,81 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.dspace.authorize.ResourcePolicy;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the READ policies and the license of many bitstreams at once: one query for the policies and one for the
+ * license metadata of all bitstreams, instead of one query per bitstream for each of them. The access type and the
+ * license are then determined in memory.
+ * <p>
+ * The queries run on the Hibernate session of the context, like the DAOs of DSpace do, since the DSpace services
+ * only read the policies and metadata of a single object.
+ */
+class BitstreamAccessResolver {
+
+    private static final String READ_POLICIES_QUERY = "SELECT rp.dSpaceObject.id, rp FROM ResourcePolicy rp"
+        + " LEFT JOIN FETCH rp.epersonGroup WHERE rp.dSpaceObject.id IN (:ids) AND rp.actionId = :action";
+    private static final String METADATA_QUERY = "SELECT mv.dSpaceObject.id, mv.value FROM MetadataValue mv"
+        + " JOIN mv.metadataField f JOIN f.metadataSchema s"
+        + " WHERE mv.dSpaceObject.id IN (:ids) AND s.name = :schema AND f.element = :element";
+
+    /**
+     * @return the READ policies of the bitstreams by bitstream id; bitstreams without READ policy are missing
+     */
+    Map<UUID, List<ResourcePolicy>> findReadPolicies(Context context, Collection<UUID> bitstreamIds)
+        throws SQLException {
+        Map<UUID, List<ResourcePolicy>> policies = new HashMap<>();
+        if (bitstreamIds.isEmpty()) {
+            return policies;
+        }
+        TypedQuery<Object[]> query = getEntityManager(context).createQuery(READ_POLICIES_QUERY, Object[].class)
+            .setParameter("ids", bitstreamIds)
+            .setParameter("action", Constants.READ);
+        for (Object[] row : query.getResultList()) {
+            policies.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((ResourcePolicy) row[1]);
+        }
+        return policies;
+    }
+
+    /**
+     * @param metadataField the field as {@code schema.element} or {@code schema.element.qualifier}
+     * @return the first value of the field by bitstream id; bitstreams without value are missing
+     */
+    Map<UUID, String> findFirstMetadataValues(Context context, Collection<UUID> bitstreamIds, String metadataField)
+        throws SQLException {
+        Map<UUID, String> values = new HashMap<>();
+        String[] fieldParts = metadataField.split("\\.", 3);
+        if (bitstreamIds.isEmpty() || fieldParts.length < 2) {
+            return values;
+        }
+        String qualifierCondition =
+            fieldParts.length == 3 ? " AND f.qualifier = :qualifier" : " AND f.qualifier IS NULL";
+        TypedQuery<Object[]> query = getEntityManager(context)
+            .createQuery(METADATA_QUERY + qualifierCondition + " ORDER BY mv.place", Object[].class)
+            .setParameter("ids", bitstreamIds)
+            .setParameter("schema", fieldParts[0])
+            .setParameter("element", fieldParts[1]);
+        if (fieldParts.length == 3) {
+            query.setParameter("qualifier", fieldParts[2]);
+        }
+        for (Object[] row : query.getResultList()) {
+            values.putIfAbsent((UUID) row[0], (String) row[1]);
+        }
+        return values;
+    }
+
+    private static EntityManager getEntityManager(Context context) throws SQLException {
+        return (EntityManager) context.getDBConnection().getSession();
+    }
+}
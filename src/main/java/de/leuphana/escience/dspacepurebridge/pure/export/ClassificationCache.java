@@ -0,0 +1,187 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
+import de.leuphana.escience.dspacepurebridge.pure.generated.JSON;
+import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
+import org.dspace.services.ConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of the classifications Pure allows for the fields of the exported objects (types, languages, roles, ...).
+ * <p>
+ * The classifications are kept in the file {@code classifications.json} in the state directory, so that they do
+ * not have to be fetched from Pure on every run. An entry older than the configured TTL is fetched again; if
+ * that fails, the stale entry is used. Independent of the TTL, an entry can be {@link #revalidate revalidated}
+ * once per run, e.g. when a mapped classification is missing from it.
+ */
+class ClassificationCache {
+    private static final Logger log = LoggerFactory.getLogger(ClassificationCache.class);
+
+    static final String TTL = "dspace-pure-bridge.export.classifications.ttl";
+    static final String CLASSIFICATIONS_FILE = "classifications.json";
+    private static final int VERSION = 1;
+    private static final Type CLASSIFICATION_REFS_TYPE = new TypeToken<List<ClassificationRef>>() {
+    }.getType();
+
+    private final Path file;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Set<String> revalidatedKeys = new HashSet<>();
+    private boolean modified;
+
+    /**
+     * Fetches the classifications of one cache entry from Pure.
+     */
+    @FunctionalInterface
+    interface Loader {
+        List<ClassificationRef> load() throws ApiException;
+    }
+
+    private record Entry(Instant fetched, List<ClassificationRef> classificationRefs) {
+    }
+
+    /**
+     * @param file the file the classifications are persisted in, {@code null} to keep them in memory only
+     * @param ttl  the time after which persisted classifications are fetched again
+     */
+    ClassificationCache(Path file, Duration ttl, Clock clock) {
+        this.file = file;
+        this.ttl = ttl;
+        this.clock = clock;
+        if (file != null) {
+            read();
+        }
+    }
+
+    /**
+     * Creates the cache from the configuration. The classifications are persisted if a state directory is
+     * available and the TTL (in hours, default 24) is positive.
+     */
+    static ClassificationCache fromConfiguration(ConfigurationService configurationService) {
+        int ttlHours = ConfigurationUtils.getIntProperty(configurationService, TTL, 24);
+        Path stateDirectory = ConfigurationUtils.getStateDirectory(configurationService);
+        Path file = ttlHours > 0 && stateDirectory != null ? stateDirectory.resolve(CLASSIFICATIONS_FILE) : null;
+        return new ClassificationCache(file, Duration.ofHours(Math.max(ttlHours, 0)), Clock.systemUTC());
+    }
+
+    /**
+     * @return the cached classifications, which are loaded if they are missing or have expired
+     */
+    synchronized List<ClassificationRef> get(String key, Loader loader) throws ApiException {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.fetched().plus(ttl).isAfter(clock.instant())) {
+            return entry.classificationRefs();
+        }
+        try {
+            return load(key, loader);
+        } catch (ApiException e) {
+            if (entry == null) {
+                throw e;
+            }
+            log.warn("Fetching Pure classification {} failed, using the classifications fetched at {}: {}",
+                    key, entry.fetched(), e.getMessage());
+            return entry.classificationRefs();
+        }
+    }
+
+    /**
+     * Loads the classifications again, regardless of their age. Each entry is revalidated at most once per run.
+     *
+     * @return the classifications, or {@code null} if the entry has already been revalidated
+     */
+    synchronized List<ClassificationRef> revalidate(String key, Loader loader) throws ApiException {
+        if (!revalidatedKeys.add(key)) {
+            return null;
+        }
+        log.info("Revalidating Pure classification {}", key);
+        return load(key, loader);
+    }
+
+    private List<ClassificationRef> load(String key, Loader loader) throws ApiException {
+        List<ClassificationRef> classificationRefs = List.copyOf(loader.load());
+        entries.put(key, new Entry(clock.instant(), classificationRefs));
+        revalidatedKeys.add(key);
+        modified = true;
+        return classificationRefs;
+    }
+
+    /**
+     * Writes the classifications to the file if they have been modified.
+     */
+    synchronized void save() {
+        if (file == null || !modified) {
+            return;
+        }
+        Gson gson = JSON.getGson();
+        JsonObject jsonEntries = new JsonObject();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            JsonObject jsonEntry = new JsonObject();
+            jsonEntry.addProperty("fetched", entry.getValue().fetched().toEpochMilli());
+            jsonEntry.add("classifications", gson.toJsonTree(entry.getValue().classificationRefs(),
+                    CLASSIFICATION_REFS_TYPE));
+            jsonEntries.add(entry.getKey(), jsonEntry);
+        }
+        JsonObject json = new JsonObject();
+        json.addProperty("version", VERSION);
+        json.add("entries", jsonEntries);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                gson.toJson(json, writer);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+        } catch (IOException e) {
+            log.warn("Could not write Pure classifications to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void read() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Gson gson = JSON.getGson();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject json = gson.fromJson(reader, JsonObject.class);
+            if (json == null || !json.has("version") || json.get("version").getAsInt() != VERSION) {
+                log.warn("Ignoring Pure classifications {}: unknown format", file);
+                return;
+            }
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("entries").entrySet()) {
+                JsonObject jsonEntry = entry.getValue().getAsJsonObject();
+                List<ClassificationRef> classificationRefs =
+                        gson.fromJson(jsonEntry.get("classifications"), CLASSIFICATION_REFS_TYPE);
+                entries.put(entry.getKey(), new Entry(Instant.ofEpochMilli(jsonEntry.get("fetched").getAsLong()),
+                        List.copyOf(classificationRefs)));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring Pure classifications {}: {}", file, e.getMessage());
+            entries.clear();
+        }
+    }
+}
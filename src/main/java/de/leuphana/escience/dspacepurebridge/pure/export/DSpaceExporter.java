@@ -2,10 +2,10 @@ package de.leuphana.escience.dspacepurebridge.pure.export;
 
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
-import org.dspace.content.Item;
 import org.dspace.core.Context;
 
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public interface DSpaceExporter {
     void init() throws ApiException;
@@ -14,12 +14,20 @@ public interface DSpaceExporter {
 
     void setupClassifications() throws ApiException;
 
-    ExportItem createExport(Context context, Item item, String syncTypeValue) throws
+    ExportItem createExport(Context context, ItemMetadata itemMetadata, String syncTypeValue) throws
         ApiException,
         SQLException;
 
     ExportResult export(ExportItem exportItem) throws ApiException;
 
+    /**
+     * Creates the export item in Pure without waiting for the response.
+     *
+     * @return the future of the export result, completed exceptionally with an {@link ApiException} if Pure
+     * rejects the item or cannot be reached
+     */
+    CompletableFuture<ExportResult> exportAsync(ExportItem exportItem) throws ApiException;
+
     DuplicateCheckResult concreteDuplicateCheck(PureWSResultItem pureWSResultItem, String doi,
                                                                    String title);
 
@@ -1,14 +1,19 @@
 package de.leuphana.escience.dspacepurebridge.pure.export;
 
 import de.leuphana.escience.dspacepurebridge.CLIScriptContextUtils;
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.NamedExecutors;
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import de.leuphana.escience.dspacepurebridge.pure.PureHttpTransport;
 import de.leuphana.escience.dspacepurebridge.pure.export.filter.PublicationExportFilter;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.imports.DSpaceObjectMappings;
 import de.leuphana.escience.dspacepurebridge.search.ItemFinder;
 import de.leuphana.escience.dspacepurebridge.search.ItemProcessor;
 import de.leuphana.escience.dspacepurebridge.search.SearchQueryType;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.StringUtils;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataValue;
@@ -18,22 +23,29 @@ import org.dspace.core.I18nUtil;
 import org.dspace.discovery.SearchServiceException;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.handle.service.HandleService;
+import org.dspace.services.ConfigurationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.sql.SQLException;
-import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 public class DSpaceToPure {
 
     static final String SYNC_MAIL_RECIPIENTS = "dspace-pure-bridge.export.mail.recipients";
+    static final String EXPORTS_IN_FLIGHT = "dspace-pure-bridge.export.inflight";
+    static final String EXPORT_WORKERS = "dspace-pure-bridge.export.workers";
+    static final String STAGE_TIMER = "export.stage";
 
 
     public static final String DEFAULT_METADATA_VALUE = "default";
@@ -49,20 +61,34 @@ public class DSpaceToPure {
     private final DSpaceObjectMappings dSpaceObjectMappings = new DSpaceObjectMappings();
 
     private final List<PublicationExportFilter> filterList = new ArrayList<>();
-    private String exportDataHandle;
+    private List<String> exportTargets = List.of();
     private int exportLimit;
     private boolean checkOnly;
 
     private final Map<String, ExportType> exportTypeHashMap = new HashMap<>();
+    // persons related to many publications are loaded once per run for all exporters
+    private final PersonCache personCache = new PersonCache();
     private Map<ExportType, AbstractExport> exporterRegistry;
+    private ClassificationCache classificationCache;
+    private ExportRetryPolicy retryPolicy = ExportRetryPolicy.noRetries();
+    private final Queue<UUID> deferredItems = new ConcurrentLinkedQueue<>();
+    private volatile boolean lastAttempt;
+    private int exportWorkers = Runtime.getRuntime().availableProcessors();
+    private Semaphore exportPermits = new Semaphore(Integer.MAX_VALUE);
+    private Semaphore databasePermits;
+    private final Set<CompletableFuture<Void>> pendingExports = ConcurrentHashMap.newKeySet();
+    // completing an export is a short database write, which takes a database permit like the sync threads
+    private Executor exportCompletionExecutor = Runnable::run;
+    private Executor exportRetryExecutor = Runnable::run;
 
 
     public DSpaceToPure(String leuphanaPureWsEndpointBase, String leuphanaPureWsApiKey, String dspaceBaseUrl,
-                        String exportDataHandle, int exportLimit, boolean checkOnly,
-                        DSpaceServicesContainer dSpaceServicesContainer, ItemFinder itemFinder) {
+                        List<String> exportTargets, int exportLimit, boolean checkOnly,
+                        DSpaceServicesContainer dSpaceServicesContainer, ItemFinder itemFinder,
+                        PureHttpTransport httpTransport) {
         this.dSpaceServicesContainer = dSpaceServicesContainer;
         this.itemFinder = itemFinder;
-        this.exportDataHandle = exportDataHandle;
+        this.exportTargets = exportTargets;
         this.exportLimit = exportLimit;
         this.checkOnly = checkOnly;
 
@@ -71,11 +97,7 @@ public class DSpaceToPure {
         setupFilters();
         setupTypeToExportTypeMap();
 
-        RestTemplate duplicateCheckRestTemplate = new RestTemplateBuilder()
-                .requestFactory(HttpComponentsClientHttpRequestFactory.class)
-                .connectTimeout(Duration.ofMillis(60000))
-                .readTimeout(Duration.ofMillis(60000))
-                .defaultHeader("api-key", leuphanaPureWsApiKey).build();
+        RestTemplate duplicateCheckRestTemplate = httpTransport.restTemplateBuilder(leuphanaPureWsApiKey).build();
 
         exportStatus = new ExportStatus(dspaceBaseUrl);
         ResearchOutputExport researchOutputExport =
@@ -84,9 +106,33 @@ public class DSpaceToPure {
         StudentThesisExport studentThesisExport =
                 new StudentThesisExport(leuphanaPureWsEndpointBase, leuphanaPureWsApiKey, dSpaceServicesContainer,
                         dSpaceObjectMappings, exportStatus, duplicateCheckRestTemplate);
+        classificationCache = ClassificationCache.fromConfiguration(dSpaceServicesContainer.getConfigurationService());
+        ConfigurationService configurationService = dSpaceServicesContainer.getConfigurationService();
+        exportRetryExecutor = NamedExecutors.newCachedDaemonExecutor("pure-export-retry");
+        retryPolicy = ExportRetryPolicy.fromConfiguration(configurationService, exportRetryExecutor);
+        exportWorkers = ConfigurationUtils.getIntProperty(configurationService, EXPORT_WORKERS,
+                Runtime.getRuntime().availableProcessors());
+        if (exportWorkers < 1) {
+            throw new IllegalStateException(EXPORT_WORKERS + " must be at least 1!");
+        }
+        exportPermits = new Semaphore(ConfigurationUtils.getIntProperty(configurationService, EXPORTS_IN_FLIGHT,
+                4 * exportWorkers));
+        int databaseConnections = ConfigurationUtils.getIntProperty(configurationService,
+                ConfigurationUtils.DATABASE_CONNECTIONS, exportWorkers);
+        setDatabaseConnections(databaseConnections);
+        // more completion threads than database permits would only wait for a permit
+        exportCompletionExecutor = BridgeMetrics.monitor(NamedExecutors.newFixedDaemonExecutor(
+                "pure-export-completion", Math.min(exportWorkers, databaseConnections)), "pure-export-completion");
+        researchOutputExport.setHttpTransport(httpTransport);
+        researchOutputExport.setClassificationCache(classificationCache);
+        researchOutputExport.setPersonCache(personCache);
+        studentThesisExport.setHttpTransport(httpTransport);
+        studentThesisExport.setClassificationCache(classificationCache);
+        studentThesisExport.setPersonCache(personCache);
         try {
             researchOutputExport.init();
             studentThesisExport.init();
+            classificationCache.save();
             exporterRegistry.put(ExportType.STUDENT_THESIS, studentThesisExport);
             exporterRegistry.put(ExportType.RESEARCH_OUTPUT, researchOutputExport);
         } catch (ApiException e) {
@@ -123,32 +169,45 @@ public class DSpaceToPure {
         }
     }
 
+    /**
+     * Prepares the export of an item under a context of its own, which is closed as soon as the item has been sent
+     * to Pure. The response of Pure is awaited without holding the context, see {@link #completeExport}.
+     * <p>
+     * Waits before preparing the item while too many items are in flight, i.e. prepared but not completed, and
+     * before opening the context while all database permits are taken.
+     */
     void syncItemThread(UUID itemId) {
+        try {
+            exportPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            // the context and the database permit are not held while Pure is down
+            retryPolicy.awaitAvailable();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exportPermits.release();
+            return;
+        }
+        acquireDatabasePermit();
         Context context = null;
+        CompletableFuture<Void> export = null;
 
         try {
             context = CLIScriptContextUtils.createReducedContext();
             Item item = dSpaceServicesContainer.getItemService().find(context, itemId);
 
-            if (exportLimit > 0 && exportStatus.getItemSyncInfos().size() >= exportLimit) {
+            if (exportLimit > 0 && exportStatus.getItemSyncInfos().size() + pendingExports.size() >= exportLimit) {
                 log.info("Export limit {} reached, will not sync item with handle: {}", exportLimit, item.getHandle());
                 CLIScriptContextUtils.closeContext(context);
                 return;
             }
 
-            if (StringUtils.isNotEmpty(exportDataHandle) && !exportDataHandle.equals(item.getHandle())) {
-                log.info("Item handle {} is not the requested handle: {}", item.getHandle(), exportDataHandle);
-                CLIScriptContextUtils.closeContext(context);
-                return;
-            }
-
-            String itemPureUUID = dSpaceServicesContainer
-                    .getItemService()
-                    .getMetadataFirstValue(item,
-                            Constants.SCHEME,
-                            Constants.ELEMENT,
-                            Constants.UUID_QUALIFIER,
-                            Item.ANY);
+            ItemMetadata itemMetadata = ItemMetadata.of(item, dSpaceServicesContainer.getItemService());
+            String itemPureUUID = itemMetadata.getFirstValue(
+                    Constants.SCHEME + "." + Constants.ELEMENT + "." + Constants.UUID_QUALIFIER);
             if (StringUtils.isNotBlank(itemPureUUID)) {
                 log.info("Item {} already present in pure (pure uuid = {})", item.getHandle(), itemPureUUID);
                 CLIScriptContextUtils.closeContext(context);
@@ -157,8 +216,7 @@ public class DSpaceToPure {
 
             String typeToSync = null;
             for (PublicationExportFilter publicationExportFilter : filterList) {
-                typeToSync =
-                        publicationExportFilter.itemIsSyncableForType(item, dSpaceServicesContainer.getItemService());
+                typeToSync = publicationExportFilter.itemIsSyncableForType(itemMetadata);
                 if (StringUtils.isNotEmpty(typeToSync)) {
                     break;
                 }
@@ -182,25 +240,46 @@ public class DSpaceToPure {
             }
 
             log.info("Syncing item {} to pure", item.getHandle());
-            syncDSpaceItemToPure(context, item, typeToSync, exportType);
+            export = syncDSpaceItemToPure(context, itemMetadata, typeToSync, exportType);
         } catch (SQLException e) {
             if (context != null) {
                 context.abort();
             }
             throw new RuntimeException(e);
         } finally {
-            CLIScriptContextUtils.closeContext(context);
+            try {
+                CLIScriptContextUtils.closeContext(context);
+            } finally {
+                releaseDatabasePermit();
+            }
+            if (export == null) {
+                exportPermits.release();
+            } else {
+                export.whenComplete((result, failure) -> exportPermits.release());
+            }
         }
     }
 
+    /**
+     * @return the number of requests the export sends to Pure at most at the same time: the prefetched pages of the
+     * duplicate check of every worker and the exports in flight
+     */
+    public static int getConcurrentRequests(ConfigurationService configurationService) {
+        int workers = ConfigurationUtils.getIntProperty(configurationService, EXPORT_WORKERS,
+                Runtime.getRuntime().availableProcessors());
+        int prefetch = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.PURE_WS_PREFETCH, 2);
+        int exportsInFlight = ConfigurationUtils.getIntProperty(configurationService, EXPORTS_IN_FLIGHT, 4 * workers);
+        return workers * Math.max(prefetch, 1) + exportsInFlight;
+    }
+
     public void syncItems() {
         if (filterList.isEmpty()) {
             log.error("No filters defined! Use property: 'leuphana.pure.export.filter'");
             return;
         }
 
-        if (StringUtils.isNotEmpty(exportDataHandle)) {
-            log.info("Export limited to handle: {}", exportDataHandle);
+        if (!exportTargets.isEmpty()) {
+            log.info("Export limited to: {}", exportTargets);
         }
         if (exportLimit > 0) {
             log.info("Export limited to {} number of successful exports", exportLimit);
@@ -219,14 +298,29 @@ public class DSpaceToPure {
 
             log.info("Fetching relevant items");
             ExecutorService pureSyncerThreadPool =
-                    Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-
-            itemFinder.processAllItems(context, dSpaceServicesContainer.getSearchService(), SearchQueryType.PUBLICATION_EXPORT, (ItemProcessor) item -> {
-                pureSyncerThreadPool.execute(() -> syncItemThread(item.getID()));
-            });
+                    BridgeMetrics.monitor(Executors.newFixedThreadPool(exportWorkers), "pure-export");
+            BridgeMetrics.gauge("export.inflight", pendingExports, Set::size);
+            BridgeMetrics.gauge("export.persons.cached", personCache, PersonCache::size);
+
+            if (exportTargets.isEmpty()) {
+                compileFilterQuery(context);
+                itemFinder.processAllItems(context, dSpaceServicesContainer.getSearchService(), SearchQueryType.PUBLICATION_EXPORT, (ItemProcessor) item -> {
+                    pureSyncerThreadPool.execute(() -> syncItemThread(item.getID()));
+                });
+            } else {
+                for (UUID itemId : resolveExportTargets(context)) {
+                    pureSyncerThreadPool.execute(() -> syncItemThread(itemId));
+                }
+            }
             pureSyncerThreadPool.shutdown();
             pureSyncerThreadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-            log.info("Everything done");
+            awaitPendingExports();
+            retryDeferredItems();
+            log.info("Everything done ({} related persons loaded)", personCache.size());
+            if (classificationCache != null) {
+                // keeps the classifications revalidated during the export
+                classificationCache.save();
+            }
             sendErrorEmail(context);
         } catch (SearchServiceException | SQLException | InterruptedException e) {
             if (context != null) {
@@ -237,10 +331,43 @@ public class DSpaceToPure {
             }
             throw new RuntimeException(e);
         } finally {
+            // lets the retries and completions still queued after a failure finish, but accepts no new ones
+            for (Executor executor : List.of(exportRetryExecutor, exportCompletionExecutor)) {
+                if (executor instanceof ExecutorService executorService) {
+                    executorService.shutdown();
+                }
+            }
             CLIScriptContextUtils.closeContext(context);
         }
     }
 
+    /**
+     * Narrows down the publications found by Discovery to those possibly matching the export filters, so that
+     * publications which can never be exported are not loaded. The filters are still checked for every item in
+     * {@link #syncItemThread}.
+     */
+    void compileFilterQuery(Context context) throws SQLException {
+        String filterQuery = PublicationExportFilter.toFilterQuery(filterList, context,
+                dSpaceServicesContainer.getHandleService());
+        if (filterQuery == null) {
+            log.info("Export filters do not narrow down the publications searched");
+            itemFinder.setAdditionalFilterQueries(SearchQueryType.PUBLICATION_EXPORT, List.of());
+        } else {
+            log.info("Searching publications matching the export filters: {}", filterQuery);
+            itemFinder.setAdditionalFilterQueries(SearchQueryType.PUBLICATION_EXPORT, List.of(filterQuery));
+        }
+    }
+
+    /**
+     * @return the items of the targets the export is limited to, resolved directly instead of searching all
+     * publications
+     */
+    Set<UUID> resolveExportTargets(Context context) throws SQLException {
+        Set<UUID> itemIds = new ExportTargetResolver(dSpaceServicesContainer).resolve(context, exportTargets);
+        log.info("Export targets resolved to {} items", itemIds.size());
+        return itemIds;
+    }
+
     void sendErrorEmail(Context context) {
         if (!exportStatus.getItemSyncInfos().isEmpty() || !exportStatus.getItemSyncErrors().isEmpty()) {
             String[] mailRecipients =
@@ -268,58 +395,201 @@ public class DSpaceToPure {
         }
     }
 
-    void syncDSpaceItemToPure(Context context, Item item,
-                              String syncTypeValue, ExportType exportType)
+    /**
+     * Checks the item for a duplicate in Pure and sends it to Pure if there is none. The metadata of the item is
+     * read once for the filters, the duplicate check and the mapping.
+     *
+     * @return the future of the export, completed once its result is stored; already completed if the item was not
+     * sent to Pure
+     */
+    CompletableFuture<Void> syncDSpaceItemToPure(Context context, ItemMetadata itemMetadata,
+                                                 String syncTypeValue, ExportType exportType)
             throws SQLException {
 
+        Item item = itemMetadata.getItem();
         AbstractExport exporter = exporterRegistry.get(exportType);
         ExportItem exportItem;
         try {
-            ExportResult exportResult = exporter.checkForDuplicate(item, exportType);
+            ExportResult exportResult = timeStage("checkForDuplicate",
+                    () -> retryPolicy.callOnce(() -> exporter.checkForDuplicate(itemMetadata, exportType)));
             if (exportResult != null && exportResult.getUuid() != null) {
                 markItemAsSynced(context, item, exportResult, true);
-                return;
+                return CompletableFuture.completedFuture(null);
             }
-            exportItem = exporter.createExport(context, item, syncTypeValue);
+            exportItem = timeStage("createExport",
+                    () -> retryPolicy.callOnce(() -> exporter.createExport(context, itemMetadata, syncTypeValue)));
         } catch (ApiException e) {
-            log.error(exportStatus.error(item,
-                    "An exception occurred during export creation: Message: " + e.getMessage() + " - HTTP Status: " +
-                            e.getCode() + " - " + e.getResponseBody()));
-            return;
+            handleExportFailure(item, "An exception occurred during export creation: Message: " + e.getMessage() +
+                    " - HTTP Status: " + e.getCode() + " - " + e.getResponseBody(), e);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            if (!ExportRetryPolicy.isRetryable(e)) {
+                throw e;
+            }
+            handleExportFailure(item, "An exception occurred during export creation: Message: " + e.getMessage(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (exportItem == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        if (exportItem != null) {
-            if (checkOnly) {
-                log.info("Item {} is ready for export", item.getHandle());
+        if (checkOnly) {
+            log.info("Item {} is ready for export", item.getHandle());
+            return CompletableFuture.completedFuture(null);
+        }
+        UUID itemId = item.getID();
+        Timer.Sample sample = Timer.start();
+        CompletableFuture<Void> export = retryPolicy.callAsync(() -> exporter.exportAsync(exportItem), false)
+                .handleAsync((exportResult, failure) -> {
+                    sample.stop(BridgeMetrics.timer(STAGE_TIMER, "stage", "export"));
+                    completeExport(itemId, exportResult, failure);
+                    return null;
+                }, exportCompletionExecutor);
+        pendingExports.add(export);
+        export.whenComplete((result, failure) -> pendingExports.remove(export));
+        return export;
+    }
+
+    /**
+     * Stores the result of an export sent to Pure under a new context: the Pure UUID of a created item, or the
+     * failure of the export.
+     */
+    void completeExport(UUID itemId, ExportResult exportResult, Throwable failure) {
+        acquireDatabasePermit();
+        Context context = null;
+        try {
+            context = CLIScriptContextUtils.createReducedContext();
+            Item item = dSpaceServicesContainer.getItemService().find(context, itemId);
+            if (failure == null) {
+                markItemAsSynced(context, item, exportResult, false);
                 return;
             }
-            ExportResult exportResult;
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (cause instanceof ApiException e) {
+                handleExportFailure(item, "An exception occurred during export: Message: " + e.getMessage() +
+                        " - HTTP Status: " + e.getCode() + " - " + e.getResponseBody(), e);
+            } else if (cause instanceof Exception e) {
+                handleExportFailure(item, "An exception occurred during export: Message: " + e.getMessage(), e);
+            } else {
+                log.error(exportStatus.error(item, "An exception occurred during export: Message: " +
+                        cause.getMessage()));
+            }
+        } catch (SQLException e) {
+            if (context != null) {
+                context.abort();
+            }
+            log.error("Could not store the export result of item {}", itemId, e);
+        } finally {
+            try {
+                CLIScriptContextUtils.closeContext(context);
+            } finally {
+                releaseDatabasePermit();
+            }
+        }
+    }
+
+    private void acquireDatabasePermit() {
+        if (databasePermits != null) {
+            databasePermits.acquireUninterruptibly();
+        }
+    }
+
+    private void releaseDatabasePermit() {
+        if (databasePermits != null) {
+            databasePermits.release();
+        }
+    }
+
+    /**
+     * Waits until the results of all exports sent to Pure are stored.
+     */
+    void awaitPendingExports() {
+        CompletableFuture<?>[] exports;
+        while ((exports = pendingExports.toArray(new CompletableFuture<?>[0])).length > 0) {
+            try {
+                CompletableFuture.allOf(exports).join();
+            } catch (CompletionException e) {
+                log.error("Error while completing export", e.getCause());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws ApiException, SQLException;
+    }
+
+    private static <T> T timeStage(String stage, Stage<T> call) throws ApiException, SQLException {
+        Timer.Sample sample = Timer.start();
+        try {
+            return call.run();
+        } finally {
+            sample.stop(BridgeMetrics.timer(STAGE_TIMER, "stage", stage));
+        }
+    }
+
+    /**
+     * Defers an item that failed because Pure was temporarily unavailable, so that it is exported again at the end
+     * of the run. Other failures, and failures of deferred items on their last attempt, are reported as errors.
+     */
+    private void handleExportFailure(Item item, String message, Exception e) {
+        if (!lastAttempt && ExportRetryPolicy.isRetryable(e)) {
+            log.warn("Deferring export of item {} to the end of the run: {}", item.getHandle(), message);
+            deferredItems.add(item.getID());
+            return;
+        }
+        log.error(exportStatus.error(item, message));
+    }
+
+    /**
+     * Exports the deferred items again and waits for their results, round by round, until the attempts of the retry
+     * policy are used up. Between the rounds, the export waits with the backoff of the policy without holding a
+     * context, instead of retrying the Pure calls of an item while it holds one. An item that Pure created despite
+     * the failure is found by the duplicate check.
+     */
+    void retryDeferredItems() {
+        for (int attempt = 2; !deferredItems.isEmpty(); attempt++) {
+            lastAttempt = attempt >= retryPolicy.getMaxAttempts();
+            long backoffMillis = retryPolicy.getBackoff(attempt - 1, null).toMillis();
+            log.info("Retrying the export of {} deferred items in {} ms", deferredItems.size(), backoffMillis);
             try {
-                exportResult = exporter.export(exportItem);
-            } catch (ApiException e) {
-                log.error(exportStatus.error(item,
-                        "An exception occurred during export: Message: " + e.getMessage() + " - HTTP Status: " +
-                                e.getCode() + " - " + e.getResponseBody()));
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
             }
-            if (exportResult != null && exportResult.getUuid() != null) {
-                markItemAsSynced(context, item, exportResult, false);
+            List<UUID> itemIds = new ArrayList<>();
+            UUID itemId;
+            while ((itemId = deferredItems.poll()) != null) {
+                itemIds.add(itemId);
             }
+            itemIds.forEach(this::syncItemThread);
+            awaitPendingExports();
         }
     }
 
+    Queue<UUID> getDeferredItems() {
+        return deferredItems;
+    }
+
     void markItemAsSynced(Context context, Item item, ExportResult exportResult, boolean isDoublet)
             throws SQLException {
         if (exportResult != null && exportResult.getUuid() != null) {
+            Timer.Sample sample = Timer.start();
             dSpaceServicesContainer.getItemService()
                     .addMetadata(context, item, Constants.SCHEME,
                             Constants.ELEMENT,
                             Constants.UUID_QUALIFIER, null,
                             String.valueOf(exportResult.getUuid()));
+            Timer.Sample reindexSample = Timer.start();
             try {
                 dSpaceServicesContainer.getIndexingService().indexContent(context, new IndexableItem(item), true, true);
             } catch (SearchServiceException e) {
                 log.error("Error indexing item with UUID: {}", item.getID(), e);
                 throw new RuntimeException(e);
+            } finally {
+                reindexSample.stop(BridgeMetrics.timer(STAGE_TIMER, "stage", "reindex"));
+                sample.stop(BridgeMetrics.timer(STAGE_TIMER, "stage", "markItemAsSynced"));
             }
             String successMessage = exportStatus.success(item, exportResult, isDoublet);
             log.info(successMessage);
@@ -363,6 +633,24 @@ public class DSpaceToPure {
         return Collections.unmodifiableMap(exportTypeHashMap);
     }
 
+    /**
+     * @param databaseConnections maximum number of DSpace contexts the export threads open at the same time
+     */
+    void setDatabaseConnections(int databaseConnections) {
+        if (databaseConnections < 1) {
+            throw new IllegalStateException(ConfigurationUtils.DATABASE_CONNECTIONS + " must be at least 1!");
+        }
+        databasePermits = new Semaphore(databaseConnections);
+    }
+
+    void setRetryPolicy(ExportRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    Semaphore getDatabasePermits() {
+        return databasePermits;
+    }
+
     int getExportLimit() {
         return exportLimit;
     }
@@ -379,12 +667,12 @@ public class DSpaceToPure {
         this.checkOnly = checkOnly;
     }
 
-    String getExportDataHandle() {
-        return exportDataHandle;
+    List<String> getExportTargets() {
+        return exportTargets;
     }
 
-    void setExportDataHandle(String exportDataHandle) {
-        this.exportDataHandle = exportDataHandle;
+    void setExportTargets(List<String> exportTargets) {
+        this.exportTargets = exportTargets;
     }
 
     DSpaceObjectMappings getdSpaceObjectMappings() {
@@ -0,0 +1,302 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
+import de.leuphana.escience.dspacepurebridge.concurrent.CircuitBreaker;
+import de.leuphana.escience.dspacepurebridge.concurrent.CircuitBreakerOpenException;
+import de.leuphana.escience.dspacepurebridge.pure.PureAdmissionController;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
+import org.dspace.services.ConfigurationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries Pure calls of the export that failed because Pure was temporarily unavailable.
+ * <p>
+ * Only failures that may go away are retried: I/O errors, timeouts, throttling and 5xx responses. Between
+ * attempts, the policy waits with jittered exponential backoff, or as long as a {@code Retry-After} header asks.
+ * Calls creating objects in Pure are only retried if Pure has certainly not processed them (429, 503, refused
+ * connections), so that a retry cannot create a second object.
+ * <p>
+ * All calls go through a shared {@link CircuitBreaker}, which pauses the export while Pure is down. Asynchronous
+ * calls wait for the breaker and for their backoff on the executor of the policy, not on the calling thread.
+ * Synchronous calls are made once and fail at once while the breaker is open; the caller retries them later.
+ */
+class ExportRetryPolicy {
+    private static final Logger log = LoggerFactory.getLogger(ExportRetryPolicy.class);
+
+    static final String ATTEMPTS = "dspace-pure-bridge.export.retry.attempts";
+    static final String DELAY = "dspace-pure-bridge.export.retry.delay";
+    static final String MAX_DELAY = "dspace-pure-bridge.export.retry.maxdelay";
+    static final String CIRCUIT_BREAKER_FAILURES = "dspace-pure-bridge.export.circuitbreaker.failures";
+    static final String CIRCUIT_BREAKER_PAUSE = "dspace-pure-bridge.export.circuitbreaker.pause";
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(408, 425, 429, 500, 502, 503, 504);
+    private static final Set<Integer> NOT_PROCESSED_STATUS_CODES = Set.of(429, 503);
+
+    private final int maxAttempts;
+    private final Duration delay;
+    private final Duration maxDelay;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor asyncExecutor;
+
+    /**
+     * A call to Pure.
+     */
+    @FunctionalInterface
+    interface PureCall<T> {
+        T call() throws ApiException, SQLException;
+    }
+
+    /**
+     * An asynchronous call to Pure, returning the future of its result.
+     */
+    @FunctionalInterface
+    interface AsyncPureCall<T> {
+        CompletableFuture<T> call() throws ApiException;
+    }
+
+    ExportRetryPolicy(int maxAttempts, Duration delay, Duration maxDelay, CircuitBreaker circuitBreaker) {
+        this(maxAttempts, delay, maxDelay, circuitBreaker, Runnable::run);
+    }
+
+    ExportRetryPolicy(int maxAttempts, Duration delay, Duration maxDelay, CircuitBreaker circuitBreaker,
+                      Executor asyncExecutor) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Number of attempts must be at least 1!");
+        }
+        this.maxAttempts = maxAttempts;
+        this.delay = delay;
+        this.maxDelay = maxDelay;
+        this.circuitBreaker = circuitBreaker;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @return a policy making a single attempt per call, without circuit breaker
+     */
+    static ExportRetryPolicy noRetries() {
+        return new ExportRetryPolicy(1, Duration.ZERO, Duration.ZERO, null);
+    }
+
+    /**
+     * @param asyncExecutor executor issuing the asynchronous calls and their retries, owned by the caller
+     */
+    static ExportRetryPolicy fromConfiguration(ConfigurationService configurationService, Executor asyncExecutor) {
+        int attempts = ConfigurationUtils.getIntProperty(configurationService, ATTEMPTS, 3);
+        int delayMillis = ConfigurationUtils.getIntProperty(configurationService, DELAY, 1000);
+        int maxDelayMillis = ConfigurationUtils.getIntProperty(configurationService, MAX_DELAY, 30000);
+        int failures = ConfigurationUtils.getIntProperty(configurationService, CIRCUIT_BREAKER_FAILURES, 5);
+        int pauseSeconds = ConfigurationUtils.getIntProperty(configurationService, CIRCUIT_BREAKER_PAUSE, 60);
+        return new ExportRetryPolicy(attempts, Duration.ofMillis(delayMillis), Duration.ofMillis(maxDelayMillis),
+            new CircuitBreaker("Pure", failures, Duration.ofSeconds(pauseSeconds), Duration.ofMinutes(10)),
+            asyncExecutor);
+    }
+
+    /**
+     * Makes a single attempt of the call without waiting, for callers holding resources that must not be held
+     * while Pure is down. Such callers wait with {@link #awaitAvailable()} before taking the resources, and retry a
+     * failed call after releasing them, waiting for the {@link #getBackoff backoff} of the attempt.
+     *
+     * @throws CircuitBreakerOpenException if the circuit breaker is open
+     */
+    <T> T callOnce(PureCall<T> call) throws ApiException, SQLException {
+        return attempt(call, circuitBreaker != null && circuitBreaker.tryEnter());
+    }
+
+    /**
+     * Waits while the circuit breaker pauses the calls to Pure.
+     */
+    void awaitAvailable() throws InterruptedException {
+        if (circuitBreaker != null) {
+            circuitBreaker.awaitPassable();
+        }
+    }
+
+    private <T> T attempt(PureCall<T> call, boolean probe) throws ApiException, SQLException {
+        try {
+            T result = call.call();
+            recordSuccess();
+            return result;
+        } catch (ApiException | RuntimeException e) {
+            if (isRetryable(e)) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordFailure();
+                }
+            } else if (hasStatus(e)) {
+                // Pure answered, it is not unavailable
+                recordSuccess();
+            }
+            throw e;
+        } finally {
+            releaseProbe(probe);
+        }
+    }
+
+    /**
+     * Makes the asynchronous call, retrying it as long as it fails with a retryable error and attempts are left. The
+     * call is issued on the executor of the policy, so that the calling thread neither waits for the circuit breaker
+     * nor for the backoff.
+     *
+     * @param idempotent whether the call may be repeated even if Pure could have processed it
+     * @return the future of the result, completed exceptionally with the error of the last attempt
+     */
+    <T> CompletableFuture<T> callAsync(AsyncPureCall<T> call, boolean idempotent) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(call, idempotent, 1, result, asyncExecutor);
+        return result;
+    }
+
+    private <T> void attemptAsync(AsyncPureCall<T> call, boolean idempotent, int attempt, CompletableFuture<T> result,
+                                  Executor executor) {
+        executor.execute(() -> {
+            boolean probe = false;
+            try {
+                probe = circuitBreaker != null && circuitBreaker.awaitClosed();
+                boolean asyncProbe = probe;
+                call.call().whenComplete((value, failure) -> {
+                    if (failure == null) {
+                        recordSuccess();
+                        result.complete(value);
+                    } else {
+                        handleAsyncFailure(call, idempotent, attempt, result, failure, asyncProbe);
+                    }
+                });
+            } catch (ApiException | RuntimeException e) {
+                handleAsyncFailure(call, idempotent, attempt, result, e, probe);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                releaseProbe(probe);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        });
+    }
+
+    private <T> void handleAsyncFailure(AsyncPureCall<T> call, boolean idempotent, int attempt,
+                                        CompletableFuture<T> result, Throwable failure, boolean probe) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause()
+            : failure;
+        if (!(cause instanceof Exception e) || !isRetryable(e)) {
+            if (cause instanceof Exception e && hasStatus(e)) {
+                // Pure answered, it is not unavailable
+                recordSuccess();
+            } else {
+                releaseProbe(probe);
+            }
+            result.completeExceptionally(cause);
+            return;
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.recordFailure();
+        }
+        if (attempt >= maxAttempts || !idempotent && !isNotProcessed(e)) {
+            result.completeExceptionally(e);
+            return;
+        }
+        Duration backoff = getBackoff(attempt, getRetryAfter(e));
+        log.warn("Pure call failed ({}), retrying in {} ms (attempt {} of {})", e.getMessage(),
+            backoff.toMillis(), attempt + 1, maxAttempts);
+        attemptAsync(call, idempotent, attempt + 1, result,
+            CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS, asyncExecutor));
+    }
+
+    private void recordSuccess() {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    /**
+     * Lets another call probe Pure if the probing call failed without telling whether Pure is available.
+     */
+    private void releaseProbe(boolean probe) {
+        if (probe) {
+            circuitBreaker.releaseProbe();
+        }
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return a random delay up to the exponentially growing maximum of the attempt ("full jitter"), or the
+     * requested delay if it is longer
+     */
+    Duration getBackoff(int attempt, Duration retryAfter) {
+        long ceiling = Math.min(maxDelay.toMillis(), delay.toMillis() << Math.min(attempt - 1, 30));
+        Duration backoff = Duration.ofMillis(ThreadLocalRandom.current().nextLong(Math.max(ceiling, 0) + 1));
+        return retryAfter != null && retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff;
+    }
+
+    /**
+     * @return whether the error may go away if the call is repeated
+     */
+    static boolean isRetryable(Exception e) {
+        if (e instanceof ApiException apiException) {
+            if (apiException.getCode() == 0) {
+                return apiException.getCause() instanceof IOException;
+            }
+            return RETRYABLE_STATUS_CODES.contains(apiException.getCode());
+        }
+        if (e instanceof HttpStatusCodeException httpStatusCodeException) {
+            return RETRYABLE_STATUS_CODES.contains(httpStatusCodeException.getStatusCode().value());
+        }
+        return e instanceof ResourceAccessException || e instanceof CircuitBreakerOpenException;
+    }
+
+    /**
+     * @return whether the error is a response of Pure with an HTTP status, i.e. Pure is available
+     */
+    static boolean hasStatus(Exception e) {
+        return e instanceof ApiException apiException && apiException.getCode() != 0
+            || e instanceof HttpStatusCodeException;
+    }
+
+    /**
+     * @return whether Pure has certainly not processed the failed call
+     */
+    static boolean isNotProcessed(Exception e) {
+        if (e instanceof ApiException apiException) {
+            return NOT_PROCESSED_STATUS_CODES.contains(apiException.getCode())
+                || apiException.getCode() == 0 && apiException.getCause() instanceof ConnectException;
+        }
+        if (e instanceof HttpStatusCodeException httpStatusCodeException) {
+            return NOT_PROCESSED_STATUS_CODES.contains(httpStatusCodeException.getStatusCode().value());
+        }
+        return e instanceof ResourceAccessException && e.getCause() instanceof ConnectException
+            || e instanceof CircuitBreakerOpenException;
+    }
+
+    private static Duration getRetryAfter(Exception e) {
+        String retryAfter = null;
+        if (e instanceof ApiException apiException && apiException.getResponseHeaders() != null) {
+            for (Map.Entry<String, List<String>> header : apiException.getResponseHeaders().entrySet()) {
+                if ("Retry-After".equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    retryAfter = header.getValue().get(0);
+                }
+            }
+        } else if (e instanceof HttpStatusCodeException httpStatusCodeException
+            && httpStatusCodeException.getResponseHeaders() != null) {
+            retryAfter = httpStatusCodeException.getResponseHeaders().getFirst("Retry-After");
+        }
+        return PureAdmissionController.parseRetryAfter(retryAfter, Instant.now());
+    }
+}
@@ -0,0 +1,95 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.content.Collection;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.core.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves the targets of a targeted export, i.e. item handles, item UUIDs and collection handles, to the items to
+ * be exported, so that only these items are fed into the export instead of all publications found by Discovery.
+ * <p>
+ * Like the Discovery query of the full export, only archived publications are considered.
+ */
+class ExportTargetResolver {
+    private static final Logger log = LoggerFactory.getLogger(ExportTargetResolver.class);
+    static final String PUBLICATION_ENTITY_TYPE = "Publication";
+
+    private final DSpaceServicesContainer dSpaceServicesContainer;
+
+    ExportTargetResolver(DSpaceServicesContainer dSpaceServicesContainer) {
+        this.dSpaceServicesContainer = dSpaceServicesContainer;
+    }
+
+    /**
+     * @param targets item handles, item UUIDs or collection handles; blank targets and targets starting with
+     *                {@code #} are ignored
+     * @return the UUIDs of the items to be exported, in the order of the targets and without duplicates
+     */
+    Set<UUID> resolve(Context context, List<String> targets) throws SQLException {
+        Set<UUID> itemIds = new LinkedHashSet<>();
+        for (String rawTarget : targets) {
+            String target = StringUtils.trimToEmpty(rawTarget);
+            if (target.isEmpty() || target.startsWith("#")) {
+                continue;
+            }
+            DSpaceObject dSpaceObject = find(context, target);
+            if (dSpaceObject instanceof Item item) {
+                addIfExportable(itemIds, item, target);
+            } else if (dSpaceObject instanceof Collection collection) {
+                int itemCount = itemIds.size();
+                Iterator<Item> items = dSpaceServicesContainer.getItemService().findByCollection(context, collection);
+                while (items.hasNext()) {
+                    addIfExportable(itemIds, items.next(), target);
+                }
+                log.info("Export of collection {} includes {} items", target, itemIds.size() - itemCount);
+            } else if (dSpaceObject == null) {
+                log.error("Export target {} not found", target);
+            } else {
+                log.error("Export target {} is neither an item nor a collection", target);
+            }
+        }
+        return itemIds;
+    }
+
+    private DSpaceObject find(Context context, String target) throws SQLException {
+        UUID uuid = toUUID(target);
+        if (uuid != null) {
+            return dSpaceServicesContainer.getItemService().find(context, uuid);
+        }
+        return dSpaceServicesContainer.getHandleService().resolveToObject(context, target);
+    }
+
+    private void addIfExportable(Set<UUID> itemIds, Item item, String target) {
+        if (!item.isArchived() || item.isWithdrawn()) {
+            log.info("Item {} of export target {} is not archived", item.getHandle(), target);
+            return;
+        }
+        String entityType = dSpaceServicesContainer.getItemService()
+                .getMetadataFirstValue(item, "dspace", "entity", "type", Item.ANY);
+        if (!PUBLICATION_ENTITY_TYPE.equals(entityType)) {
+            log.info("Item {} of export target {} is no publication", item.getHandle(), target);
+            return;
+        }
+        itemIds.add(item.getID());
+    }
+
+    private static UUID toUUID(String target) {
+        try {
+            return UUID.fromString(target);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import org.dspace.content.Item;
+import org.dspace.content.MetadataField;
+import org.dspace.content.MetadataValue;
+import org.dspace.content.service.ItemService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable view of the metadata of an item, read once and indexed by field, so that the export filters, the
+ * duplicate check and the mapping look up fields without scanning all metadata values of the item each time, as
+ * {@link ItemService#getMetadataByMetadataString} does.
+ * <p>
+ * Fields are given like for {@link ItemService#getMetadataByMetadataString}, i.e. {@code schema.element} or
+ * {@code schema.element.qualifier}, with {@code *} matching any element or qualifier. Values of all languages are
+ * returned in the order of the item.
+ */
+public final class ItemMetadata {
+    private static final String ANY = "*";
+
+    private final Item item;
+    private final List<MetadataValue> values;
+    private final Map<String, List<MetadataValue>> valuesByField;
+
+    private ItemMetadata(Item item, List<MetadataValue> values) {
+        this.item = item;
+        this.values = List.copyOf(values);
+        Map<String, List<MetadataValue>> index = new HashMap<>();
+        for (MetadataValue metadataValue : this.values) {
+            MetadataField metadataField = metadataValue.getMetadataField();
+            index.computeIfAbsent(key(metadataField.getMetadataSchema().getName(), metadataField.getElement(),
+                    metadataField.getQualifier()), key -> new ArrayList<>()).add(metadataValue);
+        }
+        index.replaceAll((key, fieldValues) -> Collections.unmodifiableList(fieldValues));
+        this.valuesByField = index;
+    }
+
+    /**
+     * Reads all metadata values of the item, including virtual metadata of its relationships.
+     */
+    public static ItemMetadata of(Item item, ItemService itemService) {
+        return of(item, itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY));
+    }
+
+    public static ItemMetadata of(Item item, List<MetadataValue> metadataValues) {
+        return new ItemMetadata(item, metadataValues);
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    /**
+     * @return the values of the field, empty if there are none
+     */
+    public List<MetadataValue> get(String field) {
+        String[] parts = field.split("\\.", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid metadata field: " + field);
+        }
+        String qualifier = parts.length > 2 ? parts[2] : null;
+        if (!ANY.equals(parts[1]) && !ANY.equals(qualifier)) {
+            return valuesByField.getOrDefault(key(parts[0], parts[1], qualifier), List.of());
+        }
+        List<MetadataValue> matchingValues = new ArrayList<>();
+        for (MetadataValue metadataValue : values) {
+            MetadataField metadataField = metadataValue.getMetadataField();
+            if (parts[0].equals(metadataField.getMetadataSchema().getName())
+                    && (ANY.equals(parts[1]) || parts[1].equals(metadataField.getElement()))
+                    && (ANY.equals(qualifier) || Objects.equals(qualifier, metadataField.getQualifier()))) {
+                matchingValues.add(metadataValue);
+            }
+        }
+        return matchingValues;
+    }
+
+    /**
+     * @return the first value of the field, {@code null} if there is none
+     */
+    public String getFirstValue(String field) {
+        List<MetadataValue> fieldValues = get(field);
+        return fieldValues.isEmpty() ? null : fieldValues.get(0).getValue();
+    }
+
+    private static String key(String schema, String element, String qualifier) {
+        return qualifier == null ? schema + "." + element : schema + "." + element + "." + qualifier;
+    }
+}
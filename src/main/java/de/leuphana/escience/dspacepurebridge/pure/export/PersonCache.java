@@ -0,0 +1,66 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the persons related to the exported publications as authors, advisors or referees, shared by all
+ * exporters and sync threads of a run. The same persons are related to many publications, so every person is
+ * loaded from the database once per run instead of once per publication.
+ * <p>
+ * Persons which could not be found are cached as well.
+ */
+class PersonCache {
+    private final Map<String, Optional<CachedPerson>> persons = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a person which is not cached yet.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * @param personId UUID or legacy id of the person item
+         * @return the person, {@code null} if there is none with this id
+         */
+        CachedPerson load(String personId) throws SQLException;
+    }
+
+    /**
+     * The values of a person item needed for the export.
+     *
+     * @param pureUuid UUID of the person in Pure, {@code null} if the person has not been imported from Pure
+     */
+    record CachedPerson(UUID id, String pureUuid, String firstName, String lastName) {
+    }
+
+    /**
+     * Resolves the persons with the given ids, loading all persons which are not cached yet.
+     *
+     * @return the persons found, in the order of the ids
+     */
+    List<CachedPerson> resolve(List<String> personIds, Loader loader) throws SQLException {
+        List<CachedPerson> resolvedPersons = new ArrayList<>(personIds.size());
+        for (String personId : personIds) {
+            Optional<CachedPerson> person = persons.get(personId);
+            if (person == null) {
+                person = Optional.ofNullable(loader.load(personId));
+                // another sync thread may have loaded the person in the meantime
+                Optional<CachedPerson> cachedPerson = persons.putIfAbsent(personId, person);
+                if (cachedPerson != null) {
+                    person = cachedPerson;
+                }
+            }
+            person.ifPresent(resolvedPersons::add);
+        }
+        return resolvedPersons;
+    }
+
+    int size() {
+        return persons.size();
+    }
+}
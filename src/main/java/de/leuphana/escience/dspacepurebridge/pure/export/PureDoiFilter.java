@@ -0,0 +1,69 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.identifiers.Identifiers;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of the DOIs of the outputs existing in Pure, used to find duplicates of exported items by their DOI.
+ * <p>
+ * The DOIs are looked up by all sync threads concurrently, while exported outputs are added.
+ */
+class PureDoiFilter {
+    private static final String[] DOI_PREFIXES = {Identifiers.DOI_RESOLVER_HTTPS + "/",
+        Identifiers.DOI_RESOLVER_HTTP + "/", "https://dx.doi.org/", "http://doi.org/", "doi:"};
+
+    private final Map<String, ExportResult> outputsByDoi = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the DOI of an output existing in Pure.
+     */
+    void add(String doi, ExportResult output) {
+        String normalizedDoi = normalizeDoi(doi);
+        if (normalizedDoi != null) {
+            outputsByDoi.put(normalizedDoi, output);
+        }
+    }
+
+    /**
+     * Removes a DOI which turned out not to be in Pure (anymore).
+     */
+    void remove(String doi) {
+        String normalizedDoi = normalizeDoi(doi);
+        if (normalizedDoi != null) {
+            outputsByDoi.remove(normalizedDoi);
+        }
+    }
+
+    /**
+     * @return the output in Pure with the given DOI, {@code null} if there is none
+     */
+    ExportResult get(String doi) {
+        String normalizedDoi = normalizeDoi(doi);
+        return normalizedDoi != null ? outputsByDoi.get(normalizedDoi) : null;
+    }
+
+    int size() {
+        return outputsByDoi.size();
+    }
+
+    /**
+     * Normalizes a DOI for the lookup: without resolver prefix and in lower case, as DOIs are case-insensitive.
+     */
+    static String normalizeDoi(String doi) {
+        if (StringUtils.isBlank(doi)) {
+            return null;
+        }
+        String normalizedDoi = doi.trim().toLowerCase(Locale.ROOT);
+        for (String prefix : DOI_PREFIXES) {
+            if (normalizedDoi.startsWith(prefix)) {
+                normalizedDoi = normalizedDoi.substring(prefix.length());
+                break;
+            }
+        }
+        return normalizedDoi.isEmpty() ? null : normalizedDoi;
+    }
+}
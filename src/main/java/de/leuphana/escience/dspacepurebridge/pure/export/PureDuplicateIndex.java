@@ -0,0 +1,135 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
+import de.leuphana.escience.dspacepurebridge.pure.imports.ImportWatermarkStore;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of the outputs of one type existing in Pure, used to find duplicates of exported items without
+ * searching Pure for every item.
+ * <p>
+ * The outputs are indexed by their normalized title and by their links. The index only narrows down the
+ * candidates; whether a candidate is a duplicate is still decided by
+ * {@link DSpaceExporter#concreteDuplicateCheck}.
+ */
+class PureDuplicateIndex {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Function<PureWSResultItem, String> titleExtractor;
+    private final Function<PureWSResultItem, List<String>> linkExtractor;
+    private final Map<UUID, PureWSResultItem> items = new LinkedHashMap<>();
+    private final Map<String, List<PureWSResultItem>> itemsByTitle = new HashMap<>();
+    private final Map<String, List<PureWSResultItem>> itemsByLink = new HashMap<>();
+
+    PureDuplicateIndex(Function<PureWSResultItem, String> titleExtractor,
+                       Function<PureWSResultItem, List<String>> linkExtractor) {
+        this.titleExtractor = titleExtractor;
+        this.linkExtractor = linkExtractor;
+    }
+
+    /**
+     * Adds an output to the index, replacing the indexed output with the same UUID. Outputs without UUID are
+     * ignored.
+     */
+    synchronized void add(PureWSResultItem item) {
+        if (item.getUuid() == null) {
+            return;
+        }
+        PureWSResultItem replacedItem = items.put(item.getUuid(), item);
+        if (replacedItem != null) {
+            removeKeys(replacedItem);
+        }
+        String title = normalizeTitle(titleExtractor.apply(item));
+        if (title != null) {
+            itemsByTitle.computeIfAbsent(title, key -> new ArrayList<>(1)).add(item);
+        }
+        for (String link : linkExtractor.apply(item)) {
+            itemsByLink.computeIfAbsent(link, key -> new ArrayList<>(1)).add(item);
+        }
+    }
+
+    private void removeKeys(PureWSResultItem item) {
+        String title = normalizeTitle(titleExtractor.apply(item));
+        if (title != null) {
+            removeFrom(itemsByTitle, title, item);
+        }
+        for (String link : linkExtractor.apply(item)) {
+            removeFrom(itemsByLink, link, item);
+        }
+    }
+
+    private static void removeFrom(Map<String, List<PureWSResultItem>> index, String key, PureWSResultItem item) {
+        List<PureWSResultItem> indexedItems = index.get(key);
+        if (indexedItems != null) {
+            indexedItems.remove(item);
+            if (indexedItems.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @return the outputs with the given DOI among their links or a title equal to the given one after
+     * normalization
+     */
+    synchronized List<PureWSResultItem> getCandidates(String title, String doi) {
+        Set<PureWSResultItem> candidates = new LinkedHashSet<>();
+        if (doi != null) {
+            candidates.addAll(itemsByLink.getOrDefault(doi, List.of()));
+        }
+        String normalizedTitle = normalizeTitle(title);
+        if (normalizedTitle != null) {
+            candidates.addAll(itemsByTitle.getOrDefault(normalizedTitle, List.of()));
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    synchronized Collection<PureWSResultItem> getItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    synchronized int size() {
+        return items.size();
+    }
+
+    /**
+     * @return the most recent modification date of the indexed outputs, {@code null} if there is none
+     */
+    synchronized Instant getLastModified() {
+        Instant lastModified = null;
+        for (PureWSResultItem item : items.values()) {
+            Instant modifiedDate = ImportWatermarkStore.parseModifiedDate(item.getModifiedDate());
+            if (modifiedDate != null && (lastModified == null || modifiedDate.isAfter(lastModified))) {
+                lastModified = modifiedDate;
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Normalizes a title for the lookup: Unicode compatibility normalization, lower case, and collapsed
+     * whitespace. Equal titles always have equal normalized titles.
+     */
+    static String normalizeTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        String normalizedTitle = Normalizer.normalize(title, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalizedTitle = WHITESPACE.matcher(normalizedTitle).replaceAll(" ").trim();
+        return normalizedTitle.isEmpty() ? null : normalizedTitle;
+    }
+}
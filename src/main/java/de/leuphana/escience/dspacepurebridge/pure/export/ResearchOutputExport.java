@@ -1,9 +1,12 @@
 package de.leuphana.escience.dspacepurebridge.pure.export;
 
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.PagePrefetcher;
 import de.leuphana.escience.dspacepurebridge.identifiers.Identifiers;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.AccessType;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.ResearchOutputApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.*;
@@ -24,6 +27,8 @@ import org.springframework.web.client.RestTemplate;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,12 +39,20 @@ class ResearchOutputExport extends AbstractExport {
     private ResearchOutputApi researchOutputApi;
     protected Map<ResearchOutputMappingType, Map<String, String>> mapping =
         new EnumMap<>(ResearchOutputMappingType.class);
+    private final Map<ResearchOutputMappingType, Map<String, ClassificationRef>> classificationIndex =
+        new ConcurrentHashMap<>();
     private final ExportStatus exportStatus;
     protected static final String MAPPING_PROPERTIES_PREFIX =
         GENERAL_MAPPING_PROPERTIES_PREFIX + "." + ExportType.RESEARCH_OUTPUT.getMappingSuffix();
 
     protected static final String METADATA_PROPERTY_PREFIX = "dspace-pure-bridge.export.metadata.researchOutput.";
 
+    static final String DOI_DUPLICATE_CHECK = "dspace-pure-bridge.export.duplicate.doi";
+    private boolean doiDuplicateCheck = true;
+    private BitstreamAccessResolver bitstreamAccessResolver = new BitstreamAccessResolver();
+    private volatile PureDoiFilter pureDoiFilter;
+    private volatile boolean pureDoiFilterLoaded;
+
     public ResearchOutputExport(String leuphanaPureWsEndpointBase, String leuphanaPureWsApiKey,
                                 DSpaceServicesContainer dSpaceServicesContainer,
                                 DSpaceObjectMappings dSpaceObjectMappings, ExportStatus exportStatus,
@@ -51,10 +64,11 @@ class ResearchOutputExport extends AbstractExport {
 
     @Override
     public void setupClassifications() throws ApiException {
-        log.info("Fetch and store Pure Research Output classifications...");
+        log.info("Fetch and index Pure Research Output classifications...");
         for (ResearchOutputMappingType mappingType : ResearchOutputMappingType.values()) {
             log.info("Fetching Pure classification {}", mappingType);
-            mappingType.getClassificationRefs(researchOutputApi);
+            indexClassificationRefs(mappingType, classificationCache.get(getClassificationCacheKey(mappingType),
+                () -> mappingType.fetchClassificationRefs(researchOutputApi)));
         }
     }
 
@@ -64,12 +78,22 @@ class ResearchOutputExport extends AbstractExport {
         setupMappingFromConfiguration();
         researchOutputApi = createResearchOutputApiClient();
         setupClassifications();
+        doiDuplicateCheck = Boolean.parseBoolean(ConfigurationUtils.getProperty(
+            dSpaceServicesContainer.getConfigurationService(), DOI_DUPLICATE_CHECK, "true"));
     }
 
     ResearchOutputApi createResearchOutputApiClient() {
         return new ResearchOutputApi(apiClient);
     }
 
+    void setResearchOutputApi(ResearchOutputApi researchOutputApi) {
+        this.researchOutputApi = researchOutputApi;
+    }
+
+    void setBitstreamAccessResolver(BitstreamAccessResolver bitstreamAccessResolver) {
+        this.bitstreamAccessResolver = bitstreamAccessResolver;
+    }
+
 
     ClassificationRef getClassificationRefForMetadataValuesFromMapping(List<MetadataValue> metadataValues,
                                                                        ResearchOutputMappingType mappingType)
@@ -89,45 +113,62 @@ class ResearchOutputExport extends AbstractExport {
     ClassificationRef getClassificationRefForMetadataValueFromMapping(String metadataValue,
                                                                       ResearchOutputMappingType mappingType)
         throws ApiException {
-        return getClassificationRefFromListForMetadataValue(metadataValue, mapping.get(mappingType),
-            mappingType.getClassificationRefs(researchOutputApi));
+        if (metadataValue.isEmpty()) {
+            return null;
+        }
+        ClassificationRef classificationRef = classificationIndex.get(mappingType).get(metadataValue);
+        if (classificationRef == null && mapping.get(mappingType).containsKey(metadataValue)) {
+            // the mapped classification may have been added to Pure after the classifications were cached
+            List<ClassificationRef> classificationRefs = classificationCache.revalidate(
+                getClassificationCacheKey(mappingType), () -> mappingType.fetchClassificationRefs(researchOutputApi));
+            if (classificationRefs != null) {
+                indexClassificationRefs(mappingType, classificationRefs);
+                classificationRef = classificationIndex.get(mappingType).get(metadataValue);
+            }
+        }
+        return classificationRef;
+    }
+
+    private void indexClassificationRefs(ResearchOutputMappingType mappingType, List<ClassificationRef> classificationRefs) {
+        classificationIndex.put(mappingType, indexClassificationRefs(mapping.get(mappingType), classificationRefs));
+    }
+
+    private static String getClassificationCacheKey(ResearchOutputMappingType mappingType) {
+        return ExportType.RESEARCH_OUTPUT.getMappingSuffix() + "." + mappingType;
     }
 
     @Override
-    public ExportItem createExport(Context context, Item item,
+    public ExportItem createExport(Context context, ItemMetadata itemMetadata,
                                    String syncTypeValue) throws ApiException, SQLException {
         ConfigurationService configurationService = dSpaceServicesContainer.getConfigurationService();
+        Item item = itemMetadata.getItem();
 
         List<MetadataValue> creationContextMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "category", "local.CreationContext"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "category",
+                "local.CreationContext"));
 
-        List<MetadataValue> publicationLanguages = dSpaceServicesContainer.getItemService().getMetadataByMetadataString(
-            item, configurationService.getProperty(METADATA_PROPERTY_PREFIX + "language", "DataCite.Language"));
+        List<MetadataValue> publicationLanguages =
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "language",
+                "DataCite.Language"));
         String publicationLanguage = publicationLanguages.isEmpty() ? null : publicationLanguages.get(0).getValue();
 
         List<MetadataValue> publicationYearMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "publicationYear",
-                    "DataCite.PublicationYear"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "publicationYear",
+                "DataCite.PublicationYear"));
 
         List<MetadataValue> titleMetadataValues =
-            dSpaceServicesContainer.getItemService()
-                .getMetadataByMetadataString(item,
-                    configurationService.getProperty(METADATA_PROPERTY_PREFIX + "title", "dc.title"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "title", "dc.title"));
         List<MetadataValue> subTitleMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "subTitle", "DataCite.Title.Subtitle"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "subTitle",
+                "DataCite.Title.Subtitle"));
         List<MetadataValue> abstractMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "abstract",
-                    "DataCite.Description.Abstract"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "abstract",
+                "DataCite.Description.Abstract"));
         List<MetadataValue> identifierMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item, "dc.identifier.uri");
+            itemMetadata.get("dc.identifier.uri");
         List<MetadataValue> affiliationMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "managingOrganization",
-                    "local.Affiliation"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "managingOrganization",
+                "local.Affiliation"));
         String doi = null;
         for (MetadataValue metadataValue : identifierMetadataValues) {
             if (metadataValue.getValue().startsWith(Identifiers.DOI_RESOLVER_HTTPS)) {
@@ -235,7 +276,7 @@ class ResearchOutputExport extends AbstractExport {
             researchOutput.setElectronicVersions(List.of(doiElectronicVersion));
         }
 
-        List<Item> authors = getItemAuthors(context, item, false);
+        List<CachedPerson> authors = getItemAuthors(context, itemMetadata, false);
         if (authors == null) {
             return null;
         }
@@ -260,18 +301,165 @@ class ResearchOutputExport extends AbstractExport {
 
     @Override
     public ExportResult export(ExportItem exportItem) throws ApiException {
-        ExportResult exportResult = new ExportResult();
-        ResearchOutput researchOutput = researchOutputApi.researchOutputCreate((ResearchOutput) exportItem.export());
-        if (researchOutput != null) {
-            exportResult.setUuid(researchOutput.getUuid());
-            exportResult.setPortalUrl(researchOutput.getPortalUrl());
+        return toCreatedExportResult(researchOutputApi.researchOutputCreate((ResearchOutput) exportItem.export()));
+    }
+
+    @Override
+    public CompletableFuture<ExportResult> exportAsync(ExportItem exportItem) throws ApiException {
+        ApiCallbackFuture<ResearchOutput> created = new ApiCallbackFuture<>();
+        researchOutputApi.researchOutputCreateAsync((ResearchOutput) exportItem.export(), created);
+        return created.thenApply(this::toCreatedExportResult);
+    }
+
+    private ExportResult toCreatedExportResult(ResearchOutput researchOutput) {
+        if (researchOutput == null) {
+            return new ExportResult();
+        }
+        addToPureDoiFilter(researchOutput);
+        return toExportResult(researchOutput);
+    }
+
+    /**
+     * Research outputs are only checked for duplicates by their DOI: the DOIs of all research outputs are loaded
+     * from Pure once per run, so that a research output is only fetched from Pure if its DOI is among them.
+     *
+     * @throws ApiException if the research output with the DOI could not be fetched to verify the duplicate
+     */
+    @Override
+    public ExportResult checkForDuplicate(ItemMetadata itemMetadata, ExportType exportType) throws ApiException {
+        if (!doiDuplicateCheck) {
+            return null;
+        }
+        String doi = getDuplicateCheckDoi(itemMetadata);
+        if (doi == null) {
+            return null;
+        }
+        PureDoiFilter doiFilter = getPureDoiFilter();
+        if (doiFilter == null) {
+            return null;
+        }
+        ExportResult exportResult = doiFilter.get(doi);
+        if (exportResult == null) {
+            return null;
+        }
+        try {
+            ResearchOutput researchOutput = researchOutputApi.researchOutputGet(exportResult.getUuid());
+            if (researchOutput == null || !getDois(researchOutput).contains(PureDoiFilter.normalizeDoi(doi))) {
+                doiFilter.remove(doi);
+                return null;
+            }
+            exportResult = toExportResult(researchOutput);
+        } catch (ApiException e) {
+            if (e.getCode() == 404) {
+                doiFilter.remove(doi);
+                return null;
+            }
+            throw e;
         }
+        log.info("Doublet detected for item {} and doi {}", itemMetadata.getItem().getHandle(), doi);
         return exportResult;
     }
 
+    /**
+     * Loads the DOIs of all research outputs on first use. The sync threads wait until they are loaded. If they
+     * cannot be loaded, {@code null} is returned for the rest of the run and research outputs are exported without
+     * duplicate check.
+     */
+    PureDoiFilter getPureDoiFilter() {
+        if (!pureDoiFilterLoaded) {
+            synchronized (this) {
+                if (!pureDoiFilterLoaded) {
+                    try {
+                        pureDoiFilter = loadPureDoiFilter();
+                    } catch (RuntimeException e) {
+                        log.warn("Could not load the DOIs of the Pure research outputs, exporting without duplicate"
+                            + " check", e);
+                    }
+                    pureDoiFilterLoaded = true;
+                }
+            }
+        }
+        return pureDoiFilter;
+    }
+
+    private PureDoiFilter loadPureDoiFilter() {
+        log.info("Loading the DOIs of the Pure research outputs...");
+        int count = 0;
+        PureDoiFilter doiFilter = new PureDoiFilter();
+        try (PagePrefetcher<ResearchOutputDois> pages = pageDuplicateCheckCandidates((offset, size) -> {
+            List<ResearchOutputDois> researchOutputDois = new ArrayList<>(size);
+            try {
+                // only the DOIs and the uuid of a research output are kept, not the whole list result
+                researchOutputApi.getApiClient().<ResearchOutput>executeItems(
+                    researchOutputApi.researchOutputListCall(size, offset, null, null), ResearchOutput.class,
+                    researchOutput -> researchOutputDois.add(
+                        new ResearchOutputDois(researchOutput.getUuid(), getDois(researchOutput))));
+            } catch (ApiException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            return researchOutputDois;
+        })) {
+            List<ResearchOutputDois> page;
+            while ((page = pages.nextPage()) != null) {
+                for (ResearchOutputDois researchOutputDois : page) {
+                    ExportResult exportResult = new ExportResult();
+                    exportResult.setUuid(researchOutputDois.uuid());
+                    for (String doi : researchOutputDois.dois()) {
+                        doiFilter.add(doi, exportResult);
+                    }
+                }
+                count += page.size();
+            }
+        }
+        log.info("Loaded {} DOIs of {} Pure research outputs", doiFilter.size(), count);
+        return doiFilter;
+    }
+
+    /**
+     * The DOIs of a research output in Pure, read while loading the DOIs of all research outputs.
+     */
+    private record ResearchOutputDois(UUID uuid, Set<String> dois) {
+    }
+
+    private void addToPureDoiFilter(ResearchOutput researchOutput) {
+        PureDoiFilter doiFilter = pureDoiFilter;
+        if (doiFilter != null) {
+            for (String doi : getDois(researchOutput)) {
+                doiFilter.add(doi, toExportResult(researchOutput));
+            }
+        }
+    }
+
+    private static ExportResult toExportResult(ResearchOutput researchOutput) {
+        ExportResult exportResult = new ExportResult();
+        exportResult.setUuid(researchOutput.getUuid());
+        exportResult.setPortalUrl(researchOutput.getPortalUrl());
+        return exportResult;
+    }
+
+    /**
+     * @return the normalized DOIs of the electronic versions of the research output
+     */
+    private static Set<String> getDois(ResearchOutput researchOutput) {
+        Set<String> dois = new HashSet<>();
+        if (researchOutput.getElectronicVersions() != null) {
+            for (ElectronicVersion electronicVersion : researchOutput.getElectronicVersions()) {
+                if (electronicVersion instanceof DoiElectronicVersion doiElectronicVersion) {
+                    String doi = PureDoiFilter.normalizeDoi(doiElectronicVersion.getDoi());
+                    if (doi != null) {
+                        dois.add(doi);
+                    }
+                }
+            }
+        }
+        return dois;
+    }
+
+    /**
+     * Not used, as research outputs are checked for duplicates by {@link #checkForDuplicate} directly.
+     */
     @Override
     public DuplicateCheckResult concreteDuplicateCheck(PureWSResultItem pureWSResultItem, String doi, String title) {
-        log.warn("Duplicate check not yet implemented!");
         return DuplicateCheckResult.NO_DUPLICATE;
     }
 
@@ -305,6 +493,11 @@ class ResearchOutputExport extends AbstractExport {
         }
     }
 
+    /**
+     * Determines access type and license of the files of the item: those of the primary bitstream of a bundle, else
+     * those of the first embargoed bitstream, else the first access type and license found. The policies and
+     * licenses of all bitstreams considered are read together, see {@link BitstreamAccessResolver}.
+     */
     ElectronicVersionAccessDetail getElectronicVersionAccessDetail(Context context, Item item) throws SQLException {
 
         List<Bundle> bnds;
@@ -316,50 +509,45 @@ class ResearchOutputExport extends AbstractExport {
         }
 
         ElectronicVersionAccessDetail electronicVersionAccessDetail = new ElectronicVersionAccessDetail();
+        if (bnds == null) {
+            return electronicVersionAccessDetail;
+        }
         String licenseMetadataField = dSpaceServicesContainer.getConfigurationService()
             .getProperty(METADATA_PROPERTY_PREFIX + "bitstreamLicense", "local.BitstreamLicense");
 
-        if (bnds != null) {
-            for (Bundle bnd : bnds) {
-                Bitstream bitstream = bnd.getPrimaryBitstream();
-                if (bitstream != null) {
-                    AccessType accessType = getAccessRightsValueForPolicies(context,
-                        dSpaceServicesContainer
-                            .getAuthorizeService()
-                            .getPoliciesActionFilter(
-                                context,
-                                bitstream,
-                                org.dspace.core.Constants.READ));
-                    electronicVersionAccessDetail.setAccessType(accessType);
-
-                    List<MetadataValue> licenseMetadataValues = dSpaceServicesContainer.getBitstreamService()
-                        .getMetadataByMetadataString(bitstream, licenseMetadataField);
-                    String license = licenseMetadataValues.isEmpty() ? null : licenseMetadataValues.get(0).getValue();
+        Map<Bundle, List<Bitstream>> bundleBitstreams = new LinkedHashMap<>();
+        Set<UUID> bitstreamIds = new LinkedHashSet<>();
+        for (Bundle bnd : bnds) {
+            Bitstream primaryBitstream = bnd.getPrimaryBitstream();
+            List<Bitstream> bitstreams = primaryBitstream != null ? List.of(primaryBitstream) : bnd.getBitstreams();
+            bundleBitstreams.put(bnd, bitstreams);
+            bitstreams.forEach(bitstream -> bitstreamIds.add(bitstream.getID()));
+        }
+        Map<UUID, List<ResourcePolicy>> readPolicies = bitstreamAccessResolver.findReadPolicies(context, bitstreamIds);
+        Map<UUID, String> licenses =
+            bitstreamAccessResolver.findFirstMetadataValues(context, bitstreamIds, licenseMetadataField);
+
+        for (Map.Entry<Bundle, List<Bitstream>> entry : bundleBitstreams.entrySet()) {
+            if (entry.getKey().getPrimaryBitstream() != null) {
+                Bitstream bitstream = entry.getValue().get(0);
+                electronicVersionAccessDetail.setAccessType(getAccessRightsValueForPolicies(context,
+                    readPolicies.getOrDefault(bitstream.getID(), List.of())));
+                electronicVersionAccessDetail.setLicense(licenses.get(bitstream.getID()));
+                continue;
+            }
+            for (Bitstream b : entry.getValue()) {
+                AccessType accessType = getAccessRightsValueForPolicies(context,
+                    readPolicies.getOrDefault(b.getID(), List.of()));
+                if (AccessType.EMBARGO.equals(accessType)) {
                     electronicVersionAccessDetail.setAccessType(accessType);
-                    electronicVersionAccessDetail.setLicense(license);
+                    electronicVersionAccessDetail.setLicense(licenses.get(b.getID()));
+                    break;
                 } else {
-                    for (Bitstream b : bnd.getBitstreams()) {
-                        AccessType accessType = getAccessRightsValueForPolicies(context, dSpaceServicesContainer
-                            .getAuthorizeService()
-                            .getPoliciesActionFilter(
-                                context, b,
-                                org.dspace.core.Constants.READ));
-                        List<MetadataValue> licenseMetadataValues = dSpaceServicesContainer.getBitstreamService()
-                            .getMetadataByMetadataString(b, licenseMetadataField);
-                        String license =
-                            licenseMetadataValues.isEmpty() ? null : licenseMetadataValues.get(0).getValue();
-                        if (AccessType.EMBARGO.equals(accessType)) {
-                            electronicVersionAccessDetail.setAccessType(accessType);
-                            electronicVersionAccessDetail.setLicense(license);
-                            break;
-                        } else {
-                            if (electronicVersionAccessDetail.getAccessType() == null) {
-                                electronicVersionAccessDetail.setAccessType(accessType);
-                            }
-                            if (electronicVersionAccessDetail.getLicense() == null) {
-                                electronicVersionAccessDetail.setLicense(license);
-                            }
-                        }
+                    if (electronicVersionAccessDetail.getAccessType() == null) {
+                        electronicVersionAccessDetail.setAccessType(accessType);
+                    }
+                    if (electronicVersionAccessDetail.getLicense() == null) {
+                        electronicVersionAccessDetail.setLicense(licenses.get(b.getID()));
                     }
                 }
             }
@@ -374,13 +562,14 @@ class ResearchOutputExport extends AbstractExport {
 
         if (rps != null) {
             for (ResourcePolicy rp : rps) {
-                if (rp.getGroup() != null && Group.ANONYMOUS.equals(rp.getGroup().getName())) {
+                Group group = rp.getGroup();
+                if (group != null && Group.ANONYMOUS.equals(group.getName())) {
                     if (dSpaceServicesContainer.getResourcePolicyService().isDateValid(rp) && accessType == null) {
                         accessType = AccessType.OPEN_ACCESS;
                     } else if (rp.getStartDate() != null && rp.getStartDate().isAfter(now)) {
                         accessType = AccessType.EMBARGO;
                     }
-                } else if (rp.getGroup() != null && !Group.ADMIN.equals(rp.getGroup().getName())) {
+                } else if (group != null && !Group.ADMIN.equals(group.getName())) {
                     if (dSpaceServicesContainer.getResourcePolicyService().isDateValid(rp) && accessType == null) {
                         accessType = AccessType.RESTRICTED;
                     } else if (rp.getStartDate() == null || rp.getStartDate().isAfter(now)) {
@@ -4,7 +4,6 @@ import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.ResearchOutputApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public enum ResearchOutputMappingType  {
@@ -18,16 +17,12 @@ public enum ResearchOutputMappingType  {
     LICENSE(api -> api.researchoutputGetAllowedElectronicVersionLicenseTypes().getClassifications());
 
     private final PureResearchOutputClassificationRefFetcher pureResearchOutputClassificationRefFetcher;
-    private final List<ClassificationRef> classificationRefs = new ArrayList<>();
 
     ResearchOutputMappingType(PureResearchOutputClassificationRefFetcher pureResearchOutputClassificationRefFetcher) {
         this.pureResearchOutputClassificationRefFetcher = pureResearchOutputClassificationRefFetcher;
     }
 
-    List<ClassificationRef> getClassificationRefs(ResearchOutputApi researchOutputApi) throws ApiException {
-        if (classificationRefs.isEmpty()) {
-            classificationRefs.addAll(pureResearchOutputClassificationRefFetcher.fetch(researchOutputApi));
-        }
-        return classificationRefs;
+    List<ClassificationRef> fetchClassificationRefs(ResearchOutputApi researchOutputApi) throws ApiException {
+        return pureResearchOutputClassificationRefFetcher.fetch(researchOutputApi);
     }
 }
@@ -3,6 +3,8 @@ package de.leuphana.escience.dspacepurebridge.pure.export;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultStudentThesisItem;
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.Value;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.StudentThesisApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.*;
@@ -20,6 +22,8 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +33,8 @@ class StudentThesisExport extends AbstractExport {
 
     private StudentThesisApi studentThesisApi;
     protected Map<StudentThesisMappingType, Map<String, String>> mapping = new EnumMap<>(StudentThesisMappingType.class);
+    private final Map<StudentThesisMappingType, Map<String, ClassificationRef>> classificationIndex =
+        new ConcurrentHashMap<>();
     protected static final String MAPPING_PROPERTIES_PREFIX =
         GENERAL_MAPPING_PROPERTIES_PREFIX + "." + ExportType.STUDENT_THESIS.getMappingSuffix();
     protected static final String METADATA_PROPERTY_PREFIX = "dspace-pure-bridge.export.metadata.studentThesis.";
@@ -53,34 +59,35 @@ class StudentThesisExport extends AbstractExport {
     }
 
     @Override
-    public ExportItem createExport(Context context, Item item, String syncTypeValue) throws ApiException, SQLException {
+    public ExportItem createExport(Context context, ItemMetadata itemMetadata, String syncTypeValue)
+        throws ApiException, SQLException {
         ConfigurationService configurationService = dSpaceServicesContainer.getConfigurationService();
+        Item item = itemMetadata.getItem();
 
-        List<MetadataValue> publicationLanguages = dSpaceServicesContainer.getItemService().getMetadataByMetadataString(
-            item, configurationService.getProperty(METADATA_PROPERTY_PREFIX + "language", "DataCite.Language"));
+        List<MetadataValue> publicationLanguages =
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "language",
+                "DataCite.Language"));
         String publicationLanguage = publicationLanguages.isEmpty() ? null : publicationLanguages.get(0).getValue();
-        List<MetadataValue> awardDateList = dSpaceServicesContainer.getItemService().getMetadataByMetadataString(
-            item,
-            configurationService.getProperty(METADATA_PROPERTY_PREFIX + "awardDate", "dc.date.accepted"));
+        List<MetadataValue> awardDateList =
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "awardDate",
+                "dc.date.accepted"));
         String awardDate = awardDateList.isEmpty() ? null : awardDateList.get(0).getValue();
         List<MetadataValue> titleMetadataValues =
-            dSpaceServicesContainer.getItemService()
-                .getMetadataByMetadataString(item,
-                    configurationService.getProperty(METADATA_PROPERTY_PREFIX + "title", "dc.title"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "title", "dc.title"));
         List<MetadataValue> subTitleMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "subTitle", "DataCite.Title.Subtitle"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "subTitle",
+                "DataCite.Title.Subtitle"));
         List<MetadataValue> abstractMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "abstract", "DataCite.Description.Abstract"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "abstract",
+                "DataCite.Description.Abstract"));
         List<MetadataValue> identifierMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item, "dc.identifier.uri");
+            itemMetadata.get("dc.identifier.uri");
         List<MetadataValue> managingOrganizationMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "managingOrganization", "local.Affiliation"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "managingOrganization",
+                "local.Affiliation"));
         List<MetadataValue> awardingInstitutionMetadataValues =
-            dSpaceServicesContainer.getItemService().getMetadataByMetadataString(item,
-                configurationService.getProperty(METADATA_PROPERTY_PREFIX + "awardingInstitution", "dc.contributor.grantor"));
+            itemMetadata.get(configurationService.getProperty(METADATA_PROPERTY_PREFIX + "awardingInstitution",
+                "dc.contributor.grantor"));
 
         ClassificationRef type = getClassificationRefForMetadataValueFromMapping(syncTypeValue,
             StudentThesisMappingType.TYPE);
@@ -146,9 +153,10 @@ class StudentThesisExport extends AbstractExport {
 
         studentThesis.setLinks(links);
 
-        List<Item> supervisors = getItemAdvisors(context, item);
-        List<Item> referees = getItemReferees(context, item);
-        List<Item> authors = getItemAuthors(context, item, !supervisors.isEmpty() || !referees.isEmpty());
+        List<CachedPerson> supervisors = getItemAdvisors(context, itemMetadata);
+        List<CachedPerson> referees = getItemReferees(context, itemMetadata);
+        List<CachedPerson> authors =
+            getItemAuthors(context, itemMetadata, !supervisors.isEmpty() || !referees.isEmpty());
         if (authors == null) {
             return null;
         }
@@ -199,8 +207,8 @@ class StudentThesisExport extends AbstractExport {
         return new ExportItem(studentThesis);
     }
 
-    void addSupervisors(StudentThesis studentThesis, List<Item> supervisors, ClassificationRef supervisorRole) {
-        for (Item supervisor : supervisors) {
+    void addSupervisors(StudentThesis studentThesis, List<CachedPerson> supervisors, ClassificationRef supervisorRole) {
+        for (CachedPerson supervisor : supervisors) {
             SupervisorAssociation supervisorAssociation = new SupervisorAssociation();
             supervisorAssociation.setPerson(getAPIPersonFromDSpacePerson(supervisor));
             supervisorAssociation.setName(getPersonNameFromDSpacePerson(supervisor));
@@ -260,35 +268,114 @@ class StudentThesisExport extends AbstractExport {
     ClassificationRef getClassificationRefForMetadataValueFromMapping(String metadataValue,
                                                                       StudentThesisMappingType mappingType)
         throws ApiException {
-        return getClassificationRefFromListForMetadataValue(metadataValue, mapping.get(mappingType),
-            mappingType.getClassificationRefs(studentThesisApi));
+        if (metadataValue.isEmpty()) {
+            return null;
+        }
+        ClassificationRef classificationRef = classificationIndex.get(mappingType).get(metadataValue);
+        if (classificationRef == null && mapping.get(mappingType).containsKey(metadataValue)) {
+            // the mapped classification may have been added to Pure after the classifications were cached
+            List<ClassificationRef> classificationRefs = classificationCache.revalidate(
+                getClassificationCacheKey(mappingType), () -> mappingType.fetchClassificationRefs(studentThesisApi));
+            if (classificationRefs != null) {
+                indexClassificationRefs(mappingType, classificationRefs);
+                classificationRef = classificationIndex.get(mappingType).get(metadataValue);
+            }
+        }
+        return classificationRef;
+    }
+
+    private void indexClassificationRefs(StudentThesisMappingType mappingType, List<ClassificationRef> classificationRefs) {
+        classificationIndex.put(mappingType, indexClassificationRefs(mapping.get(mappingType), classificationRefs));
+    }
+
+    private static String getClassificationCacheKey(StudentThesisMappingType mappingType) {
+        return ExportType.STUDENT_THESIS.getMappingSuffix() + "." + mappingType;
     }
 
 
     @Override
     public void setupClassifications() throws ApiException {
-        log.info("Fetch and store Pure Student Thesis classifications...");
+        log.info("Fetch and index Pure Student Thesis classifications...");
         for (StudentThesisMappingType mappingType : StudentThesisMappingType.values()) {
             log.info("Fetching Pure classification {}", mappingType);
-            mappingType.getClassificationRefs(studentThesisApi);
+            indexClassificationRefs(mappingType, classificationCache.get(getClassificationCacheKey(mappingType),
+                () -> mappingType.fetchClassificationRefs(studentThesisApi)));
         }
     }
 
     @Override
     public ExportResult export(ExportItem exportItem) throws ApiException {
+        return toExportResult(studentThesisApi.studentThesisCreate((StudentThesis) exportItem.export()));
+    }
+
+    @Override
+    public CompletableFuture<ExportResult> exportAsync(ExportItem exportItem) throws ApiException {
+        ApiCallbackFuture<StudentThesis> created = new ApiCallbackFuture<>();
+        studentThesisApi.studentThesisCreateAsync((StudentThesis) exportItem.export(), created);
+        return created.thenApply(this::toExportResult);
+    }
+
+    private ExportResult toExportResult(StudentThesis studentThesis) {
         ExportResult exportResult = new ExportResult();
-        StudentThesis studentThesis = studentThesisApi.studentThesisCreate((StudentThesis) exportItem.export());
         if (studentThesis != null) {
             exportResult.setUuid(studentThesis.getUuid());
             exportResult.setPortalUrl(studentThesis.getPortalUrl());
+            addToDuplicateIndex(toDuplicateIndexItem(studentThesis));
         }
         return exportResult;
     }
 
+    private static PureWSResultStudentThesisItem toDuplicateIndexItem(StudentThesis studentThesis) {
+        PureWSResultStudentThesisItem studentThesisItem = new PureWSResultStudentThesisItem();
+        studentThesisItem.setUuid(studentThesis.getUuid());
+        studentThesisItem.setPortalUrl(studentThesis.getPortalUrl());
+        if (studentThesis.getModifiedDate() != null) {
+            studentThesisItem.setModifiedDate(studentThesis.getModifiedDate().toString());
+        }
+        if (studentThesis.getTitle() != null) {
+            Value title = new Value();
+            title.setValue(studentThesis.getTitle().getValue());
+            studentThesisItem.setTitle(title);
+        }
+        if (studentThesis.getLinks() != null) {
+            List<de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link> links = new ArrayList<>();
+            for (Link link : studentThesis.getLinks()) {
+                de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link studentThesisLink =
+                    new de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link();
+                studentThesisLink.setUrl(link.getUrl());
+                links.add(studentThesisLink);
+            }
+            studentThesisItem.setLinks(links);
+        }
+        return studentThesisItem;
+    }
+
     StudentThesisApi createStudentThesisApiClient() {
         return new StudentThesisApi(apiClient);
     }
 
+    @Override
+    String getDuplicateCheckTitle(PureWSResultItem pureWSResultItem) {
+        Value title = ((PureWSResultStudentThesisItem) pureWSResultItem).getTitle();
+        return title != null ? title.getValue() : null;
+    }
+
+    @Override
+    List<String> getDuplicateCheckLinks(PureWSResultItem pureWSResultItem) {
+        List<de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link> links =
+            ((PureWSResultStudentThesisItem) pureWSResultItem).getLinks();
+        if (links == null) {
+            return List.of();
+        }
+        List<String> urls = new ArrayList<>(links.size());
+        for (de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link link : links) {
+            if (link.getUrl() != null) {
+                urls.add(link.getUrl());
+            }
+        }
+        return urls;
+    }
+
     @Override
     public DuplicateCheckResult concreteDuplicateCheck(PureWSResultItem pureWSResultItem, String doi, String title) {
         PureWSResultStudentThesisItem studentThesisItem =
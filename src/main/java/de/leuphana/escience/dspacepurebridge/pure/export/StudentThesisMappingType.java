@@ -4,7 +4,6 @@ import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.StudentThesisApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public enum StudentThesisMappingType {
@@ -14,16 +13,12 @@ public enum StudentThesisMappingType {
     SUPERVISOR_ROLE(api -> api.studentthesisGetAllowedSupervisorRoles().getClassifications());
 
     private final PureStudentThesisClassificationRefFetcher pureStudentThesisClassificationRefFetcher;
-    private final List<ClassificationRef> classificationRefs = new ArrayList<>();
 
     StudentThesisMappingType(PureStudentThesisClassificationRefFetcher pureStudentThesisClassificationRefFetcher) {
         this.pureStudentThesisClassificationRefFetcher = pureStudentThesisClassificationRefFetcher;
     }
 
-    List<ClassificationRef> getClassificationRefs(StudentThesisApi studentThesisApi) throws ApiException {
-        if (classificationRefs.isEmpty()) {
-            classificationRefs.addAll(pureStudentThesisClassificationRefFetcher.fetch(studentThesisApi));
-        }
-        return classificationRefs;
+    List<ClassificationRef> fetchClassificationRefs(StudentThesisApi studentThesisApi) throws ApiException {
+        return pureStudentThesisClassificationRefFetcher.fetch(studentThesisApi);
     }
 }
@@ -1,16 +1,23 @@
 package de.leuphana.escience.dspacepurebridge.pure.export.filter;
 
-import org.dspace.content.Item;
+import de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadata;
+import org.dspace.content.Collection;
+import org.dspace.content.DSpaceObject;
 import org.dspace.content.MetadataValue;
-import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.handle.service.HandleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class PublicationExportFilter {
+    static final String COLLECTION_FIELD = "location.coll";
+    static final String TYPE_FIELD = "dc.type";
+
     private String collectionHandle = null;
     private final List<String> types = new ArrayList<>();
 
@@ -43,14 +50,59 @@ public class PublicationExportFilter {
         return publicationExportFilter;
     }
 
-    public String itemIsSyncableForType(Item item, ItemService itemService) {
-        if (collectionHandle != null && ! collectionHandle.equals(item.getOwningCollection().getHandle())) {
+    public String itemIsSyncableForType(ItemMetadata itemMetadata) {
+        if (collectionHandle != null &&
+                ! collectionHandle.equals(itemMetadata.getItem().getOwningCollection().getHandle())) {
             return null;
         }
-        List<MetadataValue> typeMetadataValues = itemService.getMetadataByMetadataString(item, "dc.type");
+        List<MetadataValue> typeMetadataValues = itemMetadata.get(TYPE_FIELD);
         return checkForTypesToSync(typeMetadataValues, types);
     }
 
+    /**
+     * Compiles the filters into a Solr filter query, so that items which cannot match any filter are not fetched
+     * from Discovery at all. The query matches at least the items accepted by the filters, e.g. items mapped into
+     * a collection or with a type containing an allowed type, so {@link #itemIsSyncableForType} must still be
+     * checked for every item found.
+     *
+     * @return the filter query, {@code null} if the filters do not narrow down the items
+     */
+    public static String toFilterQuery(List<PublicationExportFilter> filters, Context context,
+                                       HandleService handleService) throws SQLException {
+        List<String> filterQueries = new ArrayList<>();
+        for (PublicationExportFilter filter : filters) {
+            String filterQuery = filter.toFilterQuery(context, handleService);
+            if (filterQuery == null) {
+                return null;
+            }
+            filterQueries.add("(" + filterQuery + ")");
+        }
+        return filterQueries.isEmpty() ? null : String.join(" OR ", filterQueries);
+    }
+
+    /**
+     * @return the filter query of this filter, {@code null} if it does not narrow down the items
+     */
+    String toFilterQuery(Context context, HandleService handleService) throws SQLException {
+        List<String> clauses = new ArrayList<>();
+        if (collectionHandle != null) {
+            DSpaceObject collection = handleService.resolveToObject(context, collectionHandle);
+            if (!(collection instanceof Collection)) {
+                log.warn("Export filter collection {} not found, searching all collections", collectionHandle);
+                return null;
+            }
+            clauses.add(COLLECTION_FIELD + ":" + collection.getID());
+        }
+        if (!types.isEmpty()) {
+            List<String> typeValues = new ArrayList<>();
+            for (String type : types) {
+                typeValues.add("\"" + type.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+            }
+            clauses.add(TYPE_FIELD + ":(" + String.join(" OR ", typeValues) + ")");
+        }
+        return clauses.isEmpty() ? null : String.join(" AND ", clauses);
+    }
+
     String checkForTypesToSync(List<MetadataValue> metadataValues, List<String> allowedTypes) {
         if (metadataValues.isEmpty()) {
             return null;
@@ -13,6 +13,9 @@
 
 package de.leuphana.escience.dspacepurebridge.pure.generated;
 
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.MalformedJsonException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.auth.ApiKeyAuth;
 import de.leuphana.escience.dspacepurebridge.pure.generated.auth.Authentication;
 import de.leuphana.escience.dspacepurebridge.pure.generated.auth.HttpBasicAuth;
@@ -29,6 +32,7 @@ import javax.net.ssl.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.net.URI;
@@ -49,6 +53,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -908,27 +913,44 @@ public class ApiClient {
             return (T) downloadFileFromResponse(response);
         }
 
+        ResponseBody body = response.body();
+        if (body == null || body.contentLength() == 0) {
+            return null;
+        }
+
+        String contentType = response.headers().get("Content-Type");
+        if (contentType == null) {
+            // ensuring a default content type
+            contentType = "application/json";
+        }
+        if (isJsonMime(contentType) && !returnType.equals(String.class)) {
+            // Decode straight from the response stream instead of buffering the body as a string first.
+            try (Reader reader = body.charStream()) {
+                return JSON.deserialize(reader, returnType);
+            } catch (IOException e) {
+                throw new ApiException(e);
+            } catch (JsonParseException e) {
+                throw toApiException(e);
+            }
+        }
+
         String respBody;
         try {
-            if (response.body() != null)
-                respBody = response.body().string();
-            else
-                respBody = null;
+            respBody = body.string();
         } catch (IOException e) {
             throw new ApiException(e);
         }
 
-        if (respBody == null || "".equals(respBody)) {
+        if ("".equals(respBody)) {
             return null;
         }
 
-        String contentType = response.headers().get("Content-Type");
-        if (contentType == null) {
-            // ensuring a default content type
-            contentType = "application/json";
-        }
         if (isJsonMime(contentType)) {
-            return JSON.deserialize(respBody, returnType);
+            try {
+                return JSON.deserialize(respBody, returnType);
+            } catch (JsonParseException e) {
+                throw toApiException(e);
+            }
         } else if (returnType.equals(String.class)) {
             // Expecting string, return the raw response body.
             return (T) respBody;
@@ -1069,6 +1091,53 @@ public class ApiClient {
         }
     }
 
+    /**
+     * Execute HTTP call of a list result (e.g. {@code ResearchOutputListResult}) and hand its items to the
+     * consumer one at a time while they are read from the response, instead of deserializing the whole list
+     * result. The other fields of the list result are skipped.
+     *
+     * @param <T> Type of the items
+     * @param call An instance of the Call object
+     * @param itemType The type of the items (e.g. {@code ResearchOutput})
+     * @param itemConsumer The consumer of the items
+     * @return The number of items
+     * @throws ApiException If fail to execute the call
+     */
+    public <T> int executeItems(Call call, Type itemType, Consumer<? super T> itemConsumer) throws ApiException {
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                // throws the ApiException of the error response
+                handleResponse(response, null);
+            }
+            ResponseBody body = response.body();
+            if (body == null || response.code() == 204 || body.contentLength() == 0) {
+                return 0;
+            }
+            try (Reader reader = body.charStream()) {
+                return JSON.deserializeItems(reader, itemType, itemConsumer);
+            }
+        } catch (IOException e) {
+            throw new ApiException(e);
+        } catch (JsonParseException e) {
+            throw toApiException(e);
+        }
+    }
+
+    /**
+     * Wrap an error of Gson while reading a response body. Gson reports I/O errors of the reader, e.g. a
+     * connection dropped in the middle of the body, as {@link JsonIOException} or {@code JsonSyntaxException}.
+     * Their I/O error is kept as the cause of the ApiException like for I/O errors thrown directly.
+     *
+     * @param e The error of Gson
+     * @return The ApiException
+     */
+    private static ApiException toApiException(JsonParseException e) {
+        if (e.getCause() instanceof IOException && !(e.getCause() instanceof MalformedJsonException)) {
+            return new ApiException(e.getCause());
+        }
+        return new ApiException(e);
+    }
+
     /**
      * {@link #executeAsync(Call, Type, ApiCallback)}
      *
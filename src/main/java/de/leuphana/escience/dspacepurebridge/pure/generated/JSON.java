@@ -15,7 +15,9 @@ package de.leuphana.escience.dspacepurebridge.pure.generated;
 
 import com.google.gson.*;
 import com.google.gson.internal.bind.util.ISO8601Utils;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.*;
 import io.gsonfire.GsonFireBuilder;
@@ -23,6 +25,7 @@ import io.gsonfire.TypeSelector;
 import okio.ByteString;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.text.DateFormat;
@@ -34,6 +37,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /*
  * A JSON utility class
@@ -2209,6 +2213,59 @@ public class JSON {
         return gson.toJson(obj);
     }
 
+    /**
+     * Deserialize the JSON read from the given reader to Java object, without buffering it as a string first.
+     *
+     * @param <T>        Type
+     * @param body       The reader providing the JSON
+     * @param returnType The type to deserialize into
+     * @return The deserialized Java object, null for an empty body
+     */
+    public static <T> T deserialize(Reader body, Type returnType) {
+        if (isLenientOnJson) {
+            JsonReader jsonReader = new JsonReader(body);
+            jsonReader.setLenient(true);
+            return gson.fromJson(jsonReader, returnType);
+        }
+        return gson.fromJson(body, returnType);
+    }
+
+    /**
+     * Deserialize the items of a list result (e.g. {@link ResearchOutputListResult}) read from the given reader
+     * and hand them to the consumer one at a time. The other fields of the list result are skipped, so the
+     * list result and its item list are never built.
+     *
+     * @param <T>          Type of the items
+     * @param body         The reader providing the JSON of the list result
+     * @param itemType     The type to deserialize the items into
+     * @param itemConsumer The consumer of the items
+     * @return The number of items
+     * @throws IOException If the JSON cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int deserializeItems(Reader body, Type itemType, Consumer<? super T> itemConsumer)
+            throws IOException {
+        TypeAdapter<T> itemAdapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(itemType));
+        JsonReader jsonReader = new JsonReader(body);
+        jsonReader.setLenient(isLenientOnJson);
+        int count = 0;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if ("items".equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    itemConsumer.accept(itemAdapter.read(jsonReader));
+                    count++;
+                }
+                jsonReader.endArray();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return count;
+    }
+
     /**
      * Deserialize the given JSON string to Java object.
      *
@@ -0,0 +1,182 @@
+package de.leuphana.escience.dspacepurebridge.pure.imports;
+
+import de.leuphana.escience.dspacepurebridge.concurrent.CompactUuidMap;
+import de.leuphana.escience.dspacepurebridge.search.DiscoveryMarker;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot of {@link PureToDSpace#pureEntityCache} and {@link PureToDSpace#dspaceEntityCache}, persisted between
+ * runs so that the caches do not have to be rebuilt from scratch.
+ * <p>
+ * Every cached entity type is stored together with the {@link DiscoveryMarker} of the items it has been built
+ * from. A later run compares it with the current marker to decide whether the cached entries can be used as they
+ * are, have to be reconciled with the items modified in the meantime, or have to be rebuilt.
+ * <p>
+ * File layout (big endian): magic, format version, the sections, and a CRC32 of everything before it.
+ * A file with a different magic, version or checksum is ignored.
+ */
+public class EntityCacheSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(EntityCacheSnapshot.class);
+
+    static final int MAGIC = 0x44504243;
+    static final int VERSION = 1;
+    private static final byte PURE_SECTION = 1;
+    private static final byte DSPACE_SECTION = 2;
+    private static final int ENTITY_HASH_LENGTH = 32;
+
+    private final Map<DSpacePureEntity, CachedEntities<UUID>> pureEntities = new EnumMap<>(DSpacePureEntity.class);
+    private final Map<DSpacePureEntity, CachedEntities<String>> dspaceEntities = new EnumMap<>(DSpacePureEntity.class);
+
+    /**
+     * Cache entries of one entity type and the marker of the items they have been built from.
+     */
+    public record CachedEntities<K>(DiscoveryMarker marker, Map<K, UUID> entries) {
+    }
+
+    public CachedEntities<UUID> getPureEntities(DSpacePureEntity dSpacePureEntity) {
+        return pureEntities.get(dSpacePureEntity);
+    }
+
+    public void putPureEntities(DSpacePureEntity dSpacePureEntity, CachedEntities<UUID> cachedEntities) {
+        pureEntities.put(dSpacePureEntity, cachedEntities);
+    }
+
+    public CachedEntities<String> getDspaceEntities(DSpacePureEntity dSpacePureEntity) {
+        return dspaceEntities.get(dSpacePureEntity);
+    }
+
+    public void putDspaceEntities(DSpacePureEntity dSpacePureEntity, CachedEntities<String> cachedEntities) {
+        dspaceEntities.put(dSpacePureEntity, cachedEntities);
+    }
+
+    /**
+     * Reads a snapshot by memory mapping the file.
+     *
+     * @return the snapshot or {@code null} if the file does not exist or is not a valid snapshot
+     */
+    public static EntityCacheSnapshot read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < Integer.BYTES * 2 + Long.BYTES || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION) {
+                log.warn("Ignoring entity cache snapshot {}: unknown format", file);
+                return null;
+            }
+            ByteBuffer content = buffer.duplicate().position(0).limit(buffer.limit() - Long.BYTES);
+            CRC32 crc32 = new CRC32();
+            crc32.update(content);
+            if (crc32.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+                log.warn("Ignoring entity cache snapshot {}: checksum mismatch", file);
+                return null;
+            }
+            buffer.limit(buffer.limit() - Long.BYTES);
+            return readSections(buffer);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            log.warn("Ignoring entity cache snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static EntityCacheSnapshot readSections(ByteBuffer buffer) {
+        EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+        byte[] entityHash = new byte[ENTITY_HASH_LENGTH];
+        while (buffer.hasRemaining()) {
+            byte section = buffer.get();
+            DSpacePureEntity dSpacePureEntity = DSpacePureEntity.values()[buffer.get()];
+            long count = buffer.getLong();
+            long lastModified = buffer.getLong();
+            DiscoveryMarker marker = new DiscoveryMarker(count, lastModified < 0 ? null : Instant.ofEpochMilli(lastModified));
+            int size = buffer.getInt();
+            if (section == PURE_SECTION) {
+                Map<UUID, UUID> entries = new CompactUuidMap<>(CompactUuidMap.UUID_KEYS, size);
+                for (int i = 0; i < size; i++) {
+                    entries.put(new UUID(buffer.getLong(), buffer.getLong()), new UUID(buffer.getLong(), buffer.getLong()));
+                }
+                snapshot.putPureEntities(dSpacePureEntity, new CachedEntities<>(marker, entries));
+            } else if (section == DSPACE_SECTION) {
+                Map<String, UUID> entries = new CompactUuidMap<>(CompactUuidMap.SHA256_HEX_KEYS, size);
+                for (int i = 0; i < size; i++) {
+                    buffer.get(entityHash);
+                    entries.put(Hex.encodeHexString(entityHash), new UUID(buffer.getLong(), buffer.getLong()));
+                }
+                snapshot.putDspaceEntities(dSpacePureEntity, new CachedEntities<>(marker, entries));
+            } else {
+                throw new IllegalArgumentException("unknown section " + section);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and atomically replaces the given file with it.
+     */
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc32 = new CRC32();
+        try (OutputStream fileOutputStream = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                     new BufferedOutputStream(fileOutputStream), crc32))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Map.Entry<DSpacePureEntity, CachedEntities<UUID>> cachedEntities : pureEntities.entrySet()) {
+                writeSectionHeader(out, PURE_SECTION, cachedEntities.getKey(), cachedEntities.getValue());
+                for (Map.Entry<UUID, UUID> entry : cachedEntities.getValue().entries().entrySet()) {
+                    writeUuid(out, entry.getKey());
+                    writeUuid(out, entry.getValue());
+                }
+            }
+            for (Map.Entry<DSpacePureEntity, CachedEntities<String>> cachedEntities : dspaceEntities.entrySet()) {
+                writeSectionHeader(out, DSPACE_SECTION, cachedEntities.getKey(), cachedEntities.getValue());
+                for (Map.Entry<String, UUID> entry : cachedEntities.getValue().entries().entrySet()) {
+                    out.write(Hex.decodeHex(entry.getKey()));
+                    writeUuid(out, entry.getValue());
+                }
+            }
+            out.flush();
+            out.writeLong(crc32.getValue());
+        } catch (DecoderException e) {
+            throw new IOException("Invalid entity hash", e);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSectionHeader(DataOutputStream out, byte section, DSpacePureEntity dSpacePureEntity,
+                                           CachedEntities<?> cachedEntities) throws IOException {
+        out.writeByte(section);
+        out.writeByte(dSpacePureEntity.ordinal());
+        out.writeLong(cachedEntities.marker().count());
+        out.writeLong(cachedEntities.marker().lastModified() == null ? -1 : cachedEntities.marker().lastModified().toEpochMilli());
+        out.writeInt(cachedEntities.entries().size());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+}
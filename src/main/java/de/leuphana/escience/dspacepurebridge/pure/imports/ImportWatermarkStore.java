@@ -0,0 +1,82 @@
+package de.leuphana.escience.dspacepurebridge.pure.imports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+
+/**
+ * Persists the modification date of the most recently changed Pure entity per {@link DSpacePureEntity} that
+ * has been imported successfully. The next import only needs to fetch entities modified after this watermark.
+ */
+public class ImportWatermarkStore {
+    private static final Logger log = LoggerFactory.getLogger(ImportWatermarkStore.class);
+
+    private final Path file;
+    private final Properties watermarks = new Properties();
+
+    public ImportWatermarkStore(Path file) {
+        this.file = file;
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                watermarks.load(reader);
+            } catch (IOException e) {
+                log.warn("Could not read import watermarks from {}, performing a full import", file, e);
+                watermarks.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the watermark of the given entity type or {@code null} if the entity type has never been imported
+     * completely
+     */
+    public Instant getWatermark(DSpacePureEntity dSpacePureEntity) {
+        return parseModifiedDate(watermarks.getProperty(dSpacePureEntity.getEndpoint()));
+    }
+
+    /**
+     * Raises the watermark of the given entity type; an older value than the current one is ignored.
+     */
+    public void updateWatermark(DSpacePureEntity dSpacePureEntity, Instant watermark) {
+        Instant currentWatermark = getWatermark(dSpacePureEntity);
+        if (watermark != null && (currentWatermark == null || watermark.isAfter(currentWatermark))) {
+            watermarks.setProperty(dSpacePureEntity.getEndpoint(), watermark.toString());
+        }
+    }
+
+    public void save() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            watermarks.store(writer, "dspace-pure-bridge import watermarks");
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Parses the {@code info.modifiedDate} of a Pure entity.
+     *
+     * @return the parsed date or {@code null} if the value is missing or not an ISO-8601 timestamp
+     */
+    public static Instant parseModifiedDate(String modifiedDate) {
+        if (modifiedDate == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(modifiedDate).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
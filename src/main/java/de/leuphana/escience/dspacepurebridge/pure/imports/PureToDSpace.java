@@ -1,15 +1,25 @@
 package de.leuphana.escience.dspacepurebridge.pure.imports;
 
 import de.leuphana.escience.dspacepurebridge.CLIScriptContextUtils;
+import de.leuphana.escience.dspacepurebridge.ConfigurationUtils;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.BoundedExecutor;
+import de.leuphana.escience.dspacepurebridge.concurrent.CompactUuidMap;
+import de.leuphana.escience.dspacepurebridge.concurrent.NamedExecutors;
+import de.leuphana.escience.dspacepurebridge.concurrent.PagePrefetcher;
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import de.leuphana.escience.dspacepurebridge.pure.PureHttpTransport;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.*;
 import de.leuphana.escience.dspacepurebridge.relations.EntityUtils;
 import de.leuphana.escience.dspacepurebridge.relations.RelationShipUtils;
+import de.leuphana.escience.dspacepurebridge.search.DiscoveryMarker;
 import de.leuphana.escience.dspacepurebridge.search.ItemFinder;
 import de.leuphana.escience.dspacepurebridge.search.ItemProcessor;
 import de.leuphana.escience.dspacepurebridge.search.SearchQueryType;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.solr.common.SolrDocument;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.content.*;
 import org.dspace.content.Collection;
@@ -27,14 +37,20 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import static de.leuphana.escience.dspacepurebridge.Constants.LAST_MODIFICATION_DATE;
 
@@ -42,15 +58,39 @@ public class PureToDSpace {
     private static final Logger log = LoggerFactory.getLogger(PureToDSpace.class);
     static final Map<DSpacePureEntity, Map<UUID, UUID>> pureEntityCache = new ConcurrentHashMap<>();
     static final Map<DSpacePureEntity, Map<String, UUID>> dspaceEntityCache = new ConcurrentHashMap<>();
-    private final Map<DSpacePureEntity, UUID> collectionMap = new EnumMap<>(DSpacePureEntity.class);
+    private final Map<DSpacePureEntity, UUID> collectionMap = Collections.synchronizedMap(new EnumMap<>(DSpacePureEntity.class));
     private final String pureWsEndpointBase;
     private final String pureWsApiKey;
     private final DSpaceServicesContainer dSpaceServicesContainer;
     private final ItemFinder itemFinder;
-
-    private static final String PURE_WS_PAGESIZE = "dspace-pure-bridge.pure.ws.pagesize";
+    private final Set<DSpacePureEntity> failedImports = ConcurrentHashMap.newKeySet();
+    private boolean fullImport;
+    private Path entityCacheSnapshotFile;
+    private final Map<DSpacePureEntity, DiscoveryMarker> pureEntityMarkers = new ConcurrentHashMap<>();
+    private final Map<DSpacePureEntity, DiscoveryMarker> dspaceEntityMarkers = new ConcurrentHashMap<>();
+    private final Map<DSpacePureEntity, Integer> pureEntityCacheSizes = new ConcurrentHashMap<>();
+    // Pure items whose DSpace entity is created in a context not committed yet
+    private final Set<UUID> pureUuidsInCreation = ConcurrentHashMap.newKeySet();
+    private final Map<DSpacePureEntity, Semaphore> importPermits = new EnumMap<>(DSpacePureEntity.class);
+    private Semaphore databasePermits;
+    private int prefetchPages = 1;
+    private ExecutorService prefetchExecutor;
+    private PureHttpTransport httpTransport;
+
+    private static final String IMPORT_WORKERS_PER_TYPE = "dspace-pure-bridge.import.workers.per.type";
+    private static final String IMPORT_QUEUE_CAPACITY = "dspace-pure-bridge.import.queue.capacity";
+    private static final String IMPORT_BATCH_SIZE = "dspace-pure-bridge.import.batch.size";
+    private static final String CACHE_WARMUP = "dspace-pure-bridge.import.cache.warmup";
+    private static final String CACHE_WARMUP_DISCOVERY = "discovery";
+    private static final String CACHE_WARMUP_TIMER = "import.cache.warmup";
+    private static final String IMPORT_WATERMARK_FILE = "import-watermarks.properties";
+    private static final String ENTITY_CACHE_SNAPSHOT = "dspace-pure-bridge.import.cache.snapshot";
+    private static final String ENTITY_CACHE_SNAPSHOT_FILE = "entity-cache.snapshot";
 
     RestTemplateBuilder initRestTemplateBuilder() {
+        if (httpTransport != null) {
+            return httpTransport.restTemplateBuilder(pureWsApiKey);
+        }
         return new RestTemplateBuilder()
                 .requestFactory(HttpComponentsClientHttpRequestFactory.class)
                 .connectTimeout(Duration.ofMillis(60000))
@@ -66,43 +106,187 @@ public class PureToDSpace {
         this.itemFinder = itemFinder;
     }
 
+    /**
+     * Builds the caches of all entity types concurrently, each entity type using its own DSpace context.
+     */
     void prepareCaches() throws SQLException, SearchServiceException {
-        Context context = CLIScriptContextUtils.createReducedContext();
-        for (DSpacePureEntity dSpacePureEntity : DSpacePureEntity.values()) {
-            preparePureEntityCache(context, dSpacePureEntity);
-            prepareDspaceEntityCache(context, dSpacePureEntity);
+        entityCacheSnapshotFile = getEntityCacheSnapshotFile();
+        EntityCacheSnapshot previousSnapshot = entityCacheSnapshotFile != null
+                ? EntityCacheSnapshot.read(entityCacheSnapshotFile) : null;
+        try {
+            runForEntityTypes("pure-cache", dSpacePureEntity -> {
+                Context context = createContext();
+                try {
+                    Timer.Sample sample = Timer.start();
+                    preparePureEntityCache(context, dSpacePureEntity, previousSnapshot);
+                    sample.stop(BridgeMetrics.timer(CACHE_WARMUP_TIMER, "entity", dSpacePureEntity.name(),
+                            "cache", "pure"));
+                    sample = Timer.start();
+                    prepareDspaceEntityCache(context, dSpacePureEntity, previousSnapshot);
+                    sample.stop(BridgeMetrics.timer(CACHE_WARMUP_TIMER, "entity", dSpacePureEntity.name(),
+                            "cache", "dspace"));
+                } finally {
+                    CLIScriptContextUtils.closeContext(context);
+                }
+                return null;
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof SearchServiceException searchServiceException) {
+                throw searchServiceException;
+            }
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
+    }
 
-        CLIScriptContextUtils.closeContext(context);
+    @FunctionalInterface
+    interface EntityTypeTask<T> {
+        T run(DSpacePureEntity dSpacePureEntity) throws Exception;
     }
 
-    void prepareDspaceEntityCache(Context context, DSpacePureEntity dSpacePureEntity) throws SearchServiceException {
-        dspaceEntityCache.putIfAbsent(dSpacePureEntity, new ConcurrentHashMap<>());
-        SearchQueryType searchQueryType = getDSpaceEntitiesSearchQueryType(dSpacePureEntity);
-        itemFinder.processAllItems(context, dSpaceServicesContainer.getSearchService(), searchQueryType, (ItemProcessor) item -> {
-            String entityHash = null;
-
-            if (DSpacePureEntity.ORGANIZATION.equals(dSpacePureEntity)) {
-                entityHash = EntityUtils.generateOrgUnitNameEntityHash(dSpaceServicesContainer.getItemService(), item);
-            } else if (DSpacePureEntity.PERSON.equals(dSpacePureEntity)) {
-                entityHash = EntityUtils.generatePersonEntityHash(dSpaceServicesContainer.getItemService(), item);
-            } else if (DSpacePureEntity.PROJECT.equals(dSpacePureEntity)) {
-                entityHash = EntityUtils.generateProjectNameEntityHash(dSpaceServicesContainer.getItemService(), item);
+    /**
+     * Runs the task for all entity types concurrently, one thread per entity type, and waits until all of them are
+     * finished. If one of the tasks fails, the others are interrupted.
+     *
+     * @return the non-null results of the tasks
+     * @throws ExecutionException wrapping the exception of the first failed task
+     */
+    <T> Map<DSpacePureEntity, T> runForEntityTypes(String name, EntityTypeTask<T> task)
+            throws InterruptedException, ExecutionException {
+        ExecutorService executorService = Executors.newFixedThreadPool(DSpacePureEntity.values().length);
+        try {
+            Map<DSpacePureEntity, Future<T>> futures = new EnumMap<>(DSpacePureEntity.class);
+            for (DSpacePureEntity dSpacePureEntity : DSpacePureEntity.values()) {
+                futures.put(dSpacePureEntity, executorService.submit(() -> {
+                    Thread.currentThread().setName(name + "-" + dSpacePureEntity.getEndpoint());
+                    return task.run(dSpacePureEntity);
+                }));
             }
-            if (entityHash != null) {
-                dspaceEntityCache.get(dSpacePureEntity).putIfAbsent(entityHash, item.getID());
+            Map<DSpacePureEntity, T> results = new EnumMap<>(DSpacePureEntity.class);
+            for (Map.Entry<DSpacePureEntity, Future<T>> future : futures.entrySet()) {
+                T result = future.getValue().get();
+                if (result != null) {
+                    results.put(future.getKey(), result);
+                }
             }
-        });
+            return results;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static RuntimeException propagate(Throwable throwable) {
+        if (throwable instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(throwable);
+    }
+
+    /**
+     * @return the file the entity caches are persisted in, or {@code null} if snapshots are disabled or cannot be
+     * used in this installation
+     */
+    Path getEntityCacheSnapshotFile() {
+        ConfigurationService configurationService = dSpaceServicesContainer.getConfigurationService();
+        if (!configurationService.getBooleanProperty(ENTITY_CACHE_SNAPSHOT, false)) {
+            return null;
+        }
+        Path stateDirectory = ConfigurationUtils.getStateDirectory(configurationService);
+        if (stateDirectory == null || dSpaceServicesContainer.getSolrSearchCore() == null) {
+            log.warn("Entity cache snapshot requires a state directory and the Discovery search core, snapshot disabled");
+            return null;
+        }
+        return stateDirectory.resolve(ENTITY_CACHE_SNAPSHOT_FILE);
+    }
+
+    void prepareDspaceEntityCache(Context context, DSpacePureEntity dSpacePureEntity,
+                                  EntityCacheSnapshot previousSnapshot) throws SearchServiceException {
+        dspaceEntityCache.putIfAbsent(dSpacePureEntity, CompactUuidMap.withSha256HexKeys());
+        SearchQueryType searchQueryType = getDSpaceEntitiesSearchQueryType(dSpacePureEntity);
+        boolean restored = false;
+        if (entityCacheSnapshotFile != null) {
+            List<String> entityHashFields = getDSpaceEntitiesHashFields(dSpacePureEntity);
+            DiscoveryMarker marker = itemFinder.findMarker(dSpaceServicesContainer.getSolrSearchCore().getSolr(),
+                    searchQueryType.getQuery(), ItemFinder.toFilterQueries(searchQueryType));
+            dspaceEntityMarkers.put(dSpacePureEntity, marker);
+            restored = previousSnapshot != null && restoreEntityCache(dspaceEntityCache.get(dSpacePureEntity),
+                    previousSnapshot.getDspaceEntities(dSpacePureEntity), marker, searchQueryType.getQuery(),
+                    ItemFinder.toFilterQueries(searchQueryType), entityHashFields,
+                    document -> EntityUtils.generateEntityHash(document, entityHashFields));
+        }
+        if (!restored) {
+            loadDspaceEntityCache(context, dSpacePureEntity, searchQueryType);
+        }
         log.info("Number of 'DSpace' entities for type '{}': {}", dSpacePureEntity, dspaceEntityCache.get(dSpacePureEntity).size());
     }
 
-    void preparePureEntityCache(Context context, DSpacePureEntity dSpacePureEntity) throws SQLException, SearchServiceException {
-        pureEntityCache.putIfAbsent(dSpacePureEntity, new ConcurrentHashMap<>());
+    private void loadDspaceEntityCache(Context context, DSpacePureEntity dSpacePureEntity, SearchQueryType searchQueryType)
+            throws SearchServiceException {
+        if (CACHE_WARMUP_DISCOVERY.equals(dSpaceServicesContainer.getConfigurationService().getProperty(CACHE_WARMUP))) {
+            List<String> entityHashFields = getDSpaceEntitiesHashFields(dSpacePureEntity);
+            itemFinder.processAllDocuments(dSpaceServicesContainer.getSolrSearchCore().getSolr(), searchQueryType,
+                    entityHashFields, document -> {
+                        String entityHash = EntityUtils.generateEntityHash(document, entityHashFields);
+                        dspaceEntityCache.get(dSpacePureEntity).putIfAbsent(entityHash, getResourceId(document));
+                    });
+        } else {
+            itemFinder.processAllItems(context, dSpaceServicesContainer.getSearchService(), searchQueryType, (ItemProcessor) item -> {
+                String entityHash = generateDspaceEntityHash(dSpacePureEntity, item);
+                if (entityHash != null) {
+                    dspaceEntityCache.get(dSpacePureEntity).putIfAbsent(entityHash, item.getID());
+                }
+            });
+        }
+    }
+
+    String generateDspaceEntityHash(DSpacePureEntity dSpacePureEntity, Item item) {
+        if (DSpacePureEntity.ORGANIZATION.equals(dSpacePureEntity)) {
+            return EntityUtils.generateOrgUnitNameEntityHash(dSpaceServicesContainer.getItemService(), item);
+        } else if (DSpacePureEntity.PERSON.equals(dSpacePureEntity)) {
+            return EntityUtils.generatePersonEntityHash(dSpaceServicesContainer.getItemService(), item);
+        } else if (DSpacePureEntity.PROJECT.equals(dSpacePureEntity)) {
+            return EntityUtils.generateProjectNameEntityHash(dSpaceServicesContainer.getItemService(), item);
+        }
+        return null;
+    }
+
+    void preparePureEntityCache(Context context, DSpacePureEntity dSpacePureEntity,
+                                EntityCacheSnapshot previousSnapshot) throws SQLException, SearchServiceException {
+        pureEntityCache.putIfAbsent(dSpacePureEntity, CompactUuidMap.withUuidKeys());
 
         Collection entityCollection = (Collection) dSpaceServicesContainer.getHandleService()
                 .resolveToObject(context,
                         dSpacePureEntity.getDspacePureEntityCollectionHandle(dSpaceServicesContainer.getConfigurationService()));
         collectionMap.put(dSpacePureEntity, entityCollection.getID());
+        boolean restored = false;
+        if (entityCacheSnapshotFile != null) {
+            String pureUuidField = Constants.SCHEME + "." + Constants.ELEMENT + "." + Constants.UUID_QUALIFIER;
+            List<String> filterQueries = List.of("location.coll:" + entityCollection.getID(), pureUuidField + ":*");
+            DiscoveryMarker marker = itemFinder.findMarker(dSpaceServicesContainer.getSolrSearchCore().getSolr(),
+                    "*:*", filterQueries);
+            pureEntityMarkers.put(dSpacePureEntity, marker);
+            restored = previousSnapshot != null && restoreEntityCache(pureEntityCache.get(dSpacePureEntity),
+                    previousSnapshot.getPureEntities(dSpacePureEntity), marker, "*:*", filterQueries,
+                    List.of(pureUuidField),
+                    document -> UUID.fromString(String.valueOf(document.getFirstValue(pureUuidField))));
+        }
+        if (!restored) {
+            loadPureEntityCache(context, dSpacePureEntity, entityCollection);
+        }
+        pureEntityCacheSizes.put(dSpacePureEntity, pureEntityCache.get(dSpacePureEntity).size());
+        log.info("Number of 'Pure' entities for type '{}': {}", dSpacePureEntity, pureEntityCache.get(dSpacePureEntity).size());
+    }
+
+    private void loadPureEntityCache(Context context, DSpacePureEntity dSpacePureEntity, Collection entityCollection)
+            throws SQLException {
         Iterator<Item> entities = dSpaceServicesContainer.getItemService().findByCollection(context, entityCollection);
         while (entities.hasNext()) {
             Item item = entities.next();
@@ -114,8 +298,100 @@ public class PureToDSpace {
                 pureEntityCache.get(dSpacePureEntity)
                         .putIfAbsent(UUID.fromString(metadata.get(0).getValue()), item.getID());
             }
+            context.uncacheEntity(item);
+        }
+    }
+
+    /**
+     * Fills the cache from the previous snapshot. If the marker of the items has changed since, only the items
+     * modified after the snapshot are read from Discovery and merged into the cached entries. Items removed in the
+     * meantime cannot be detected that way; if the number of items does not add up afterwards, the cache is left
+     * empty so that it is rebuilt completely.
+     *
+     * @return {@code true} if the cache has been restored from the snapshot
+     */
+    private <K> boolean restoreEntityCache(Map<K, UUID> cache, EntityCacheSnapshot.CachedEntities<K> cachedEntities,
+                                           DiscoveryMarker marker, String query, List<String> filterQueries,
+                                           List<String> fields, Function<SolrDocument, K> keyFunction)
+            throws SearchServiceException {
+        if (cachedEntities == null) {
+            return false;
+        }
+        if (cachedEntities.marker().equals(marker)) {
+            cache.putAll(cachedEntities.entries());
+            return true;
+        }
+        if (cachedEntities.marker().lastModified() == null) {
+            return false;
+        }
+
+        Map<K, UUID> entries = cachedEntities.entries();
+        Map<UUID, K> keysByItem = new HashMap<>();
+        entries.forEach((key, itemId) -> keysByItem.put(itemId, key));
+        List<String> modifiedFilterQueries = new ArrayList<>(filterQueries);
+        modifiedFilterQueries.add(ItemFinder.buildModifiedSinceFilter(cachedEntities.marker().lastModified()));
+        long[] addedItems = {0};
+        itemFinder.processAllDocuments(dSpaceServicesContainer.getSolrSearchCore().getSolr(), query,
+                modifiedFilterQueries, fields, document -> {
+                    UUID itemId = getResourceId(document);
+                    K previousKey = keysByItem.remove(itemId);
+                    if (previousKey == null) {
+                        addedItems[0]++;
+                    } else {
+                        entries.remove(previousKey);
+                    }
+                    entries.putIfAbsent(keyFunction.apply(document), itemId);
+                });
+        if (cachedEntities.marker().count() + addedItems[0] != marker.count()) {
+            log.info("Entity cache snapshot is outdated, items have been removed since");
+            return false;
+        }
+        cache.putAll(entries);
+        return true;
+    }
+
+    private static UUID getResourceId(SolrDocument document) {
+        return UUID.fromString(String.valueOf(document.getFirstValue("search.resourceid")));
+    }
+
+    /**
+     * Persists the entity caches together with the markers determined before they were built. Entities created by
+     * this run are accounted for in the marker, so that the next run can reuse the snapshot once they are indexed.
+     */
+    void saveEntityCacheSnapshot() {
+        EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+        for (DSpacePureEntity dSpacePureEntity : DSpacePureEntity.values()) {
+            DiscoveryMarker pureEntityMarker = pureEntityMarkers.get(dSpacePureEntity);
+            if (pureEntityMarker != null) {
+                Map<UUID, UUID> entries = pureEntityCache.get(dSpacePureEntity);
+                long createdEntities = entries.size() - pureEntityCacheSizes.get(dSpacePureEntity);
+                snapshot.putPureEntities(dSpacePureEntity, new EntityCacheSnapshot.CachedEntities<>(
+                        new DiscoveryMarker(pureEntityMarker.count() + createdEntities, pureEntityMarker.lastModified()),
+                        entries));
+            }
+            DiscoveryMarker dspaceEntityMarker = dspaceEntityMarkers.get(dSpacePureEntity);
+            if (dspaceEntityMarker != null) {
+                snapshot.putDspaceEntities(dSpacePureEntity, new EntityCacheSnapshot.CachedEntities<>(
+                        dspaceEntityMarker, dspaceEntityCache.get(dSpacePureEntity)));
+            }
+        }
+        try {
+            snapshot.write(entityCacheSnapshotFile);
+        } catch (IOException e) {
+            log.error("Could not save entity cache snapshot", e);
         }
-        log.info("Number of 'Pure' entities for type '{}': {}", dSpacePureEntity, pureEntityCache.get(dSpacePureEntity).size());
+    }
+
+    private static List<String> getDSpaceEntitiesHashFields(DSpacePureEntity dSpacePureEntity) {
+        List<String> entityHashFields = Collections.emptyList();
+        if (DSpacePureEntity.PERSON.equals(dSpacePureEntity)) {
+            entityHashFields = EntityUtils.PERSON_ENTITY_HASH_FIELDS;
+        } else if (DSpacePureEntity.ORGANIZATION.equals(dSpacePureEntity)) {
+            entityHashFields = EntityUtils.ORG_UNIT_NAME_ENTITY_HASH_FIELDS;
+        } else if (DSpacePureEntity.PROJECT.equals(dSpacePureEntity)) {
+            entityHashFields = EntityUtils.PROJECT_NAME_ENTITY_HASH_FIELDS;
+        }
+        return entityHashFields;
     }
 
     @Nullable
@@ -135,199 +411,481 @@ public class PureToDSpace {
         return CLIScriptContextUtils.createReducedContext();
     }
 
+    ImportWatermarkStore createWatermarkStore() {
+        Path stateDirectory = ConfigurationUtils.getStateDirectory(dSpaceServicesContainer.getConfigurationService());
+        if (stateDirectory == null) {
+            log.warn("No state directory configured, import watermarks are not persisted");
+            return null;
+        }
+        return new ImportWatermarkStore(stateDirectory.resolve(IMPORT_WATERMARK_FILE));
+    }
+
+    /**
+     * @param fullImport if {@code true}, all entities are fetched from Pure regardless of the persisted watermarks
+     */
+    public void setFullImport(boolean fullImport) {
+        this.fullImport = fullImport;
+    }
+
+    /**
+     * @param httpTransport the transport shared by all requests to the Pure API; if none is set, the requests use
+     *                      a connection pool of their own
+     */
+    public void setHttpTransport(PureHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * @return the number of requests the import sends to Pure at most at the same time: the prefetched pages of
+     * the fetch thread of every entity type and of every worker
+     */
+    public static int getConcurrentRequests(ConfigurationService configurationService) {
+        int workers = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.IMPORT_WORKERS,
+                Runtime.getRuntime().availableProcessors());
+        int prefetch = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.PURE_WS_PREFETCH, 2);
+        return (workers + DSpacePureEntity.values().length) * Math.max(prefetch, 1);
+    }
+
     public void syncObjects() throws SQLException, SearchServiceException {
         prepareCaches();
 
-        int pureWsPageSize = 100;
-        if (dSpaceServicesContainer.getConfigurationService().hasProperty(PURE_WS_PAGESIZE)) {
-            pureWsPageSize = dSpaceServicesContainer.getConfigurationService().getIntProperty(PURE_WS_PAGESIZE);
+        ConfigurationService configurationService = dSpaceServicesContainer.getConfigurationService();
+        int pureWsPageSize = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.PURE_WS_PAGESIZE, 100);
+        int workers = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.IMPORT_WORKERS,
+                Runtime.getRuntime().availableProcessors());
+        int queueCapacity = ConfigurationUtils.getIntProperty(configurationService, IMPORT_QUEUE_CAPACITY,
+                pureWsPageSize);
+        int batchSize = ConfigurationUtils.getIntProperty(configurationService, IMPORT_BATCH_SIZE, 1);
+        if (batchSize < 1) {
+            throw new IllegalStateException(IMPORT_BATCH_SIZE + " must be at least 1!");
         }
 
         RestTemplateBuilder clientBuilder = initRestTemplateBuilder();
         RestTemplate restTemplate = clientBuilder.build();
 
-        int availableProcessors = Runtime.getRuntime().availableProcessors();
-        log.info("Available processors: {}", availableProcessors);
-        ExecutorService pureSyncerThreadPool =
-                Executors.newFixedThreadPool(availableProcessors);
-
+        // by default, every entity type gets its share of the workers
+        int workersPerType = ConfigurationUtils.getIntProperty(configurationService, IMPORT_WORKERS_PER_TYPE,
+                Math.max(1, workers / DSpacePureEntity.values().length));
+        if (workersPerType < 1) {
+            throw new IllegalStateException(IMPORT_WORKERS_PER_TYPE + " must be at least 1!");
+        }
         for (DSpacePureEntity dSpacePureEntity : DSpacePureEntity.values()) {
-            int offset = 0;
-            boolean itemsLeft = true;
-
-            do {
-                String webServiceUrl =
-                        getPureWsEndpointBase() + dSpacePureEntity.getEndpoint() + "?offset=" + offset + "&size=" +
-                                pureWsPageSize + "&fields" +
-                                "=uuid,info.modifiedDate,title.*,name.*";
-                log.info("WebService Call: {}", webServiceUrl);
-                ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity =
-                        restTemplate.getForEntity(webServiceUrl,
-                                dSpacePureEntity.getResultsClass());
-
-                PureWSResults<? extends PureWSResultItem> pureWSResults = responseEntity.getBody();
-                if (pureWSResults.getItems() == null || pureWSResults.getItems().size() < pureWsPageSize) {
-                    itemsLeft = false;
-                } else {
-                    offset += pureWsPageSize;
+            importPermits.put(dSpacePureEntity, new Semaphore(workersPerType));
+        }
+        int databaseConnections = ConfigurationUtils.getIntProperty(configurationService,
+                ConfigurationUtils.DATABASE_CONNECTIONS, workers);
+        if (databaseConnections < 1) {
+            throw new IllegalStateException(ConfigurationUtils.DATABASE_CONNECTIONS + " must be at least 1!");
+        }
+        databasePermits = new Semaphore(databaseConnections);
+
+        prefetchPages = ConfigurationUtils.getIntProperty(configurationService, ConfigurationUtils.PURE_WS_PREFETCH, 2);
+        prefetchExecutor = NamedExecutors.newCachedDaemonExecutor("pure-prefetch");
+
+        ImportWatermarkStore watermarkStore = createWatermarkStore();
+        Map<DSpacePureEntity, Instant> lastModifiedDates;
+        BoundedExecutor pureSyncerExecutor = new BoundedExecutor("pure-import", workers, queueCapacity);
+        try {
+            lastModifiedDates = runForEntityTypes("pure-fetch", dSpacePureEntity -> {
+                Instant watermark = null;
+                if (!fullImport && watermarkStore != null) {
+                    watermark = watermarkStore.getWatermark(dSpacePureEntity);
                 }
+                return fetchPureEntities(restTemplate, dSpacePureEntity, pureWsPageSize, batchSize,
+                        pureSyncerExecutor, watermark);
+            });
+            pureSyncerExecutor.shutdownAndAwaitTermination();
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            // after a failure, the workers are still running and their threads would keep the JVM alive
+            pureSyncerExecutor.shutdownNow();
+            prefetchExecutor.shutdownNow();
+        }
 
-                for (PureWSResultItem pureWSResultItem : pureWSResults.getItems()) {
-                    pureSyncerThreadPool.execute(() -> {
-                        Context context = null;
-                        AtomicBoolean pureItemChanged = new AtomicBoolean(false);
-                        try {
-                            context = createContext();
-
-                            Item resultItem;
-                            if (pureEntityCache.get(dSpacePureEntity).containsKey(pureWSResultItem.getUuid())) {
-                                resultItem = dSpaceServicesContainer.getItemService().find(context,
-                                        pureEntityCache.get(dSpacePureEntity)
-                                                .get(pureWSResultItem.getUuid()));
-                                List<MetadataValue> lastModified =
-                                        dSpaceServicesContainer.getItemService().getMetadata(resultItem, Constants.SCHEME, Constants.ELEMENT,
-                                                LAST_MODIFICATION_DATE,
-                                                Item.ANY);
-                                if (!lastModified.isEmpty() &&
-                                        lastModified.get(0).getValue()
-                                                .equals(pureWSResultItem.getModifiedDate())) {
-                                    log.info("Skipping {} with pureId: {}, lastModificationDate not changed",
-                                            dSpacePureEntity.getDspacePureEntity(), pureWSResultItem.getUuid());
-                                } else {
-                                    pureItemChanged.set(true);
-                                    log.info("Updating {} with pureId: {}", dSpacePureEntity.getDspacePureEntity(),
-                                            pureWSResultItem.getUuid());
-                                }
-                            } else {
-                                Context finalContext = context;
-                                UUID itemId =
-                                        pureEntityCache.get(dSpacePureEntity)
-                                                .computeIfAbsent(pureWSResultItem.getUuid(), k -> {
-                                                    log.info("Creating {} with pureId: {}",
-                                                            dSpacePureEntity.getDspacePureEntity(),
-                                                            pureWSResultItem.getUuid());
-                                                    try {
-                                                        Collection collection =
-                                                                dSpaceServicesContainer.getCollectionService().find(finalContext, collectionMap
-                                                                        .get
-                                                                                (dSpacePureEntity));
-
-                                                        WorkspaceItem workspaceItem =
-                                                                dSpaceServicesContainer.getWorkspaceItemService().create(finalContext, collection, false);
-                                                        Item createdItem = workspaceItem.getItem();
-                                                        dSpaceServicesContainer.getItemService().addMetadata(finalContext, createdItem, "dspace", "entity",
-                                                                "type",
-                                                                null,
-                                                                dSpacePureEntity.getDspacePureEntity());
-                                                        dSpaceServicesContainer.getItemService().addMetadata(finalContext, createdItem, Constants.SCHEME,
-                                                                Constants.ELEMENT,
-                                                                Constants.UUID_QUALIFIER, null,
-                                                                String.valueOf(pureWSResultItem.getUuid()));
-
-                                                        dSpaceServicesContainer.getInstallItemService().installItem(finalContext, workspaceItem);
-                                                        pureItemChanged.set(true);
-                                                        return createdItem.getID();
-                                                    } catch (Exception e) {
-                                                        return null;
-                                                    }
-                                                });
-                                resultItem = dSpaceServicesContainer.getItemService().find(finalContext, itemId);
-                            }
-
-                            if (pureItemChanged.get()) {
-                                replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
-                                        LAST_MODIFICATION_DATE,
-                                        pureWSResultItem.getModifiedDate());
-                                replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
-                                        Constants.VISIBILITY_QUALIFIER,
-                                        pureWSResultItem.getVisibility().getKey());
-                                replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
-                                        Constants.ID_QUALIFIER,
-                                        String.valueOf(pureWSResultItem.getPureId()));
-                            }
-                            String pureEntityHash = null;
-                            if (dSpacePureEntity.equals(DSpacePureEntity.ORGANIZATION)) {
-                                PureWSResultOrganizationItem orgUnitItem =
-                                        (PureWSResultOrganizationItem) pureWSResultItem;
-                                if (pureItemChanged.get()) {
-                                    replaceMetadataFromPure(context, resultItem, "organization", "legalName", null,
-                                            orgUnitItem.getName().getText());
-                                }
-                                pureEntityHash = DigestUtils.sha256Hex(orgUnitItem.getName().getText());
-                            } else if (dSpacePureEntity.equals(DSpacePureEntity.PROJECT)) {
-                                PureWSResultProjectItem projectItem = (PureWSResultProjectItem) pureWSResultItem;
-                                if (pureItemChanged.get()) {
-                                    replaceMetadataFromPure(context, resultItem, "dc", "title", null,
-                                            projectItem.getTitle().getText());
-                                }
-                                pureEntityHash = DigestUtils.sha256Hex(projectItem.getTitle().getText());
-                            } else if (dSpacePureEntity.equals(DSpacePureEntity.PERSON)) {
-                                PureWSResultPersonItem personItem = (PureWSResultPersonItem) pureWSResultItem;
-                                if (pureItemChanged.get()) {
-                                    replaceMetadataFromPure(context, resultItem, "person", "givenName", null,
-                                            personItem.getName().getFirstName());
-                                    replaceMetadataFromPure(context, resultItem, "person", "identifier", "orcid",
-                                            personItem.getOrcid());
-                                    replaceMetadataFromPure(context, resultItem, "person", "familyName", null,
-                                            personItem.getName().getLastName());
-                                }
-                                pureEntityHash = DigestUtils.sha256Hex(personItem.getName().getLastName() +
-                                        personItem.getName().getFirstName() +
-                                        personItem.getOrcid());
-                            }
-
-                            if (pureEntityHash != null &&
-                                    dspaceEntityCache.get(dSpacePureEntity).containsKey(pureEntityHash)) {
-                                boolean relate = true;
-                                UUID relatedUUID = dspaceEntityCache.get(dSpacePureEntity).get(pureEntityHash);
-                                RelationshipType relationshipType = RelationShipUtils.getRelationshipTypeForName(
-                                        context,
-                                        dSpaceServicesContainer.getRelationshipTypeService(),
-                                        dSpacePureEntity.getDspaceEntityRelationshipType());
-                                List<Relationship> byItemAndRelationshipType =
-                                        dSpaceServicesContainer.getRelationshipService().findByItemAndRelationshipType(
-                                                context, resultItem, relationshipType);
-
-                                for (Relationship relationship : byItemAndRelationshipType) {
-                                    if (relatedUUID.equals(relationship.getLeftItem().getID())) {
-                                        relate = false;
-                                        break;
-                                    }
-                                }
-                                if (relate) {
-                                    Item relatedItem = dSpaceServicesContainer.getItemService().find(context, relatedUUID);
-                                    log.info("Creating relationship {} between {} and {}",
-                                            dSpacePureEntity.getDspaceEntityRelationshipType(),
-                                            relatedItem.getHandle(),
-                                            resultItem.getHandle());
-                                    Relationship persistedRelationship = dSpaceServicesContainer.getRelationshipService().create(context,
-                                            relatedItem,
-                                            resultItem,
-                                            relationshipType, 0,
-                                            -1);
-                                    dSpaceServicesContainer.getRelationshipService().update(context, persistedRelationship);
-                                }
-                            }
-                        } catch (SQLException | AuthorizeException e) {
-                            if (context != null) {
-                                context.abort();
-                            }
-                            throw new RuntimeException(e);
-                        } finally {
-                            CLIScriptContextUtils.closeContext(context);
-                        }
-                    });
+        if (watermarkStore != null) {
+            saveWatermarks(watermarkStore, lastModifiedDates);
+        }
+        if (entityCacheSnapshotFile != null) {
+            saveEntityCacheSnapshot();
+        }
+    }
+
+    /**
+     * Raises the watermarks of all entity types imported without errors. The watermark of an entity type with
+     * failed items is kept, so that these items are fetched again by the next run.
+     */
+    void saveWatermarks(ImportWatermarkStore watermarkStore, Map<DSpacePureEntity, Instant> lastModifiedDates) {
+        for (Map.Entry<DSpacePureEntity, Instant> lastModifiedDate : lastModifiedDates.entrySet()) {
+            if (failedImports.contains(lastModifiedDate.getKey())) {
+                log.warn("Import of {} entities failed partially, watermark is not updated",
+                        lastModifiedDate.getKey().getDspacePureEntity());
+            } else {
+                watermarkStore.updateWatermark(lastModifiedDate.getKey(), lastModifiedDate.getValue());
+            }
+        }
+        try {
+            watermarkStore.save();
+        } catch (IOException e) {
+            log.error("Could not save import watermarks, next import will fetch unchanged entities again", e);
+        }
+    }
+
+    /**
+     * Fetch stage of the import: pages through the Pure endpoint of the given entity type and hands the
+     * result items over to the workers in batches of {@code batchSize}. Blocks whenever the workers fall behind,
+     * so that at most one queue of batches is held in memory at any time. While a page is dispatched, the
+     * following pages are already requested (see {@link PagePrefetcher}).
+     * <p>
+     * If a watermark is given, the entities are requested ordered by modification date, newest first, and
+     * paging stops at the first entity modified before the watermark. Should Pure not return a page in this
+     * order, the remaining pages are fetched completely. Entities skipped this way are not related to DSpace
+     * entities created since they were imported; only a full import relates them.
+     *
+     * @return the most recent modification date of all fetched entities, or {@code null} if none could be
+     * determined
+     */
+    Instant fetchPureEntities(RestTemplate restTemplate, DSpacePureEntity dSpacePureEntity, int pureWsPageSize,
+                              int batchSize, BoundedExecutor pureSyncerExecutor, Instant watermark)
+            throws InterruptedException {
+        List<PureWSResultItem> batch = new ArrayList<>(batchSize);
+        Instant lastModifiedDate = null;
+        int fetchedItems = 0;
+
+        if (watermark != null) {
+            log.info("Fetching {} entities modified since {}", dSpacePureEntity.getDspacePureEntity(), watermark);
+        }
+        String orderParameters = watermark != null ? "&order=modified&orderBy=descending" : "";
+
+        try (PagePrefetcher<? extends PureWSResultItem> pages = new PagePrefetcher<>((offset, pageSize) -> {
+            String webServiceUrl =
+                    getPureWsEndpointBase() + dSpacePureEntity.getEndpoint() + "?offset=" + offset + "&size=" +
+                            pageSize + "&fields" +
+                            "=uuid,info.modifiedDate,title.*,name.*" + orderParameters;
+            log.info("WebService Call: {}", webServiceUrl);
+            ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity =
+                    restTemplate.getForEntity(webServiceUrl,
+                            dSpacePureEntity.getResultsClass());
+            return responseEntity.getBody().getItems();
+        }, pureWsPageSize, prefetchPages, prefetchExecutor)) {
+            List<? extends PureWSResultItem> pureWSResultItems;
+            boolean watermarkReached = false;
+            while (!watermarkReached && (pureWSResultItems = pages.nextPage()) != null) {
+                if (watermark != null && !isOrderedByModifiedDateDescending(pureWSResultItems)) {
+                    log.warn("Pure did not return {} entities ordered by modification date, fetching all entities",
+                            dSpacePureEntity.getDspacePureEntity());
+                    watermark = null;
+                }
+
+                for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+                    Instant modifiedDate = ImportWatermarkStore.parseModifiedDate(pureWSResultItem.getModifiedDate());
+                    if (watermark != null && modifiedDate != null && modifiedDate.isBefore(watermark)) {
+                        watermarkReached = true;
+                        break;
+                    }
+                    if (modifiedDate != null && (lastModifiedDate == null || modifiedDate.isAfter(lastModifiedDate))) {
+                        lastModifiedDate = modifiedDate;
+                    }
+                    fetchedItems++;
+                    batch.add(pureWSResultItem);
+                    if (batch.size() == batchSize) {
+                        submitBatch(pureSyncerExecutor, dSpacePureEntity, batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
                 }
+            }
+        }
+        if (!batch.isEmpty()) {
+            submitBatch(pureSyncerExecutor, dSpacePureEntity, batch);
+        }
+
+        log.info("Number of fetched 'Pure' entities for type '{}': {}", dSpacePureEntity, fetchedItems);
+        return lastModifiedDate;
+    }
 
-            } while (itemsLeft);
+    /**
+     * Hands a batch over to the shared workers. If a per-type limit is set, waits until fewer than that many
+     * batches of the entity type are in progress, so that a single entity type cannot occupy all workers. The
+     * worker waits for a database permit before it opens a context for the batch.
+     */
+    private void submitBatch(BoundedExecutor pureSyncerExecutor, DSpacePureEntity dSpacePureEntity,
+                             List<PureWSResultItem> batch) throws InterruptedException {
+        Semaphore permits = importPermits.get(dSpacePureEntity);
+        if (permits != null) {
+            permits.acquire();
         }
-        pureSyncerThreadPool.shutdown();
         try {
-            pureSyncerThreadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            pureSyncerExecutor.submit(() -> {
+                try {
+                    syncPureItemsWithDatabasePermit(dSpacePureEntity, batch);
+                } catch (RuntimeException e) {
+                    failedImports.add(dSpacePureEntity);
+                    throw e;
+                } finally {
+                    if (permits != null) {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (InterruptedException | RuntimeException e) {
+            if (permits != null) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    private void syncPureItemsWithDatabasePermit(DSpacePureEntity dSpacePureEntity, List<PureWSResultItem> batch) {
+        if (databasePermits == null) {
+            syncPureItems(dSpacePureEntity, batch);
+            return;
+        }
+        databasePermits.acquireUninterruptibly();
+        try {
+            syncPureItems(dSpacePureEntity, batch);
+        } finally {
+            databasePermits.release();
+        }
+    }
+
+    private static boolean isOrderedByModifiedDateDescending(List<? extends PureWSResultItem> pureWSResultItems) {
+        Instant previousModifiedDate = null;
+        for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+            Instant modifiedDate = ImportWatermarkStore.parseModifiedDate(pureWSResultItem.getModifiedDate());
+            if (modifiedDate == null) {
+                continue;
+            }
+            if (previousModifiedDate != null && modifiedDate.isAfter(previousModifiedDate)) {
+                return false;
+            }
+            previousModifiedDate = modifiedDate;
+        }
+        return true;
+    }
+
+    /**
+     * Worker stage of the import: synchronizes a batch of Pure result items using a single DSpace context,
+     * which is committed after the last item. If any item of the batch fails, the whole batch is rolled back
+     * and its items are synchronized again one by one, so that only the failing item is lost.
+     */
+    void syncPureItems(DSpacePureEntity dSpacePureEntity, List<? extends PureWSResultItem> pureWSResultItems) {
+        if (pureWSResultItems.size() == 1) {
+            syncPureItem(dSpacePureEntity, pureWSResultItems.get(0));
+            return;
+        }
+        Context context = null;
+        Map<UUID, UUID> createdItemIds = new HashMap<>();
+        try {
+            context = createContext();
+            for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+                syncPureItem(context, dSpacePureEntity, pureWSResultItem, createdItemIds);
+            }
+            CLIScriptContextUtils.closeContext(context);
+            publishCreatedItems(dSpacePureEntity, createdItemIds);
+        } catch (SQLException | AuthorizeException | RuntimeException e) {
+            log.warn("Import of {} batch failed, retrying {} items one by one",
+                    dSpacePureEntity.getDspacePureEntity(), pureWSResultItems.size(), e);
+            rollback(context, createdItemIds);
+
+            RuntimeException itemException = null;
+            for (PureWSResultItem pureWSResultItem : pureWSResultItems) {
+                try {
+                    syncPureItem(dSpacePureEntity, pureWSResultItem);
+                } catch (RuntimeException retryException) {
+                    log.error("Import of {} with pureId: {} failed", dSpacePureEntity.getDspacePureEntity(),
+                            pureWSResultItem.getUuid(), retryException);
+                    itemException = retryException;
+                }
+            }
+            if (itemException != null) {
+                throw itemException;
+            }
+        }
+    }
+
+    /**
+     * Synchronizes a single Pure result item using its own DSpace context.
+     */
+    void syncPureItem(DSpacePureEntity dSpacePureEntity, PureWSResultItem pureWSResultItem) {
+        Context context = null;
+        Map<UUID, UUID> createdItemIds = new HashMap<>();
+        try {
+            context = createContext();
+            syncPureItem(context, dSpacePureEntity, pureWSResultItem, createdItemIds);
+            CLIScriptContextUtils.closeContext(context);
+            publishCreatedItems(dSpacePureEntity, createdItemIds);
+        } catch (SQLException | AuthorizeException e) {
+            rollback(context, createdItemIds);
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            rollback(context, createdItemIds);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the entities created within a committed context visible to all workers.
+     */
+    private void publishCreatedItems(DSpacePureEntity dSpacePureEntity, Map<UUID, UUID> createdItemIds) {
+        pureEntityCache.get(dSpacePureEntity).putAll(createdItemIds);
+        pureUuidsInCreation.removeAll(createdItemIds.keySet());
+    }
+
+    /**
+     * Aborts the context and releases the entities created within it, so that they are created again by a retry.
+     */
+    private void rollback(Context context, Map<UUID, UUID> createdItemIds) {
+        if (context != null && context.isValid()) {
+            context.abort();
         }
+        pureUuidsInCreation.removeAll(createdItemIds.keySet());
+    }
+
+    /**
+     * Creates or updates the DSpace entity for a single Pure result item and relates it to the matching DSpace
+     * entity. The changes are not committed.
+     *
+     * @param createdItemIds collects the ids of the DSpace entities created within the context by the uuids of their
+     *                       Pure items; they are published to the cache of all workers once the context is committed
+     */
+    void syncPureItem(Context context, DSpacePureEntity dSpacePureEntity, PureWSResultItem pureWSResultItem,
+                      Map<UUID, UUID> createdItemIds) throws SQLException, AuthorizeException {
+        AtomicBoolean pureItemChanged = new AtomicBoolean(false);
+
+        UUID pureUuid = pureWSResultItem.getUuid();
+        UUID existingItemId = createdItemIds.containsKey(pureUuid) ? createdItemIds.get(pureUuid)
+                : pureEntityCache.get(dSpacePureEntity).get(pureUuid);
+        Item resultItem;
+        if (existingItemId != null) {
+            resultItem = dSpaceServicesContainer.getItemService().find(context, existingItemId);
+            List<MetadataValue> lastModified =
+                    dSpaceServicesContainer.getItemService().getMetadata(resultItem, Constants.SCHEME, Constants.ELEMENT,
+                            LAST_MODIFICATION_DATE,
+                            Item.ANY);
+            if (!lastModified.isEmpty() &&
+                    lastModified.get(0).getValue()
+                            .equals(pureWSResultItem.getModifiedDate())) {
+                log.info("Skipping {} with pureId: {}, lastModificationDate not changed",
+                        dSpacePureEntity.getDspacePureEntity(), pureWSResultItem.getUuid());
+            } else {
+                pureItemChanged.set(true);
+                log.info("Updating {} with pureId: {}", dSpacePureEntity.getDspacePureEntity(),
+                        pureWSResultItem.getUuid());
+            }
+        } else {
+            if (!pureUuidsInCreation.add(pureUuid)) {
+                // another worker creates the entity and relates it like this one would
+                log.info("Skipping {} with pureId: {}, it is being created by another worker",
+                        dSpacePureEntity.getDspacePureEntity(), pureUuid);
+                return;
+            }
+            log.info("Creating {} with pureId: {}", dSpacePureEntity.getDspacePureEntity(), pureUuid);
+            try {
+                resultItem = createItem(context, dSpacePureEntity, pureUuid);
+            } catch (SQLException | AuthorizeException | RuntimeException e) {
+                pureUuidsInCreation.remove(pureUuid);
+                log.error("Creating {} with pureId: {} failed", dSpacePureEntity.getDspacePureEntity(), pureUuid, e);
+                throw e;
+            }
+            createdItemIds.put(pureUuid, resultItem.getID());
+            pureItemChanged.set(true);
+        }
+
+        if (pureItemChanged.get()) {
+            replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
+                    LAST_MODIFICATION_DATE,
+                    pureWSResultItem.getModifiedDate());
+            replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
+                    Constants.VISIBILITY_QUALIFIER,
+                    pureWSResultItem.getVisibility().getKey());
+            replaceMetadataFromPure(context, resultItem, Constants.SCHEME, Constants.ELEMENT,
+                    Constants.ID_QUALIFIER,
+                    String.valueOf(pureWSResultItem.getPureId()));
+        }
+        String pureEntityHash = null;
+        if (dSpacePureEntity.equals(DSpacePureEntity.ORGANIZATION)) {
+            PureWSResultOrganizationItem orgUnitItem =
+                    (PureWSResultOrganizationItem) pureWSResultItem;
+            if (pureItemChanged.get()) {
+                replaceMetadataFromPure(context, resultItem, "organization", "legalName", null,
+                        orgUnitItem.getName().getText());
+            }
+            pureEntityHash = DigestUtils.sha256Hex(orgUnitItem.getName().getText());
+        } else if (dSpacePureEntity.equals(DSpacePureEntity.PROJECT)) {
+            PureWSResultProjectItem projectItem = (PureWSResultProjectItem) pureWSResultItem;
+            if (pureItemChanged.get()) {
+                replaceMetadataFromPure(context, resultItem, "dc", "title", null,
+                        projectItem.getTitle().getText());
+            }
+            pureEntityHash = DigestUtils.sha256Hex(projectItem.getTitle().getText());
+        } else if (dSpacePureEntity.equals(DSpacePureEntity.PERSON)) {
+            PureWSResultPersonItem personItem = (PureWSResultPersonItem) pureWSResultItem;
+            if (pureItemChanged.get()) {
+                replaceMetadataFromPure(context, resultItem, "person", "givenName", null,
+                        personItem.getName().getFirstName());
+                replaceMetadataFromPure(context, resultItem, "person", "identifier", "orcid",
+                        personItem.getOrcid());
+                replaceMetadataFromPure(context, resultItem, "person", "familyName", null,
+                        personItem.getName().getLastName());
+            }
+            pureEntityHash = DigestUtils.sha256Hex(personItem.getName().getLastName() +
+                    personItem.getName().getFirstName() +
+                    personItem.getOrcid());
+        }
+
+        if (pureEntityHash != null &&
+                dspaceEntityCache.get(dSpacePureEntity).containsKey(pureEntityHash)) {
+            boolean relate = true;
+            UUID relatedUUID = dspaceEntityCache.get(dSpacePureEntity).get(pureEntityHash);
+            RelationshipType relationshipType = RelationShipUtils.getRelationshipTypeForName(
+                    context,
+                    dSpaceServicesContainer.getRelationshipTypeService(),
+                    dSpacePureEntity.getDspaceEntityRelationshipType());
+            List<Relationship> byItemAndRelationshipType =
+                    dSpaceServicesContainer.getRelationshipService().findByItemAndRelationshipType(
+                            context, resultItem, relationshipType);
+
+            for (Relationship relationship : byItemAndRelationshipType) {
+                if (relatedUUID.equals(relationship.getLeftItem().getID())) {
+                    relate = false;
+                    break;
+                }
+            }
+            if (relate) {
+                Item relatedItem = dSpaceServicesContainer.getItemService().find(context, relatedUUID);
+                log.info("Creating relationship {} between {} and {}",
+                        dSpacePureEntity.getDspaceEntityRelationshipType(),
+                        relatedItem.getHandle(),
+                        resultItem.getHandle());
+                Relationship persistedRelationship = dSpaceServicesContainer.getRelationshipService().create(context,
+                        relatedItem,
+                        resultItem,
+                        relationshipType, 0,
+                        -1);
+                dSpaceServicesContainer.getRelationshipService().update(context, persistedRelationship);
+            }
+        }
+    }
+
+    /**
+     * Creates and installs the DSpace entity for a Pure item, with its entity type and Pure uuid.
+     */
+    private Item createItem(Context context, DSpacePureEntity dSpacePureEntity, UUID pureUuid)
+            throws SQLException, AuthorizeException {
+        Collection collection =
+                dSpaceServicesContainer.getCollectionService().find(context, collectionMap.get(dSpacePureEntity));
+        WorkspaceItem workspaceItem =
+                dSpaceServicesContainer.getWorkspaceItemService().create(context, collection, false);
+        Item createdItem = workspaceItem.getItem();
+        dSpaceServicesContainer.getItemService().addMetadata(context, createdItem, "dspace", "entity", "type", null,
+                dSpacePureEntity.getDspacePureEntity());
+        dSpaceServicesContainer.getItemService().addMetadata(context, createdItem, Constants.SCHEME, Constants.ELEMENT,
+                Constants.UUID_QUALIFIER, null, String.valueOf(pureUuid));
+        dSpaceServicesContainer.getInstallItemService().installItem(context, workspaceItem);
+        return createdItem;
     }
 
     void replaceMetadataFromPure(Context context, Item dspaceEntity, String scheme, String element, String qualifier,
@@ -2,6 +2,7 @@ package de.leuphana.escience.dspacepurebridge.relations;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.common.SolrDocument;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataValue;
 import org.dspace.content.service.ItemService;
@@ -13,6 +14,10 @@ import java.util.List;
 public class EntityUtils {
 
     private static final Logger log = LoggerFactory.getLogger(EntityUtils.class);
+    public static final List<String> PERSON_ENTITY_HASH_FIELDS =
+            List.of("person.familyName", "person.givenName", "person.identifier.orcid");
+    public static final List<String> PROJECT_NAME_ENTITY_HASH_FIELDS = List.of("dc.title");
+    public static final List<String> ORG_UNIT_NAME_ENTITY_HASH_FIELDS = List.of("organization.legalName");
 
     protected EntityUtils() {
 
@@ -54,4 +59,21 @@ public class EntityUtils {
         return DigestUtils.sha256Hex(stringToHash.toString());
     }
 
+    /**
+     * Generates the same hash as the metadata based methods above from the stored fields of a Discovery document.
+     *
+     * @param fieldNames the fields to hash, e.g. {@link #PERSON_ENTITY_HASH_FIELDS}
+     */
+    public static String generateEntityHash(SolrDocument document, List<String> fieldNames) {
+        StringBuilder stringToHash = new StringBuilder();
+        for (String fieldName : fieldNames) {
+            Object value = document.getFirstValue(fieldName);
+            if (value != null && StringUtils.isNotEmpty(value.toString())) {
+                stringToHash.append(value);
+            }
+        }
+        log.debug("Hashing: {}", stringToHash);
+        return DigestUtils.sha256Hex(stringToHash.toString());
+    }
+
 }
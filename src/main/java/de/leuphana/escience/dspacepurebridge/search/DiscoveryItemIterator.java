@@ -0,0 +1,96 @@
+package de.leuphana.escience.dspacepurebridge.search;
+
+import org.dspace.content.Item;
+import org.dspace.core.Context;
+import org.dspace.discovery.SearchService;
+import org.dspace.discovery.SearchServiceException;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over all items of a Discovery search, fetching the next page only when the current one is used up.
+ * <p>
+ * Every item is removed from the Hibernate session of the context as soon as the iterator is advanced past it,
+ * so the session only ever holds the item currently being processed. Callers must therefore not keep references
+ * to returned items beyond the next call of {@link #hasNext()} or {@link #next()} and must not rely on pending
+ * changes to them being flushed.
+ */
+class DiscoveryItemIterator implements Iterator<Item>, AutoCloseable {
+    private final ItemFinder itemFinder;
+    private final Context context;
+    private final SearchService searchService;
+    private final SearchQueryType searchQueryType;
+    private final int pageSize;
+
+    private Iterator<Item> page = Collections.emptyIterator();
+    private int pageItems;
+    private boolean firstPage = true;
+    private Item lastItem;
+    private Item processedItem;
+
+    DiscoveryItemIterator(ItemFinder itemFinder, Context context, SearchService searchService,
+                          SearchQueryType searchQueryType, int pageSize) {
+        this.itemFinder = itemFinder;
+        this.context = context;
+        this.searchService = searchService;
+        this.searchQueryType = searchQueryType;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        uncacheProcessedItem();
+        if (page.hasNext()) {
+            return true;
+        }
+        if (!firstPage && pageItems < pageSize) {
+            return false;
+        }
+        fetchNextPage();
+        return page.hasNext();
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        lastItem = page.next();
+        pageItems++;
+        processedItem = lastItem;
+        return lastItem;
+    }
+
+    @Override
+    public void close() {
+        uncacheProcessedItem();
+    }
+
+    private void fetchNextPage() {
+        String lastResourceId = lastItem == null ? null : lastItem.getID().toString();
+        try {
+            Iterator<Item> nextPage = itemFinder.findItemsAfter(context, searchService, searchQueryType, lastResourceId, pageSize);
+            page = nextPage == null ? Collections.emptyIterator() : nextPage;
+        } catch (SearchServiceException e) {
+            throw new UncheckedSearchServiceException(e);
+        }
+        firstPage = false;
+        pageItems = 0;
+    }
+
+    private void uncacheProcessedItem() {
+        if (processedItem == null) {
+            return;
+        }
+        try {
+            context.uncacheEntity(processedItem);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            processedItem = null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.leuphana.escience.dspacepurebridge.search;
+
+import java.time.Instant;
+
+/**
+ * Number of items matching a Discovery query and the most recent {@code lastModified} date among them.
+ *
+ * @param count        number of matching items
+ * @param lastModified most recent modification date, {@code null} if no item matches
+ */
+public record DiscoveryMarker(long count, Instant lastModified) {
+}
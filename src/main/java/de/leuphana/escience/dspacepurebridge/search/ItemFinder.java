@@ -1,20 +1,50 @@
 package de.leuphana.escience.dspacepurebridge.search;
 
+import de.leuphana.escience.dspacepurebridge.metrics.BridgeMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.dspace.content.Item;
 import org.dspace.core.Context;
 import org.dspace.discovery.DiscoverQuery;
+import org.dspace.discovery.IndexableObject;
 import org.dspace.discovery.SearchService;
 import org.dspace.discovery.SearchServiceException;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.Iterator;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ItemFinder {
 
     private static final Logger log = LoggerFactory.getLogger(ItemFinder.class);
+    static final String RESOURCE_ID_FIELD = "search.resourceid";
+    static final String RESOURCE_TYPE_FIELD = "search.resourcetype";
+    static final String LAST_MODIFIED_FIELD = "lastModified";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    static final String PAGE_TIMER = "discovery.page";
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private final Map<SearchQueryType, List<String>> additionalFilterQueries = new EnumMap<>(SearchQueryType.class);
 
     public DiscoverQuery buildDiscoveryQuery(String query, String filterQueries, int start, int limit) {
         DiscoverQuery discoverQuery = new DiscoverQuery();
@@ -25,43 +55,191 @@ public class ItemFinder {
         discoverQuery.setQuery(query);
         discoverQuery.setStart(start);
         discoverQuery.setMaxResults(limit);
-        discoverQuery.setSortField("search.resourceid", DiscoverQuery.SORT_ORDER.asc);
+        discoverQuery.setSortField(RESOURCE_ID_FIELD, DiscoverQuery.SORT_ORDER.asc);
         return discoverQuery;
     }
 
-    public Iterator<Item> findItems(Context context, SearchService searchService, SearchQueryType searchQueryType, int start, int limit) throws SearchServiceException {
-        log.info("Searching for items (query: {}, filterQuery: {}, start: {}, limit: {})", searchQueryType.getQuery(), searchQueryType.getFilter(), start, limit);
-        DiscoverQuery discoverQuery = buildDiscoveryQuery(searchQueryType.getQuery(), searchQueryType.getFilter(), start, limit);
+    /**
+     * Finds the next page of items ordered by {@code search.resourceid}. Instead of skipping an offset, the
+     * query seeks directly behind the last resource id of the previous page, so every page costs the same and
+     * items indexed or removed in the meantime do not shift the following pages.
+     *
+     * @param lastResourceId resource id of the last item of the previous page, {@code null} for the first page
+     */
+    public Iterator<Item> findItemsAfter(Context context, SearchService searchService, SearchQueryType searchQueryType, String lastResourceId, int limit) throws SearchServiceException {
+        List<String> additionalFilters = getAdditionalFilterQueries(searchQueryType);
+        log.info("Searching for items (query: {}, filterQuery: {}, additionalFilterQueries: {}, after: {}, limit: {})", searchQueryType.getQuery(), searchQueryType.getFilter(), additionalFilters, lastResourceId, limit);
+        DiscoverQuery discoverQuery = buildDiscoveryQuery(searchQueryType.getQuery(), searchQueryType.getFilter(), 0, limit);
+        for (String additionalFilter : additionalFilters) {
+            discoverQuery.addFilterQueries(additionalFilter);
+        }
+        if (lastResourceId != null) {
+            discoverQuery.addFilterQueries(buildResourceIdAfterFilter(lastResourceId));
+        }
 
-        return searchService.search(context, discoverQuery).getIndexableObjects()
+        Timer.Sample sample = Timer.start();
+        List<IndexableObject> indexableObjects;
+        try {
+            indexableObjects = searchService.search(context, discoverQuery).getIndexableObjects();
+        } finally {
+            sample.stop(BridgeMetrics.timer(PAGE_TIMER, "source", "discovery"));
+        }
+        return indexableObjects
                 .stream()
                 .map(indexableObject ->
                         ((IndexableItem) indexableObject).getIndexedObject())
-                .collect(Collectors.toList())
                 .iterator();
     }
 
-    public void processAllItems(Context context, SearchService searchService, SearchQueryType searchQueryType, ItemProcessor processor) throws SearchServiceException {
-        int start = 0;
-        int limit = 100;
-        processAllItems(context, searchService, searchQueryType, processor, start, limit);
+    static String buildResourceIdAfterFilter(String lastResourceId) {
+        return RESOURCE_ID_FIELD + ":{\"" + lastResourceId + "\" TO *]";
     }
 
-    void processAllItems(Context context, SearchService searchService, SearchQueryType searchQueryType, ItemProcessor processor, int start, int limit) throws SearchServiceException {
-        int counter = 0;
-        Iterator<Item> itemIterator = findItems(context, searchService, searchQueryType, start, limit);
-        while (itemIterator != null && itemIterator.hasNext()) {
-            Item item = itemIterator.next();
+    /**
+     * Streams all items matching the given search query type. Pages are fetched lazily while the stream is
+     * consumed and every item is evicted from the context once the stream has moved on to the next one, so
+     * the stream must be consumed sequentially and items must not be collected for later use.
+     * The stream should be closed after use to evict the last item, too.
+     *
+     * @throws UncheckedSearchServiceException if fetching a page fails
+     */
+    public Stream<Item> streamItems(Context context, SearchService searchService, SearchQueryType searchQueryType) {
+        DiscoveryItemIterator itemIterator = new DiscoveryItemIterator(this, context, searchService, searchQueryType, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(itemIterator,
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .onClose(itemIterator::close);
+    }
 
-            processor.process(item);
+    public void processAllItems(Context context, SearchService searchService, SearchQueryType searchQueryType, ItemProcessor processor) throws SearchServiceException {
+        processAllItems(context, searchService, searchQueryType, processor, pageSize);
+    }
+
+    void processAllItems(Context context, SearchService searchService, SearchQueryType searchQueryType, ItemProcessor processor, int limit) throws SearchServiceException {
+        try (DiscoveryItemIterator itemIterator = new DiscoveryItemIterator(this, context, searchService, searchQueryType, limit)) {
+            while (itemIterator.hasNext()) {
+                processor.process(itemIterator.next());
+            }
+        } catch (UncheckedSearchServiceException e) {
+            throw e.getCause();
+        }
+    }
 
-            counter++;
+    /**
+     * Processes the stored Solr documents of all items matching the given search query type without loading
+     * the items from the database. Only {@code search.resourceid} and the requested fields are returned by Solr.
+     *
+     * @param fields names of the stored fields needed by the processor, e.g. {@code dc.title}
+     */
+    public void processAllDocuments(SolrClient solrClient, SearchQueryType searchQueryType, Collection<String> fields, Consumer<SolrDocument> processor) throws SearchServiceException {
+        List<String> filterQueries = new ArrayList<>(toFilterQueries(searchQueryType));
+        filterQueries.addAll(getAdditionalFilterQueries(searchQueryType));
+        processAllDocuments(solrClient, searchQueryType.getQuery(), filterQueries, fields, processor);
+    }
 
-            if (counter == limit) {
-                counter = 0;
-                start += limit;
-                itemIterator = findItems(context, searchService, searchQueryType, start, limit);
+    /**
+     * Like {@link #processAllDocuments(SolrClient, SearchQueryType, Collection, Consumer)}, for an arbitrary query.
+     */
+    public void processAllDocuments(SolrClient solrClient, String query, List<String> filterQueries, Collection<String> fields, Consumer<SolrDocument> processor) throws SearchServiceException {
+        String lastResourceId = null;
+        int counter;
+        do {
+            SolrQuery solrQuery = buildProjectionQuery(query, filterQueries, fields, lastResourceId, pageSize);
+            log.info("Searching for documents (query: {}, filterQueries: {}, after: {}, limit: {})", query, filterQueries, lastResourceId, pageSize);
+            Timer.Sample sample = Timer.start();
+            SolrDocumentList documents;
+            try {
+                documents = querySolr(solrClient, solrQuery).getResults();
+            } finally {
+                sample.stop(BridgeMetrics.timer(PAGE_TIMER, "source", "solr"));
             }
+            counter = 0;
+            for (SolrDocument document : documents) {
+                processor.accept(document);
+                lastResourceId = String.valueOf(document.getFirstValue(RESOURCE_ID_FIELD));
+                counter++;
+            }
+        } while (counter == pageSize);
+    }
+
+    /**
+     * Determines number and most recent modification date of the items matching the given query. Comparing two
+     * markers tells whether items have been added, removed or modified in between, without fetching the items.
+     */
+    public DiscoveryMarker findMarker(SolrClient solrClient, String query, List<String> filterQueries) throws SearchServiceException {
+        SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.addFilterQuery(RESOURCE_TYPE_FIELD + ":" + IndexableItem.TYPE);
+        for (String filterQuery : filterQueries) {
+            solrQuery.addFilterQuery(filterQuery);
+        }
+        solrQuery.setFields(LAST_MODIFIED_FIELD);
+        solrQuery.setRows(1);
+        solrQuery.setSort(LAST_MODIFIED_FIELD, SolrQuery.ORDER.desc);
+        SolrDocumentList documents = querySolr(solrClient, solrQuery).getResults();
+        Instant lastModified = null;
+        if (!documents.isEmpty() && documents.get(0).getFirstValue(LAST_MODIFIED_FIELD) instanceof Date date) {
+            lastModified = date.toInstant();
+        }
+        return new DiscoveryMarker(documents.getNumFound(), lastModified);
+    }
+
+    public static String buildModifiedSinceFilter(Instant lastModified) {
+        return LAST_MODIFIED_FIELD + ":[" + lastModified + " TO *]";
+    }
+
+    public static List<String> toFilterQueries(SearchQueryType searchQueryType) {
+        if (searchQueryType.getFilter() != null && !searchQueryType.getFilter().isEmpty()) {
+            return List.of(searchQueryType.getFilter());
+        }
+        return Collections.emptyList();
+    }
+
+    private static QueryResponse querySolr(SolrClient solrClient, SolrQuery solrQuery) throws SearchServiceException {
+        try {
+            return solrClient.query(solrQuery);
+        } catch (SolrServerException | IOException e) {
+            throw new SearchServiceException(e.getMessage(), e);
+        }
+    }
+
+    SolrQuery buildProjectionQuery(String query, List<String> filterQueries, Collection<String> fields, String lastResourceId, int limit) {
+        SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.addFilterQuery(RESOURCE_TYPE_FIELD + ":" + IndexableItem.TYPE);
+        for (String filterQuery : filterQueries) {
+            solrQuery.addFilterQuery(filterQuery);
+        }
+        if (lastResourceId != null) {
+            solrQuery.addFilterQuery(buildResourceIdAfterFilter(lastResourceId));
+        }
+        solrQuery.setFields(RESOURCE_ID_FIELD);
+        for (String field : fields) {
+            solrQuery.addField(field);
+        }
+        solrQuery.setStart(0);
+        solrQuery.setRows(limit);
+        solrQuery.setSort(RESOURCE_ID_FIELD, SolrQuery.ORDER.asc);
+        return solrQuery;
+    }
+
+    /**
+     * Narrows down the items found for the given search query type by further filter queries, e.g. compiled from
+     * the configuration.
+     */
+    public void setAdditionalFilterQueries(SearchQueryType searchQueryType, List<String> filterQueries) {
+        additionalFilterQueries.put(searchQueryType, List.copyOf(filterQueries));
+    }
+
+    public List<String> getAdditionalFilterQueries(SearchQueryType searchQueryType) {
+        return additionalFilterQueries.getOrDefault(searchQueryType, Collections.emptyList());
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1!");
         }
+        this.pageSize = pageSize;
     }
 }
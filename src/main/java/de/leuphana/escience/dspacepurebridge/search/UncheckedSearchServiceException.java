@@ -0,0 +1,18 @@
+package de.leuphana.escience.dspacepurebridge.search;
+
+import org.dspace.discovery.SearchServiceException;
+
+/**
+ * Wraps a {@link SearchServiceException} thrown while lazily fetching the next page of a streamed search.
+ */
+public class UncheckedSearchServiceException extends RuntimeException {
+
+    public UncheckedSearchServiceException(SearchServiceException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized SearchServiceException getCause() {
+        return (SearchServiceException) super.getCause();
+    }
+}
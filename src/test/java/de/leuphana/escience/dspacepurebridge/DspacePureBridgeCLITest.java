@@ -35,6 +35,7 @@ import org.dspace.services.factory.DSpaceServicesFactoryImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -42,12 +43,20 @@ import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
 @ExtendWith(MockitoExtension.class)
 class DspacePureBridgeCLITest {
 
     @Mock
     CommandLine commandLine;
 
+    @TempDir
+    Path tempDir;
+
     @Mock
     HandleService handleService;
     @Mock
@@ -187,7 +196,7 @@ class DspacePureBridgeCLITest {
             when(commandLine.hasOption('i')).thenReturn(false);
             when(commandLine.hasOption('e')).thenReturn(true);
             DspacePureBridgeCLI dspacePureBridgeCLI = spy(DspacePureBridgeCLI.class);
-            doNothing().when(dspacePureBridgeCLI).syncDSpaceToPure(null, 0, false);
+            doNothing().when(dspacePureBridgeCLI).syncDSpaceToPure(List.of(), 0, false);
 
             dspacePureBridgeCLI.setup(commandLine);
             dspacePureBridgeCLI.run();
@@ -203,6 +212,10 @@ class DspacePureBridgeCLITest {
             String endpointBase = "http://localhost:8080/pure";
             String apiKey = "xy1234";
             String limitToHandle = "123456789/123456789";
+            String limitToCollection = "123456789/2";
+            String limitToUUID = UUID.randomUUID().toString();
+            Path exportFile = tempDir.resolve("export.txt");
+            Files.writeString(exportFile, limitToUUID + "\n");
             int exportLimit = 100;
             boolean checkOnly = true;
 
@@ -213,17 +226,21 @@ class DspacePureBridgeCLITest {
             when(configurationService.getProperty(DspacePureBridgeCLI.PURE_BRIDGE_PURE_WS_APIKEY)).thenReturn(apiKey);
             when(commandLine.hasOption('i')).thenReturn(false);
             when(commandLine.hasOption('e')).thenReturn(true);
-            when(commandLine.getOptionValue('x')).thenReturn(limitToHandle);
+            when(commandLine.getOptionValues('x')).thenReturn(new String[] {limitToHandle, limitToCollection});
+            when(commandLine.getOptionValue('X')).thenReturn(exportFile.toString());
             when(commandLine.hasOption('l')).thenReturn(true);
             when(commandLine.getOptionValue('l')).thenReturn(String.valueOf(exportLimit));
             when(commandLine.hasOption('c')).thenReturn(checkOnly);
             when(commandLine.hasOption('h')).thenReturn(false);
             DspacePureBridgeCLI dspacePureBridgeCLI = spy(DspacePureBridgeCLI.class);
-            doNothing().when(dspacePureBridgeCLI).syncDSpaceToPure(limitToHandle, exportLimit, checkOnly);
+            List<String> exportTargets = List.of(limitToHandle, limitToCollection, limitToUUID);
+            doNothing().when(dspacePureBridgeCLI).syncDSpaceToPure(exportTargets, exportLimit, checkOnly);
 
             dspacePureBridgeCLI.setup(commandLine);
             dspacePureBridgeCLI.run();
 
+            verify(dspacePureBridgeCLI, times(1)).syncDSpaceToPure(exportTargets, exportLimit, checkOnly);
+
             assertEquals(apiKey, dspacePureBridgeCLI.getPureWsApiKey());
         });
     }
@@ -0,0 +1,107 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BoundedExecutorTest {
+
+    @Test
+    void executesAllSubmittedTasks() throws InterruptedException {
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 2, 1);
+        AtomicInteger counter = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            boundedExecutor.submit(counter::incrementAndGet);
+        }
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        Assertions.assertEquals(100, counter.get());
+        Assertions.assertEquals(0, boundedExecutor.getPendingTasks());
+    }
+
+    @Test
+    void submitBlocksWhenQueueIsFull() throws InterruptedException {
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean thirdTaskSubmitted = new AtomicBoolean(false);
+
+        boundedExecutor.submit(() -> awaitQuietly(release));
+        boundedExecutor.submit(() -> awaitQuietly(release));
+        Thread producer = new Thread(() -> {
+            try {
+                boundedExecutor.submit(() -> {
+                });
+                thirdTaskSubmitted.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(200);
+
+        Assertions.assertFalse(thirdTaskSubmitted.get());
+        Assertions.assertEquals(2, boundedExecutor.getPendingTasks());
+
+        release.countDown();
+        producer.join();
+        boundedExecutor.shutdownAndAwaitTermination();
+        Assertions.assertTrue(thirdTaskSubmitted.get());
+    }
+
+    @Test
+    void failingTaskReleasesSlot() throws InterruptedException {
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 0);
+        AtomicInteger counter = new AtomicInteger();
+
+        boundedExecutor.submit(() -> {
+            throw new IllegalStateException("expected");
+        });
+        boundedExecutor.submit(counter::incrementAndGet);
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        Assertions.assertEquals(1, counter.get());
+    }
+
+    @Test
+    void shutdownNowStopsWorkers() throws InterruptedException {
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean queuedTaskRun = new AtomicBoolean(false);
+
+        boundedExecutor.submit(() -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        boundedExecutor.submit(() -> queuedTaskRun.set(true));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        boundedExecutor.shutdownNow();
+
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        boundedExecutor.shutdownAndAwaitTermination();
+        Assertions.assertFalse(queuedTaskRun.get());
+    }
+
+    @Test
+    void invalidConfiguration() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BoundedExecutor("test", 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BoundedExecutor("test", 1, -1));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
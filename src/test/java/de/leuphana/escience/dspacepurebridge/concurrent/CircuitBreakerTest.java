@@ -0,0 +1,99 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class CircuitBreakerTest {
+
+    private final CircuitBreaker circuitBreaker =
+            new CircuitBreaker("Pure", 2, Duration.ofMillis(100), Duration.ofMillis(150));
+
+    @Test
+    void opensAfterConsecutiveFailures() throws InterruptedException {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        long start = System.nanoTime();
+        circuitBreaker.awaitClosed();
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.recordSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void failedProbeOpensForLonger() throws InterruptedException {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.awaitClosed();
+        circuitBreaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        long start = System.nanoTime();
+        circuitBreaker.awaitClosed();
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(140));
+    }
+
+    @Test
+    void releasedProbeLetsAnotherCallerProbe() throws InterruptedException {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        Assertions.assertTrue(circuitBreaker.awaitClosed());
+
+        circuitBreaker.releaseProbe();
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertTrue(circuitBreaker.awaitClosed());
+
+        circuitBreaker.recordSuccess();
+        circuitBreaker.releaseProbe();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.awaitClosed());
+    }
+
+    @Test
+    void callersWaitForTheProbe() throws Exception {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.awaitClosed();
+
+        CompletableFuture<Void> waitingCaller = CompletableFuture.runAsync(() -> {
+            try {
+                circuitBreaker.awaitClosed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(200);
+        Assertions.assertFalse(waitingCaller.isDone());
+
+        circuitBreaker.recordSuccess();
+        waitingCaller.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tryEnterFailsInsteadOfWaiting() throws InterruptedException {
+        Assertions.assertFalse(circuitBreaker.tryEnter());
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        Assertions.assertThrows(CircuitBreakerOpenException.class, circuitBreaker::tryEnter);
+
+        long start = System.nanoTime();
+        circuitBreaker.awaitPassable();
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Assertions.assertTrue(circuitBreaker.tryEnter());
+        Assertions.assertThrows(CircuitBreakerOpenException.class, circuitBreaker::tryEnter);
+        circuitBreaker.recordSuccess();
+        Assertions.assertFalse(circuitBreaker.tryEnter());
+    }
+}
@@ -0,0 +1,136 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CompactUuidMapTest {
+
+    @Test
+    void putGetAndRemoveEntityHashes() {
+        CompactUuidMap<String> map = CompactUuidMap.withSha256HexKeys();
+        Map<String, UUID> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String entityHash = DigestUtils.sha256Hex("entity" + i);
+            UUID itemId = UUID.randomUUID();
+            Assertions.assertNull(map.putIfAbsent(entityHash, itemId));
+            expected.put(entityHash, itemId);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            String entityHash = DigestUtils.sha256Hex("entity" + i);
+            Assertions.assertEquals(expected.remove(entityHash), map.remove(entityHash));
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        Assertions.assertEquals(expected, map);
+        for (Map.Entry<String, UUID> entry : expected.entrySet()) {
+            Assertions.assertTrue(map.containsKey(entry.getKey()));
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assertions.assertNull(map.get(DigestUtils.sha256Hex("entity0")));
+    }
+
+    @Test
+    void putReplacesAndPutIfAbsentKeepsValue() {
+        CompactUuidMap<UUID> map = CompactUuidMap.withUuidKeys();
+        UUID key = UUID.randomUUID();
+        UUID firstValue = UUID.randomUUID();
+        UUID secondValue = UUID.randomUUID();
+
+        Assertions.assertNull(map.put(key, firstValue));
+        Assertions.assertEquals(firstValue, map.putIfAbsent(key, secondValue));
+        Assertions.assertEquals(firstValue, map.get(key));
+        Assertions.assertEquals(firstValue, map.put(key, secondValue));
+        Assertions.assertEquals(secondValue, map.get(key));
+        Assertions.assertEquals(1, map.size());
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get(key));
+    }
+
+    @Test
+    void computeIfAbsentComputesOnce() throws InterruptedException {
+        CompactUuidMap<UUID> map = CompactUuidMap.withUuidKeys();
+        UUID key = UUID.randomUUID();
+        AtomicInteger computations = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> map.computeIfAbsent(key, k -> {
+                computations.incrementAndGet();
+                return UUID.randomUUID();
+            })));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(1, computations.get());
+        Assertions.assertNull(map.computeIfAbsent(UUID.randomUUID(), k -> null));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    void invalidKeys() {
+        CompactUuidMap<String> map = CompactUuidMap.withSha256HexKeys();
+
+        Assertions.assertNull(map.get("no hash"));
+        Assertions.assertNull(map.get(DigestUtils.sha256Hex("entity").toUpperCase()));
+        Assertions.assertFalse(map.containsKey(42));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put("no hash", UUID.randomUUID()));
+    }
+
+    @Test
+    void iteratorRemovesEntries() {
+        CompactUuidMap<UUID> map = CompactUuidMap.withUuidKeys();
+        for (int i = 0; i < 100; i++) {
+            map.put(UUID.randomUUID(), UUID.randomUUID());
+        }
+
+        map.entrySet().removeIf(entry -> entry.getKey().getLeastSignificantBits() % 2 == 0);
+
+        Assertions.assertTrue(map.keySet().stream().allMatch(key -> key.getLeastSignificantBits() % 2 != 0));
+        Assertions.assertEquals(map.size(), map.entrySet().stream().count());
+    }
+
+    @Test
+    void concurrentWritersAndReaders() throws InterruptedException {
+        CompactUuidMap<UUID> map = CompactUuidMap.withUuidKeys();
+        UUID readKey = UUID.randomUUID();
+        UUID readValue = UUID.randomUUID();
+        map.put(readKey, readValue);
+        List<Thread> threads = new ArrayList<>();
+        List<AssertionError> errors = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    map.put(UUID.randomUUID(), UUID.randomUUID());
+                }
+            }));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    if (!readValue.equals(map.get(readKey))) {
+                        synchronized (errors) {
+                            errors.add(new AssertionError("lost entry"));
+                        }
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertTrue(errors.isEmpty());
+        Assertions.assertEquals(40001, map.size());
+    }
+}
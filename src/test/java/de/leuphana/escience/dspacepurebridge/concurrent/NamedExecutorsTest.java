@@ -0,0 +1,28 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+class NamedExecutorsTest {
+
+    @Test
+    void fixedExecutorNamesItsThreads() throws Exception {
+        ExecutorService fixedExecutor = NamedExecutors.newFixedDaemonExecutor("fixed", 2);
+        try {
+            Thread thread = fixedExecutor.submit(Thread::currentThread).get();
+            Assertions.assertEquals("fixed-1", thread.getName());
+            Assertions.assertTrue(thread.isDaemon());
+        } finally {
+            fixedExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void threadFactoryCreatesWorkerThreads() {
+        Thread thread = NamedExecutors.threadFactory("worker", false).newThread(() -> { });
+        Assertions.assertEquals("worker-1", thread.getName());
+        Assertions.assertFalse(thread.isDaemon());
+    }
+}
@@ -0,0 +1,95 @@
+package de.leuphana.escience.dspacepurebridge.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+class PagePrefetcherTest {
+
+    private final ExecutorService executorService = NamedExecutors.newCachedDaemonExecutor("test");
+
+    @AfterEach
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void pagesAreReturnedInOrder() {
+        List<Integer> requestedOffsets = Collections.synchronizedList(new ArrayList<>());
+        PagePrefetcher<Integer> pages = new PagePrefetcher<>((offset, pageSize) -> {
+            requestedOffsets.add(offset);
+            // later pages complete first
+            sleepQuietly(offset == 0 ? 0 : 100 - offset);
+            int size = offset < 50 ? pageSize : 3;
+            return IntStream.range(offset, offset + size).boxed().toList();
+        }, 10, 4, executorService);
+
+        List<Integer> items = new ArrayList<>();
+        List<Integer> page;
+        while ((page = pages.nextPage()) != null) {
+            items.addAll(page);
+        }
+
+        Assertions.assertEquals(IntStream.range(0, 53).boxed().toList(), items);
+        Assertions.assertTrue(requestedOffsets.size() <= 9);
+    }
+
+    @Test
+    void singleShortPageIsNotPrefetched() {
+        List<Integer> requestedOffsets = Collections.synchronizedList(new ArrayList<>());
+        PagePrefetcher<Integer> pages = new PagePrefetcher<>((offset, pageSize) -> {
+            requestedOffsets.add(offset);
+            return List.of(1, 2);
+        }, 10, 4, executorService);
+
+        Assertions.assertEquals(List.of(1, 2), pages.nextPage());
+        Assertions.assertNull(pages.nextPage());
+        Assertions.assertEquals(List.of(0), requestedOffsets);
+    }
+
+    @Test
+    void sequentialWithoutPrefetch() {
+        List<String> requestingThreads = new ArrayList<>();
+        PagePrefetcher<Integer> pages = new PagePrefetcher<>((offset, pageSize) -> {
+            requestingThreads.add(Thread.currentThread().getName());
+            return offset < 20 ? List.of(offset, offset + 1) : null;
+        }, 2, 1, executorService);
+
+        List<Integer> items = new ArrayList<>();
+        List<Integer> page;
+        while ((page = pages.nextPage()) != null) {
+            items.addAll(page);
+        }
+
+        Assertions.assertEquals(IntStream.range(0, 20).boxed().toList(), items);
+        Assertions.assertTrue(requestingThreads.stream().allMatch(Thread.currentThread().getName()::equals));
+    }
+
+    @Test
+    void failingRequestIsRethrown() {
+        try (PagePrefetcher<Integer> pages = new PagePrefetcher<>((offset, pageSize) -> {
+            if (offset > 0) {
+                throw new IllegalStateException("expected");
+            }
+            return List.of(1, 2);
+        }, 2, 3, executorService)) {
+            Assertions.assertEquals(List.of(1, 2), pages.nextPage());
+            Assertions.assertThrows(IllegalStateException.class, pages::nextPage);
+            Assertions.assertNull(pages.nextPage());
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.leuphana.escience.dspacepurebridge.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MetricsReporterTest {
+
+    @TempDir
+    Path stateDir;
+
+    @Test
+    void metricsAreWrittenAsPrometheusTextFile() throws Exception {
+        Path textFile = stateDir.resolve("metrics").resolve("dspace-pure-bridge.prom");
+        AtomicInteger queued = new AtomicInteger(3);
+        try (MetricsReporter metricsReporter = new MetricsReporter(textFile, false)) {
+            BridgeMetrics.timer("export.stage", "stage", "createExport").record(Duration.ofMillis(1500));
+            BridgeMetrics.timer("export.stage", "stage", "createExport").record(Duration.ofMillis(500));
+            BridgeMetrics.timer("pure.requests", "endpoint", "/ws/api/\"quoted\"").record(Duration.ofSeconds(1));
+            BridgeMetrics.gauge("test.queued", queued, AtomicInteger::get);
+        }
+
+        List<String> lines = Files.readAllLines(textFile);
+        Assertions.assertTrue(lines.contains("# TYPE dspace_pure_bridge_export_stage_seconds summary"));
+        Assertions.assertTrue(lines.contains("dspace_pure_bridge_export_stage_seconds_count{stage=\"createExport\"} 2"));
+        Assertions.assertTrue(
+            lines.contains("dspace_pure_bridge_export_stage_seconds_sum{stage=\"createExport\"} 2.0"));
+        Assertions.assertTrue(
+            lines.contains("dspace_pure_bridge_export_stage_seconds_max{stage=\"createExport\"} 1.5"));
+        Assertions.assertTrue(lines.contains(
+            "dspace_pure_bridge_pure_requests_seconds_count{endpoint=\"/ws/api/\\\"quoted\\\"\"} 1"));
+        Assertions.assertTrue(lines.contains("dspace_pure_bridge_test_queued 3.0"));
+        Assertions.assertFalse(Files.exists(textFile.resolveSibling("dspace-pure-bridge.prom.tmp")));
+    }
+
+    @Test
+    void metricsAreExposedViaJmxWhileRunning() throws Exception {
+        ObjectName objectName =
+            new ObjectName(MetricsReporter.JMX_DOMAIN + ":name=dspacePureBridgeContextCommit,type=timers");
+        try (MetricsReporter metricsReporter = new MetricsReporter(null, true)) {
+            BridgeMetrics.timer("context.commit").record(Duration.ofSeconds(2));
+
+            Assertions.assertEquals(1L,
+                ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Count"));
+            Assertions.assertEquals(2000.0,
+                ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Max"));
+        }
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
+    @Test
+    void nothingIsRecordedWithoutReporter() {
+        try (MetricsReporter metricsReporter = new MetricsReporter(null, false)) {
+            Assertions.assertTrue(Metrics.globalRegistry.getRegistries().isEmpty());
+        }
+    }
+}
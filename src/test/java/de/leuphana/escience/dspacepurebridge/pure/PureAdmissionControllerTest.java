@@ -0,0 +1,159 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import de.leuphana.escience.dspacepurebridge.pure.PureAdmissionController.Permit;
+import de.leuphana.escience.dspacepurebridge.pure.PureAdmissionController.RequestClass;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class PureAdmissionControllerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private PureAdmissionController controller(int budget) {
+        return new PureAdmissionController(Map.of(RequestClass.LIST, budget, RequestClass.CREATE, budget), 1, 3,
+                true, nanoTime::get);
+    }
+
+    private void round(PureAdmissionController controller, int requests, long latencyMillis, int statusCode)
+            throws InterruptedException {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            permits.add(controller.acquire(RequestClass.LIST));
+        }
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        for (Permit permit : permits) {
+            permit.release(statusCode, null);
+        }
+    }
+
+    @Test
+    void requestsAreClassifiedByMethodAndPath() {
+        Assertions.assertEquals(RequestClass.LIST, RequestClass.of("GET", "/ws/api/research-outputs"));
+        Assertions.assertEquals(RequestClass.LIST,
+                RequestClass.of("GET", "/ws/api/persons/3f1c1e2a-8d4b-4c55-9b1e-0a6f2d7c9e11/dependents"));
+        Assertions.assertEquals(RequestClass.READ,
+                RequestClass.of("GET", "/ws/api/research-outputs/3f1c1e2a-8d4b-4c55-9b1e-0a6f2d7c9e11"));
+        Assertions.assertEquals(RequestClass.READ, RequestClass.of("GET", "/ws/api/applications/42/"));
+        Assertions.assertEquals(RequestClass.CLASSIFICATION,
+                RequestClass.of("GET", "/ws/api/research-outputs/allowed-types"));
+        Assertions.assertEquals(RequestClass.SEARCH, RequestClass.of("POST", "/ws/api/student-theses/search"));
+        Assertions.assertEquals(RequestClass.CREATE, RequestClass.of("PUT", "/ws/api/student-theses"));
+    }
+
+    @Test
+    void limitGrowsWhileItIsUsedUp() throws InterruptedException {
+        PureAdmissionController controller = controller(4);
+        round(controller, 1, 10, 200);
+        Assertions.assertEquals(2, controller.getLimit(RequestClass.LIST));
+        round(controller, 2, 10, 200);
+        round(controller, 2, 10, 200);
+        Assertions.assertEquals(3, controller.getLimit(RequestClass.LIST));
+        for (int i = 0; i < 10; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        Assertions.assertEquals(4, controller.getLimit(RequestClass.LIST));
+        Assertions.assertEquals(1, controller.getLimit(RequestClass.CREATE));
+    }
+
+    @Test
+    void limitIsHalvedOncePerRoundWhenThrottled() throws InterruptedException {
+        PureAdmissionController controller = controller(16);
+        for (int i = 0; i < 30; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        Assertions.assertEquals(16, controller.getLimit(RequestClass.LIST));
+
+        round(controller, 16, 10, 429);
+        Assertions.assertEquals(8, controller.getLimit(RequestClass.LIST));
+        round(controller, 8, 10, 503);
+        Assertions.assertEquals(4, controller.getLimit(RequestClass.LIST));
+        round(controller, 4, 10, -1);
+        Assertions.assertEquals(2, controller.getLimit(RequestClass.LIST));
+    }
+
+    @Test
+    void limitIsLoweredWhenLatencyRises() throws InterruptedException {
+        PureAdmissionController controller = controller(16);
+        for (int i = 0; i < 30; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        for (int i = 0; i < 3; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 200, 200);
+        }
+        Assertions.assertTrue(controller.getLimit(RequestClass.LIST) < 16);
+    }
+
+    @Test
+    void singleFastResponseDoesNotLowerTheBaselineForGood() throws InterruptedException {
+        PureAdmissionController controller = controller(16);
+        for (int i = 0; i < 30; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        round(controller, 1, 1, 200);
+        for (int i = 0; i < 20; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        Assertions.assertEquals(16, controller.getLimit(RequestClass.LIST));
+    }
+
+    @Test
+    void baselineFollowsLastingChangeOfLatency() throws InterruptedException {
+        PureAdmissionController controller = controller(16);
+        for (int i = 0; i < 30; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 10, 200);
+        }
+        for (int i = 0; i < 60; i++) {
+            round(controller, controller.getLimit(RequestClass.LIST), 50, 200);
+        }
+        Assertions.assertEquals(16, controller.getLimit(RequestClass.LIST));
+    }
+
+    @Test
+    void limitStartsAtInitialLimit() {
+        PureAdmissionController controller = new PureAdmissionController(
+                Map.of(RequestClass.LIST, 8, RequestClass.CLASSIFICATION, 2), 4, 3, true, nanoTime::get);
+        Assertions.assertEquals(4, controller.getLimit(RequestClass.LIST));
+        Assertions.assertEquals(2, controller.getLimit(RequestClass.CLASSIFICATION));
+    }
+
+    @Test
+    void limitIsFixedAtBudgetIfNotAdaptive() throws InterruptedException {
+        PureAdmissionController controller = new PureAdmissionController(
+                Map.of(RequestClass.LIST, 8, RequestClass.CREATE, 8), 1, 3, false, nanoTime::get);
+        Assertions.assertEquals(8, controller.getLimit(RequestClass.LIST));
+        round(controller, 8, 10, 429);
+        round(controller, 8, 200, 200);
+        Assertions.assertEquals(8, controller.getLimit(RequestClass.LIST));
+    }
+
+    @Test
+    void retryAfterPausesAllRequests() throws InterruptedException {
+        PureAdmissionController controller =
+                new PureAdmissionController(Map.of(RequestClass.LIST, 2, RequestClass.CREATE, 2), 3);
+        controller.acquire(RequestClass.CREATE).release(429, "1");
+
+        long start = System.nanoTime();
+        controller.acquire(RequestClass.LIST).release(200, null);
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void retryAfterIsParsedFromSecondsAndDates() {
+        Instant now = Instant.parse("2025-06-01T10:00:00Z");
+        Assertions.assertEquals(Duration.ofSeconds(120), PureAdmissionController.parseRetryAfter("120", now));
+        Assertions.assertEquals(Duration.ofSeconds(30),
+                PureAdmissionController.parseRetryAfter("Sun, 01 Jun 2025 10:00:30 GMT", now));
+        Assertions.assertEquals(PureAdmissionController.MAX_RETRY_AFTER,
+                PureAdmissionController.parseRetryAfter("86400", now));
+        Assertions.assertNull(PureAdmissionController.parseRetryAfter("soon", now));
+        Assertions.assertNull(PureAdmissionController.parseRetryAfter(null, now));
+    }
+}
@@ -0,0 +1,116 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import com.sun.net.httpserver.HttpServer;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiClient;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.dspace.services.ConfigurationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PureHttpTransportTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> receivedApiKey = new AtomicReference<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            receivedApiKey.set(exchange.getRequestHeaders().getFirst("api-key"));
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void restTemplatesShareThePool() throws Exception {
+        try (PureHttpTransport transport = new PureHttpTransport(1, Duration.ofSeconds(60))) {
+            RestTemplate first = transport.restTemplateBuilder("key").build();
+            RestTemplate second = transport.restTemplateBuilder("key").build();
+            String url = "http://localhost:" + server.getAddress().getPort() + "/";
+
+            CompletableFuture<String> firstResponse = CompletableFuture.supplyAsync(() -> first.getForObject(url, String.class));
+            while (transport.getLeaseCount() < 1) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            CompletableFuture<String> secondResponse = CompletableFuture.supplyAsync(() -> second.getForObject(url, String.class));
+            while (transport.getLeaseCount() < 2) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            Assertions.assertEquals("ok", firstResponse.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals("ok", secondResponse.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals("key", receivedApiKey.get());
+            Assertions.assertEquals(2, transport.getLeaseCount());
+            Assertions.assertEquals(1, transport.getSaturatedLeaseCount());
+        }
+    }
+
+    @Test
+    void apiClientsShareThePool() {
+        try (PureHttpTransport transport = new PureHttpTransport(4, Duration.ofSeconds(60))) {
+            ApiClient firstClient = transport.configure(new ApiClient());
+            ApiClient secondClient = transport.configure(new ApiClient());
+            OkHttpClient first = firstClient.getHttpClient();
+            OkHttpClient second = secondClient.getHttpClient();
+
+            Assertions.assertSame(first.connectionPool(), second.connectionPool());
+            Assertions.assertSame(first.dispatcher(), second.dispatcher());
+            Assertions.assertEquals(4, first.dispatcher().getMaxRequestsPerHost());
+            Assertions.assertEquals(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1), first.protocols());
+            Assertions.assertFalse(first.networkInterceptors().isEmpty());
+        }
+    }
+
+    @Test
+    void poolSizeDefaultsToConcurrentRequests() {
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+
+        try (PureHttpTransport transport = PureHttpTransport.fromConfiguration(configurationService, 24)) {
+            Assertions.assertEquals(24, transport.getMaxConnections());
+        }
+
+        when(configurationService.hasProperty(PureHttpTransport.MAX_CONNECTIONS)).thenReturn(true);
+        when(configurationService.getIntProperty(PureHttpTransport.MAX_CONNECTIONS)).thenReturn(50);
+        try (PureHttpTransport transport = PureHttpTransport.fromConfiguration(configurationService, 24)) {
+            Assertions.assertEquals(50, transport.getMaxConnections());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package de.leuphana.escience.dspacepurebridge.pure;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PureRequestMetricsTest {
+
+    @Test
+    void idsAreRemovedFromEndpoint() {
+        Assertions.assertEquals("/ws/api/research-outputs/{id}",
+            PureRequestMetrics.endpoint("/ws/api/research-outputs/0b6d3c1a-5e7f-4f4c-9a1b-2c3d4e5f6a7b"));
+        Assertions.assertEquals("/ws/api/persons/{id}/notes",
+            PureRequestMetrics.endpoint("/ws/api/persons/4711/notes"));
+        Assertions.assertEquals("/ws/api/student-theses/search",
+            PureRequestMetrics.endpoint("/ws/api/student-theses/search"));
+        Assertions.assertEquals("/", PureRequestMetrics.endpoint(""));
+    }
+}
@@ -3,11 +3,11 @@ package de.leuphana.escience.dspacepurebridge.pure.export;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.imports.DSpaceObjectMappings;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Item;
-import org.dspace.content.MetadataSchemaEnum;
 import org.dspace.content.MetadataValue;
 import org.dspace.content.service.ItemService;
 import org.dspace.core.Context;
@@ -25,7 +25,10 @@ import org.springframework.web.client.RestTemplate;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.itemMetadata;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
 import static org.mockito.Mockito.*;
 
 
@@ -70,7 +73,7 @@ class AbstractExportTest {
             }
 
             @Override
-            public ExportItem createExport(Context context, Item item, String syncTypeValue)
+            public ExportItem createExport(Context context, ItemMetadata itemMetadata, String syncTypeValue)
                 throws ApiException, SQLException {
                 return null;
             }
@@ -90,6 +93,11 @@ class AbstractExportTest {
                 return null;
             }
 
+            @Override
+            public CompletableFuture<ExportResult> exportAsync(ExportItem exportItem) throws ApiException {
+                return null;
+            }
+
             @Override
             public DuplicateCheckResult concreteDuplicateCheck(PureWSResultItem pureWSResultItem, String doi,
                                                                String title) {
@@ -102,76 +110,73 @@ class AbstractExportTest {
         lenient().when(dSpaceServicesContainer.getItemService()).thenReturn(itemService);
     }
 
+    private ItemMetadata publicationWithAuthor(String authorId) {
+        MetadataValue authorRelation = metadataValue(authorId);
+        return itemMetadata(publicationItem, Map.of("relation.isAuthorOfPublication", List.of(authorRelation)));
+    }
+
+    private void stubAuthor(String authorId, String pureUuid) throws SQLException {
+        when(itemService.findByIdOrLegacyId(context, authorId)).thenReturn(author);
+        List<MetadataValue> authorMetadata = pureUuid == null ? List.of() : List.of(
+            metadataValue(Constants.SCHEME + "." + Constants.ELEMENT + "." + Constants.UUID_QUALIFIER, pureUuid));
+        when(itemService.getMetadata(author, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(authorMetadata);
+    }
+
     @Test
     void getItemAuthorWithPureUUID() throws SQLException {
         String authorId = "TEST_AUTHOR_ID";
-        MetadataValue authorRelation = mock(MetadataValue.class);
-        when(authorRelation.getValue()).thenReturn(authorId);
-
-        when(itemService.getMetadata(publicationItem, MetadataSchemaEnum.RELATION.getName(),
-                                     "isAuthorOfPublication", null, Item.ANY)).thenReturn(List.of(authorRelation));
-        when(itemService.findByIdOrLegacyId(context, authorId)).thenReturn(author);
-        when(itemService.getMetadataFirstValue(author, Constants.SCHEME,
-                                               Constants.ELEMENT,
-                                               Constants.UUID_QUALIFIER,
-                                               Item.ANY)).thenReturn("UUID");
+        stubAuthor(authorId, "UUID");
 
-        List<Item> result = classUnderTest.getItemAuthors(context, publicationItem, false);
-        Assertions.assertEquals(author, result.get(0));
+        List<CachedPerson> result = classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), false);
+        Assertions.assertEquals("UUID", result.get(0).pureUuid());
     }
 
     @Test
     void getItemAuthorWithoutPureUUID() throws SQLException {
         String authorId = "TEST_AUTHOR_ID";
-        MetadataValue authorRelation = mock(MetadataValue.class);
-        when(authorRelation.getValue()).thenReturn(authorId);
-
-        when(itemService.getMetadata(publicationItem, MetadataSchemaEnum.RELATION.getName(),
-            "isAuthorOfPublication", null, Item.ANY)).thenReturn(List.of(authorRelation));
-        when(itemService.findByIdOrLegacyId(context, authorId)).thenReturn(author);
-        when(itemService.getMetadataFirstValue(author, Constants.SCHEME,
-            Constants.ELEMENT,
-            Constants.UUID_QUALIFIER,
-            Item.ANY)).thenReturn(null);
+        stubAuthor(authorId, null);
 
-        List<Item> result = classUnderTest.getItemAuthors(context, publicationItem, false);
+        List<CachedPerson> result = classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), false);
         Assertions.assertNull(result);
     }
 
     @Test
     void getItemAuthorWithoutPureUUIDAllowEmpty() throws SQLException {
         String authorId = "TEST_AUTHOR_ID";
-        MetadataValue authorRelation = mock(MetadataValue.class);
-        when(authorRelation.getValue()).thenReturn(authorId);
+        stubAuthor(authorId, null);
 
-        when(itemService.getMetadata(publicationItem, MetadataSchemaEnum.RELATION.getName(),
-            "isAuthorOfPublication", null, Item.ANY)).thenReturn(List.of(authorRelation));
-        when(itemService.findByIdOrLegacyId(context, authorId)).thenReturn(author);
-        when(itemService.getMetadataFirstValue(author, Constants.SCHEME,
-            Constants.ELEMENT,
-            Constants.UUID_QUALIFIER,
-            Item.ANY)).thenReturn(null);
-
-        List<Item> result = classUnderTest.getItemAuthors(context, publicationItem, true);
+        List<CachedPerson> result = classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), true);
         Assertions.assertNotNull(result);
     }
 
     @Test
     void getItemAuthorWithoutPureUUIDAndOrcidCache() throws SQLException {
         String authorId = "TEST_AUTHOR_ID";
-        MetadataValue authorRelation = mock(MetadataValue.class);
-        when(authorRelation.getValue()).thenReturn(authorId);
+        stubAuthor(authorId, null);
 
-        when(itemService.getMetadata(publicationItem, MetadataSchemaEnum.RELATION.getName(),
-                                     "isAuthorOfPublication", null, Item.ANY)).thenReturn(List.of(authorRelation));
-        when(itemService.findByIdOrLegacyId(context, authorId)).thenReturn(author);
-        when(itemService.getMetadataFirstValue(author, Constants.SCHEME,
-                                               Constants.ELEMENT,
-                                               Constants.UUID_QUALIFIER,
-                                               Item.ANY)).thenReturn(null);
+        List<CachedPerson> result = classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), false);
+        Assertions.assertNull(result);
+    }
 
-        List<Item> result = classUnderTest.getItemAuthors(context, publicationItem, false);
+    @Test
+    void getItemAuthorWithoutRelatedPerson() throws SQLException {
+        List<CachedPerson> result =
+            classUnderTest.getItemAuthors(context, itemMetadata(publicationItem, Map.of()), false);
         Assertions.assertNull(result);
+        verify(itemService, never()).findByIdOrLegacyId(any(), anyString());
+    }
+
+    @Test
+    void getItemAuthorLoadsPersonOnlyOnce() throws SQLException {
+        String authorId = "TEST_AUTHOR_ID";
+        stubAuthor(authorId, "UUID");
+
+        classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), false);
+        List<CachedPerson> result = classUnderTest.getItemAuthors(context, publicationWithAuthor(authorId), false);
+
+        Assertions.assertEquals("UUID", result.get(0).pureUuid());
+        verify(itemService, times(1)).findByIdOrLegacyId(context, authorId);
+        verify(itemService, times(1)).getMetadata(author, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
     }
 
     @Test
@@ -0,0 +1,106 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.dspace.authorize.ResourcePolicy;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.core.DBConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BitstreamAccessResolverTest {
+
+    @Mock
+    Context context;
+
+    @Mock
+    DBConnection<EntityManager> dbConnection;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TypedQuery<Object[]> query;
+
+    private final BitstreamAccessResolver resolver = new BitstreamAccessResolver();
+    private final UUID bitstream1 = UUID.randomUUID();
+    private final UUID bitstream2 = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() throws SQLException {
+        lenient().when(context.getDBConnection()).thenReturn(dbConnection);
+        lenient().when(dbConnection.getSession()).thenReturn(entityManager);
+        lenient().when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        lenient().when(query.setParameter(anyString(), any())).thenReturn(query);
+    }
+
+    @Test
+    void readPoliciesOfAllBitstreamsAreReadWithOneQuery() throws SQLException {
+        ResourcePolicy policy1 = mock(ResourcePolicy.class);
+        ResourcePolicy policy2 = mock(ResourcePolicy.class);
+        ResourcePolicy policy3 = mock(ResourcePolicy.class);
+        when(query.getResultList()).thenReturn(List.of(new Object[] {bitstream1, policy1},
+                new Object[] {bitstream2, policy2}, new Object[] {bitstream1, policy3}));
+
+        Map<UUID, List<ResourcePolicy>> policies =
+                resolver.findReadPolicies(context, Set.of(bitstream1, bitstream2));
+
+        Assertions.assertEquals(Map.of(bitstream1, List.of(policy1, policy3), bitstream2, List.of(policy2)), policies);
+        verify(entityManager, times(1)).createQuery(anyString(), eq(Object[].class));
+        verify(query).setParameter("action", Constants.READ);
+    }
+
+    @Test
+    void firstLicenseOfEveryBitstreamIsKept() throws SQLException {
+        when(query.getResultList()).thenReturn(List.of(new Object[] {bitstream1, "CC-BY"},
+                new Object[] {bitstream1, "CC-BY-SA"}, new Object[] {bitstream2, "All rights reserved"}));
+
+        Map<UUID, String> licenses =
+                resolver.findFirstMetadataValues(context, Set.of(bitstream1, bitstream2), "local.BitstreamLicense");
+
+        Assertions.assertEquals(Map.of(bitstream1, "CC-BY", bitstream2, "All rights reserved"), licenses);
+        verify(entityManager).createQuery(contains("f.qualifier IS NULL"), eq(Object[].class));
+        verify(query).setParameter("schema", "local");
+        verify(query).setParameter("element", "BitstreamLicense");
+    }
+
+    @Test
+    void qualifiedFieldIsMatchedByItsQualifier() throws SQLException {
+        when(query.getResultList()).thenReturn(List.of());
+
+        resolver.findFirstMetadataValues(context, Set.of(bitstream1), "dc.rights.license");
+
+        verify(entityManager).createQuery(contains("f.qualifier = :qualifier"), eq(Object[].class));
+        verify(query).setParameter("qualifier", "license");
+    }
+
+    @Test
+    void noQueryWithoutBitstreams() throws SQLException {
+        Assertions.assertTrue(resolver.findReadPolicies(context, Set.of()).isEmpty());
+        Assertions.assertTrue(resolver.findFirstMetadataValues(context, Set.of(), "local.BitstreamLicense").isEmpty());
+        verify(entityManager, never()).createQuery(anyString(), eq(Object[].class));
+    }
+}
@@ -0,0 +1,94 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
+import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ClassificationCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    @TempDir
+    Path stateDirectory;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private List<ClassificationRef> load(String... uris) {
+        loads.incrementAndGet();
+        return Arrays.stream(uris).map(uri -> new ClassificationRef().uri(uri)).toList();
+    }
+
+    private ClassificationCache cacheAt(Instant instant) {
+        return new ClassificationCache(stateDirectory.resolve(ClassificationCache.CLASSIFICATIONS_FILE),
+                Duration.ofHours(24), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    @Test
+    void classificationsArePersistedUntilTheyExpire() throws ApiException {
+        ClassificationCache classificationCache = cacheAt(NOW);
+        classificationCache.get("researchOutput.TYPE", () -> load("/type/article"));
+        classificationCache.save();
+        Assertions.assertTrue(Files.isRegularFile(stateDirectory.resolve(ClassificationCache.CLASSIFICATIONS_FILE)));
+
+        List<ClassificationRef> cached = cacheAt(NOW.plus(Duration.ofHours(23)))
+                .get("researchOutput.TYPE", () -> load("/type/book"));
+        Assertions.assertEquals("/type/article", cached.get(0).getUri());
+        Assertions.assertEquals(1, loads.get());
+
+        List<ClassificationRef> expired = cacheAt(NOW.plus(Duration.ofHours(25)))
+                .get("researchOutput.TYPE", () -> load("/type/book"));
+        Assertions.assertEquals("/type/book", expired.get(0).getUri());
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void expiredClassificationsAreUsedIfPureFails() throws ApiException {
+        ClassificationCache classificationCache = cacheAt(NOW);
+        classificationCache.get("studentThesis.LANGUAGE", () -> load("/language/german"));
+        classificationCache.save();
+
+        List<ClassificationRef> stale = cacheAt(NOW.plus(Duration.ofDays(3))).get("studentThesis.LANGUAGE", () -> {
+            throw new ApiException(503, "unavailable");
+        });
+        Assertions.assertEquals("/language/german", stale.get(0).getUri());
+
+        Assertions.assertThrows(ApiException.class, () -> cacheAt(NOW).get("studentThesis.TYPE", () -> {
+            throw new ApiException(503, "unavailable");
+        }));
+    }
+
+    @Test
+    void classificationsAreRevalidatedOncePerRun() throws ApiException {
+        ClassificationCache classificationCache = cacheAt(NOW);
+        classificationCache.get("researchOutput.LICENSE", () -> load("/license/cc-by"));
+        classificationCache.save();
+
+        ClassificationCache nextRun = cacheAt(NOW.plus(Duration.ofHours(1)));
+        nextRun.get("researchOutput.LICENSE", () -> load("/license/cc-by"));
+        List<ClassificationRef> revalidated =
+                nextRun.revalidate("researchOutput.LICENSE", () -> load("/license/cc-by", "/license/cc-by-sa"));
+        Assertions.assertEquals(2, revalidated.size());
+        Assertions.assertNull(nextRun.revalidate("researchOutput.LICENSE", () -> load("/license/cc0")));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void corruptFileIsIgnored() throws Exception {
+        Files.writeString(stateDirectory.resolve(ClassificationCache.CLASSIFICATIONS_FILE), "{\"version\": 1, \"entries\": [");
+
+        List<ClassificationRef> classificationRefs = cacheAt(NOW).get("researchOutput.ROLE", () -> load("/role/author"));
+        Assertions.assertEquals("/role/author", classificationRefs.get(0).getUri());
+    }
+}
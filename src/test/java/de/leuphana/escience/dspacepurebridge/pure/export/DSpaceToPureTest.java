@@ -4,8 +4,10 @@ import de.leuphana.escience.MockedEnvironmentTestMethod;
 import de.leuphana.escience.dspacepurebridge.CLIScriptContextUtils;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.CircuitBreaker;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.search.ItemFinder;
+import de.leuphana.escience.dspacepurebridge.search.SearchQueryType;
 import org.dspace.content.Collection;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataValue;
@@ -28,12 +30,17 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static de.leuphana.escience.dspacepurebridge.pure.export.DSpaceToPure.SYNC_MAIL_RECIPIENTS;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.itemMetadata;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -122,22 +129,26 @@ class DSpaceToPureTest {
         verify(classUnderTest, never()).syncDSpaceItemToPure(any(), any(), anyString(), any());
     }
 
-
     @Test
-    void syncItemThreadHandleSpecifiedAndItemDoesNotMatch() throws Exception {
+    void syncItemThreadReleasesDatabasePermit() throws Exception {
         UUID uuid = UUID.randomUUID();
         Item item = Mockito.mock(Item.class);
-        String requestedHandle = "123456789/123456789";
-        String itemHandle = "123456789/123456788";
-        classUnderTest.setExportDataHandle(requestedHandle);
-        when(item.getHandle()).thenReturn(itemHandle);
+        classUnderTest.setDatabaseConnections(1);
+        classUnderTest.setExportLimit(10);
         when(itemService.find(context, uuid)).thenReturn(item);
+        when(exportStatus.getItemSyncInfos().size()).thenReturn(10);
 
-        executeTestInMockedEnvironment(() -> classUnderTest.syncItemThread(uuid));
+        executeTestInMockedEnvironment(() -> {
+            classUnderTest.syncItemThread(uuid);
+            // would block if the permit of the first call had not been released
+            classUnderTest.syncItemThread(uuid);
+        });
 
+        Assertions.assertEquals(1, classUnderTest.getDatabasePermits().availablePermits());
         verify(classUnderTest, never()).syncDSpaceItemToPure(any(), any(), anyString(), any());
     }
 
+
     @Test
     void syncItemThreadItemAlreadySynced() throws Exception {
         UUID uuid = UUID.randomUUID();
@@ -146,8 +157,9 @@ class DSpaceToPureTest {
         Item item = Mockito.mock(Item.class);
         classUnderTest.setExportLimit(10);
         when(itemService.find(context, uuid)).thenReturn(item);
-        when(itemService.getMetadataFirstValue(item, Constants.SCHEME, Constants.ELEMENT, Constants.UUID_QUALIFIER,
-            Item.ANY)).thenReturn(pureItemUUID);
+        MetadataValue pureUuid =
+            metadataValue(Constants.SCHEME + "." + Constants.ELEMENT + "." + Constants.UUID_QUALIFIER, pureItemUUID);
+        when(itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(List.of(pureUuid));
 
         executeTestInMockedEnvironment(() -> classUnderTest.syncItemThread(uuid));
 
@@ -160,12 +172,11 @@ class DSpaceToPureTest {
 
         Collection collection = Mockito.mock(Collection.class);
         Item item = Mockito.mock(Item.class);
-        MetadataValue itemType = Mockito.mock(MetadataValue.class);
-        when(itemType.getValue()).thenReturn("Dissertation");
         when(item.getOwningCollection()).thenReturn(collection);
         when(collection.getHandle()).thenReturn("collection_handle");
         when(itemService.find(context, uuid)).thenReturn(item);
-        when(itemService.getMetadataByMetadataString(item, "dc.type")).thenReturn(List.of(itemType));
+        MetadataValue itemType = metadataValue("dc.type", "Dissertation");
+        when(itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(List.of(itemType));
 
         String[] filterConfigurations = new String[] {"type:Article;collection:collection_handle"};
         String[] exportTypeForTypeConfigurations =
@@ -190,7 +201,6 @@ class DSpaceToPureTest {
 
         Collection collection = Mockito.mock(Collection.class);
         Item item = Mockito.mock(Item.class);
-        MetadataValue itemType = Mockito.mock(MetadataValue.class);
         when(item.getOwningCollection()).thenReturn(collection);
         when(collection.getHandle()).thenReturn("collection_handle");
         when(itemService.find(context, uuid)).thenReturn(item);
@@ -217,12 +227,11 @@ class DSpaceToPureTest {
 
         Collection collection = Mockito.mock(Collection.class);
         Item item = Mockito.mock(Item.class);
-        MetadataValue itemType = Mockito.mock(MetadataValue.class);
-        when(itemType.getValue()).thenReturn("Dissertation");
         when(item.getOwningCollection()).thenReturn(collection);
         when(collection.getHandle()).thenReturn("collection_handle");
         when(itemService.find(context, uuid)).thenReturn(item);
-        when(itemService.getMetadataByMetadataString(item, "dc.type")).thenReturn(List.of(itemType));
+        MetadataValue itemType = metadataValue("dc.type", "Dissertation");
+        when(itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(List.of(itemType));
 
         String[] filterConfigurations = new String[] {"type:Dissertation;collection:collection_handle"};
         String[] exportTypeForTypeConfigurations =
@@ -230,8 +239,9 @@ class DSpaceToPureTest {
         when(configurationService.getArrayProperty("dspace-pure-bridge.export.exportTypeForType")).thenReturn(
             exportTypeForTypeConfigurations);
         when(configurationService.getArrayProperty("dspace-pure-bridge.export.filter")).thenReturn(filterConfigurations);
-        doNothing().when(classUnderTest)
-            .syncDSpaceItemToPure(context, item, "Dissertation", ExportType.RESEARCH_OUTPUT);
+        doReturn(CompletableFuture.completedFuture(null)).when(classUnderTest)
+            .syncDSpaceItemToPure(eq(context), argThat(itemMetadata -> itemMetadata.getItem() == item),
+                eq("Dissertation"), eq(ExportType.RESEARCH_OUTPUT));
 
         executeTestInMockedEnvironment(() -> {
             classUnderTest.setupFilters();
@@ -249,12 +259,11 @@ class DSpaceToPureTest {
 
         Collection collection = Mockito.mock(Collection.class);
         Item item = Mockito.mock(Item.class);
-        MetadataValue itemType = Mockito.mock(MetadataValue.class);
-        when(itemType.getValue()).thenReturn("Dissertation");
         when(item.getOwningCollection()).thenReturn(collection);
         when(collection.getHandle()).thenReturn("collection_handle");
         when(itemService.find(context, uuid)).thenReturn(item);
-        when(itemService.getMetadataByMetadataString(item, "dc.type")).thenReturn(List.of(itemType));
+        MetadataValue itemType = metadataValue("dc.type", "Dissertation");
+        when(itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(List.of(itemType));
 
         String[] filterConfigurations = new String[] {"type:Dissertation;collection:collection_handle"};
         String[] exportTypeForTypeConfigurations =
@@ -262,7 +271,9 @@ class DSpaceToPureTest {
         when(configurationService.getArrayProperty("dspace-pure-bridge.export.exportTypeForType")).thenReturn(
             exportTypeForTypeConfigurations);
         when(configurationService.getArrayProperty("dspace-pure-bridge.export.filter")).thenReturn(filterConfigurations);
-        doNothing().when(classUnderTest).syncDSpaceItemToPure(context, item, "Dissertation", ExportType.STUDENT_THESIS);
+        doReturn(CompletableFuture.completedFuture(null)).when(classUnderTest)
+            .syncDSpaceItemToPure(eq(context), argThat(itemMetadata -> itemMetadata.getItem() == item),
+                eq("Dissertation"), eq(ExportType.STUDENT_THESIS));
 
         executeTestInMockedEnvironment(() -> {
             classUnderTest.setupFilters();
@@ -388,10 +399,35 @@ class DSpaceToPureTest {
         verify(classUnderTest, times(1)).syncItemThread(uuid3);
     }
 
+    @Test
+    void syncItemsWithExportTargetsDoesNotSearchPublications() throws Exception {
+        doNothing().when(classUnderTest).prepareOrganizationNameToPureMap(context);
+        doNothing().when(classUnderTest).sendErrorEmail(context);
+        doNothing().when(classUnderTest).syncItemThread(any());
+
+        String[] filterConfigurations = new String[] {"type:Dissertation;collection:collection_handle"};
+        when(configurationService.getArrayProperty("dspace-pure-bridge.export.filter")).thenReturn(filterConfigurations);
+
+        UUID uuid1 = UUID.randomUUID();
+        UUID uuid2 = UUID.randomUUID();
+        classUnderTest.setExportTargets(List.of("123456789/1", "123456789/2"));
+        doReturn(new LinkedHashSet<>(List.of(uuid1, uuid2))).when(classUnderTest).resolveExportTargets(context);
+
+        executeTestInMockedEnvironment(() -> {
+            classUnderTest.setupFilters();
+            classUnderTest.syncItems();
+        });
+
+        verify(classUnderTest, times(1)).syncItemThread(uuid1);
+        verify(classUnderTest, times(1)).syncItemThread(uuid2);
+        verify(itemFinder, never()).processAllItems(any(), any(), eq(SearchQueryType.PUBLICATION_EXPORT), any());
+    }
+
     @Test
     void syncDSpaceItemToPureDuplicateCheck() throws Exception {
         ExportType exportType = ExportType.STUDENT_THESIS;
         Item item = Mockito.mock(Item.class);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of());
         UUID duplicateUuid = UUID.randomUUID();
 
         ExportResult exportResult = Mockito.mock(ExportResult.class);
@@ -399,9 +435,9 @@ class DSpaceToPureTest {
         AbstractExport exporter = Mockito.mock(AbstractExport.class);
 
         when(exporterRegistry.get(exportType)).thenReturn(exporter);
-        when(exporter.checkForDuplicate(item, exportType)).thenReturn(exportResult);
+        when(exporter.checkForDuplicate(itemMetadata, exportType)).thenReturn(exportResult);
 
-        classUnderTest.syncDSpaceItemToPure(context, item, "Dissertation", exportType);
+        classUnderTest.syncDSpaceItemToPure(context, itemMetadata, "Dissertation", exportType);
 
         verify(classUnderTest, times(1)).markItemAsSynced(context, item, exportResult, true);
         verify(exporter, never()).createExport(any(), any(), anyString());
@@ -412,14 +448,35 @@ class DSpaceToPureTest {
         String syncTypeValue = "Dissertation";
         ExportType exportType = ExportType.STUDENT_THESIS;
         Item item = Mockito.mock(Item.class);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of());
         AbstractExport exporter = Mockito.mock(AbstractExport.class);
         when(exporterRegistry.get(exportType)).thenReturn(exporter);
-        when(exporter.checkForDuplicate(item, exportType)).thenReturn(null);
-        doThrow(new ApiException()).when(exporter).createExport(context, item, syncTypeValue);
+        when(exporter.checkForDuplicate(itemMetadata, exportType)).thenReturn(null);
+        doThrow(new ApiException()).when(exporter).createExport(context, itemMetadata, syncTypeValue);
 
-        classUnderTest.syncDSpaceItemToPure(context, item, syncTypeValue, exportType);
+        classUnderTest.syncDSpaceItemToPure(context, itemMetadata, syncTypeValue, exportType);
 
-        verify(exporter, never()).export(any());
+        verify(exporter, never()).exportAsync(any());
+    }
+
+    @Test
+    void syncDSpaceItemToPureDefersItemWithoutWaitingWhilePureIsDown() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("Pure", 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        circuitBreaker.recordFailure();
+        classUnderTest.setRetryPolicy(new ExportRetryPolicy(3, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                circuitBreaker));
+        ExportType exportType = ExportType.STUDENT_THESIS;
+        Item item = Mockito.mock(Item.class);
+        UUID itemId = UUID.randomUUID();
+        when(item.getID()).thenReturn(itemId);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of());
+        AbstractExport exporter = Mockito.mock(AbstractExport.class);
+        when(exporterRegistry.get(exportType)).thenReturn(exporter);
+
+        classUnderTest.syncDSpaceItemToPure(context, itemMetadata, "Dissertation", exportType);
+
+        verify(exporter, never()).checkForDuplicate(any(), any());
+        Assertions.assertEquals(List.of(itemId), List.copyOf(classUnderTest.getDeferredItems()));
     }
 
     @Test
@@ -427,36 +484,106 @@ class DSpaceToPureTest {
         String syncTypeValue = "Dissertation";
         ExportType exportType = ExportType.STUDENT_THESIS;
         Item item = Mockito.mock(Item.class);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of());
+        UUID itemId = UUID.randomUUID();
+        when(item.getID()).thenReturn(itemId);
         ExportItem exportItem = Mockito.mock(ExportItem.class);
         AbstractExport exporter = Mockito.mock(AbstractExport.class);
         when(exporterRegistry.get(exportType)).thenReturn(exporter);
-        when(exporter.checkForDuplicate(item, exportType)).thenReturn(null);
-        when(exporter.createExport(context, item, syncTypeValue)).thenReturn(exportItem);
-        doThrow(new ApiException()).when(exporter).export(exportItem);
+        when(exporter.checkForDuplicate(itemMetadata, exportType)).thenReturn(null);
+        when(exporter.createExport(context, itemMetadata, syncTypeValue)).thenReturn(exportItem);
+        ApiException apiException = new ApiException();
+        when(exporter.exportAsync(exportItem)).thenReturn(CompletableFuture.failedFuture(apiException));
+        doNothing().when(classUnderTest).completeExport(any(), any(), any());
 
-        classUnderTest.syncDSpaceItemToPure(context, item, syncTypeValue, exportType);
+        classUnderTest.syncDSpaceItemToPure(context, itemMetadata, syncTypeValue, exportType).join();
 
+        verify(classUnderTest, times(1)).completeExport(itemId, null, apiException);
         verify(classUnderTest, never()).markItemAsSynced(any(), any(), any(), anyBoolean());
     }
 
 
+    @Test
+    void completeExportDefersItemWhilePureIsUnavailable() throws Exception {
+        Item item = Mockito.mock(Item.class);
+        UUID itemId = UUID.randomUUID();
+        when(item.getID()).thenReturn(itemId);
+        when(itemService.find(context, itemId)).thenReturn(item);
+        ApiException unavailable = new ApiException(503, "unavailable");
+
+        executeTestInMockedEnvironment(() -> classUnderTest.completeExport(itemId, null, unavailable));
+
+        Assertions.assertEquals(List.of(itemId), List.copyOf(classUnderTest.getDeferredItems()));
+        verify(exportStatus, never()).error(any(), anyString());
+
+        doNothing().when(classUnderTest).syncItemThread(itemId);
+        classUnderTest.retryDeferredItems();
+
+        verify(classUnderTest, times(1)).syncItemThread(itemId);
+        Assertions.assertTrue(classUnderTest.getDeferredItems().isEmpty());
+        executeTestInMockedEnvironment(() -> classUnderTest.completeExport(itemId, null, unavailable));
+        verify(exportStatus, times(1)).error(eq(item), anyString());
+    }
+
+    @Test
+    void deferredItemsAreRetriedInRoundsUpToTheAttemptsOfTheRetryPolicy() throws Exception {
+        classUnderTest.setRetryPolicy(new ExportRetryPolicy(3, Duration.ZERO, Duration.ZERO, null));
+        Item item = Mockito.mock(Item.class);
+        UUID itemId = UUID.randomUUID();
+        when(item.getID()).thenReturn(itemId);
+        when(itemService.find(context, itemId)).thenReturn(item);
+        ApiException unavailable = new ApiException(503, "unavailable");
+        doAnswer(invocation -> {
+            classUnderTest.completeExport(itemId, null, unavailable);
+            return null;
+        }).when(classUnderTest).syncItemThread(itemId);
+
+        executeTestInMockedEnvironment(() -> {
+            classUnderTest.completeExport(itemId, null, unavailable);
+            classUnderTest.retryDeferredItems();
+        });
+
+        verify(classUnderTest, times(2)).syncItemThread(itemId);
+        Assertions.assertTrue(classUnderTest.getDeferredItems().isEmpty());
+        verify(exportStatus, times(1)).error(eq(item), anyString());
+    }
+
+    @Test
+    void completeExportMarksItemAsSyncedUnderNewContext() throws Exception {
+        Item item = Mockito.mock(Item.class);
+        UUID itemId = UUID.randomUUID();
+        when(itemService.find(context, itemId)).thenReturn(item);
+        ExportResult exportResult = Mockito.mock(ExportResult.class);
+        doNothing().when(classUnderTest).markItemAsSynced(context, item, exportResult, false);
+
+        executeTestInMockedEnvironment(() -> classUnderTest.completeExport(itemId, exportResult, null));
+
+        verify(classUnderTest, times(1)).markItemAsSynced(context, item, exportResult, false);
+        verify(exportStatus, never()).error(any(), anyString());
+    }
+
     @Test
     void syncDSpaceItemToPureOk() throws Exception {
         String syncTypeValue = "Dissertation";
         ExportType exportType = ExportType.STUDENT_THESIS;
         Item item = Mockito.mock(Item.class);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of());
         ExportItem exportItem = Mockito.mock(ExportItem.class);
         ExportResult exportResult = Mockito.mock(ExportResult.class);
         AbstractExport exporter = Mockito.mock(AbstractExport.class);
         when(exporterRegistry.get(exportType)).thenReturn(exporter);
-        when(exportResult.getUuid()).thenReturn(UUID.randomUUID());
-        when(exporter.checkForDuplicate(item, exportType)).thenReturn(null);
-        when(exporter.createExport(context, item, syncTypeValue)).thenReturn(exportItem);
-        when(exporter.export(exportItem)).thenReturn(exportResult);
+        UUID itemId = UUID.randomUUID();
+        when(item.getID()).thenReturn(itemId);
+        when(exporter.checkForDuplicate(itemMetadata, exportType)).thenReturn(null);
+        when(exporter.createExport(context, itemMetadata, syncTypeValue)).thenReturn(exportItem);
+        when(exporter.exportAsync(exportItem)).thenReturn(CompletableFuture.completedFuture(exportResult));
+        doNothing().when(classUnderTest).completeExport(any(), any(), any());
 
-        classUnderTest.syncDSpaceItemToPure(context, item, syncTypeValue, exportType);
+        classUnderTest.syncDSpaceItemToPure(context, itemMetadata, syncTypeValue, exportType).join();
 
-        verify(classUnderTest, times(1)).markItemAsSynced(context, item, exportResult, false);
+        // the result is stored under a new context, not under the one of the preparation
+        verify(classUnderTest, times(1)).completeExport(itemId, exportResult, null);
+        verify(classUnderTest, never()).markItemAsSynced(any(), any(), any(), anyBoolean());
     }
 
     @Test
@@ -472,6 +599,20 @@ class DSpaceToPureTest {
         verify(email, times(1)).send();
     }
 
+    @Test
+    void concurrentRequestsCoverTheDuplicateChecksOfAllWorkersAndTheExportsInFlight() {
+        when(configurationService.hasProperty(DSpaceToPure.EXPORT_WORKERS)).thenReturn(true);
+        when(configurationService.getIntProperty(DSpaceToPure.EXPORT_WORKERS)).thenReturn(3);
+        when(configurationService.hasProperty("dspace-pure-bridge.pure.ws.prefetch")).thenReturn(true);
+        when(configurationService.getIntProperty("dspace-pure-bridge.pure.ws.prefetch")).thenReturn(2);
+
+        Assertions.assertEquals(3 * 2 + 4 * 3, DSpaceToPure.getConcurrentRequests(configurationService));
+
+        when(configurationService.hasProperty(DSpaceToPure.EXPORTS_IN_FLIGHT)).thenReturn(true);
+        when(configurationService.getIntProperty(DSpaceToPure.EXPORTS_IN_FLIGHT)).thenReturn(5);
+        Assertions.assertEquals(3 * 2 + 5, DSpaceToPure.getConcurrentRequests(configurationService));
+    }
+
     void executeTestInMockedEnvironment(MockedEnvironmentTestMethod testMethod) throws Exception {
         executeTestInMockedEnvironment(testMethod, null);
     }
@@ -0,0 +1,160 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.concurrent.CircuitBreaker;
+import de.leuphana.escience.dspacepurebridge.concurrent.CircuitBreakerOpenException;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ExportRetryPolicyTest {
+
+    private final CircuitBreaker circuitBreaker =
+            new CircuitBreaker("Pure", 10, Duration.ofMillis(10), Duration.ofMillis(10));
+    private final ExportRetryPolicy retryPolicy =
+            new ExportRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), circuitBreaker);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void singleCallIsNotRetried() {
+        Assertions.assertThrows(ApiException.class, () -> retryPolicy.callOnce(() -> {
+            calls.incrementAndGet();
+            throw new ApiException(new SocketTimeoutException("timeout"));
+        }));
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void singleCallFailsAtOnceWhileTheBreakerIsOpen() {
+        CircuitBreaker breaker = new CircuitBreaker("Pure", 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        ExportRetryPolicy policy = new ExportRetryPolicy(3, Duration.ZERO, Duration.ZERO, breaker);
+        breaker.recordFailure();
+
+        CircuitBreakerOpenException e = Assertions.assertThrows(CircuitBreakerOpenException.class,
+                () -> policy.callOnce(calls::incrementAndGet));
+
+        Assertions.assertEquals(0, calls.get());
+        Assertions.assertTrue(ExportRetryPolicy.isRetryable(e));
+        Assertions.assertTrue(ExportRetryPolicy.isNotProcessed(e));
+    }
+
+    @Test
+    void lastErrorIsThrownWhenAttemptsAreExhausted() {
+        CompletionException completionException = Assertions.assertThrows(CompletionException.class,
+                () -> retryPolicy.callAsync(() -> {
+                    calls.incrementAndGet();
+                    return CompletableFuture.failedFuture(new ApiException(502, "bad gateway"));
+                }, true).join());
+
+        Assertions.assertEquals(502, ((ApiException) completionException.getCause()).getCode());
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        Assertions.assertThrows(CompletionException.class, () -> retryPolicy.callAsync(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new ApiException(400, "bad request"));
+        }, true).join());
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void unexpectedErrorOfProbeDoesNotCloseTheBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("Pure", 1, Duration.ofMillis(10), Duration.ofMillis(10));
+        ExportRetryPolicy policy = new ExportRetryPolicy(1, Duration.ZERO, Duration.ZERO, breaker);
+        breaker.recordFailure();
+        policy.awaitAvailable();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> policy.callOnce(() -> {
+            throw new IllegalStateException("expected");
+        }));
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // the probe has been released, so the next call probes Pure instead of failing
+        Assertions.assertEquals("ok", policy.callOnce(() -> "ok"));
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void errorOfProbeReleasesTheProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("Pure", 1, Duration.ofMillis(10), Duration.ofMillis(10));
+        ExportRetryPolicy policy = new ExportRetryPolicy(1, Duration.ZERO, Duration.ZERO, breaker);
+        breaker.recordFailure();
+        policy.awaitAvailable();
+
+        Assertions.assertThrows(AssertionError.class, () -> policy.callOnce(() -> {
+            throw new AssertionError("expected");
+        }));
+
+        Assertions.assertTrue(breaker.awaitClosed());
+    }
+
+    @Test
+    void asyncCreateIsOnlyRetriedIfPureDidNotProcessIt() {
+        String result = retryPolicy.callAsync(() -> {
+            if (calls.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(new ApiException(503, "unavailable"));
+            }
+            return CompletableFuture.completedFuture("created");
+        }, false).join();
+        Assertions.assertEquals("created", result);
+        Assertions.assertEquals(2, calls.get());
+
+        calls.set(0);
+        CompletionException completionException = Assertions.assertThrows(CompletionException.class,
+                () -> retryPolicy.callAsync(() -> {
+                    calls.incrementAndGet();
+                    return CompletableFuture.failedFuture(new ApiException(504, "gateway timeout"));
+                }, false).join());
+        Assertions.assertEquals(504, ((ApiException) completionException.getCause()).getCode());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void asyncCallFailingToStartIsRetried() {
+        String result = retryPolicy.callAsync(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ApiException(new SocketTimeoutException("timeout"));
+            }
+            return CompletableFuture.completedFuture("ok");
+        }, true).join();
+
+        Assertions.assertEquals("ok", result);
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void retryAfterExtendsTheBackoff() {
+        Assertions.assertEquals(Duration.ofSeconds(2), retryPolicy.getBackoff(1, Duration.ofSeconds(2)));
+        Assertions.assertTrue(retryPolicy.getBackoff(10, null).toMillis() <= 5);
+
+        ApiException throttled = new ApiException(429, Map.of("retry-after", List.of("1")), "");
+        Assertions.assertTrue(ExportRetryPolicy.isNotProcessed(throttled));
+    }
+
+    @Test
+    void errorsAreClassified() {
+        Assertions.assertTrue(ExportRetryPolicy.isRetryable(new ApiException(new IOException("reset"))));
+        Assertions.assertFalse(ExportRetryPolicy.isRetryable(new ApiException()));
+        Assertions.assertTrue(ExportRetryPolicy.isRetryable(
+                new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+        Assertions.assertFalse(ExportRetryPolicy.isRetryable(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+        Assertions.assertTrue(ExportRetryPolicy.isRetryable(new ResourceAccessException("timeout")));
+        Assertions.assertFalse(ExportRetryPolicy.isRetryable(new IllegalStateException("no body")));
+    }
+}
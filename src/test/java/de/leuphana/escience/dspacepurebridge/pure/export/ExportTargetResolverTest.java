@@ -0,0 +1,100 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
+import org.dspace.content.Item;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.handle.service.HandleService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportTargetResolverTest {
+
+    @Mock
+    Context context;
+
+    @Mock
+    ItemService itemService;
+
+    @Mock
+    HandleService handleService;
+
+    @Mock
+    DSpaceServicesContainer dSpaceServicesContainer;
+
+    ExportTargetResolver classUnderTest;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(dSpaceServicesContainer.getItemService()).thenReturn(itemService);
+        lenient().when(dSpaceServicesContainer.getHandleService()).thenReturn(handleService);
+        classUnderTest = new ExportTargetResolver(dSpaceServicesContainer);
+    }
+
+    @Test
+    void itemHandlesAndUUIDsAreResolved() throws Exception {
+        Item item1 = publication();
+        Item item2 = publication();
+        when(handleService.resolveToObject(context, "123456789/1")).thenReturn(item1);
+        when(itemService.find(context, item2.getID())).thenReturn(item2);
+
+        Set<UUID> itemIds = classUnderTest.resolve(context,
+            List.of("123456789/1", " " + item2.getID() + " ", "", "# comment", "123456789/1"));
+
+        Assertions.assertEquals(List.of(item1.getID(), item2.getID()), List.copyOf(itemIds));
+    }
+
+    @Test
+    void collectionHandleIsResolvedToItsPublications() throws Exception {
+        Collection collection = Mockito.mock(Collection.class);
+        Item publication = publication();
+        Item person = item("Person", true);
+        Item workflowItem = Mockito.mock(Item.class);
+        when(workflowItem.isArchived()).thenReturn(false);
+        when(handleService.resolveToObject(context, "123456789/2")).thenReturn(collection);
+        when(itemService.findByCollection(context, collection))
+            .thenReturn(List.of(publication, person, workflowItem).iterator());
+
+        Set<UUID> itemIds = classUnderTest.resolve(context, List.of("123456789/2"));
+
+        Assertions.assertEquals(Set.of(publication.getID()), itemIds);
+    }
+
+    @Test
+    void unresolvableTargetsAreSkipped() throws Exception {
+        when(handleService.resolveToObject(context, "123456789/3")).thenReturn(null);
+        when(handleService.resolveToObject(context, "123456789/4")).thenReturn(Mockito.mock(Community.class));
+
+        Set<UUID> itemIds = classUnderTest.resolve(context, List.of("123456789/3", "123456789/4"));
+
+        Assertions.assertTrue(itemIds.isEmpty());
+    }
+
+    private Item publication() {
+        return item(ExportTargetResolver.PUBLICATION_ENTITY_TYPE, true);
+    }
+
+    private Item item(String entityType, boolean archived) {
+        Item item = Mockito.mock(Item.class);
+        UUID uuid = UUID.randomUUID();
+        lenient().when(item.getID()).thenReturn(uuid);
+        when(item.isArchived()).thenReturn(archived);
+        when(itemService.getMetadataFirstValue(item, "dspace", "entity", "type", Item.ANY)).thenReturn(entityType);
+        return item;
+    }
+}
@@ -0,0 +1,60 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import org.dspace.content.Item;
+import org.dspace.content.MetadataField;
+import org.dspace.content.MetadataSchema;
+import org.dspace.content.MetadataValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds {@link ItemMetadata} from metadata value mocks, assigning the fields they are given for.
+ */
+public final class ItemMetadataFixtures {
+    private ItemMetadataFixtures() {
+    }
+
+    public static ItemMetadata itemMetadata(Item item, Map<String, List<MetadataValue>> valuesByField) {
+        List<MetadataValue> metadataValues = new ArrayList<>();
+        for (Map.Entry<String, List<MetadataValue>> field : valuesByField.entrySet()) {
+            MetadataField metadataField = metadataField(field.getKey());
+            for (MetadataValue metadataValue : field.getValue()) {
+                lenient().when(metadataValue.getMetadataField()).thenReturn(metadataField);
+                metadataValues.add(metadataValue);
+            }
+        }
+        return ItemMetadata.of(item, metadataValues);
+    }
+
+    public static MetadataValue metadataValue(String value) {
+        MetadataValue metadataValue = mock(MetadataValue.class);
+        lenient().when(metadataValue.getValue()).thenReturn(value);
+        return metadataValue;
+    }
+
+    /**
+     * @return a value of the given field, for stubbing {@code ItemService#getMetadata} with
+     */
+    public static MetadataValue metadataValue(String field, String value) {
+        MetadataValue metadataValue = metadataValue(value);
+        MetadataField metadataField = metadataField(field);
+        lenient().when(metadataValue.getMetadataField()).thenReturn(metadataField);
+        return metadataValue;
+    }
+
+    static MetadataField metadataField(String field) {
+        String[] parts = field.split("\\.", 3);
+        MetadataSchema metadataSchema = mock(MetadataSchema.class);
+        lenient().when(metadataSchema.getName()).thenReturn(parts[0]);
+        MetadataField metadataField = mock(MetadataField.class);
+        lenient().when(metadataField.getMetadataSchema()).thenReturn(metadataSchema);
+        lenient().when(metadataField.getElement()).thenReturn(parts[1]);
+        lenient().when(metadataField.getQualifier()).thenReturn(parts.length > 2 ? parts[2] : null);
+        return metadataField;
+    }
+}
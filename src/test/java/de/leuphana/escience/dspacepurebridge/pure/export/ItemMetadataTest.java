@@ -0,0 +1,79 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.dspace.content.Item;
+import org.dspace.content.MetadataValue;
+import org.dspace.content.service.ItemService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemMetadataTest {
+
+    private final Item item = mock(Item.class);
+    private final MetadataValue title = metadataValue("dc.title", "Titel");
+    private final MetadataValue englishTitle = metadataValue("dc.title", "Title");
+    private final MetadataValue alternativeTitle = metadataValue("dc.title.alternative", "Alternative");
+    private final MetadataValue doi = metadataValue("dc.identifier.uri", "https://doi.org/10.1234/xyz");
+    private final MetadataValue type = metadataValue("dc.type", "Dissertation");
+
+    private ItemMetadata itemMetadata() {
+        return ItemMetadata.of(item, List.of(title, doi, englishTitle, type, alternativeTitle));
+    }
+
+    @Test
+    void readsMetadataOfItemOnce() {
+        ItemService itemService = mock(ItemService.class);
+        when(itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY)).thenReturn(List.of(title, type));
+
+        ItemMetadata itemMetadata = ItemMetadata.of(item, itemService);
+        Assertions.assertSame(item, itemMetadata.getItem());
+        Assertions.assertEquals("Titel", itemMetadata.getFirstValue("dc.title"));
+        Assertions.assertEquals("Dissertation", itemMetadata.getFirstValue("dc.type"));
+        verify(itemService, times(1)).getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+    }
+
+    @Test
+    void getsValuesOfFieldInOrderOfItem() {
+        ItemMetadata itemMetadata = itemMetadata();
+
+        Assertions.assertEquals(List.of(title, englishTitle), itemMetadata.get("dc.title"));
+        Assertions.assertEquals(List.of(alternativeTitle), itemMetadata.get("dc.title.alternative"));
+        Assertions.assertEquals(List.of(doi), itemMetadata.get("dc.identifier.uri"));
+        Assertions.assertTrue(itemMetadata.get("dc.identifier").isEmpty());
+        Assertions.assertTrue(itemMetadata.get("local.Affiliation").isEmpty());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> itemMetadata.get("dc.title").clear());
+    }
+
+    @Test
+    void getsValuesOfWildcardField() {
+        ItemMetadata itemMetadata = itemMetadata();
+
+        Assertions.assertEquals(List.of(title, englishTitle, alternativeTitle), itemMetadata.get("dc.title.*"));
+        // like in DSpace, a field without qualifier only matches values without qualifier
+        Assertions.assertEquals(List.of(title, englishTitle, type), itemMetadata.get("dc.*"));
+        Assertions.assertTrue(itemMetadata.get("local.*").isEmpty());
+    }
+
+    @Test
+    void getsFirstValue() {
+        ItemMetadata itemMetadata = itemMetadata();
+
+        Assertions.assertEquals("Titel", itemMetadata.getFirstValue("dc.title"));
+        Assertions.assertNull(itemMetadata.getFirstValue("dc.date.accepted"));
+    }
+
+    @Test
+    void rejectsInvalidField() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> itemMetadata().get("dc"));
+    }
+}
@@ -0,0 +1,47 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class PersonCacheTest {
+
+    @Test
+    void resolvesPersonsInOrderOfIds() throws SQLException {
+        PersonCache personCache = new PersonCache();
+        CachedPerson first = new CachedPerson(UUID.randomUUID(), "pure-1", "Ada", "Lovelace");
+        CachedPerson second = new CachedPerson(UUID.randomUUID(), null, "Alan", "Turing");
+
+        List<CachedPerson> persons = personCache.resolve(List.of("second", "unknown", "first"),
+            personId -> switch (personId) {
+                case "first" -> first;
+                case "second" -> second;
+                default -> null;
+            });
+
+        Assertions.assertEquals(List.of(second, first), persons);
+    }
+
+    @Test
+    void loadsEveryPersonOnlyOnce() throws SQLException {
+        PersonCache personCache = new PersonCache();
+        List<String> loadedIds = new ArrayList<>();
+        PersonCache.Loader loader = personId -> {
+            loadedIds.add(personId);
+            return "unknown".equals(personId) ? null
+                : new CachedPerson(UUID.randomUUID(), "pure-" + personId, null, null);
+        };
+
+        List<CachedPerson> persons = personCache.resolve(List.of("a", "b", "unknown"), loader);
+        Assertions.assertEquals(persons, personCache.resolve(List.of("a", "b", "unknown"), loader));
+        personCache.resolve(List.of("b", "c"), loader);
+
+        Assertions.assertEquals(List.of("a", "b", "unknown", "c"), loadedIds);
+        Assertions.assertEquals(4, personCache.size());
+    }
+}
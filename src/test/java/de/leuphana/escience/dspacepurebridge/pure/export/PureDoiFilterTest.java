@@ -0,0 +1,37 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class PureDoiFilterTest {
+
+    private static ExportResult output() {
+        ExportResult exportResult = new ExportResult();
+        exportResult.setUuid(UUID.randomUUID());
+        return exportResult;
+    }
+
+    @Test
+    void doisAreFoundRegardlessOfResolverAndCase() {
+        PureDoiFilter doiFilter = new PureDoiFilter();
+        ExportResult output = output();
+        doiFilter.add("https://doi.org/10.1234/ABC", output);
+
+        Assertions.assertSame(output, doiFilter.get("http://dx.doi.org/10.1234/abc"));
+        Assertions.assertSame(output, doiFilter.get("doi:10.1234/Abc"));
+        Assertions.assertNull(doiFilter.get("https://doi.org/10.1234/abd"));
+        Assertions.assertNull(doiFilter.get(" "));
+    }
+
+    @Test
+    void removedDoiIsNotFound() {
+        PureDoiFilter doiFilter = new PureDoiFilter();
+        doiFilter.add("10.1234/deleted", output());
+        doiFilter.remove("https://doi.org/10.1234/deleted");
+
+        Assertions.assertNull(doiFilter.get("10.1234/deleted"));
+        Assertions.assertEquals(0, doiFilter.size());
+    }
+}
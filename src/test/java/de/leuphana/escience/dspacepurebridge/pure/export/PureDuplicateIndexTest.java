@@ -0,0 +1,71 @@
+package de.leuphana.escience.dspacepurebridge.pure.export;
+
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link;
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultStudentThesisItem;
+import de.leuphana.escience.dspacepurebridge.pure.apiobjects.Value;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+class PureDuplicateIndexTest {
+
+    private final StudentThesisExport studentThesisExport = new StudentThesisExport(null, null, null, null, null, null);
+    private final PureDuplicateIndex index = new PureDuplicateIndex(studentThesisExport::getDuplicateCheckTitle,
+            studentThesisExport::getDuplicateCheckLinks);
+
+    private static PureWSResultStudentThesisItem studentThesis(UUID uuid, String title, String modifiedDate,
+                                                               String... urls) {
+        PureWSResultStudentThesisItem studentThesisItem = new PureWSResultStudentThesisItem();
+        studentThesisItem.setUuid(uuid);
+        studentThesisItem.setModifiedDate(modifiedDate);
+        Value value = new Value();
+        value.setValue(title);
+        studentThesisItem.setTitle(value);
+        studentThesisItem.setLinks(List.of(urls).stream().map(url -> {
+            Link link = new Link();
+            link.setUrl(url);
+            return link;
+        }).toList());
+        return studentThesisItem;
+    }
+
+    @Test
+    void candidatesAreFoundByNormalizedTitleAndByDoi() {
+        PureWSResultStudentThesisItem byTitle =
+                studentThesis(UUID.randomUUID(), "Der  Titel\n der Arbeit", "2025-01-01T10:00:00.000Z");
+        PureWSResultStudentThesisItem byDoi = studentThesis(UUID.randomUUID(), "Anderer Titel",
+                "2025-02-01T10:00:00.000Z", "https://doi.org/10.1234/xyz");
+        index.add(byTitle);
+        index.add(byDoi);
+        index.add(studentThesis(UUID.randomUUID(), "Noch ein Titel", "2025-03-01T10:00:00.000Z"));
+
+        List<PureWSResultItem> candidates = index.getCandidates("DER Titel der Arbeit", "https://doi.org/10.1234/xyz");
+
+        Assertions.assertEquals(List.of(byDoi, byTitle), candidates);
+        Assertions.assertTrue(index.getCandidates("Unbekannt", null).isEmpty());
+        Assertions.assertEquals(Instant.parse("2025-03-01T10:00:00Z"), index.getLastModified());
+    }
+
+    @Test
+    void modifiedOutputReplacesTheIndexedOne() {
+        UUID uuid = UUID.randomUUID();
+        index.add(studentThesis(uuid, "Alter Titel", "2025-01-01T10:00:00.000Z"));
+        PureWSResultStudentThesisItem modified = studentThesis(uuid, "Neuer Titel", "2025-01-02T10:00:00.000Z");
+        index.add(modified);
+        index.add(studentThesis(null, "Neuer Titel", "2025-01-03T10:00:00.000Z"));
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.getCandidates("Alter Titel", null).isEmpty());
+        Assertions.assertEquals(List.of(modified), index.getCandidates("Neuer Titel", null));
+    }
+
+    @Test
+    void titlesAreNormalized() {
+        Assertions.assertNull(PureDuplicateIndex.normalizeTitle(" \t"));
+        Assertions.assertEquals("fi titel", PureDuplicateIndex.normalizeTitle(" \uFB01  Titel "));
+    }
+}
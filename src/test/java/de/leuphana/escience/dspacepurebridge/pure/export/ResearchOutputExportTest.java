@@ -1,13 +1,19 @@
 package de.leuphana.escience.dspacepurebridge.pure.export;
 
 import static de.leuphana.escience.dspacepurebridge.identifiers.Identifiers.DOI_RESOLVER_HTTPS;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.itemMetadata;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.SQLException;
@@ -20,11 +26,14 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
-import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.AccessType;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
+import de.leuphana.escience.dspacepurebridge.pure.generated.ApiClient;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.ResearchOutputApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
@@ -33,6 +42,7 @@ import de.leuphana.escience.dspacepurebridge.pure.generated.model.DoiElectronicV
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.InternalContributorAssociation;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.ResearchOutput;
 import de.leuphana.escience.dspacepurebridge.pure.imports.DSpaceObjectMappings;
+import okhttp3.Call;
 import org.dspace.authorize.ResourcePolicy;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.authorize.service.ResourcePolicyService;
@@ -77,6 +87,9 @@ public class ResearchOutputExportTest {
     @Mock
     private ResourcePolicyService resourcePolicyService;
 
+    @Mock
+    private BitstreamAccessResolver bitstreamAccessResolver;
+
 
     @Spy
     private DSpaceObjectMappings dSpaceObjectMappings;
@@ -101,6 +114,7 @@ public class ResearchOutputExportTest {
         lenient().when(dSpaceServicesContainer.getAuthorizeService()).thenReturn(authorizeService);
         lenient().when(dSpaceServicesContainer.getResourcePolicyService()).thenReturn(resourcePolicyService);
         lenient().when(dSpaceServicesContainer.getBitstreamService()).thenReturn(bitstreamService);
+        classUnderTest.setBitstreamAccessResolver(bitstreamAccessResolver);
 
         lenient().doAnswer(invocation -> invocation.getArgument(1)).when(configurationService)
                 .getProperty(anyString(), anyString());
@@ -241,40 +255,33 @@ public class ResearchOutputExportTest {
                 .put(DSpaceToPure.PURE_AUTHOR_ROLE, authorUrl);
 
         when(creationContextMetadataValue.getValue()).thenReturn(researchValue);
-        when(itemService.getMetadataByMetadataString(publicationItem, "local.CreationContext")).thenReturn(
-                Collections.singletonList(creationContextMetadataValue));
+        Map<String, List<MetadataValue>> publicationMetadata = new HashMap<>();
+        publicationMetadata.put("local.CreationContext", Collections.singletonList(creationContextMetadataValue));
 
         when(publicationLanguageMetadataValue.getValue()).thenReturn(publicationLanguage);
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.Language")).thenReturn(
-                List.of(publicationLanguageMetadataValue));
+        publicationMetadata.put("DataCite.Language", List.of(publicationLanguageMetadataValue));
 
         when(publicationYearMetadataValue.getValue()).thenReturn(publicationYear);
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.PublicationYear")).thenReturn(
-                Collections.singletonList(publicationYearMetadataValue));
+        publicationMetadata.put("DataCite.PublicationYear", Collections.singletonList(publicationYearMetadataValue));
         when(titleDeuMetadataValue.getValue()).thenReturn(titleGerman);
         when(titleEngMetadataValue.getValue()).thenReturn(titleEnglish);
         when(titleEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(publicationItem, "dc.title")).thenReturn(
-                List.of(titleDeuMetadataValue, titleEngMetadataValue));
+        publicationMetadata.put("dc.title", List.of(titleDeuMetadataValue, titleEngMetadataValue));
         when(subTitleDeuMetadataValue.getValue()).thenReturn(subTitleGerman);
         when(subTitleDeuMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.GERMAN.getIso2Letter());
         when(subTitleEngMetadataValue.getValue()).thenReturn(subTitleEnglish);
         when(subTitleEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.Title.Subtitle")).thenReturn(
-                List.of(subTitleDeuMetadataValue, subTitleEngMetadataValue));
+        publicationMetadata.put("DataCite.Title.Subtitle", List.of(subTitleDeuMetadataValue, subTitleEngMetadataValue));
         when(abstractDeuMetadataValue.getValue()).thenReturn(abstractGerman);
         when(abstractDeuMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.GERMAN.getIso2Letter());
         when(abstractEngMetadataValue.getValue()).thenReturn(abstractEnglish);
         when(abstractEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(
-                publicationItem, "DataCite.Description.Abstract")).thenReturn(
+        publicationMetadata.put("DataCite.Description.Abstract",
                 List.of(abstractDeuMetadataValue, abstractEngMetadataValue));
         when(identifierMetadataValue.getValue()).thenReturn(doiValue);
-        when(itemService.getMetadataByMetadataString(publicationItem, "dc.identifier.uri")).thenReturn(
-                Collections.singletonList(identifierMetadataValue));
+        publicationMetadata.put("dc.identifier.uri", Collections.singletonList(identifierMetadataValue));
         when(affiliationMetadataValue.getValue()).thenReturn(orgUnit);
-        when(itemService.getMetadataByMetadataString(publicationItem, "local.Affiliation")).thenReturn(
-                Collections.singletonList(affiliationMetadataValue));
+        publicationMetadata.put("local.Affiliation", Collections.singletonList(affiliationMetadataValue));
 
 
         ClassificationRef research = new ClassificationRef();
@@ -335,27 +342,15 @@ public class ResearchOutputExportTest {
                 publicationItem);
 
         UUID authorPureUUID = UUID.randomUUID();
-        Item author = mock(Item.class);
-        when(itemService.getMetadataFirstValue(
-                author, "person", "givenName", null, Item.ANY))
-                .thenReturn(firstName);
-        when(itemService.getMetadataFirstValue(
-                author, "person", "familyName", null, Item.ANY))
-                .thenReturn(lastName);
-        when(itemService.getMetadataFirstValue(
-                author, Constants.SCHEME,
-                Constants.ELEMENT,
-                Constants.UUID_QUALIFIER,
-                Item.ANY))
-                .thenReturn(authorPureUUID.toString());
-
-
-        doReturn(List.of(author)).when(classUnderTest).getItemAuthors(context, publicationItem, false);
+        CachedPerson author = new CachedPerson(UUID.randomUUID(), authorPureUUID.toString(), firstName, lastName);
+
+        ItemMetadata publicationItemMetadata = itemMetadata(publicationItem, publicationMetadata);
+        doReturn(List.of(author)).when(classUnderTest).getItemAuthors(context, publicationItemMetadata, false);
 
         doReturn(researchOutputApi).when(classUnderTest).createResearchOutputApiClient();
         doNothing().when(classUnderTest).setupMappingFromConfiguration();
         classUnderTest.init();
-        ExportItem exportItem = classUnderTest.createExport(context, publicationItem, publicationType);
+        ExportItem exportItem = classUnderTest.createExport(context, publicationItemMetadata, publicationType);
         ResearchOutput researchOutput = (ResearchOutput) exportItem.export();
 
         Assertions.assertEquals(titleGerman, researchOutput.getTitle().getValue());
@@ -389,48 +384,50 @@ public class ResearchOutputExportTest {
 
     @Test
     public void getElectronicVersionAccessDetail() throws SQLException {
-        List<Bundle> bundles = new ArrayList<>();
         Bundle bundle = mock(Bundle.class);
-        bundles.add(bundle);
-        Bitstream bitstreamOpenAccess = mock(Bitstream.class);
-        Bitstream bitstreamEmbargo = mock(Bitstream.class);
-        MetadataValue licenseOpenMetadataValue = mock(MetadataValue.class);
-        when(licenseOpenMetadataValue.getValue()).thenReturn("LICENSE OA");
-        MetadataValue licenseRestrictedMetadataValue = mock(MetadataValue.class);
-        when(licenseRestrictedMetadataValue.getValue()).thenReturn("LICENSE EMBARGO");
-
+        UUID openAccessId = UUID.randomUUID();
+        Bitstream bitstreamOpenAccess = bitstream(openAccessId);
+        UUID embargoId = UUID.randomUUID();
+        Bitstream bitstreamEmbargo = bitstream(embargoId);
         when(itemService.getBundles(publicationItem, org.dspace.core.Constants.DEFAULT_BUNDLE_NAME)).thenReturn(
-                bundles);
+                List.of(bundle));
         when(bundle.getPrimaryBitstream()).thenReturn(null);
         when(bundle.getBitstreams()).thenReturn(List.of(bitstreamOpenAccess, bitstreamEmbargo));
-        when(classUnderTest.getAccessRightsValueForPolicies(eq(context), any(List.class))).thenReturn(
-                AccessType.OPEN_ACCESS, AccessType.EMBARGO);
-
-        when(bitstreamService.getMetadataByMetadataString(bitstreamOpenAccess, "local.BitstreamLicense")).thenReturn(List.of(licenseOpenMetadataValue));
-        when(bitstreamService.getMetadataByMetadataString(bitstreamEmbargo, "local.BitstreamLicense")).thenReturn(List.of(licenseRestrictedMetadataValue));
+        ResourcePolicy openAccessPolicy = mock(ResourcePolicy.class);
+        ResourcePolicy embargoPolicy = mock(ResourcePolicy.class);
+        Set<UUID> bitstreamIds = Set.of(openAccessId, embargoId);
+        when(bitstreamAccessResolver.findReadPolicies(context, bitstreamIds)).thenReturn(
+                Map.of(openAccessId, List.of(openAccessPolicy), embargoId, List.of(embargoPolicy)));
+        when(bitstreamAccessResolver.findFirstMetadataValues(context, bitstreamIds, "local.BitstreamLicense"))
+                .thenReturn(Map.of(openAccessId, "LICENSE OA", embargoId, "LICENSE EMBARGO"));
+        doReturn(AccessType.OPEN_ACCESS).when(classUnderTest)
+                .getAccessRightsValueForPolicies(context, List.of(openAccessPolicy));
+        doReturn(AccessType.EMBARGO).when(classUnderTest)
+                .getAccessRightsValueForPolicies(context, List.of(embargoPolicy));
 
         ElectronicVersionAccessDetail electronicVersionAccessDetail =
                 classUnderTest.getElectronicVersionAccessDetail(context, publicationItem);
         Assertions.assertEquals(AccessType.EMBARGO, electronicVersionAccessDetail.getAccessType());
         Assertions.assertEquals("LICENSE EMBARGO", electronicVersionAccessDetail.getLicense());
+        // the policies and licenses of all bitstreams are read together, not per bitstream
+        verify(authorizeService, never()).getPoliciesActionFilter(any(), any(), anyInt());
+        verify(bitstreamService, never()).getMetadataByMetadataString(any(), anyString());
     }
 
     @Test
     public void getElectronicVersionAccessDetailEmbargoFirst() throws SQLException {
-        List<Bundle> bundles = new ArrayList<>();
         Bundle bundle = mock(Bundle.class);
-        bundles.add(bundle);
-        Bitstream bitstreamOpenAccess = mock(Bitstream.class);
-        Bitstream bitstreamEmbargo = mock(Bitstream.class);
-        MetadataValue licenseMetadataValue = mock(MetadataValue.class);
-        when(licenseMetadataValue.getValue()).thenReturn("LICENSE EMBARGO");
+        UUID embargoId = UUID.randomUUID();
+        Bitstream bitstreamEmbargo = bitstream(embargoId);
+        UUID openAccessId = UUID.randomUUID();
+        Bitstream bitstreamOpenAccess = bitstream(openAccessId);
         when(itemService.getBundles(publicationItem, org.dspace.core.Constants.DEFAULT_BUNDLE_NAME)).thenReturn(
-                bundles);
+                List.of(bundle));
         when(bundle.getPrimaryBitstream()).thenReturn(null);
-        when(bundle.getBitstreams()).thenReturn(List.of(bitstreamOpenAccess, bitstreamEmbargo));
-        when(classUnderTest.getAccessRightsValueForPolicies(eq(context), any(List.class))).thenReturn(
-                AccessType.EMBARGO);
-        when(bitstreamService.getMetadataByMetadataString(bitstreamOpenAccess, "local.BitstreamLicense")).thenReturn(List.of(licenseMetadataValue));
+        when(bundle.getBitstreams()).thenReturn(List.of(bitstreamEmbargo, bitstreamOpenAccess));
+        when(bitstreamAccessResolver.findFirstMetadataValues(eq(context), any(), eq("local.BitstreamLicense")))
+                .thenReturn(Map.of(embargoId, "LICENSE EMBARGO", openAccessId, "LICENSE OA"));
+        doReturn(AccessType.EMBARGO).when(classUnderTest).getAccessRightsValueForPolicies(context, List.of());
 
         ElectronicVersionAccessDetail electronicVersionAccessDetail =
                 classUnderTest.getElectronicVersionAccessDetail(context, publicationItem);
@@ -440,23 +437,23 @@ public class ResearchOutputExportTest {
 
     @Test
     public void getElectronicVersionAccessDetailNoEmbargo() throws SQLException {
-        List<Bundle> bundles = new ArrayList<>();
         Bundle bundle = mock(Bundle.class);
-        bundles.add(bundle);
-        Bitstream bitstreamOpenAccess = mock(Bitstream.class);
-        Bitstream bitstreamEmbargo = mock(Bitstream.class);
-        MetadataValue licenseOpenMetadataValue = mock(MetadataValue.class);
-        when(licenseOpenMetadataValue.getValue()).thenReturn("LICENSE OA");
-        MetadataValue licenseRestrictedMetadataValue = mock(MetadataValue.class);
-        when(licenseRestrictedMetadataValue.getValue()).thenReturn("LICENSE RESTRICTED");
+        UUID openAccessId = UUID.randomUUID();
+        Bitstream bitstreamOpenAccess = bitstream(openAccessId);
+        UUID restrictedId = UUID.randomUUID();
+        Bitstream bitstreamRestricted = bitstream(restrictedId);
         when(itemService.getBundles(publicationItem, org.dspace.core.Constants.DEFAULT_BUNDLE_NAME)).thenReturn(
-                bundles);
+                List.of(bundle));
         when(bundle.getPrimaryBitstream()).thenReturn(null);
-        when(bundle.getBitstreams()).thenReturn(List.of(bitstreamOpenAccess, bitstreamEmbargo));
-        when(classUnderTest.getAccessRightsValueForPolicies(eq(context), any(List.class))).thenReturn(
-                AccessType.OPEN_ACCESS, AccessType.RESTRICTED);
-        when(bitstreamService.getMetadataByMetadataString(bitstreamOpenAccess, "local.BitstreamLicense")).thenReturn(List.of(licenseOpenMetadataValue));
-        when(bitstreamService.getMetadataByMetadataString(bitstreamEmbargo, "local.BitstreamLicense")).thenReturn(List.of(licenseRestrictedMetadataValue));
+        when(bundle.getBitstreams()).thenReturn(List.of(bitstreamOpenAccess, bitstreamRestricted));
+        ResourcePolicy openAccessPolicy = mock(ResourcePolicy.class);
+        when(bitstreamAccessResolver.findReadPolicies(eq(context), any()))
+                .thenReturn(Map.of(openAccessId, List.of(openAccessPolicy)));
+        when(bitstreamAccessResolver.findFirstMetadataValues(eq(context), any(), eq("local.BitstreamLicense")))
+                .thenReturn(Map.of(openAccessId, "LICENSE OA", restrictedId, "LICENSE RESTRICTED"));
+        doReturn(AccessType.OPEN_ACCESS).when(classUnderTest)
+                .getAccessRightsValueForPolicies(context, List.of(openAccessPolicy));
+        doReturn(AccessType.RESTRICTED).when(classUnderTest).getAccessRightsValueForPolicies(context, List.of());
 
         //First non embargo access is used
         ElectronicVersionAccessDetail electronicVersionAccessDetail =
@@ -467,24 +464,27 @@ public class ResearchOutputExportTest {
 
     @Test
     public void getElectronicVersionAccessDetailPrimaryBitstream() throws SQLException {
-        List<Bundle> bundles = new ArrayList<>();
         Bundle bundle = mock(Bundle.class);
-        bundles.add(bundle);
-        Bitstream bitstream = mock(Bitstream.class);
-        MetadataValue licenseMetadataValue = mock(MetadataValue.class);
-        when(licenseMetadataValue.getValue()).thenReturn("LICENSE");
-
+        UUID bitstreamId = UUID.randomUUID();
+        Bitstream bitstream = bitstream(bitstreamId);
         when(itemService.getBundles(publicationItem, org.dspace.core.Constants.DEFAULT_BUNDLE_NAME)).thenReturn(
-                bundles);
+                List.of(bundle));
         when(bundle.getPrimaryBitstream()).thenReturn(bitstream);
-        when(classUnderTest.getAccessRightsValueForPolicies(eq(context), any(List.class))).thenReturn(
-                AccessType.OPEN_ACCESS);
-        when(bitstreamService.getMetadataByMetadataString(bitstream, "local.BitstreamLicense")).thenReturn(List.of(licenseMetadataValue));
+        when(bitstreamAccessResolver.findFirstMetadataValues(context, Set.of(bitstreamId),
+                "local.BitstreamLicense")).thenReturn(Map.of(bitstreamId, "LICENSE"));
+        doReturn(AccessType.OPEN_ACCESS).when(classUnderTest).getAccessRightsValueForPolicies(context, List.of());
 
         ElectronicVersionAccessDetail electronicVersionAccessDetail =
                 classUnderTest.getElectronicVersionAccessDetail(context, publicationItem);
         Assertions.assertEquals(AccessType.OPEN_ACCESS, electronicVersionAccessDetail.getAccessType());
         Assertions.assertEquals("LICENSE", electronicVersionAccessDetail.getLicense());
+        verify(bundle, never()).getBitstreams();
+    }
+
+    private static Bitstream bitstream(UUID id) {
+        Bitstream bitstream = mock(Bitstream.class);
+        when(bitstream.getID()).thenReturn(id);
+        return bitstream;
     }
 
     @Test
@@ -552,4 +552,102 @@ public class ResearchOutputExportTest {
     }
 
 
-}
\ No newline at end of file
+
+    private static ResearchOutput researchOutputWithDoi(UUID uuid, String doi) {
+        return researchOutputWithDoi(uuid, doi, null);
+    }
+
+    private static ResearchOutput researchOutputWithDoi(UUID uuid, String doi, String portalUrl) {
+        ResearchOutput researchOutput =
+            new ResearchOutput(null, uuid, null, null, null, null, portalUrl, null, null, "ResearchOutput");
+        researchOutput.setElectronicVersions(List.of(new DoiElectronicVersion().doi(doi)));
+        return researchOutput;
+    }
+
+    private ItemMetadata itemWithDoi(String doi) {
+        return itemMetadata(mock(Item.class), Map.of("dc.identifier.uri", List.of(metadataValue(doi))));
+    }
+
+    @Test
+    public void checkForDoubletFoundByDoi() throws ApiException {
+        classUnderTest.setResearchOutputApi(researchOutputApi);
+        UUID pureUUID = UUID.randomUUID();
+        ApiClient apiClient =
+            stubResearchOutputList(researchOutputWithDoi(pureUUID, DOI_RESOLVER_HTTPS + "/10.1234/XYZ"),
+                researchOutputWithDoi(UUID.randomUUID(), DOI_RESOLVER_HTTPS + "/10.1234/other"));
+        ResearchOutput researchOutput =
+            researchOutputWithDoi(pureUUID, DOI_RESOLVER_HTTPS + "/10.1234/XYZ", "https://pure.example.org/xyz");
+        when(researchOutputApi.researchOutputGet(pureUUID)).thenReturn(researchOutput);
+
+        ExportResult exportResult =
+            classUnderTest.checkForDuplicate(itemWithDoi(DOI_RESOLVER_HTTPS + "/10.1234/xyz"), ExportType.RESEARCH_OUTPUT);
+        Assertions.assertEquals(pureUUID, exportResult.getUuid());
+        Assertions.assertEquals("https://pure.example.org/xyz", exportResult.getPortalUrl());
+
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemWithDoi(DOI_RESOLVER_HTTPS + "/10.1234/new"),
+            ExportType.RESEARCH_OUTPUT));
+        verify(apiClient, times(1)).executeItems(any(), any(), any());
+        verify(researchOutputApi, never()).researchOutputList(anyInt(), anyInt(), any());
+        verify(researchOutputApi, times(1)).researchOutputGet(any());
+    }
+
+    @Test
+    public void checkForDoubletWithDeletedResearchOutput() throws ApiException {
+        classUnderTest.setResearchOutputApi(researchOutputApi);
+        UUID pureUUID = UUID.randomUUID();
+        stubResearchOutputList(researchOutputWithDoi(pureUUID, DOI_RESOLVER_HTTPS + "/10.1234/xyz"));
+        when(researchOutputApi.researchOutputGet(pureUUID)).thenThrow(new ApiException(404, "not found"));
+
+        ItemMetadata itemMetadata = itemWithDoi(DOI_RESOLVER_HTTPS + "/10.1234/xyz");
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemMetadata, ExportType.RESEARCH_OUTPUT));
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemMetadata, ExportType.RESEARCH_OUTPUT));
+        verify(researchOutputApi, times(1)).researchOutputGet(any());
+    }
+
+    @Test
+    public void checkForDoubletFailsIfDuplicateCannotBeVerified() throws ApiException {
+        classUnderTest.setResearchOutputApi(researchOutputApi);
+        UUID pureUUID = UUID.randomUUID();
+        stubResearchOutputList(researchOutputWithDoi(pureUUID, DOI_RESOLVER_HTTPS + "/10.1234/xyz"));
+        when(researchOutputApi.researchOutputGet(pureUUID)).thenThrow(new ApiException(503, "unavailable"));
+
+        ItemMetadata itemMetadata = itemWithDoi(DOI_RESOLVER_HTTPS + "/10.1234/xyz");
+        ApiException apiException = Assertions.assertThrows(ApiException.class,
+            () -> classUnderTest.checkForDuplicate(itemMetadata, ExportType.RESEARCH_OUTPUT));
+        Assertions.assertEquals(503, apiException.getCode());
+        // the DOI is kept, so that the duplicate is verified again by the retry
+        Assertions.assertNotNull(classUnderTest.getPureDoiFilter().get(DOI_RESOLVER_HTTPS + "/10.1234/xyz"));
+    }
+
+    @Test
+    public void checkForDoubletWithoutDoisFromPure() throws ApiException {
+        classUnderTest.setResearchOutputApi(researchOutputApi);
+        ApiClient apiClient = mock(ApiClient.class);
+        when(researchOutputApi.getApiClient()).thenReturn(apiClient);
+        when(apiClient.executeItems(any(), eq(ResearchOutput.class), any()))
+            .thenThrow(new ApiException(503, "unavailable"));
+
+        ItemMetadata itemMetadata = itemWithDoi(DOI_RESOLVER_HTTPS + "/10.1234/xyz");
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemMetadata, ExportType.RESEARCH_OUTPUT));
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemMetadata, ExportType.RESEARCH_OUTPUT));
+        verify(apiClient, times(1)).executeItems(any(), any(), any());
+    }
+
+    /**
+     * Stubs the first page of the research output list, whose items are read one at a time.
+     */
+    private ApiClient stubResearchOutputList(ResearchOutput... researchOutputs) throws ApiException {
+        ApiClient apiClient = mock(ApiClient.class);
+        Call call = mock(Call.class);
+        when(researchOutputApi.getApiClient()).thenReturn(apiClient);
+        when(researchOutputApi.researchOutputListCall(100, 0, null, null)).thenReturn(call);
+        when(apiClient.executeItems(eq(call), eq(ResearchOutput.class), any())).thenAnswer(invocation -> {
+            Consumer<ResearchOutput> itemConsumer = invocation.getArgument(2);
+            for (ResearchOutput researchOutput : researchOutputs) {
+                itemConsumer.accept(researchOutput);
+            }
+            return researchOutputs.length;
+        });
+        return apiClient;
+    }
+}
@@ -1,6 +1,8 @@
 package de.leuphana.escience.dspacepurebridge.pure.export;
 
 import static de.leuphana.escience.dspacepurebridge.identifiers.Identifiers.DOI_RESOLVER_HTTPS;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.itemMetadata;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -12,6 +14,8 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -20,13 +24,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.Link;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultItem;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResultStudentThesisItem;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.PureWSResults;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.Value;
+import de.leuphana.escience.dspacepurebridge.pure.export.PersonCache.CachedPerson;
 import de.leuphana.escience.dspacepurebridge.pure.generated.ApiException;
 import de.leuphana.escience.dspacepurebridge.pure.generated.api.StudentThesisApi;
 import de.leuphana.escience.dspacepurebridge.pure.generated.model.ClassificationRef;
@@ -44,6 +48,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -198,36 +203,31 @@ public class StudentThesisExportTest {
         mapping.get(StudentThesisMappingType.SUPERVISOR_ROLE).put(DSpaceToPure.PURE_REVIEWER_ROLE, reviewerUrl);
 
         when(publicationLanguageMetadataValue.getValue()).thenReturn(publicationLanguage);
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.Language")).thenReturn(
-            List.of(publicationLanguageMetadataValue));
+        Map<String, List<MetadataValue>> publicationMetadata = new HashMap<>();
+        publicationMetadata.put("DataCite.Language", List.of(publicationLanguageMetadataValue));
 
         when(dateAcceptedMetadataValue.getValue()).thenReturn(dateAccepted);
-        when(itemService.getMetadataByMetadataString(publicationItem, "dc.date.accepted")).thenReturn(
-            List.of(dateAcceptedMetadataValue));
+        publicationMetadata.put("dc.date.accepted", List.of(dateAcceptedMetadataValue));
 
         when(titleDeuMetadataValue.getValue()).thenReturn(titleGerman);
         when(titleEngMetadataValue.getValue()).thenReturn(titleEnglish);
         when(titleEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(publicationItem, "dc.title")).thenReturn(
-            List.of(titleDeuMetadataValue, titleEngMetadataValue));
+        publicationMetadata.put("dc.title", List.of(titleDeuMetadataValue, titleEngMetadataValue));
         when(subTitleDeuMetadataValue.getValue()).thenReturn(subTitleGerman);
         when(subTitleDeuMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.GERMAN.getIso2Letter());
         when(subTitleEngMetadataValue.getValue()).thenReturn(subTitleEnglish);
         when(subTitleEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.Title.Subtitle")).thenReturn(
-            List.of(subTitleDeuMetadataValue, subTitleEngMetadataValue));
+        publicationMetadata.put("DataCite.Title.Subtitle", List.of(subTitleDeuMetadataValue, subTitleEngMetadataValue));
         when(abstractDeuMetadataValue.getValue()).thenReturn(abstractGerman);
         when(abstractDeuMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.GERMAN.getIso2Letter());
         when(abstractEngMetadataValue.getValue()).thenReturn(abstractEnglish);
         when(abstractEngMetadataValue.getLanguage()).thenReturn(DSpaceLanguage.ENGLISH.getIso2Letter());
-        when(itemService.getMetadataByMetadataString(publicationItem, "DataCite.Description.Abstract")).thenReturn(
+        publicationMetadata.put("DataCite.Description.Abstract",
             List.of(abstractDeuMetadataValue, abstractEngMetadataValue));
         when(identifierMetadataValue.getValue()).thenReturn(doiValue);
-        when(itemService.getMetadataByMetadataString(publicationItem, "dc.identifier.uri")).thenReturn(
-            Collections.singletonList(identifierMetadataValue));
+        publicationMetadata.put("dc.identifier.uri", Collections.singletonList(identifierMetadataValue));
         when(affiliationMetadataValue.getValue()).thenReturn(orgUnit);
-        when(itemService.getMetadataByMetadataString(publicationItem, "local.Affiliation")).thenReturn(
-            Collections.singletonList(affiliationMetadataValue));
+        publicationMetadata.put("local.Affiliation", Collections.singletonList(affiliationMetadataValue));
 
         ClassificationRef type = new ClassificationRef();
         type.setUri(dissertationUrl);
@@ -260,18 +260,15 @@ public class StudentThesisExportTest {
         when(researchOutputApi.studentthesisGetAllowedSupervisorRoles()).thenReturn(supervisorRoleRefList);
 
         UUID authorPureUUID = UUID.randomUUID();
-        Item author = mock(Item.class);
-        when(itemService.getMetadataFirstValue(author, "person", "givenName", null, Item.ANY)).thenReturn(firstName);
-        when(itemService.getMetadataFirstValue(author, "person", "familyName", null, Item.ANY)).thenReturn(lastName);
-        when(itemService.getMetadataFirstValue(author, Constants.SCHEME, Constants.ELEMENT, Constants.UUID_QUALIFIER,
-            Item.ANY)).thenReturn(authorPureUUID.toString());
+        CachedPerson author = new CachedPerson(UUID.randomUUID(), authorPureUUID.toString(), firstName, lastName);
 
-        doReturn(List.of(author)).when(classUnderTest).getItemAuthors(context, publicationItem, false);
+        ItemMetadata publicationItemMetadata = itemMetadata(publicationItem, publicationMetadata);
+        doReturn(List.of(author)).when(classUnderTest).getItemAuthors(context, publicationItemMetadata, false);
 
         doReturn(researchOutputApi).when(classUnderTest).createStudentThesisApiClient();
         doNothing().when(classUnderTest).setupMappingFromConfiguration();
         classUnderTest.init();
-        ExportItem exportItem = classUnderTest.createExport(context, publicationItem, publicationType);
+        ExportItem exportItem = classUnderTest.createExport(context, publicationItemMetadata, publicationType);
         StudentThesis studentThesis = (StudentThesis) exportItem.export();
 
         assertEquals(titleGerman, studentThesis.getTitle().getValue());
@@ -297,16 +294,16 @@ public class StudentThesisExportTest {
 
 
     @Test
-    public void checkForDoubletWithNoTitle() {
-        Item item = mock(Item.class);
+    public void checkForDoubletWithNoTitle() throws ApiException {
+        ItemMetadata itemMetadata = itemMetadata(mock(Item.class), Map.of());
 
-        ExportResult exportResult = classUnderTest.checkForDuplicate(item, ExportType.STUDENT_THESIS);
+        ExportResult exportResult = classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS);
         Assertions.assertNull(exportResult);
         verify(classUnderTest, never()).createTitleSearchEntity(any());
     }
 
     @Test
-    public void checkForDoubletWithDoubletFoundByDoi() {
+    public void checkForDoubletWithDoubletFoundByDoi() throws ApiException {
         String title = "Der Titel";
         String doi = "https://doi.org/XYZ-DOI";
         UUID pureUUID = UUID.randomUUID();
@@ -324,22 +321,22 @@ public class StudentThesisExportTest {
 
         MetadataValue doiMetadataValue = mock(MetadataValue.class);
         when(doiMetadataValue.getValue()).thenReturn(doi);
-        when(itemService.getMetadataByMetadataString(item, "dc.identifier.uri")).thenReturn(List.of(doiMetadataValue));
-        when(itemService.getMetadataFirstValue(item, "dc", "title", null, Item.ANY)).thenReturn(title);
+        ItemMetadata itemMetadata = itemMetadata(item,
+            Map.of("dc.title", List.of(metadataValue(title)), "dc.identifier.uri", List.of(doiMetadataValue)));
 
         when(responseEntity.getBody()).thenAnswer(
             (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> results);
         when(restTemplate.postForEntity(anyString(), any(), any())).thenAnswer(
             (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
 
-        ExportResult exportResult = classUnderTest.checkForDuplicate(item, ExportType.STUDENT_THESIS);
+        ExportResult exportResult = classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS);
 
         verify(classUnderTest).createTitleSearchEntity(title);
         assertEquals(pureUUID, exportResult.getUuid());
     }
 
     @Test
-    public void checkForDoubletWithDoubletFoundByTitle() {
+    public void checkForDoubletWithDoubletFoundByTitle() throws ApiException {
         String title = "Der Titel";
         UUID pureUUID = UUID.randomUUID();
 
@@ -354,21 +351,21 @@ public class StudentThesisExportTest {
         when(pureWSResultStudentThesisItem.getUuid()).thenReturn(pureUUID);
         when(results.getItems()).thenReturn(List.of(pureWSResultStudentThesisItem));
 
-        when(itemService.getMetadataFirstValue(item, "dc", "title", null, Item.ANY)).thenReturn(title);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
 
         when(responseEntity.getBody()).thenAnswer(
             (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> results);
         when(restTemplate.postForEntity(anyString(), any(), any())).thenAnswer(
             (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
 
-        ExportResult exportResult = classUnderTest.checkForDuplicate(item, ExportType.STUDENT_THESIS);
+        ExportResult exportResult = classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS);
 
         verify(classUnderTest).createTitleSearchEntity(title);
         assertEquals(pureUUID, exportResult.getUuid());
     }
 
     @Test
-    public void checkForDoubletWithNoDoubletFound() {
+    public void checkForDoubletWithNoDoubletFound() throws ApiException {
         String title = "Der Titel";
         String pureTitle = "Der Titel in Pure";
 
@@ -382,14 +379,14 @@ public class StudentThesisExportTest {
         when(pureWSResultStudentThesisItem.getTitle()).thenReturn(titleValue);
         when(results.getItems()).thenReturn(List.of(pureWSResultStudentThesisItem));
 
-        when(itemService.getMetadataFirstValue(item, "dc", "title", null, Item.ANY)).thenReturn(title);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
 
         when(responseEntity.getBody()).thenAnswer(
             (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> results);
         when(restTemplate.postForEntity(anyString(), any(), any())).thenAnswer(
             (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
 
-        ExportResult exportResult = classUnderTest.checkForDuplicate(item, ExportType.STUDENT_THESIS);
+        ExportResult exportResult = classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS);
 
         verify(classUnderTest).createTitleSearchEntity(title);
         Assertions.assertNull(exportResult);
@@ -404,15 +401,104 @@ public class StudentThesisExportTest {
             ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity =
                 mock(ResponseEntity.class);
 
-            when(itemService.getMetadataFirstValue(item, "dc", "title", null, Item.ANY)).thenReturn(title);
+            ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
 
             when(responseEntity.getBody()).thenReturn(null);
             when(restTemplate.postForEntity(anyString(), any(), any())).thenAnswer(
                 (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
 
-            classUnderTest.checkForDuplicate(item, ExportType.STUDENT_THESIS);
+            classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS);
 
             verify(classUnderTest).createTitleSearchEntity(title);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void checkForDoubletInDuplicateIndex() throws ApiException {
+        String title = "Der Titel";
+        UUID pureUUID = UUID.randomUUID();
+        classUnderTest.setDuplicateIndexMode(AbstractExport.DUPLICATE_INDEX_MEMORY);
+
+        Item item = mock(Item.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity = mock(ResponseEntity.class);
+        ExportType.PureWSStudentThesisResults results = new ExportType.PureWSStudentThesisResults();
+        PureWSResultStudentThesisItem pureWSResultStudentThesisItem = new PureWSResultStudentThesisItem();
+        pureWSResultStudentThesisItem.setUuid(pureUUID);
+        Value titleValue = new Value();
+        titleValue.setValue(title);
+        pureWSResultStudentThesisItem.setTitle(titleValue);
+        results.setCount(1);
+        results.setItems(List.of(pureWSResultStudentThesisItem));
+
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
+        when(responseEntity.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> results);
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
+
+        assertEquals(pureUUID, classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS).getUuid());
+        assertEquals(pureUUID, classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS).getUuid());
+
+        verify(restTemplate).getForEntity(anyString(), any());
+        verify(restTemplate, never()).postForEntity(anyString(), any(), any());
+    }
+
+    @Test
+    public void checkForDoubletFallsBackToSearchIfDuplicateIndexFails() throws ApiException {
+        String title = "Der Titel";
+        classUnderTest.setDuplicateIndexMode(AbstractExport.DUPLICATE_INDEX_MEMORY);
+
+        Item item = mock(Item.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntity = mock(ResponseEntity.class);
+        ExportType.PureWSStudentThesisResults results = mock(ExportType.PureWSStudentThesisResults.class);
+        when(results.getItems()).thenReturn(List.of());
+
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
+        when(restTemplate.getForEntity(anyString(), any())).thenThrow(new IllegalStateException("unavailable"));
+        when(responseEntity.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> results);
+        when(restTemplate.postForEntity(anyString(), any(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntity);
+
+        Assertions.assertNull(classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS));
+
+        verify(classUnderTest).createTitleSearchEntity(title);
+    }
+
+    @Test
+    public void persistentDuplicateIndexIsUpdatedWithModifiedOutputs(@TempDir Path stateDirectory) throws ApiException {
+        String title = "Der Titel";
+        UUID pureUUID = UUID.randomUUID();
+        when(configurationService.getProperty("dspace-pure-bridge.state.dir")).thenReturn(stateDirectory.toString());
+
+        Item item = mock(Item.class);
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.title", List.of(metadataValue(title))));
+        List<String> urls = new ArrayList<>();
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(invocationOnMock -> {
+            urls.add(invocationOnMock.getArgument(0));
+            ExportType.PureWSStudentThesisResults results = new ExportType.PureWSStudentThesisResults();
+            PureWSResultStudentThesisItem pureWSResultStudentThesisItem = new PureWSResultStudentThesisItem();
+            pureWSResultStudentThesisItem.setUuid(pureUUID);
+            pureWSResultStudentThesisItem.setModifiedDate("2025-01-01T10:00:00.000Z");
+            Value titleValue = new Value();
+            titleValue.setValue(title);
+            pureWSResultStudentThesisItem.setTitle(titleValue);
+            results.setCount(1);
+            results.setItems(List.of(pureWSResultStudentThesisItem));
+            return ResponseEntity.ok(results);
+        });
+
+        classUnderTest.setDuplicateIndexMode(AbstractExport.DUPLICATE_INDEX_PERSISTENT);
+        assertEquals(pureUUID, classUnderTest.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS).getUuid());
+        Assertions.assertTrue(Files.isRegularFile(stateDirectory.resolve("duplicate-index-studentThesis.json")));
+
+        StudentThesisExport nextRun = new StudentThesisExport(null, null, dSpaceServicesContainer,
+            dSpaceObjectMappings, exportStatus, restTemplate);
+        nextRun.setDuplicateIndexMode(AbstractExport.DUPLICATE_INDEX_PERSISTENT);
+        assertEquals(pureUUID, nextRun.checkForDuplicate(itemMetadata, ExportType.STUDENT_THESIS).getUuid());
+
+        assertEquals(2, urls.size());
+        Assertions.assertFalse(urls.get(0).contains("order=modified"));
+        Assertions.assertTrue(urls.get(1).contains("order=modified"));
+    }
+}
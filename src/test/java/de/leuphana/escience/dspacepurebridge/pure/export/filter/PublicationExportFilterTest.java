@@ -1,15 +1,21 @@
 package de.leuphana.escience.dspacepurebridge.pure.export.filter;
 
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.itemMetadata;
+import static de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadataFixtures.metadataValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import de.leuphana.escience.dspacepurebridge.pure.export.ItemMetadata;
 import org.dspace.content.Collection;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataValue;
-import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.handle.service.HandleService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -96,37 +102,68 @@ public class PublicationExportFilterTest {
     @Test
     void itemIsSyncableForType() {
         Item item = mock(Item.class);
-        ItemService itemService = mock(ItemService.class);
         String type = "dissertation";
         publicationExportFilter.getTypes().add(type);
-        MetadataValue typeMetadataValue = mock(MetadataValue.class);
-        when(typeMetadataValue.getValue()).thenReturn(type);
-        when(itemService.getMetadataByMetadataString(item, "dc.type")).thenReturn(List.of(typeMetadataValue));
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.type", List.of(metadataValue(type))));
 
-        Assertions.assertEquals(type, publicationExportFilter.itemIsSyncableForType(item, itemService));
+        Assertions.assertEquals(type, publicationExportFilter.itemIsSyncableForType(itemMetadata));
     }
 
     @Test
     void itemIsNotSyncableForType() {
         Item item = mock(Item.class);
-        ItemService itemService = mock(ItemService.class);
         publicationExportFilter.getTypes().add("dissertation");
-        MetadataValue typeMetadataValue = mock(MetadataValue.class);
-        when(typeMetadataValue.getValue()).thenReturn("article");
-        when(itemService.getMetadataByMetadataString(item, "dc.type")).thenReturn(List.of(typeMetadataValue));
+        ItemMetadata itemMetadata = itemMetadata(item, Map.of("dc.type", List.of(metadataValue("article"))));
 
-        Assertions.assertNull(publicationExportFilter.itemIsSyncableForType(item, itemService));
+        Assertions.assertNull(publicationExportFilter.itemIsSyncableForType(itemMetadata));
     }
 
     @Test
     void itemIsNotSyncableFor() {
         Item item = mock(Item.class);
-        ItemService itemService = mock(ItemService.class);
         Collection collection = mock(Collection.class);
         when(item.getOwningCollection()).thenReturn(collection);
         when(collection.getHandle()).thenReturn("TEST_COLLECTION_HANDLE1");
         publicationExportFilter.setCollectionHandle("TEST_COLLECTION_HANDLE2");
 
-        Assertions.assertNull(publicationExportFilter.itemIsSyncableForType(item, itemService));
+        Assertions.assertNull(publicationExportFilter.itemIsSyncableForType(itemMetadata(item, Map.of())));
+    }
+
+    @Test
+    void filtersAreCompiledToFilterQuery() throws Exception {
+        Context context = mock(Context.class);
+        HandleService handleService = mock(HandleService.class);
+        Collection collection1 = mock(Collection.class);
+        UUID collectionId1 = UUID.randomUUID();
+        when(collection1.getID()).thenReturn(collectionId1);
+        when(handleService.resolveToObject(context, "123456789/2")).thenReturn(collection1);
+        Collection collection2 = mock(Collection.class);
+        UUID collectionId2 = UUID.randomUUID();
+        when(collection2.getID()).thenReturn(collectionId2);
+        when(handleService.resolveToObject(context, "123456789/3")).thenReturn(collection2);
+
+        String filterQuery = PublicationExportFilter.toFilterQuery(List.of(
+            PublicationExportFilter.buildPublicationSyncFilterFromConfiguration(
+                "collection:123456789/2;type:Dissertation,Master \"Thesis\""),
+            PublicationExportFilter.buildPublicationSyncFilterFromConfiguration("collection:123456789/3")),
+            context, handleService);
+
+        Assertions.assertEquals("(location.coll:" + collectionId1 +
+            " AND dc.type:(\"Dissertation\" OR \"Master \\\"Thesis\\\"\")) OR (location.coll:" + collectionId2 + ")",
+            filterQuery);
+    }
+
+    @Test
+    void filtersWithoutRestrictionAreNotCompiledToFilterQuery() throws Exception {
+        Context context = mock(Context.class);
+        HandleService handleService = mock(HandleService.class);
+        when(handleService.resolveToObject(context, "123456789/4")).thenReturn(null);
+
+        Assertions.assertNull(PublicationExportFilter.toFilterQuery(List.of(
+            PublicationExportFilter.buildPublicationSyncFilterFromConfiguration("type:Dissertation"),
+            PublicationExportFilter.buildPublicationSyncFilterFromConfiguration("collection:123456789/4")),
+            context, handleService));
+        Assertions.assertNull(PublicationExportFilter.toFilterQuery(List.of(
+            PublicationExportFilter.buildPublicationSyncFilterFromConfiguration("")), context, handleService));
     }
 }
@@ -0,0 +1,139 @@
+package de.leuphana.escience.dspacepurebridge.pure.generated;
+
+import com.google.gson.JsonParseException;
+import de.leuphana.escience.dspacepurebridge.pure.generated.model.Note;
+import de.leuphana.escience.dspacepurebridge.pure.generated.model.NoteListResult;
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApiClientTest {
+
+    private static final String NOTE_LIST_RESULT = """
+            {"count": 2, "pageInformation": {"offset": 0, "size": 10},
+             "items": [{"username": "first", "text": "first note"}, {"username": "second", "text": "second note"}]}
+            """;
+
+    private final ApiClient apiClient = new ApiClient();
+
+    @Test
+    void listResultIsDeserializedFromTheResponseStream() throws ApiException {
+        NoteListResult noteListResult = apiClient.deserialize(response(200, NOTE_LIST_RESULT), NoteListResult.class);
+
+        Assertions.assertEquals(2, noteListResult.getCount());
+        Assertions.assertEquals(10, noteListResult.getPageInformation().getSize());
+        Assertions.assertEquals("second note", noteListResult.getItems().get(1).getText());
+    }
+
+    @Test
+    void emptyResponseIsDeserializedToNull() throws ApiException {
+        Assertions.assertNull(apiClient.deserialize(response(200, ""), NoteListResult.class));
+    }
+
+    @Test
+    void itemsAreHandedOverOneAtATime() throws Exception {
+        Call call = mock(Call.class);
+        when(call.execute()).thenReturn(response(200, NOTE_LIST_RESULT));
+
+        List<Note> notes = new ArrayList<>();
+        int count = apiClient.<Note>executeItems(call, Note.class, notes::add);
+
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(List.of("first", "second"), notes.stream().map(Note::getUsername).toList());
+    }
+
+    @Test
+    void errorResponseOfItemCallIsThrown() throws IOException {
+        Call call = mock(Call.class);
+        when(call.execute()).thenReturn(response(404, "{\"message\": \"not found\"}"));
+
+        ApiException apiException = Assertions.assertThrows(ApiException.class,
+                () -> apiClient.executeItems(call, Note.class, note -> Assertions.fail()));
+        Assertions.assertEquals(404, apiException.getCode());
+        Assertions.assertEquals("{\"message\": \"not found\"}", apiException.getResponseBody());
+    }
+
+    @Test
+    void droppedConnectionWhileDeserializingIsThrownAsApiException() {
+        ApiException apiException = Assertions.assertThrows(ApiException.class,
+                () -> apiClient.deserialize(droppedResponse(), NoteListResult.class));
+        Assertions.assertEquals(0, apiException.getCode());
+        Assertions.assertInstanceOf(IOException.class, apiException.getCause());
+    }
+
+    @Test
+    void droppedConnectionWhileReadingItemsIsThrownAsApiException() throws IOException {
+        Call call = mock(Call.class);
+        when(call.execute()).thenReturn(droppedResponse());
+
+        ApiException apiException = Assertions.assertThrows(ApiException.class,
+                () -> apiClient.executeItems(call, Note.class, note -> { }));
+        Assertions.assertInstanceOf(IOException.class, apiException.getCause());
+    }
+
+    @Test
+    void malformedResponseIsThrownAsApiException() {
+        ApiException apiException = Assertions.assertThrows(ApiException.class,
+                () -> apiClient.deserialize(response(200, "{\"count\": 2,, }"), NoteListResult.class));
+        Assertions.assertEquals(0, apiException.getCode());
+        Assertions.assertInstanceOf(JsonParseException.class, apiException.getCause());
+    }
+
+    private static Response response(int code, String body) {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://pure.example.org/ws/api/notes").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("status " + code)
+                .body(ResponseBody.create(body, MediaType.get("application/json")))
+                .build();
+    }
+
+    /**
+     * @return a response whose connection is dropped after the first bytes of the body
+     */
+    private static Response droppedResponse() {
+        Source source = new Source() {
+            private boolean read;
+
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                if (read) {
+                    throw new IOException("connection reset");
+                }
+                read = true;
+                String firstBytes = "{\"count\": 2, \"items\": [{\"username\": \"fir";
+                sink.writeUtf8(firstBytes);
+                return firstBytes.length();
+            }
+
+            @Override
+            public Timeout timeout() {
+                return Timeout.NONE;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        return response(200, "").newBuilder()
+                .body(ResponseBody.create(Okio.buffer(source), MediaType.get("application/json"), -1))
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package de.leuphana.escience.dspacepurebridge.pure.imports;
+
+import de.leuphana.escience.dspacepurebridge.search.DiscoveryMarker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+class EntityCacheSnapshotTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    @Test
+    void snapshotIsPersisted() throws IOException {
+        Path file = stateDirectory.resolve("state").resolve("entity-cache.snapshot");
+        UUID pureUuid = UUID.randomUUID();
+        UUID itemId = UUID.randomUUID();
+        DiscoveryMarker pureMarker = new DiscoveryMarker(1, Instant.parse("2024-03-03T09:00:00.123Z"));
+        DiscoveryMarker dspaceMarker = new DiscoveryMarker(0, null);
+        String entityHash = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+        EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+        snapshot.putPureEntities(DSpacePureEntity.PERSON,
+                new EntityCacheSnapshot.CachedEntities<>(pureMarker, Map.of(pureUuid, itemId)));
+        snapshot.putDspaceEntities(DSpacePureEntity.PROJECT,
+                new EntityCacheSnapshot.CachedEntities<>(dspaceMarker, Map.of(entityHash, itemId)));
+        snapshot.write(file);
+
+        EntityCacheSnapshot reloadedSnapshot = EntityCacheSnapshot.read(file);
+
+        Assertions.assertNotNull(reloadedSnapshot);
+        Assertions.assertEquals(pureMarker, reloadedSnapshot.getPureEntities(DSpacePureEntity.PERSON).marker());
+        Assertions.assertEquals(Map.of(pureUuid, itemId), reloadedSnapshot.getPureEntities(DSpacePureEntity.PERSON).entries());
+        Assertions.assertEquals(dspaceMarker, reloadedSnapshot.getDspaceEntities(DSpacePureEntity.PROJECT).marker());
+        Assertions.assertEquals(Map.of(entityHash, itemId), reloadedSnapshot.getDspaceEntities(DSpacePureEntity.PROJECT).entries());
+        Assertions.assertNull(reloadedSnapshot.getPureEntities(DSpacePureEntity.PROJECT));
+        Assertions.assertNull(reloadedSnapshot.getDspaceEntities(DSpacePureEntity.PERSON));
+    }
+
+    @Test
+    void corruptSnapshotIsIgnored() throws IOException {
+        Path file = stateDirectory.resolve("entity-cache.snapshot");
+        EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+        snapshot.putPureEntities(DSpacePureEntity.ORGANIZATION, new EntityCacheSnapshot.CachedEntities<>(
+                new DiscoveryMarker(1, null), Map.of(UUID.randomUUID(), UUID.randomUUID())));
+        snapshot.write(file);
+        byte[] content = Files.readAllBytes(file);
+        content[20] ^= 1;
+        Files.write(file, content);
+
+        Assertions.assertNull(EntityCacheSnapshot.read(file));
+    }
+
+    @Test
+    void missingOrUnknownSnapshotIsIgnored() throws IOException {
+        Path file = stateDirectory.resolve("entity-cache.snapshot");
+        Assertions.assertNull(EntityCacheSnapshot.read(file));
+
+        Files.writeString(file, "no snapshot");
+        Assertions.assertNull(EntityCacheSnapshot.read(file));
+    }
+}
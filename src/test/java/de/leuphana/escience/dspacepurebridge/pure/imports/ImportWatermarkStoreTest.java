@@ -0,0 +1,51 @@
+package de.leuphana.escience.dspacepurebridge.pure.imports;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+
+class ImportWatermarkStoreTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    @Test
+    void watermarksArePersisted() throws IOException {
+        Path file = stateDirectory.resolve("state").resolve("import-watermarks.properties");
+        ImportWatermarkStore watermarkStore = new ImportWatermarkStore(file);
+        Assertions.assertNull(watermarkStore.getWatermark(DSpacePureEntity.PERSON));
+
+        watermarkStore.updateWatermark(DSpacePureEntity.PERSON, Instant.parse("2024-03-03T09:00:00Z"));
+        watermarkStore.save();
+
+        ImportWatermarkStore reloadedWatermarkStore = new ImportWatermarkStore(file);
+        Assertions.assertEquals(Instant.parse("2024-03-03T09:00:00Z"),
+                reloadedWatermarkStore.getWatermark(DSpacePureEntity.PERSON));
+        Assertions.assertNull(reloadedWatermarkStore.getWatermark(DSpacePureEntity.PROJECT));
+    }
+
+    @Test
+    void olderWatermarkIsIgnored() {
+        ImportWatermarkStore watermarkStore = new ImportWatermarkStore(stateDirectory.resolve("import-watermarks.properties"));
+        watermarkStore.updateWatermark(DSpacePureEntity.ORGANIZATION, Instant.parse("2024-03-03T09:00:00Z"));
+        watermarkStore.updateWatermark(DSpacePureEntity.ORGANIZATION, Instant.parse("2024-03-01T09:00:00Z"));
+        watermarkStore.updateWatermark(DSpacePureEntity.ORGANIZATION, null);
+
+        Assertions.assertEquals(Instant.parse("2024-03-03T09:00:00Z"),
+                watermarkStore.getWatermark(DSpacePureEntity.ORGANIZATION));
+    }
+
+    @Test
+    void parseModifiedDate() {
+        Assertions.assertEquals(Instant.parse("2024-03-03T09:00:00Z"),
+                ImportWatermarkStore.parseModifiedDate("2024-03-03T10:00:00.000+01:00"));
+        Assertions.assertEquals(Instant.parse("2024-03-03T09:00:00Z"),
+                ImportWatermarkStore.parseModifiedDate("2024-03-03T09:00:00Z"));
+        Assertions.assertNull(ImportWatermarkStore.parseModifiedDate("date1"));
+        Assertions.assertNull(ImportWatermarkStore.parseModifiedDate(null));
+    }
+}
@@ -3,10 +3,14 @@ package de.leuphana.escience.dspacepurebridge.pure.imports;
 import de.leuphana.escience.dspacepurebridge.CLIScriptContextUtils;
 import de.leuphana.escience.dspacepurebridge.Constants;
 import de.leuphana.escience.dspacepurebridge.DSpaceServicesContainer;
+import de.leuphana.escience.dspacepurebridge.concurrent.BoundedExecutor;
 import de.leuphana.escience.dspacepurebridge.pure.apiobjects.*;
 import de.leuphana.escience.dspacepurebridge.relations.EntityUtils;
 import de.leuphana.escience.dspacepurebridge.search.ItemFinder;
 import de.leuphana.escience.dspacepurebridge.search.SearchQueryType;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrDocument;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.content.*;
 import org.dspace.content.Collection;
@@ -14,6 +18,7 @@ import org.dspace.content.service.*;
 import org.dspace.core.Context;
 import org.dspace.discovery.SearchService;
 import org.dspace.discovery.SearchServiceException;
+import org.dspace.discovery.SolrSearchCore;
 import org.dspace.handle.service.HandleService;
 import org.dspace.services.ConfigurationService;
 import org.junit.jupiter.api.Assertions;
@@ -27,8 +32,11 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static de.leuphana.escience.dspacepurebridge.Constants.LAST_MODIFICATION_DATE;
 import static org.mockito.ArgumentMatchers.*;
@@ -93,9 +101,9 @@ class PureToDSpaceTest {
         lenient().when(dSpaceServicesContainer.getRelationshipService()).thenReturn(relationshipService);
         PureToDSpace.pureEntityCache.clear();
         PureToDSpace.dspaceEntityCache.clear();
-        doReturn(Collections.emptyIterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.PERSON_CACHE_IMPORT), anyInt(), anyInt());
-        doReturn(Collections.emptyIterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.ORGANIZATION_CACHE_IMPORT), anyInt(), anyInt());
-        doReturn(Collections.emptyIterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.PROJECT_CACHE_IMPORT), anyInt(), anyInt());
+        lenient().doReturn(Collections.emptyIterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.PERSON_CACHE_IMPORT), isNull(), anyInt());
+        lenient().doReturn(Collections.emptyIterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.ORGANIZATION_CACHE_IMPORT), isNull(), anyInt());
+        lenient().doReturn(Collections.emptyIterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.PROJECT_CACHE_IMPORT), isNull(), anyInt());
     }
 
 
@@ -859,9 +867,9 @@ class PureToDSpaceTest {
 
         Mockito.reset(itemFinder);
 
-        String personEntityHash = "personHash";
-        String orgUnitEntityHash = "orgUnitHash";
-        String projectEntityHash = "projectHash";
+        String personEntityHash = DigestUtils.sha256Hex("person");
+        String orgUnitEntityHash = DigestUtils.sha256Hex("orgUnit");
+        String projectEntityHash = DigestUtils.sha256Hex("project");
 
         UUID purePersonEntityUuid = UUID.randomUUID();
         UUID purePersonEntityPureId = UUID.randomUUID();
@@ -893,17 +901,17 @@ class PureToDSpaceTest {
         Item dspacePersonEntityItem = mock(Item.class);
         UUID dspacePersonEntityUuid = UUID.randomUUID();
         when(dspacePersonEntityItem.getID()).thenReturn(dspacePersonEntityUuid);
-        doReturn(List.of(dspacePersonEntityItem).iterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.PERSON_CACHE_IMPORT), anyInt(), anyInt());
+        doReturn(List.of(dspacePersonEntityItem).iterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.PERSON_CACHE_IMPORT), isNull(), anyInt());
 
         Item dspaceOrgUnitEntityItem = mock(Item.class);
         UUID dspaceOrgUnitEntityUuid = UUID.randomUUID();
         when(dspaceOrgUnitEntityItem.getID()).thenReturn(dspaceOrgUnitEntityUuid);
-        doReturn(List.of(dspaceOrgUnitEntityItem).iterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.ORGANIZATION_CACHE_IMPORT), anyInt(), anyInt());
+        doReturn(List.of(dspaceOrgUnitEntityItem).iterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.ORGANIZATION_CACHE_IMPORT), isNull(), anyInt());
 
         Item dspaceProjectEntityItem = mock(Item.class);
         UUID dspaceProjectEntityUuid = UUID.randomUUID();
         when(dspaceProjectEntityItem.getID()).thenReturn(dspaceProjectEntityUuid);
-        doReturn(List.of(dspaceProjectEntityItem).iterator()).when(itemFinder).findItems(eq(context), eq(searchService), eq(SearchQueryType.PROJECT_CACHE_IMPORT), anyInt(), anyInt());
+        doReturn(List.of(dspaceProjectEntityItem).iterator()).when(itemFinder).findItemsAfter(eq(context), eq(searchService), eq(SearchQueryType.PROJECT_CACHE_IMPORT), isNull(), anyInt());
 
         when(configurationService.getProperty("dspace-pure-bridge.entities.purePerson.collection")).thenReturn("purePersonCollection");
         when(configurationService.getProperty("dspace-pure-bridge.entities.pureOrgUnit.collection")).thenReturn("pureOrgUnitCollection");
@@ -921,25 +929,272 @@ class PureToDSpaceTest {
                 .thenReturn(List.of(mockPureProjectEntityItem).iterator());
 
         // Mock entity hash generation
-        try (MockedStatic<EntityUtils> mockedEntityUtils = mockStatic(EntityUtils.class);
-             MockedStatic<CLIScriptContextUtils> mockedUtils = mockStatic(CLIScriptContextUtils.class)) {
-            mockedUtils.when(CLIScriptContextUtils::createReducedContext).thenReturn(context);
-            mockedEntityUtils.when(() -> EntityUtils.generatePersonEntityHash(itemService, dspacePersonEntityItem))
-                .thenReturn(personEntityHash);
-            mockedEntityUtils.when(() -> EntityUtils.generateOrgUnitNameEntityHash(itemService, dspaceOrgUnitEntityItem))
-                .thenReturn(orgUnitEntityHash);
-            mockedEntityUtils.when(() -> EntityUtils.generateProjectNameEntityHash(itemService, dspaceProjectEntityItem))
-                .thenReturn(projectEntityHash);
-
-            // Act
-            classUnderTest.prepareCaches();
-
-            Assertions.assertEquals(purePersonEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.PERSON).get(purePersonEntityPureId));
-            Assertions.assertEquals(pureOrgUnitEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.ORGANIZATION).get(pureOrgUnitEntityPureId));
-            Assertions.assertEquals(pureProjectEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.PROJECT).get(pureProjectEntityPureId));
-            Assertions.assertEquals(dspacePersonEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.PERSON).get(personEntityHash));
-            Assertions.assertEquals(dspaceOrgUnitEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.ORGANIZATION).get(orgUnitEntityHash));
-            Assertions.assertEquals(dspaceProjectEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.PROJECT).get(projectEntityHash));
+        doReturn(personEntityHash).when(classUnderTest).generateDspaceEntityHash(DSpacePureEntity.PERSON, dspacePersonEntityItem);
+        doReturn(orgUnitEntityHash).when(classUnderTest).generateDspaceEntityHash(DSpacePureEntity.ORGANIZATION, dspaceOrgUnitEntityItem);
+        doReturn(projectEntityHash).when(classUnderTest).generateDspaceEntityHash(DSpacePureEntity.PROJECT, dspaceProjectEntityItem);
+        doReturn(context).when(classUnderTest).createContext();
+
+        // Act
+        classUnderTest.prepareCaches();
+
+        Assertions.assertEquals(purePersonEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.PERSON).get(purePersonEntityPureId));
+        Assertions.assertEquals(pureOrgUnitEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.ORGANIZATION).get(pureOrgUnitEntityPureId));
+        Assertions.assertEquals(pureProjectEntityUuid, PureToDSpace.pureEntityCache.get(DSpacePureEntity.PROJECT).get(pureProjectEntityPureId));
+        Assertions.assertEquals(dspacePersonEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.PERSON).get(personEntityHash));
+        Assertions.assertEquals(dspaceOrgUnitEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.ORGANIZATION).get(orgUnitEntityHash));
+        Assertions.assertEquals(dspaceProjectEntityUuid, PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.PROJECT).get(projectEntityHash));
+    }
+
+    @Test
+    void fetchPureEntitiesStopsAtWatermark() throws InterruptedException {
+        String endpointBase = "http://localhost:8080/pure/";
+        when(classUnderTest.getPureWsEndpointBase()).thenReturn(endpointBase);
+        doNothing().when(classUnderTest).syncPureItem(any(), any());
+
+        PureWSResultPersonItem person1 = new PureWSResultPersonItem();
+        person1.setModifiedDate("2024-03-03T10:00:00.000+01:00");
+        PureWSResultPersonItem person2 = new PureWSResultPersonItem();
+        person2.setModifiedDate("2024-03-02T10:00:00.000+01:00");
+        PureWSResultPersonItem person3 = new PureWSResultPersonItem();
+        person3.setModifiedDate("2024-03-01T10:00:00.000+01:00");
+        DSpacePureEntity.PureWSPersonResults persons = mock(DSpacePureEntity.PureWSPersonResults.class);
+        when(persons.getItems()).thenReturn(List.of(person1, person2, person3));
+
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntityPersons =
+            mock(ResponseEntity.class);
+        when(responseEntityPersons.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> persons);
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntityPersons);
+
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 3);
+        Instant lastModifiedDate = classUnderTest.fetchPureEntities(restTemplate, DSpacePureEntity.PERSON, 3, 1,
+            boundedExecutor, Instant.parse("2024-03-02T09:00:00Z"));
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        Assertions.assertEquals(Instant.parse("2024-03-03T09:00:00Z"), lastModifiedDate);
+        verify(restTemplate, times(1)).getForEntity(contains("&order=modified&orderBy=descending"), any());
+        verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person1);
+        verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person2);
+        verify(classUnderTest, never()).syncPureItem(DSpacePureEntity.PERSON, person3);
+    }
+
+    @Test
+    void fetchPureEntitiesIgnoresWatermarkIfNotOrdered() throws InterruptedException {
+        String endpointBase = "http://localhost:8080/pure/";
+        when(classUnderTest.getPureWsEndpointBase()).thenReturn(endpointBase);
+        doNothing().when(classUnderTest).syncPureItem(any(), any());
+
+        PureWSResultPersonItem person1 = new PureWSResultPersonItem();
+        person1.setModifiedDate("2024-03-01T10:00:00.000+01:00");
+        PureWSResultPersonItem person2 = new PureWSResultPersonItem();
+        person2.setModifiedDate("2024-03-03T10:00:00.000+01:00");
+        DSpacePureEntity.PureWSPersonResults persons = mock(DSpacePureEntity.PureWSPersonResults.class);
+        when(persons.getItems()).thenReturn(List.of(person1, person2));
+
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntityPersons =
+            mock(ResponseEntity.class);
+        when(responseEntityPersons.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> persons);
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntityPersons);
+
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 2);
+        classUnderTest.fetchPureEntities(restTemplate, DSpacePureEntity.PERSON, 100, 1, boundedExecutor,
+            Instant.parse("2024-03-02T09:00:00Z"));
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person1);
+        verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person2);
+    }
+
+    @Test
+    void saveWatermarksSkipsFailedEntities() throws InterruptedException, IOException {
+        String endpointBase = "http://localhost:8080/pure/";
+        when(classUnderTest.getPureWsEndpointBase()).thenReturn(endpointBase);
+        doThrow(new RuntimeException("expected")).when(classUnderTest).syncPureItem(any(), any());
+
+        PureWSResultPersonItem person1 = new PureWSResultPersonItem();
+        person1.setModifiedDate("2024-03-03T10:00:00.000+01:00");
+        DSpacePureEntity.PureWSPersonResults persons = mock(DSpacePureEntity.PureWSPersonResults.class);
+        when(persons.getItems()).thenReturn(List.of(person1));
+
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntityPersons =
+            mock(ResponseEntity.class);
+        when(responseEntityPersons.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> persons);
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntityPersons);
+
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 1);
+        Instant lastModifiedDate = classUnderTest.fetchPureEntities(restTemplate, DSpacePureEntity.PERSON, 100, 1,
+            boundedExecutor, null);
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        ImportWatermarkStore watermarkStore = mock(ImportWatermarkStore.class);
+        classUnderTest.saveWatermarks(watermarkStore, Map.of(DSpacePureEntity.PERSON, lastModifiedDate));
+
+        verify(watermarkStore, never()).updateWatermark(any(), any());
+        verify(watermarkStore).save();
+    }
+
+    @Test
+    void fetchPureEntitiesSubmitsBatches() throws InterruptedException {
+        String endpointBase = "http://localhost:8080/pure/";
+        when(classUnderTest.getPureWsEndpointBase()).thenReturn(endpointBase);
+        doNothing().when(classUnderTest).syncPureItems(any(), any());
+
+        PureWSResultPersonItem person1 = new PureWSResultPersonItem();
+        PureWSResultPersonItem person2 = new PureWSResultPersonItem();
+        PureWSResultPersonItem person3 = new PureWSResultPersonItem();
+        DSpacePureEntity.PureWSPersonResults persons = mock(DSpacePureEntity.PureWSPersonResults.class);
+        when(persons.getItems()).thenReturn(List.of(person1, person2, person3));
+
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>> responseEntityPersons =
+            mock(ResponseEntity.class);
+        when(responseEntityPersons.getBody()).thenAnswer(
+            (Answer<? extends PureWSResults<? extends PureWSResultItem>>) invocationOnMock -> persons);
+        when(restTemplate.getForEntity(anyString(), any())).thenAnswer(
+            (Answer<ResponseEntity<? extends PureWSResults<? extends PureWSResultItem>>>) invocationOnMock -> responseEntityPersons);
+
+        BoundedExecutor boundedExecutor = new BoundedExecutor("test", 1, 2);
+        classUnderTest.fetchPureEntities(restTemplate, DSpacePureEntity.PERSON, 100, 2, boundedExecutor, null);
+        boundedExecutor.shutdownAndAwaitTermination();
+
+        verify(classUnderTest).syncPureItems(DSpacePureEntity.PERSON, List.of(person1, person2));
+        verify(classUnderTest).syncPureItems(DSpacePureEntity.PERSON, List.of(person3));
+    }
+
+    @Test
+    void syncPureItemsRetriesFailedBatchItemByItem() throws SQLException, AuthorizeException {
+        try (MockedStatic<CLIScriptContextUtils> mockedUtils = mockStatic(CLIScriptContextUtils.class)) {
+            UUID createdUuid = UUID.randomUUID();
+            PureToDSpace.pureEntityCache.put(DSpacePureEntity.PERSON, new HashMap<>());
+            PureToDSpace.dspaceEntityCache.put(DSpacePureEntity.PERSON, new HashMap<>());
+            doReturn(context).when(classUnderTest).createContext();
+            when(context.isValid()).thenReturn(true);
+            doNothing().when(classUnderTest).replaceMetadataFromPure(any(), any(), any(), any(), any(), any());
+
+            WorkspaceItem workspaceItem = mock(WorkspaceItem.class);
+            when(workspaceItemService.create(any(), any(), eq(false))).thenReturn(workspaceItem);
+            Item createdItem = mock(Item.class);
+            when(createdItem.getID()).thenReturn(UUID.randomUUID(), UUID.randomUUID());
+            when(workspaceItem.getItem()).thenReturn(createdItem);
+
+            PureWSResultPersonItem person1 = mock(PureWSResultPersonItem.class, Mockito.RETURNS_DEEP_STUBS);
+            when(person1.getUuid()).thenReturn(createdUuid);
+            when(person1.getName()).thenReturn(new PersonName());
+            PureWSResultPersonItem person2 = new PureWSResultPersonItem();
+            PureWSResultPersonItem person3 = new PureWSResultPersonItem();
+
+            // person1 is created by the real import within the batch, which then fails on person2
+            lenient().doThrow(new SQLException("expected")).when(classUnderTest)
+                .syncPureItem(eq(context), eq(DSpacePureEntity.PERSON), same(person2), anyMap());
+            lenient().doThrow(new RuntimeException("expected")).when(classUnderTest)
+                .syncPureItem(DSpacePureEntity.PERSON, person2);
+            lenient().doNothing().when(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person3);
+
+            List<PureWSResultItem> batch = List.of(person1, person2, person3);
+            Assertions.assertThrows(RuntimeException.class,
+                () -> classUnderTest.syncPureItems(DSpacePureEntity.PERSON, batch));
+
+            verify(context).abort();
+            verify(classUnderTest, never())
+                .syncPureItem(eq(context), eq(DSpacePureEntity.PERSON), same(person3), anyMap());
+            verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person1);
+            verify(classUnderTest).syncPureItem(DSpacePureEntity.PERSON, person3);
+            // the item created by the rolled back batch has not been published and is created again by the retry
+            verify(workspaceItemService, times(2)).create(any(), any(), eq(false));
+            verify(installItemService, times(2)).installItem(context, workspaceItem);
+            Assertions.assertTrue(PureToDSpace.pureEntityCache.get(DSpacePureEntity.PERSON).containsKey(createdUuid));
+        }
+    }
+
+    @Test
+    void createdItemsArePublishedOnceTheBatchIsCommitted() throws SQLException, AuthorizeException {
+        try (MockedStatic<CLIScriptContextUtils> mockedUtils = mockStatic(CLIScriptContextUtils.class)) {
+            UUID pureUuid = UUID.randomUUID();
+            UUID itemId = UUID.randomUUID();
+            PureToDSpace.pureEntityCache.put(DSpacePureEntity.PERSON, new HashMap<>());
+            PureToDSpace.dspaceEntityCache.put(DSpacePureEntity.PERSON, new HashMap<>());
+            doReturn(context).when(classUnderTest).createContext();
+            doNothing().when(classUnderTest).replaceMetadataFromPure(any(), any(), any(), any(), any(), any());
+            WorkspaceItem workspaceItem = mock(WorkspaceItem.class);
+            when(workspaceItemService.create(any(), any(), eq(false))).thenReturn(workspaceItem);
+            Item createdItem = mock(Item.class);
+            when(createdItem.getID()).thenReturn(itemId);
+            when(workspaceItem.getItem()).thenReturn(createdItem);
+            PureWSResultPersonItem person = mock(PureWSResultPersonItem.class, Mockito.RETURNS_DEEP_STUBS);
+            when(person.getUuid()).thenReturn(pureUuid);
+            when(person.getName()).thenReturn(new PersonName());
+            PureWSResultPersonItem otherPerson = new PureWSResultPersonItem();
+            lenient().doNothing().when(classUnderTest).syncPureItem(eq(context), eq(DSpacePureEntity.PERSON),
+                same(otherPerson), anyMap());
+            mockedUtils.when(() -> CLIScriptContextUtils.closeContext(context)).thenAnswer(invocation -> {
+                // other workers must not find the item before it is committed
+                Assertions.assertFalse(PureToDSpace.pureEntityCache.get(DSpacePureEntity.PERSON).containsKey(pureUuid));
+                return null;
+            });
+
+            classUnderTest.syncPureItems(DSpacePureEntity.PERSON, List.of(person, otherPerson));
+
+            mockedUtils.verify(() -> CLIScriptContextUtils.closeContext(context));
+            Assertions.assertEquals(itemId, PureToDSpace.pureEntityCache.get(DSpacePureEntity.PERSON).get(pureUuid));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void failedCreationIsRethrown() throws SQLException, AuthorizeException {
+        PureToDSpace.pureEntityCache.put(DSpacePureEntity.PERSON, new HashMap<>());
+        SQLException failure = new SQLException("expected");
+        when(workspaceItemService.create(any(), any(), eq(false))).thenThrow(failure);
+        PureWSResultPersonItem person = new PureWSResultPersonItem();
+        person.setUuid(UUID.randomUUID());
+        Map<UUID, UUID> createdItemIds = new HashMap<>();
+
+        Assertions.assertSame(failure, Assertions.assertThrows(SQLException.class,
+            () -> classUnderTest.syncPureItem(context, DSpacePureEntity.PERSON, person, createdItemIds)));
+        Assertions.assertTrue(createdItemIds.isEmpty());
+        verify(itemService, never()).find(any(), any(UUID.class));
+    }
+
+    @Test
+    void prepareDspaceEntityCacheFromDiscovery() throws SearchServiceException {
+        SolrSearchCore solrSearchCore = mock(SolrSearchCore.class);
+        SolrClient solrClient = mock(SolrClient.class);
+        when(dSpaceServicesContainer.getSolrSearchCore()).thenReturn(solrSearchCore);
+        when(solrSearchCore.getSolr()).thenReturn(solrClient);
+        when(configurationService.getProperty("dspace-pure-bridge.import.cache.warmup")).thenReturn("discovery");
+
+        UUID dspaceProjectEntityUuid = UUID.randomUUID();
+        SolrDocument document = new SolrDocument();
+        document.addField("search.resourceid", dspaceProjectEntityUuid.toString());
+        document.addField("dc.title", "project");
+        doAnswer(invocationOnMock -> {
+            invocationOnMock.<Consumer<SolrDocument>>getArgument(3).accept(document);
+            return null;
+        }).when(itemFinder).processAllDocuments(eq(solrClient), eq(SearchQueryType.PROJECT_CACHE_IMPORT),
+            eq(EntityUtils.PROJECT_NAME_ENTITY_HASH_FIELDS), any());
+
+        classUnderTest.prepareDspaceEntityCache(context, DSpacePureEntity.PROJECT, null);
+
+        Assertions.assertEquals(dspaceProjectEntityUuid,
+            PureToDSpace.dspaceEntityCache.get(DSpacePureEntity.PROJECT).get(DigestUtils.sha256Hex("project")));
+        verify(itemFinder, never()).processAllItems(any(), any(), any(), any());
+    }
+
+    @Test
+    void concurrentRequestsCoverThePrefetchedPagesOfAllFetchThreadsAndWorkers() {
+        when(configurationService.hasProperty("dspace-pure-bridge.import.workers")).thenReturn(true);
+        when(configurationService.getIntProperty("dspace-pure-bridge.import.workers")).thenReturn(5);
+        when(configurationService.hasProperty("dspace-pure-bridge.pure.ws.prefetch")).thenReturn(true);
+        when(configurationService.getIntProperty("dspace-pure-bridge.pure.ws.prefetch")).thenReturn(3);
+
+        Assertions.assertEquals((5 + DSpacePureEntity.values().length) * 3,
+            PureToDSpace.getConcurrentRequests(configurationService));
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.solr.common.SolrDocument;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataValue;
 import org.dspace.content.service.ItemService;
@@ -74,4 +75,20 @@ class EntityUtilsTest {
     @Test
     void generateEntityHash() {
     }
-}
\ No newline at end of file
+
+    @Test
+    void generatePersonEntityHashFromSolrDocument() {
+        String lastName = "lastName";
+        String firstName = "firstName";
+        String expected =  DigestUtils.sha256Hex(lastName + firstName);
+
+        SolrDocument document = new SolrDocument();
+        document.addField("person.familyName", lastName);
+        document.addField("person.familyName", "otherLastName");
+        document.addField("person.givenName", firstName);
+        document.addField("person.identifier.orcid", "");
+
+        String result = EntityUtils.generateEntityHash(document, EntityUtils.PERSON_ENTITY_HASH_FIELDS);
+        assertEquals(expected, result);
+    }
+}
@@ -1,25 +1,44 @@
 package de.leuphana.escience.dspacepurebridge.search;
 
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.dspace.content.Item;
 import org.dspace.core.Context;
 import org.dspace.discovery.DiscoverQuery;
+import org.dspace.discovery.DiscoverResult;
 import org.dspace.discovery.SearchService;
 import org.dspace.discovery.SearchServiceException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ItemFinderTest {
@@ -40,7 +59,7 @@ class ItemFinderTest {
         Set<Item> itemSet = new HashSet<>();
         SearchQueryType queryType = mock(SearchQueryType.class);
         ItemProcessor processor = itemSet::add;
-        doReturn(List.of(item1, item2).iterator()).when(itemFinder).findItems(context, searchService, queryType, 0 , 100);
+        doReturn(List.of(item1, item2).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, null, 100);
 
         itemFinder.processAllItems(context, searchService, queryType, processor);
 
@@ -54,15 +73,158 @@ class ItemFinderTest {
         Set<Item> itemSet = new HashSet<>();
         SearchQueryType queryType = mock(SearchQueryType.class);
         ItemProcessor processor = itemSet::add;
-        doReturn(List.of(item1).iterator()).when(itemFinder).findItems(context, searchService, queryType, 0 , 1);
-        doReturn(List.of(item2).iterator()).when(itemFinder).findItems(context, searchService, queryType, 1 , 1);
-        doReturn(Collections.emptyIterator()).when(itemFinder).findItems(context, searchService, queryType, 2 , 1);
+        UUID uuid1 = UUID.randomUUID();
+        UUID uuid2 = UUID.randomUUID();
+        when(item1.getID()).thenReturn(uuid1);
+        when(item2.getID()).thenReturn(uuid2);
+        doReturn(List.of(item1).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, null, 1);
+        doReturn(List.of(item2).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, uuid1.toString(), 1);
+        doReturn(Collections.emptyIterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, uuid2.toString(), 1);
 
-        itemFinder.processAllItems(context, searchService, queryType, processor, 0 , 1);
+        itemFinder.processAllItems(context, searchService, queryType, processor, 1);
 
         assertTrue(itemSet.containsAll(List.of(item1, item2)));
     }
 
+    @Test
+    void testProcessAllItemsWithPageSize() throws SearchServiceException {
+        Item item1 = mock(Item.class);
+        Set<Item> itemSet = new HashSet<>();
+        SearchQueryType queryType = mock(SearchQueryType.class);
+        ItemProcessor processor = itemSet::add;
+        itemFinder.setPageSize(10);
+        doReturn(List.of(item1).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, null, 10);
+
+        itemFinder.processAllItems(context, searchService, queryType, processor);
+
+        assertTrue(itemSet.contains(item1));
+        assertThrows(IllegalArgumentException.class, () -> itemFinder.setPageSize(0));
+    }
+
+    @Test
+    void streamItemsFetchesLazilyAndUncachesItems() throws SearchServiceException, SQLException {
+        Item item1 = mock(Item.class);
+        Item item2 = mock(Item.class);
+        UUID uuid1 = UUID.randomUUID();
+        when(item1.getID()).thenReturn(uuid1);
+        SearchQueryType queryType = mock(SearchQueryType.class);
+        itemFinder.setPageSize(1);
+        doReturn(List.of(item1).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, null, 1);
+        doReturn(List.of(item2).iterator()).when(itemFinder).findItemsAfter(context, searchService, queryType, uuid1.toString(), 1);
+
+        List<Item> items = new ArrayList<>();
+        try (Stream<Item> itemStream = itemFinder.streamItems(context, searchService, queryType)) {
+            itemStream.limit(2).forEach(item -> {
+                items.add(item);
+                try {
+                    verify(context, never()).uncacheEntity(item);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        assertEquals(List.of(item1, item2), items);
+        verify(context).uncacheEntity(item1);
+        verify(context).uncacheEntity(item2);
+    }
+
+    @Test
+    void processAllItemsUnwrapsSearchServiceException() throws SearchServiceException {
+        SearchQueryType queryType = mock(SearchQueryType.class);
+        doThrow(new SearchServiceException("expected")).when(itemFinder).findItemsAfter(context, searchService, queryType, null, 100);
+
+        assertThrows(SearchServiceException.class,
+                () -> itemFinder.processAllItems(context, searchService, queryType, item -> {
+                }));
+    }
+
+    @Test
+    void findItemsAfterSeeksBehindLastResourceId() throws SearchServiceException {
+        DiscoverResult discoverResult = mock(DiscoverResult.class);
+        when(discoverResult.getIndexableObjects()).thenReturn(Collections.emptyList());
+        ArgumentCaptor<DiscoverQuery> discoverQueryCaptor = ArgumentCaptor.forClass(DiscoverQuery.class);
+        when(searchService.search(eq(context), discoverQueryCaptor.capture())).thenReturn(discoverResult);
+
+        itemFinder.findItemsAfter(context, searchService, SearchQueryType.PUBLICATION_EXPORT, "a0b1", 5);
+
+        DiscoverQuery discoverQuery = discoverQueryCaptor.getValue();
+        assertEquals(0, discoverQuery.getStart());
+        assertEquals(5, discoverQuery.getMaxResults());
+        assertEquals(List.of(SearchQueryType.PUBLICATION_EXPORT.getFilter(), "search.resourceid:{\"a0b1\" TO *]"),
+                discoverQuery.getFilterQueries());
+    }
+
+    @Test
+    void findItemsAfterAppliesAdditionalFilterQueries() throws SearchServiceException {
+        DiscoverResult discoverResult = mock(DiscoverResult.class);
+        when(discoverResult.getIndexableObjects()).thenReturn(Collections.emptyList());
+        ArgumentCaptor<DiscoverQuery> discoverQueryCaptor = ArgumentCaptor.forClass(DiscoverQuery.class);
+        when(searchService.search(eq(context), discoverQueryCaptor.capture())).thenReturn(discoverResult);
+        itemFinder.setAdditionalFilterQueries(SearchQueryType.PUBLICATION_EXPORT, List.of("dc.type:(\"Dissertation\")"));
+
+        itemFinder.findItemsAfter(context, searchService, SearchQueryType.PUBLICATION_EXPORT, null, 5);
+        itemFinder.findItemsAfter(context, searchService, SearchQueryType.ORGANIZATION_CACHE_EXPORT, null, 5);
+
+        assertEquals(List.of(SearchQueryType.PUBLICATION_EXPORT.getFilter(), "dc.type:(\"Dissertation\")"),
+                discoverQueryCaptor.getAllValues().get(0).getFilterQueries());
+        assertEquals(List.of(SearchQueryType.ORGANIZATION_CACHE_EXPORT.getFilter()),
+                discoverQueryCaptor.getAllValues().get(1).getFilterQueries());
+    }
+
+    @Test
+    void processAllDocumentsPagesByResourceId() throws Exception {
+        SolrClient solrClient = mock(SolrClient.class);
+        SolrDocument document1 = new SolrDocument();
+        document1.addField("search.resourceid", "a");
+        SolrDocument document2 = new SolrDocument();
+        document2.addField("search.resourceid", "b");
+        SolrDocumentList page1 = new SolrDocumentList();
+        page1.addAll(List.of(document1, document2));
+        QueryResponse response1 = mock(QueryResponse.class);
+        when(response1.getResults()).thenReturn(page1);
+        QueryResponse response2 = mock(QueryResponse.class);
+        when(response2.getResults()).thenReturn(new SolrDocumentList());
+        ArgumentCaptor<SolrQuery> solrQueryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        when(solrClient.query(solrQueryCaptor.capture())).thenReturn(response1, response2);
+        itemFinder.setPageSize(2);
+
+        List<SolrDocument> documents = new ArrayList<>();
+        itemFinder.processAllDocuments(solrClient, SearchQueryType.PERSON_CACHE_IMPORT, List.of("person.familyName"), documents::add);
+
+        assertEquals(List.of(document1, document2), documents);
+        SolrQuery firstQuery = solrQueryCaptor.getAllValues().get(0);
+        assertEquals("search.entitytype:Person", firstQuery.getQuery());
+        assertEquals("search.resourceid,person.familyName", firstQuery.getFields());
+        assertEquals(List.of("search.resourcetype:Item"), List.of(firstQuery.getFilterQueries()));
+        SolrQuery secondQuery = solrQueryCaptor.getAllValues().get(1);
+        assertEquals(List.of("search.resourcetype:Item", "search.resourceid:{\"b\" TO *]"),
+                List.of(secondQuery.getFilterQueries()));
+    }
+
+    @Test
+    void findMarkerReadsCountAndLastModified() throws Exception {
+        SolrClient solrClient = mock(SolrClient.class);
+        SolrDocument document = new SolrDocument();
+        document.addField("lastModified", Date.from(Instant.parse("2024-03-03T09:00:00Z")));
+        SolrDocumentList documents = new SolrDocumentList();
+        documents.add(document);
+        documents.setNumFound(42);
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(documents);
+        ArgumentCaptor<SolrQuery> solrQueryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        when(solrClient.query(solrQueryCaptor.capture())).thenReturn(response);
+
+        DiscoveryMarker marker = itemFinder.findMarker(solrClient, "*:*", List.of("location.coll:abc"));
+
+        assertEquals(new DiscoveryMarker(42, Instant.parse("2024-03-03T09:00:00Z")), marker);
+        assertEquals(1, solrQueryCaptor.getValue().getRows());
+        assertEquals(List.of("search.resourcetype:Item", "location.coll:abc"),
+                List.of(solrQueryCaptor.getValue().getFilterQueries()));
+        assertEquals("lastModified:[2024-03-03T09:00:00Z TO *]",
+                ItemFinder.buildModifiedSinceFilter(Instant.parse("2024-03-03T09:00:00Z")));
+    }
+
     @Test
     void buildDiscoveryQueryWithFilter() {
         DiscoverQuery discoverQuery = itemFinder.buildDiscoveryQuery("field:value", "filter:xy", 1, 2);